@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Benchmarks the anonymous and inner class passes, and the symbol table
+ * updates they make, on a generated class whose methods each declare
+ * anonymous classes nested to a given depth.  The corpus has few anonymous
+ * classes, so it doesn't exercise these passes much.
+ */
+@State(Scope.Thread)
+public class AnonymousClassBenchmark {
+
+  private static final int METHODS = 100;
+
+  /**
+   * How deeply the anonymous classes of each method are nested.
+   */
+  @Param({ "1", "3" })
+  public int depth;
+
+  @Param({ "ANONYMOUS_CLASS_CONVERTER", "INNER_CLASS_EXTRACTOR" })
+  public Pass pass;
+
+  private File outputDirectory;
+  private String source;
+  private CompilationUnit unit;
+
+  @Setup(Level.Trial)
+  public void generateSource() throws IOException {
+    outputDirectory = Corpus.createOutputDirectory();
+    Corpus.initialize(outputDirectory);
+    source = generate(METHODS, depth);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDownCorpus() {
+    Corpus.delete(outputDirectory);
+  }
+
+  @Setup(Level.Invocation)
+  public void prepareUnit() {
+    unit = J2ObjC.parse("Listeners.java", source);
+    J2ObjC.initializeTranslation(unit);
+    pass.runPrevious(unit);
+  }
+
+  @TearDown(Level.Invocation)
+  public void releaseUnit() {
+    FileBenchmark.cleanupTranslation();
+    unit = null;
+  }
+
+  @Benchmark
+  public CompilationUnit runPass() {
+    pass.run(unit);
+    return unit;
+  }
+
+  /**
+   * Returns the source of a class with a number of methods, each of which
+   * registers a listener whose anonymous classes capture variables of their
+   * enclosing methods and classes.
+   */
+  static String generate(int methods, int depth) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("import java.util.ArrayList;\n");
+    sb.append("import java.util.List;\n\n");
+    sb.append("public class Listeners {\n");
+    sb.append("  interface Listener { int onEvent(int id, String name); }\n");
+    sb.append("  private final List<Listener> listeners = new ArrayList<Listener>();\n");
+    sb.append("  private int count;\n");
+    for (int i = 0; i < methods; i++) {
+      sb.append("\n  public void register").append(i).append("(final int limit) {\n");
+      sb.append("    listeners.add(");
+      appendListener(sb, i, depth, "    ");
+      sb.append(");\n  }\n");
+    }
+    sb.append("}\n");
+    return sb.toString();
+  }
+
+  private static void appendListener(StringBuilder sb, int method, int depth, String indent) {
+    sb.append("new Listener() {\n");
+    sb.append(indent).append("  private int seen;\n");
+    sb.append(indent).append("  public int onEvent(final int id, final String name) {\n");
+    sb.append(indent).append("    for (int i = 0; i < limit; i++) {\n");
+    sb.append(indent).append("      seen += name.length() + i;\n");
+    sb.append(indent).append("      count++;\n");
+    sb.append(indent).append("    }\n");
+    if (depth > 1) {
+      sb.append(indent).append("    Listener inner = ");
+      appendListener(sb, method, depth - 1, indent + "    ");
+      sb.append(";\n");
+      sb.append(indent).append("    return inner.onEvent(id + seen, name);\n");
+    } else {
+      sb.append(indent).append("    return id + seen + ").append(method).append(";\n");
+    }
+    sb.append(indent).append("  }\n");
+    sb.append(indent).append("}");
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks initializing and translating a parsed unit, with its bindings
+ * mapped before translation or resolved when they are used (-p
+ * lazyBindings=false or true).  Run with "-prof gc" to compare the memory
+ * allocated per translation.  The unit is parsed before each invocation.
+ */
+public class BindingsBenchmark extends FileBenchmark {
+
+  /**
+   * Whether the unit's bindings are resolved lazily.
+   */
+  @Param({ "false", "true" })
+  public boolean lazyBindings;
+
+  private CompilationUnit unit;
+
+  @Setup(Level.Trial)
+  public void setLazyBindings() {
+    Options.setLazyBindings(lazyBindings);
+  }
+
+  @TearDown(Level.Trial)
+  public void resetLazyBindings() {
+    Options.setLazyBindings(false);
+  }
+
+  @Setup(Level.Invocation)
+  public void parseUnit() {
+    unit = J2ObjC.parse(path, source);
+  }
+
+  @TearDown(Level.Invocation)
+  public void releaseUnit() {
+    cleanupTranslation();
+    unit = null;
+  }
+
+  @Benchmark
+  public CompilationUnit translate() {
+    J2ObjC.initializeTranslation(unit);
+    J2ObjC.translate(unit, source);
+    return unit;
+  }
+}
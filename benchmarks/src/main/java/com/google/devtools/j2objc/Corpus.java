@@ -0,0 +1,151 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The benchmark corpus: the Apache Harmony luni, math and nio sources that
+ * jre_emul is translated from.  The corpus is found relative to the j2objc
+ * project directory, which is specified by the "j2objc.root" system
+ * property, and defaults to the working directory's parent.
+ */
+class Corpus {
+
+  // Files benchmarked by default: a small and a large collection class,
+  // and the largest math and nio classes.
+  static final String ARRAY_LIST = "java/util/ArrayList.java";
+  static final String COLLECTIONS = "java/util/Collections.java";
+  static final String BIG_INTEGER = "java/math/BigInteger.java";
+  static final String CHAR_BUFFER = "java/nio/CharBuffer.java";
+
+  private static final String ROOT_PROPERTY = "j2objc.root";
+  private static final String HARMONY = "jre_emul/apache_harmony/classlib/modules/";
+
+  private static final String[] SOURCE_ROOTS = {
+    HARMONY + "luni/src/main/java",
+    HARMONY + "math/src/main/java",
+    HARMONY + "nio/src/main/java/common",
+  };
+
+  // The other roots of the jre_emul sourcepath (see jre_emul/environment.mk).
+  private static final String[] DEPENDENCY_ROOTS = {
+    HARMONY + "annotation/src/main/java",
+    HARMONY + "concurrent/src/main/java",
+    HARMONY + "luni-kernel/src/main/java",
+    "jre_emul/android/libcore/luni/src/main/java",
+    "jre_emul/Classes",
+    "src/main/java",
+  };
+
+  private static File getRoot() {
+    return new File(System.getProperty(ROOT_PROPERTY, "..")).getAbsoluteFile();
+  }
+
+  private static String getSourcePath() {
+    List<String> entries = Lists.newArrayList();
+    for (String root : SOURCE_ROOTS) {
+      entries.add(new File(getRoot(), root).getPath());
+    }
+    for (String root : DEPENDENCY_ROOTS) {
+      entries.add(new File(getRoot(), root).getPath());
+    }
+    return Joiner.on(':').join(entries);
+  }
+
+  /**
+   * Returns the translator options used by all benchmarks.
+   */
+  static List<String> getOptions(File outputDirectory) {
+    return Lists.newArrayList(
+        "-q", "-d", outputDirectory.getPath(), "-sourcepath", getSourcePath());
+  }
+
+  /**
+   * Resets the translator's options to those used by all benchmarks, and
+   * loads its method mappings, as J2ObjC.run() does before translating.
+   */
+  static void initialize(File outputDirectory) throws IOException {
+    Options.reset();
+    Options.load(getOptions(outputDirectory).toArray(new String[0]));
+    J2ObjC.loadMappingFiles();
+  }
+
+  /**
+   * Returns a corpus file, given its path relative to its source root.
+   */
+  static File find(String path) {
+    for (String root : SOURCE_ROOTS) {
+      File f = new File(new File(getRoot(), root), path);
+      if (f.isFile()) {
+        return f;
+      }
+    }
+    throw new IllegalArgumentException("not in corpus: " + path
+        + " (is -D" + ROOT_PROPERTY + " set to the j2objc directory?)");
+  }
+
+  /**
+   * Returns all corpus files, in a fixed order.
+   */
+  static List<File> getFiles() {
+    List<File> files = Lists.newArrayList();
+    for (String root : SOURCE_ROOTS) {
+      addSources(new File(getRoot(), root), files);
+    }
+    Collections.sort(files);
+    return files;
+  }
+
+  private static void addSources(File dir, List<File> files) {
+    File[] children = dir.listFiles();
+    if (children == null) {
+      throw new IllegalArgumentException("corpus directory not found: " + dir);
+    }
+    for (File f : children) {
+      if (f.isDirectory()) {
+        addSources(f, files);
+      } else if (f.getName().endsWith(".java")) {
+        files.add(f);
+      }
+    }
+  }
+
+  static String read(File f) throws IOException {
+    return Files.toString(f, Charset.defaultCharset());
+  }
+
+  static File createOutputDirectory() {
+    return Files.createTempDir();
+  }
+
+  static void delete(File f) {
+    File[] children = f.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    f.delete();
+  }
+}
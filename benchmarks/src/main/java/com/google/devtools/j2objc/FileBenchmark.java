@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import com.google.devtools.j2objc.sym.Symbols;
+import com.google.devtools.j2objc.types.Types;
+import com.google.devtools.j2objc.util.NameTable;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class of the benchmarks run on one corpus file at a time.
+ *
+ * <p>By default, benchmarks measure a warm translator: the average time of
+ * an operation after warmup iterations in the same JVM.  Their "cold"
+ * variants override this to measure the operation once per fresh JVM, so
+ * they include class loading and interpretation before the JIT compiles
+ * the translator.  The iteration and fork counts are fixed, so that
+ * results can be compared between commits.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(2)
+public abstract class FileBenchmark {
+
+  /**
+   * The corpus file, relative to its source root.
+   */
+  @Param({ Corpus.ARRAY_LIST, Corpus.COLLECTIONS, Corpus.BIG_INTEGER, Corpus.CHAR_BUFFER })
+  public String file;
+
+  protected File outputDirectory;
+  protected String path;
+  protected String source;
+
+  @Setup(Level.Trial)
+  public void setUpCorpus() throws IOException {
+    outputDirectory = Corpus.createOutputDirectory();
+    Corpus.initialize(outputDirectory);
+    File f = Corpus.find(file);
+    path = f.getPath();
+    source = Corpus.read(f);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDownCorpus() {
+    Corpus.delete(outputDirectory);
+  }
+
+  /**
+   * Releases the per-unit state created by J2ObjC.initializeTranslation().
+   */
+  protected static void cleanupTranslation() {
+    NameTable.cleanup();
+    Symbols.cleanup();
+    Types.cleanup();
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import com.google.devtools.j2objc.gen.ObjectiveCHeaderGenerator;
+import com.google.devtools.j2objc.gen.ObjectiveCImplementationGenerator;
+import com.google.devtools.j2objc.util.NameTable;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks generating a translated unit's header and implementation
+ * files, with and without the session's name cache, so its effect on the
+ * generators can be compared in one run.  The unit is translated once per
+ * trial.
+ */
+public class GeneratorBenchmark extends FileBenchmark {
+
+  /**
+   * Whether NameTable caches the names of library types.
+   */
+  @Param({ "true", "false" })
+  public boolean nameCache;
+
+  private CompilationUnit unit;
+
+  @Setup(Level.Trial)
+  public void translateUnit() {
+    NameTable.resetNameCache();
+    NameTable.setNameCacheEnabled(nameCache);
+    unit = J2ObjC.parse(path, source);
+    J2ObjC.initializeTranslation(unit);
+    J2ObjC.translate(unit, source);
+  }
+
+  @TearDown(Level.Trial)
+  public void releaseUnit() {
+    cleanupTranslation();
+    NameTable.setNameCacheEnabled(true);
+  }
+
+  @Benchmark
+  public void generate() {
+    generateFiles();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 0)
+  @Measurement(iterations = 1)
+  @Fork(10)
+  public void generateCold() {
+    generateFiles();
+  }
+
+  private void generateFiles() {
+    ObjectiveCHeaderGenerator.generate(path, source, unit);
+    ObjectiveCImplementationGenerator.generate(path, Options.getLanguage(), unit, source);
+  }
+}
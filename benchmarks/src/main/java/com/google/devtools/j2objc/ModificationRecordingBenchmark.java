@@ -0,0 +1,63 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks initializing and translating a parsed unit with and without
+ * recording its modifications and rewriting its source, which are only
+ * done when the converted sources are printed.  The unit is parsed before
+ * each invocation.
+ */
+public class ModificationRecordingBenchmark extends FileBenchmark {
+
+  @Param({ "false", "true" })
+  public boolean printConvertedSources;
+
+  private CompilationUnit unit;
+
+  @Setup(Level.Trial)
+  public void setPrintConvertedSources() {
+    Options.setPrintConvertedSources(printConvertedSources);
+  }
+
+  @TearDown(Level.Trial)
+  public void resetPrintConvertedSources() {
+    Options.setPrintConvertedSources(false);
+  }
+
+  @Setup(Level.Invocation)
+  public void parseUnit() {
+    unit = J2ObjC.parse(path, source);
+  }
+
+  @TearDown(Level.Invocation)
+  public void releaseUnit() {
+    cleanupTranslation();
+    unit = null;
+  }
+
+  @Benchmark
+  public String translate() {
+    J2ObjC.initializeTranslation(unit);
+    return J2ObjC.translate(unit, source);
+  }
+}
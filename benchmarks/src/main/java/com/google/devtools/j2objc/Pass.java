@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import com.google.devtools.j2objc.translate.AnonymousClassConverter;
+import com.google.devtools.j2objc.translate.Autoboxer;
+import com.google.devtools.j2objc.translate.DestructorGenerator;
+import com.google.devtools.j2objc.translate.GwtConverter;
+import com.google.devtools.j2objc.translate.InitializationNormalizer;
+import com.google.devtools.j2objc.translate.InnerClassExtractor;
+import com.google.devtools.j2objc.translate.JavaToIOSMethodTranslator;
+import com.google.devtools.j2objc.translate.JavaToIOSTypeConverter;
+import com.google.devtools.j2objc.translate.NilCheckResolver;
+import com.google.devtools.j2objc.translate.Rewriter;
+import com.google.devtools.j2objc.types.Types;
+import com.google.devtools.j2objc.wrapper.Renamer;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+/**
+ * The translation passes, in the order J2ObjC.translate() runs them.
+ * Keep this list in sync with that method.
+ */
+public enum Pass {
+  GWT_CONVERTER {
+    @Override
+    void run(CompilationUnit unit) {
+      new GwtConverter().run(unit);
+    }
+  },
+  REWRITER {
+    @Override
+    void run(CompilationUnit unit) {
+      new Rewriter().run(unit);
+    }
+  },
+  RENAMER {
+    @Override
+    void run(CompilationUnit unit) {
+      new Renamer().run(unit);
+    }
+  },
+  AUTOBOXER {
+    @Override
+    void run(CompilationUnit unit) {
+      new Autoboxer(unit.getAST()).run(unit);
+    }
+  },
+  ANONYMOUS_CLASS_CONVERTER {
+    @Override
+    void run(CompilationUnit unit) {
+      new AnonymousClassConverter(unit).run(unit);
+    }
+  },
+  INNER_CLASS_EXTRACTOR {
+    @Override
+    void run(CompilationUnit unit) {
+      new InnerClassExtractor(unit).run(unit);
+    }
+  },
+  INITIALIZATION_NORMALIZER {
+    @Override
+    void run(CompilationUnit unit) {
+      new InitializationNormalizer().run(unit);
+    }
+  },
+  JAVA_TO_IOS_TYPE_CONVERTER {
+    @Override
+    void run(CompilationUnit unit) {
+      new JavaToIOSTypeConverter().run(unit);
+    }
+  },
+  JAVA_TO_IOS_METHOD_TRANSLATOR {
+    @Override
+    void run(CompilationUnit unit) {
+      new JavaToIOSMethodTranslator(unit, Options.getMethodMappings()).run(unit);
+    }
+  },
+  DESTRUCTOR_GENERATOR {
+    @Override
+    void run(CompilationUnit unit) {
+      new DestructorGenerator().run(unit);
+    }
+  },
+  VERIFY_NODE {
+    @Override
+    void run(CompilationUnit unit) {
+      Types.verifyNode(unit);
+    }
+  },
+  NIL_CHECK_RESOLVER {
+    @Override
+    void run(CompilationUnit unit) {
+      new NilCheckResolver().run(unit);
+    }
+  };
+
+  abstract void run(CompilationUnit unit);
+
+  /**
+   * Runs the passes that precede this one.
+   */
+  void runPrevious(CompilationUnit unit) {
+    for (Pass pass : values()) {
+      if (pass == this) {
+        return;
+      }
+      pass.run(unit);
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks each translation pass.  As the passes modify the unit, it is
+ * parsed and run through the preceding passes before each invocation,
+ * outside of the measured time.
+ */
+public class PassBenchmark extends FileBenchmark {
+
+  @Param
+  public Pass pass;
+
+  private CompilationUnit unit;
+
+  @Setup(Level.Invocation)
+  public void prepareUnit() {
+    unit = J2ObjC.parse(path, source);
+    J2ObjC.initializeTranslation(unit);
+    pass.runPrevious(unit);
+  }
+
+  @TearDown(Level.Invocation)
+  public void releaseUnit() {
+    cleanupTranslation();
+    unit = null;
+  }
+
+  @Benchmark
+  public CompilationUnit runPass() {
+    pass.run(unit);
+    return unit;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 0)
+  @Measurement(iterations = 1)
+  @Fork(10)
+  public CompilationUnit runPassCold() {
+    pass.run(unit);
+    return unit;
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import com.google.common.collect.Lists;
+import com.google.devtools.j2objc.gen.HiddenFieldDetector;
+import com.google.devtools.j2objc.gen.SourcePosition;
+import com.google.devtools.j2objc.gen.StatementGenerator;
+
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Benchmarks generating the Objective-C statements of every method body in
+ * a translated unit.  StatementGenerator doesn't modify the unit, so it is
+ * translated once per trial.
+ */
+public class StatementGeneratorBenchmark extends FileBenchmark {
+
+  private CompilationUnit unit;
+  private Set<IVariableBinding> fieldHiders;
+  private final List<Block> bodies = Lists.newArrayList();
+
+  @Setup(Level.Trial)
+  public void translateUnit() {
+    unit = J2ObjC.parse(path, source);
+    J2ObjC.initializeTranslation(unit);
+    J2ObjC.translate(unit, source);
+    fieldHiders = HiddenFieldDetector.getFieldNameConflicts(unit);
+    unit.accept(new ASTVisitor() {
+      @Override
+      public boolean visit(MethodDeclaration node) {
+        if (node.getBody() != null) {
+          bodies.add(node.getBody());
+        }
+        return true;
+      }
+    });
+  }
+
+  @TearDown(Level.Trial)
+  public void releaseUnit() {
+    cleanupTranslation();
+    bodies.clear();
+  }
+
+  @Benchmark
+  public void generateStatements(Blackhole blackhole) {
+    generate(blackhole);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 0)
+  @Measurement(iterations = 1)
+  @Fork(10)
+  public void generateStatementsCold(Blackhole blackhole) {
+    generate(blackhole);
+  }
+
+  private void generate(Blackhole blackhole) {
+    for (Block body : bodies) {
+      SourcePosition position =
+          new SourcePosition(path, unit.getLineNumber(body.getStartPosition()), source);
+      blackhole.consume(StatementGenerator.generate(body, fieldHiders, false, position));
+    }
+  }
+}
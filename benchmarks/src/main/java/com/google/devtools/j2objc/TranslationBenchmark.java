@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks end-to-end translation, as run from the command line: parsing,
+ * translation and writing the generated files.
+ */
+public class TranslationBenchmark extends FileBenchmark {
+
+  @Benchmark
+  public int translateFile() {
+    return translate(path);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 0)
+  @Measurement(iterations = 1)
+  @Fork(10)
+  public int translateFileCold() {
+    return translate(path);
+  }
+
+  /**
+   * Benchmarks translating the whole corpus.
+   */
+  @State(Scope.Thread)
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public static class Whole {
+    private File outputDirectory;
+    private String[] paths;
+
+    @Setup(Level.Trial)
+    public void setUpCorpus() throws IOException {
+      outputDirectory = Corpus.createOutputDirectory();
+      List<File> files = Corpus.getFiles();
+      paths = new String[files.size()];
+      for (int i = 0; i < paths.length; i++) {
+        paths[i] = files.get(i).getPath();
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownCorpus() {
+      Corpus.delete(outputDirectory);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    @Fork(1)
+    public int translateCorpus() {
+      return translate(outputDirectory, paths);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(3)
+    public int translateCorpusCold() {
+      return translate(outputDirectory, paths);
+    }
+  }
+
+  private int translate(String filePath) {
+    return translate(outputDirectory, filePath);
+  }
+
+  /**
+   * Translates files as the command line does.
+   *
+   * @return the number of errors reported, which is only returned to keep
+   *     the benchmark from being optimized away
+   */
+  private static int translate(File outputDirectory, String... paths) {
+    List<String> args = Corpus.getOptions(outputDirectory);
+    for (String path : paths) {
+      args.add(path);
+    }
+    Options.reset();
+    return J2ObjC.run(args.toArray(new String[0]));
+  }
+}
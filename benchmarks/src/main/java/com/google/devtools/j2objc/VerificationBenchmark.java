@@ -0,0 +1,63 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks initializing and translating a parsed unit at each binding
+ * verification level, so the cost of verifying can be compared with the
+ * translation it checks.  The unit is parsed before each invocation.
+ */
+public class VerificationBenchmark extends FileBenchmark {
+
+  @Param({ "OFF", "FINAL", "ALL_PASSES" })
+  public Options.VerificationLevel level;
+
+  private CompilationUnit unit;
+
+  @Setup(Level.Trial)
+  public void setVerificationLevel() {
+    Options.setVerificationLevel(level);
+  }
+
+  @TearDown(Level.Trial)
+  public void resetVerificationLevel() {
+    Options.setVerificationLevel(Options.VerificationLevel.FINAL);
+  }
+
+  @Setup(Level.Invocation)
+  public void parseUnit() {
+    unit = J2ObjC.parse(path, source);
+  }
+
+  @TearDown(Level.Invocation)
+  public void releaseUnit() {
+    cleanupTranslation();
+    unit = null;
+  }
+
+  @Benchmark
+  public CompilationUnit translate() {
+    J2ObjC.initializeTranslation(unit);
+    J2ObjC.translate(unit, source);
+    return unit;
+  }
+}
@@ -31,6 +31,9 @@
 @interface IOSArray : NSObject < NSCopying > {
  @protected
   NSUInteger size_;
+  // YES if the elements' buffer belongs to the array's creator, which
+  // keeps it alive.  The array doesn't free it.
+  BOOL borrowsBuffer_;
 }
 
 // Initializes this array with a specified array size.
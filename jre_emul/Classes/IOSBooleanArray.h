@@ -32,6 +32,12 @@
 - (id)initWithBooleans:(const BOOL *)booleans count:(NSUInteger)count;
 + (id)arrayWithBooleans:(const BOOL *)booleans count:(NSUInteger)count;
 
+// Create an array whose elements are a C BOOL array, which isn't copied.
+// The array neither frees nor writes the C array, which must outlive it;
+// the translator uses this for constant arrays whose elements are never
+// written.
++ (id)arrayWithNoCopyBooleans:(const BOOL *)booleans count:(NSUInteger)count;
+
 // Return boolean at a specified index, throws IndexOutOfBoundsException
 // if out out range.
 - (BOOL)booleanAtIndex:(NSUInteger)index;
@@ -45,5 +51,9 @@
 // is greater than the array size.
 - (void)getBooleans:(BOOL *)buffer length:(NSUInteger)length;
 
+// Returns the array's elements.  Accesses through the returned pointer are
+// not range checked, so callers must check their indexes.
+- (BOOL *)booleanBuffer;
+
 @end
 
@@ -51,6 +51,23 @@
 #endif
 }
 
+- (id)initWithNoCopyBooleans:(const BOOL *)booleans count:(NSUInteger)count {
+  // IOSArray's initializer, which doesn't allocate a buffer.
+  if ((self = [super initWithLength:count])) {
+    buffer_ = (BOOL *) booleans;
+    borrowsBuffer_ = YES;
+  }
+  return self;
+}
+
++ (id)arrayWithNoCopyBooleans:(const BOOL *)booleans count:(NSUInteger)count {
+  id array = [[IOSBooleanArray alloc] initWithNoCopyBooleans:booleans count:count];
+#if ! __has_feature(objc_arc)
+  [array autorelease];
+#endif
+  return array;
+}
+
 - (BOOL)booleanAtIndex:(NSUInteger)index {
   IOSArray_checkIndex(self, index);
   return buffer_[index];
@@ -98,9 +115,15 @@
 
 #if ! __has_feature(objc_arc)
 - (void)dealloc {
-  free(buffer_);
+  if (!borrowsBuffer_) {
+    free(buffer_);
+  }
   [super dealloc];
 }
 #endif
 
+- (BOOL *)booleanBuffer {
+  return buffer_;
+}
+
 @end
@@ -35,6 +35,12 @@
 - (id)initWithBytes:(const char *)ints count:(NSUInteger)count;
 + (id)arrayWithBytes:(const char *)ints count:(NSUInteger)count;
 
+// Create an array whose elements are a C char array, which isn't copied.
+// The array neither frees nor writes the C array, which must outlive it;
+// the translator uses this for constant arrays whose elements are never
+// written.
++ (id)arrayWithNoCopyBytes:(const char *)bytes count:(NSUInteger)count;
+
 // Return byte at a specified index, throws IndexOutOfBoundsException
 // if out out range.
 - (char)byteAtIndex:(NSUInteger)index;
@@ -73,6 +79,10 @@
 // underlying data.
 - (NSData *)toNSData;
 
+// Returns the array's elements.  Accesses through the returned pointer are
+// not range checked, so callers must check their indexes.
+- (char *)byteBuffer;
+
 @end
 
 #endif // _IOSBYTEARRAY_H
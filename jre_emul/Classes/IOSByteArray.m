@@ -50,6 +50,23 @@
 #endif
 }
 
+- (id)initWithNoCopyBytes:(const char *)bytes count:(NSUInteger)count {
+  // IOSArray's initializer, which doesn't allocate a buffer.
+  if ((self = [super initWithLength:count])) {
+    buffer_ = (char *) bytes;
+    borrowsBuffer_ = YES;
+  }
+  return self;
+}
+
++ (id)arrayWithNoCopyBytes:(const char *)bytes count:(NSUInteger)count {
+  id array = [[IOSByteArray alloc] initWithNoCopyBytes:bytes count:count];
+#if ! __has_feature(objc_arc)
+  [array autorelease];
+#endif
+  return array;
+}
+
 - (char)byteAtIndex:(NSUInteger)index {
   IOSArray_checkIndex(self, index);
   return buffer_[index];
@@ -130,9 +147,15 @@
 
 #if ! __has_feature(objc_arc)
 - (void)dealloc {
-  free(buffer_);
+  if (!borrowsBuffer_) {
+    free(buffer_);
+  }
   [super dealloc];
 }
 #endif
 
+- (char *)byteBuffer {
+  return buffer_;
+}
+
 @end
@@ -35,6 +35,12 @@
 - (id)initWithCharacters:(const unichar *)chars count:(NSUInteger)count;
 + (id)arrayWithCharacters:(const unichar *)chars count:(NSUInteger)count;
 
+// Create an array whose elements are a C unichar array, which isn't copied.
+// The array neither frees nor writes the C array, which must outlive it;
+// the translator uses this for constant arrays whose elements are never
+// written.
++ (id)arrayWithNoCopyCharacters:(const unichar *)chars count:(NSUInteger)count;
+
 // Return char at a specified index, throws IndexOutOfBoundsException
 // if out out range;
 - (unichar)charAtIndex:(NSUInteger)index;
@@ -65,6 +71,10 @@
 // operator.
 - (unichar)postDecr:(NSUInteger)index;
 
+// Returns the array's elements.  Accesses through the returned pointer are
+// not range checked, so callers must check their indexes.
+- (unichar *)charBuffer;
+
 @end
 
 #endif // _IOSCHARARRAY_H
@@ -50,6 +50,23 @@
 #endif
 }
 
+- (id)initWithNoCopyCharacters:(const unichar *)chars count:(NSUInteger)count {
+  // IOSArray's initializer, which doesn't allocate a buffer.
+  if ((self = [super initWithLength:count])) {
+    buffer_ = (unichar *) chars;
+    borrowsBuffer_ = YES;
+  }
+  return self;
+}
+
++ (id)arrayWithNoCopyCharacters:(const unichar *)chars count:(NSUInteger)count {
+  id array = [[IOSCharArray alloc] initWithNoCopyCharacters:chars count:count];
+#if ! __has_feature(objc_arc)
+  [array autorelease];
+#endif
+  return array;
+}
+
 - (unichar)charAtIndex:(NSUInteger)index {
   IOSArray_checkIndex(self, index);
   return buffer_[index];
@@ -123,9 +140,15 @@
 
 #if ! __has_feature(objc_arc)
 - (void)dealloc {
-  free(buffer_);
+  if (!borrowsBuffer_) {
+    free(buffer_);
+  }
   [super dealloc];
 }
 #endif
 
+- (unichar *)charBuffer {
+  return buffer_;
+}
+
 @end
@@ -32,6 +32,12 @@
 - (id)initWithDoubles:(const double *)doubles count:(NSUInteger)count;
 + (id)arrayWithDoubles:(const double *)doubles count:(NSUInteger)count;
 
+// Create an array whose elements are a C double array, which isn't copied.
+// The array neither frees nor writes the C array, which must outlive it;
+// the translator uses this for constant arrays whose elements are never
+// written.
++ (id)arrayWithNoCopyDoubles:(const double *)doubles count:(NSUInteger)count;
+
 // Return double at a specified index, throws IndexOutOfBoundsException
 // if out out range.
 - (double)doubleAtIndex:(NSUInteger)index;
@@ -59,5 +65,9 @@
 // operator.
 - (double)postDecr:(NSUInteger)index;
 
+// Returns the array's elements.  Accesses through the returned pointer are
+// not range checked, so callers must check their indexes.
+- (double *)doubleBuffer;
+
 @end
 
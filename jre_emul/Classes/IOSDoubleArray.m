@@ -49,6 +49,23 @@
   return array;
 }
 
+- (id)initWithNoCopyDoubles:(const double *)doubles count:(NSUInteger)count {
+  // IOSArray's initializer, which doesn't allocate a buffer.
+  if ((self = [super initWithLength:count])) {
+    buffer_ = (double *) doubles;
+    borrowsBuffer_ = YES;
+  }
+  return self;
+}
+
++ (id)arrayWithNoCopyDoubles:(const double *)doubles count:(NSUInteger)count {
+  id array = [[IOSDoubleArray alloc] initWithNoCopyDoubles:doubles count:count];
+#if ! __has_feature(objc_arc)
+  [array autorelease];
+#endif
+  return array;
+}
+
 - (double)doubleAtIndex:(NSUInteger)index {
   IOSArray_checkIndex(self, index);
   return buffer_[index];
@@ -114,9 +131,15 @@
 
 #if ! __has_feature(objc_arc)
 - (void)dealloc {
-  free(buffer_);
+  if (!borrowsBuffer_) {
+    free(buffer_);
+  }
   [super dealloc];
 }
 #endif
 
+- (double *)doubleBuffer {
+  return buffer_;
+}
+
 @end
@@ -32,6 +32,12 @@
 - (id)initWithFloats:(const float *)floats count:(NSUInteger)count;
 + (id)arrayWithFloats:(const float *)floats count:(NSUInteger)count;
 
+// Create an array whose elements are a C float array, which isn't copied.
+// The array neither frees nor writes the C array, which must outlive it;
+// the translator uses this for constant arrays whose elements are never
+// written.
++ (id)arrayWithNoCopyFloats:(const float *)floats count:(NSUInteger)count;
+
 // Return float at a specified index, throws IndexOutOfBoundsException
 // if out out range.
 - (float)floatAtIndex:(NSUInteger)index;
@@ -59,5 +65,9 @@
 // operator.
 - (float)postDecr:(NSUInteger)index;
 
+// Returns the array's elements.  Accesses through the returned pointer are
+// not range checked, so callers must check their indexes.
+- (float *)floatBuffer;
+
 @end
 
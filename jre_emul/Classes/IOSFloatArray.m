@@ -49,6 +49,23 @@
   return array;
 }
 
+- (id)initWithNoCopyFloats:(const float *)floats count:(NSUInteger)count {
+  // IOSArray's initializer, which doesn't allocate a buffer.
+  if ((self = [super initWithLength:count])) {
+    buffer_ = (float *) floats;
+    borrowsBuffer_ = YES;
+  }
+  return self;
+}
+
++ (id)arrayWithNoCopyFloats:(const float *)floats count:(NSUInteger)count {
+  id array = [[IOSFloatArray alloc] initWithNoCopyFloats:floats count:count];
+#if ! __has_feature(objc_arc)
+  [array autorelease];
+#endif
+  return array;
+}
+
 - (float)floatAtIndex:(NSUInteger)index {
   IOSArray_checkIndex(self, index);
   return buffer_[index];
@@ -114,9 +131,15 @@
 
 #if ! __has_feature(objc_arc)
 - (void)dealloc {
-  free(buffer_);
+  if (!borrowsBuffer_) {
+    free(buffer_);
+  }
   [super dealloc];
 }
 #endif
 
+- (float *)floatBuffer {
+  return buffer_;
+}
+
 @end
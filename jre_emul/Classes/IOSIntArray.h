@@ -32,6 +32,12 @@
 - (id)initWithInts:(const int *)ints count:(NSUInteger)count;
 + (id)arrayWithInts:(const int *)ints count:(NSUInteger)count;
 
+// Create an array whose elements are a C int array, which isn't copied.
+// The array neither frees nor writes the C array, which must outlive it;
+// the translator uses this for constant arrays whose elements are never
+// written.
++ (id)arrayWithNoCopyInts:(const int *)ints count:(NSUInteger)count;
+
 // Return int at a specified index, throws IndexOutOfBoundsException
 // if out out range;
 - (int)intAtIndex:(NSUInteger)index;
@@ -59,4 +65,8 @@
 // operator.
 - (int)postDecr:(NSUInteger)index;
 
+// Returns the array's elements.  Accesses through the returned pointer are
+// not range checked, so callers must check their indexes.
+- (int *)intBuffer;
+
 @end
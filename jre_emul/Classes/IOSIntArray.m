@@ -49,6 +49,23 @@
   return array;
 }
 
+- (id)initWithNoCopyInts:(const int *)ints count:(NSUInteger)count {
+  // IOSArray's initializer, which doesn't allocate a buffer.
+  if ((self = [super initWithLength:count])) {
+    buffer_ = (int *) ints;
+    borrowsBuffer_ = YES;
+  }
+  return self;
+}
+
++ (id)arrayWithNoCopyInts:(const int *)ints count:(NSUInteger)count {
+  id array = [[IOSIntArray alloc] initWithNoCopyInts:ints count:count];
+#if ! __has_feature(objc_arc)
+  [array autorelease];
+#endif
+  return array;
+}
+
 - (int)intAtIndex:(NSUInteger)index {
   IOSArray_checkIndex(self, index);
   return buffer_[index];
@@ -113,9 +130,15 @@
 
 #if ! __has_feature(objc_arc)
 - (void)dealloc {
-  free(buffer_);
+  if (!borrowsBuffer_) {
+    free(buffer_);
+  }
   [super dealloc];
 }
 #endif
 
+- (int *)intBuffer {
+  return buffer_;
+}
+
 @end
@@ -32,6 +32,12 @@
 - (id)initWithLongs:(const long long *)longs count:(NSUInteger)count;
 + (id)arrayWithLongs:(const long long *)longs count:(NSUInteger)count;
 
+// Create an array whose elements are a C long long array, which isn't copied.
+// The array neither frees nor writes the C array, which must outlive it;
+// the translator uses this for constant arrays whose elements are never
+// written.
++ (id)arrayWithNoCopyLongs:(const long long *)longs count:(NSUInteger)count;
+
 // Return long at a specified index, throws IndexOutOfBoundsException
 // if out out range.
 - (long long)longAtIndex:(NSUInteger)index;
@@ -59,5 +65,9 @@
 // operator.
 - (long long)postDecr:(NSUInteger)index;
 
+// Returns the array's elements.  Accesses through the returned pointer are
+// not range checked, so callers must check their indexes.
+- (long long *)longBuffer;
+
 @end
 
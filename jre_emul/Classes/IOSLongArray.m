@@ -54,6 +54,23 @@
   return array;
 }
 
+- (id)initWithNoCopyLongs:(const long long *)longs count:(NSUInteger)count {
+  // IOSArray's initializer, which doesn't allocate a buffer.
+  if ((self = [super initWithLength:count])) {
+    buffer_ = (long long *) longs;
+    borrowsBuffer_ = YES;
+  }
+  return self;
+}
+
++ (id)arrayWithNoCopyLongs:(const long long *)longs count:(NSUInteger)count {
+  id array = [[IOSLongArray alloc] initWithNoCopyLongs:longs count:count];
+#if ! __has_feature(objc_arc)
+  [array autorelease];
+#endif
+  return array;
+}
+
 - (long long)replaceLongAtIndex:(NSUInteger)index withLong:(long long)value {
   IOSArray_checkIndex(self, index);
   buffer_[index] = value;
@@ -113,9 +130,15 @@
 
 #if ! __has_feature(objc_arc)
 - (void)dealloc {
-  free(buffer_);
+  if (!borrowsBuffer_) {
+    free(buffer_);
+  }
   [super dealloc];
 }
 #endif
 
+- (long long *)longBuffer {
+  return buffer_;
+}
+
 @end
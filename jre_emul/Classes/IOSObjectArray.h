@@ -69,4 +69,9 @@
 // is greater than the array size.
 - (void)getObjects:(NSObject **)buffer length:(NSUInteger)length;
 
+// Copies the elements in a specified range into a buffer, without retaining
+// them.  An IndexOutOfBoundsException is thrown if the range isn't within
+// the array.
+- (void)getObjects:(id __unsafe_unretained *)buffer range:(NSRange)range;
+
 @end
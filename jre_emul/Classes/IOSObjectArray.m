@@ -186,6 +186,13 @@
   }
 }
 
+- (void)getObjects:(id __unsafe_unretained *)buffer range:(NSRange)range {
+  IOSArray_checkRange(self, range);
+  for (NSUInteger i = 0; i < range.length; i++) {
+    buffer[i] = buffer_[range.location + i];
+  }
+}
+
 - (void) arraycopy:(NSRange)sourceRange
        destination:(IOSArray *)destination
             offset:(NSInteger)offset {
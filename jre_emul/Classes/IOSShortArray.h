@@ -32,6 +32,12 @@
 - (id)initWithShorts:(const short *)shorts count:(NSUInteger)count;
 + (id)arrayWithShorts:(const short *)shorts count:(NSUInteger)count;
 
+// Create an array whose elements are a C short array, which isn't copied.
+// The array neither frees nor writes the C array, which must outlive it;
+// the translator uses this for constant arrays whose elements are never
+// written.
++ (id)arrayWithNoCopyShorts:(const short *)shorts count:(NSUInteger)count;
+
 // Return short at a specified index, throws IndexOutOfBoundsException
 // if out out range.
 - (short)shortAtIndex:(NSUInteger)index;
@@ -59,5 +65,9 @@
 // operator.
 - (short)postDecr:(NSUInteger)index;
 
+// Returns the array's elements.  Accesses through the returned pointer are
+// not range checked, so callers must check their indexes.
+- (short *)shortBuffer;
+
 @end
 
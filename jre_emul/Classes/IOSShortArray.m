@@ -49,6 +49,23 @@
   return array;
 }
 
+- (id)initWithNoCopyShorts:(const short *)shorts count:(NSUInteger)count {
+  // IOSArray's initializer, which doesn't allocate a buffer.
+  if ((self = [super initWithLength:count])) {
+    buffer_ = (short *) shorts;
+    borrowsBuffer_ = YES;
+  }
+  return self;
+}
+
++ (id)arrayWithNoCopyShorts:(const short *)shorts count:(NSUInteger)count {
+  id array = [[IOSShortArray alloc] initWithNoCopyShorts:shorts count:count];
+#if ! __has_feature(objc_arc)
+  [array autorelease];
+#endif
+  return array;
+}
+
 - (short)shortAtIndex:(NSUInteger)index {
   IOSArray_checkIndex(self, index);
   return buffer_[index];
@@ -113,9 +130,15 @@
 
 #if ! __has_feature(objc_arc)
 - (void)dealloc {
-  free(buffer_);
+  if (!borrowsBuffer_) {
+    free(buffer_);
+  }
   [super dealloc];
 }
 #endif
 
+- (short *)shortBuffer {
+  return buffer_;
+}
+
 @end
@@ -32,7 +32,9 @@
 # import "NSString+JavaString.h"
 # import "IOSClass.h"
 # import <fcntl.h>
+# import <objc/runtime.h>
 # import "JreMemDebug.h"
+# import "JreMonitor.h"
 
 # ifndef __has_attribute
 #  define __has_attribute(x) 0 // Compatibility with non-clang compilers.
@@ -90,4 +92,71 @@ FOUNDATION_EXPORT
 
 FOUNDATION_EXPORT id JreOperatorRetainedAssign(id *pIvar, id value);
 
+// Concatenates its arguments, like Java's string concatenation operator.
+// Each character of types is the type of an argument: '$' for an NSString,
+// '@' for another object, and the Java binary name of a primitive type,
+// except that bytes and shorts are passed as ints ('I').  Generated by the
+// translator's --typed-string-concatenation option.
+FOUNDATION_EXPORT NSString *JreStrcat(const char *types, ...);
+
+// Static variables generated as globals by the translator's
+// --static-field-globals option.  A class with such variables defines
+// CLASS_initialized, which its +initialize method sets when it finishes.
+// Other classes access a variable with J2OBJC_STATIC_VAR, which sends the
+// class a message if the flag isn't set yet, to run +initialize or wait for
+// another thread's call to finish.  Once the class is initialized, the
+// check is a single load.  The flag is loaded with acquire semantics, and
+// stored with release semantics, so the variables' initial values are
+// visible to any thread that sees it set.
+# define J2OBJC_STATIC_INIT(CLASS) \
+  (__builtin_expect(!__atomic_load_n(&CLASS##_initialized, __ATOMIC_ACQUIRE), 0) \
+      ? (void) [CLASS class] : (void) 0)
+
+// The variable, as an lvalue, after its class is initialized.
+# define J2OBJC_STATIC_VAR(CLASS, VAR) (*(J2OBJC_STATIC_INIT(CLASS), &VAR))
+
+# define J2OBJC_SET_INITIALIZED(CLASS) \
+  __atomic_store_n(&CLASS##_initialized, YES, __ATOMIC_RELEASE)
+
+// Type checks generated by the translator's --cached-type-checks option.
+// Each instanceof target is kept in a file-scope static, which J2OBJC_CACHE
+// sets the first time the test runs.  Threads that race to set it store the
+// same value.  The values aren't retained, so they must never be released:
+// classes, and the IOSClass instances that IOSClass caches.
+# define J2OBJC_CACHE(VAR, VALUE) (VAR ?: (VAR = (VALUE)))
+
+// Returns true if obj is an instance of cls or one of its subclasses, like
+// isKindOfClass:, by walking obj's superclass chain without messages.
+FOUNDATION_EXPORT BOOL JreIsInstanceOfClass(id obj, Class cls);
+
+// Like JreIsInstanceOfClass, for a class that has no subclasses in the
+// translated program.  Its instances are nearly always exactly of that
+// class; the chain is still checked for runtime subclasses, such as KVO's.
+static inline BOOL JreIsInstanceOfLeafClass(id obj, Class cls) {
+  Class objClass = object_getClass(obj);
+  return objClass == cls || (objClass && JreIsInstanceOfClass(obj, cls));
+}
+
+// Returns true if obj conforms to protocol.  lastClass caches the last
+// class that conformed, so that a test of objects of the same class doesn't
+// send a message; classes can gain protocols, but don't lose them.
+static inline BOOL JreConformsToProtocol(id obj, Protocol *protocol, void **lastClass) {
+  void *objClass = (ARCBRIDGE void *) object_getClass(obj);
+  if (!objClass) {
+    return NO;
+  }
+  if (objClass == *lastClass) {
+    return YES;
+  }
+  if ([obj conformsToProtocol:protocol]) {
+    *lastClass = objClass;
+    return YES;
+  }
+  return NO;
+}
+
+// Returns true if obj is an IOSObjectArray whose element type is equal to
+// elementType.
+FOUNDATION_EXPORT BOOL JreIsObjectArrayOfType(id obj, IOSClass *elementType);
+
 #endif // __OBJC__
@@ -20,6 +20,9 @@
 //
 
 #import "JreEmulation.h"
+#import "IOSObjectArray.h"
+
+#include <float.h>
 
 // Converts main() arguments into an IOSObjectArray of NSStrings.  The first
 // argument, the program name, is skipped so the returned array matches what
@@ -43,3 +46,144 @@ FOUNDATION_EXPORT
   }
   return args;
 }
+
+// A JreStrcat() result being built.  The characters are kept in the stack
+// buffer, unless they outgrow it.
+typedef struct JreStrcatBuffer {
+  unichar *chars;
+  NSUInteger length;
+  NSUInteger capacity;
+  unichar stackChars[256];
+} JreStrcatBuffer;
+
+// Returns where the next count characters are written, growing the buffer
+// if necessary.
+static unichar *JreStrcatReserve(JreStrcatBuffer *buffer, NSUInteger count) {
+  NSUInteger required = buffer->length + count;
+  if (required > buffer->capacity) {
+    NSUInteger capacity = MAX(required, buffer->capacity * 2);
+    if (buffer->chars == buffer->stackChars) {
+      buffer->chars = malloc(capacity * sizeof(unichar));
+      memcpy(buffer->chars, buffer->stackChars, buffer->length * sizeof(unichar));
+    } else {
+      buffer->chars = realloc(buffer->chars, capacity * sizeof(unichar));
+    }
+    buffer->capacity = capacity;
+  }
+  unichar *next = buffer->chars + buffer->length;
+  buffer->length = required;
+  return next;
+}
+
+static void JreStrcatAppendString(JreStrcatBuffer *buffer, NSString *s) {
+  if (!s) {
+    s = @"null";
+  }
+  NSUInteger length = [s length];
+  [s getCharacters:JreStrcatReserve(buffer, length) range:NSMakeRange(0, length)];
+}
+
+static void JreStrcatAppendChars(JreStrcatBuffer *buffer, const char *chars, size_t count) {
+  unichar *next = JreStrcatReserve(buffer, count);
+  for (size_t i = 0; i < count; i++) {
+    next[i] = chars[i];
+  }
+}
+
+static void JreStrcatAppendLong(JreStrcatBuffer *buffer, long long value) {
+  char digits[20];
+  // Negated as unsigned, so the minimum value doesn't overflow.
+  unsigned long long magnitude = value < 0 ? -(unsigned long long) value : value;
+  int i = sizeof(digits);
+  do {
+    digits[--i] = '0' + magnitude % 10;
+    magnitude /= 10;
+  } while (magnitude > 0);
+  if (value < 0) {
+    digits[--i] = '-';
+  }
+  JreStrcatAppendChars(buffer, digits + i, sizeof(digits) - i);
+}
+
+// Appends a double formatted like stringWithFormat's %f, which the
+// translator generated before.  The buffer holds the longest %f result,
+// -DBL_MAX's sign, DBL_MAX_10_EXP + 1 digits, point, six decimals and NUL.
+static void JreStrcatAppendDouble(JreStrcatBuffer *buffer, double value) {
+  char number[DBL_MAX_10_EXP + 10];
+  int length = snprintf(number, sizeof(number), "%f", value);
+  if (length < 0) {
+    return;
+  }
+  // snprintf returns the untruncated length, so never read past the buffer.
+  JreStrcatAppendChars(buffer, number, MIN((size_t) length, sizeof(number) - 1));
+}
+
+NSString *JreStrcat(const char *types, ...) {
+  JreStrcatBuffer buffer;
+  buffer.chars = buffer.stackChars;
+  buffer.length = 0;
+  buffer.capacity = sizeof(buffer.stackChars) / sizeof(unichar);
+
+  va_list args;
+  va_start(args, types);
+  for (const char *type = types; *type; type++) {
+    switch (*type) {
+      case '$':
+        JreStrcatAppendString(&buffer, va_arg(args, NSString *));
+        break;
+      case '@': {
+        id object = va_arg(args, id);
+        JreStrcatAppendString(&buffer, object ? [object description] : nil);
+        break;
+      }
+      case 'C':
+        *JreStrcatReserve(&buffer, 1) = (unichar) va_arg(args, int);
+        break;
+      case 'Z':
+        JreStrcatAppendString(&buffer, va_arg(args, int) ? @"true" : @"false");
+        break;
+      case 'I':
+        JreStrcatAppendLong(&buffer, va_arg(args, int));
+        break;
+      case 'J':
+        JreStrcatAppendLong(&buffer, va_arg(args, long long));
+        break;
+      case 'D':
+      case 'F':
+        // Floats are passed as doubles.
+        JreStrcatAppendDouble(&buffer, va_arg(args, double));
+        break;
+      default:
+        va_end(args);
+        if (buffer.chars != buffer.stackChars) {
+          free(buffer.chars);
+        }
+        [NSException raise:NSInvalidArgumentException
+                    format:@"Unknown JreStrcat type: %c", *type];
+    }
+  }
+  va_end(args);
+
+  if (buffer.chars == buffer.stackChars) {
+    return [NSString stringWithCharacters:buffer.chars length:buffer.length];
+  }
+  // The string takes ownership of the heap buffer, rather than copying it.
+  return AUTORELEASE([[NSString alloc] initWithCharactersNoCopy:buffer.chars
+                                                         length:buffer.length
+                                                   freeWhenDone:YES]);
+}
+
+BOOL JreIsInstanceOfClass(id obj, Class cls) {
+  for (Class c = object_getClass(obj); c; c = class_getSuperclass(c)) {
+    if (c == cls) {
+      return YES;
+    }
+  }
+  return NO;
+}
+
+BOOL JreIsObjectArrayOfType(id obj, IOSClass *elementType) {
+  static Class objectArrayClass;
+  return JreIsInstanceOfClass(obj, J2OBJC_CACHE(objectArrayClass, [IOSObjectArray class]))
+      && [[(IOSObjectArray *) obj elementType] isEqual:elementType];
+}
@@ -0,0 +1,56 @@
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+//
+//  JreFastEnumeration.h
+//  JreEmulation
+//
+//  Fast enumeration of Java collections.  With --fast-enumeration, the
+//  translator generates enhanced for loops over some JRE collections as
+//  "for (id x in collection)" loops.  ArrayList, HashSet and HashMap's views
+//  read each element from their storage, without an iterator, and the loop
+//  checks their modification count before each element.  Any other
+//  java.lang.Iterable, including subclasses of those collections that
+//  override the methods their iterators use, returns each element from its
+//  iterator, so the iterator's behavior is unchanged.  Elements are returned
+//  one per call, as the buffer doesn't retain them, and a collection can
+//  replace an element without changing its modification count.
+//
+
+#import <Foundation/Foundation.h>
+
+@protocol JavaLangIterable;
+
+// NSFastEnumerationState.state values.
+#define JRE_DEFAULT_ENUMERATION 1  // Enumerated by JreDefaultFastEnumeration.
+#define JRE_DIRECT_ENUMERATION 2   // Enumerated from the collection's storage.
+
+@interface NSObject (JreFastEnumeration)
+
+// Enumerates a java.lang.Iterable with JreDefaultFastEnumeration.  Other
+// objects don't support fast enumeration, unless they implement it.
+- (NSUInteger)countByEnumeratingWithState:(NSFastEnumerationState *)state
+                                  objects:(id __unsafe_unretained *)stackbuf
+                                    count:(NSUInteger)len;
+
+@end
+
+// Enumerates an Iterable using its iterator, one element per call.
+FOUNDATION_EXPORT NSUInteger JreDefaultFastEnumeration(
+    id<JavaLangIterable> iterable, NSFastEnumerationState *state,
+    id __unsafe_unretained *stackbuf);
+
+// Returns YES if an enumeration of an object uses JreDefaultFastEnumeration:
+// either it already does, or it is starting and the object overrides the
+// iterator() of cls, the class whose storage the caller enumerates.
+FOUNDATION_EXPORT BOOL JreUsesDefaultFastEnumeration(
+    id object, NSFastEnumerationState *state, Class cls);
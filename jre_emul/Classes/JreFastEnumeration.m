@@ -0,0 +1,158 @@
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+//
+//  JreFastEnumeration.m
+//  JreEmulation
+//
+
+#import "JreFastEnumeration.h"
+#import "IOSObjectArray.h"
+#import "JreEmulation.h"
+#import "java/lang/Iterable.h"
+#import "java/util/AbstractCollection.h"
+#import "java/util/ArrayList.h"
+#import "java/util/ConcurrentModificationException.h"
+#import "java/util/HashMap.h"
+#import "java/util/HashSet.h"
+#import "java/util/Iterator.h"
+#import "java/util/Set.h"
+
+#import <objc/runtime.h>
+
+// Called by a fast enumeration loop when the collection's modification count
+// changes.  Java collections throw a ConcurrentModificationException, like
+// their iterators do; other collections raise Foundation's exception.
+static void JreEnumerationMutationHandler(id collection) {
+  if ([collection isKindOfClass:[JavaUtilAbstractCollection class]]) {
+    @throw AUTORELEASE([[JavaUtilConcurrentModificationException alloc] init]);
+  }
+  [NSException raise:NSGenericException
+              format:@"Collection %@ was mutated while being enumerated.", collection];
+}
+
+NSUInteger JreDefaultFastEnumeration(
+    id<JavaLangIterable> iterable, NSFastEnumerationState *state,
+    id __unsafe_unretained *stackbuf) {
+  if (state->state == 0) {
+    state->state = JRE_DEFAULT_ENUMERATION;
+    // The iterator checks for modifications itself.
+    state->mutationsPtr = &state->extra[1];
+    // The iterator is kept alive by the autorelease pool, which outlives
+    // the loop.
+#if __has_feature(objc_arc)
+    __autoreleasing id<JavaUtilIterator> iterator = [iterable iterator];
+#else
+    id<JavaUtilIterator> iterator = [iterable iterator];
+#endif
+    state->extra[0] = (unsigned long) (ARCBRIDGE void *) iterator;
+  }
+  id<JavaUtilIterator> iterator = (ARCBRIDGE id<JavaUtilIterator>) (void *) state->extra[0];
+  state->itemsPtr = stackbuf;
+  if ([iterator hasNext]) {
+    stackbuf[0] = [iterator next];
+    return 1;
+  }
+  return 0;
+}
+
+// Returns YES if an object's class overrides a method of cls.
+static BOOL JreOverridesMethod(id object, Class cls, SEL selector) {
+  return [object methodForSelector:selector] != [cls instanceMethodForSelector:selector];
+}
+
+BOOL JreUsesDefaultFastEnumeration(
+    id object, NSFastEnumerationState *state, Class cls) {
+  if (state->state == 0) {
+    return JreOverridesMethod(object, cls, @selector(iterator));
+  }
+  return state->state == JRE_DEFAULT_ENUMERATION;
+}
+
+
+@implementation NSObject (JreFastEnumeration)
+
++ (void)load {
+  objc_setEnumerationMutationHandler(JreEnumerationMutationHandler);
+}
+
+- (NSUInteger)countByEnumeratingWithState:(NSFastEnumerationState *)state
+                                  objects:(id __unsafe_unretained *)stackbuf
+                                    count:(NSUInteger)len {
+  if (state->state == 0 && ![self conformsToProtocol:@protocol(JavaLangIterable)]) {
+    [self doesNotRecognizeSelector:_cmd];
+    return 0;
+  }
+  return JreDefaultFastEnumeration((id<JavaLangIterable>) self, state, stackbuf);
+}
+
+@end
+
+
+@implementation JavaUtilArrayList (JreFastEnumeration)
+
+- (NSUInteger)countByEnumeratingWithState:(NSFastEnumerationState *)state
+                                  objects:(id __unsafe_unretained *)stackbuf
+                                    count:(NSUInteger)len {
+  // ArrayList's iterator is AbstractList's, which reads the list with get()
+  // and size(), so a subclass that overrides those uses its iterator too.
+  Class cls = [JavaUtilArrayList class];
+  if (JreUsesDefaultFastEnumeration(self, state, cls)
+      || (state->state == 0 && (JreOverridesMethod(self, cls, @selector(getWithInt:))
+                                || JreOverridesMethod(self, cls, @selector(size))))) {
+    return JreDefaultFastEnumeration(self, state, stackbuf);
+  }
+  if (state->state == 0) {
+    state->state = JRE_DIRECT_ENUMERATION;
+    // The loop reads an unsigned long, which can be wider than modCount, so
+    // it checks a copy that each call refreshes.
+    state->mutationsPtr = &state->extra[2];
+    state->extra[0] = 0;  // The index of the next element.
+    state->extra[1] = (unsigned int) modCount_;
+  } else if (state->extra[1] != (unsigned int) modCount_) {
+    // The last element's loop body modified the list.
+    @throw AUTORELEASE([[JavaUtilConcurrentModificationException alloc] init]);
+  }
+  state->extra[2] = (unsigned int) modCount_;
+  // One element is returned per call, so it's read after the previous
+  // element's loop body ran.  Neither set() nor the buffer retains elements,
+  // and set() doesn't change modCount, so a batch could hold elements the
+  // list has released.
+  NSUInteger next = state->extra[0];
+  if (next >= (NSUInteger) size__) {
+    return 0;
+  }
+  [array_ getObjects:stackbuf range:NSMakeRange(firstIndex_ + next, 1)];
+  state->extra[0] = next + 1;
+  state->itemsPtr = stackbuf;
+  return 1;
+}
+
+@end
+
+
+@implementation JavaUtilHashSet (JreFastEnumeration)
+
+- (NSUInteger)countByEnumeratingWithState:(NSFastEnumerationState *)state
+                                  objects:(id __unsafe_unretained *)stackbuf
+                                    count:(NSUInteger)len {
+  if (JreUsesDefaultFastEnumeration(self, state, [JavaUtilHashSet class])) {
+    return JreDefaultFastEnumeration(self, state, stackbuf);
+  }
+  // The set's elements are the keys of its backing map, which enumerates
+  // them with the same state.
+  return [(id) [backingMap_ keySet] countByEnumeratingWithState:state
+                                                        objects:stackbuf
+                                                          count:len];
+}
+
+@end
@@ -0,0 +1,74 @@
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+//
+//  JreMonitor.h
+//  JreEmulation
+//
+//  Java monitors, which the translator's --fast-monitors option uses for
+//  synchronized statements and methods instead of @synchronized.  A
+//  synchronized statement is generated as:
+//
+//    {
+//      JreMonitor *monitor__ = JreMonitorEnter(lock);
+//      @try {
+//        ...
+//      }
+//      @finally {
+//        JreMonitorExit(monitor__);
+//      }
+//    }
+//
+//  and a synchronized method's body is wrapped the same way, locking self,
+//  or the class for a static method.  The contract the generated code
+//  relies on:
+//
+//  - JreMonitorEnter() blocks until the calling thread owns the object's
+//    monitor, and returns it.  JreMonitorExit() must be called with it by
+//    the same thread, once for each enter; the @finally block does that
+//    when the statement completes abruptly, including by an exception.
+//  - Monitors are reentrant: the owner can enter its monitor again.
+//  - Entering a nil object's monitor throws JavaLangNullPointerException,
+//    like Java, rather than doing nothing like @synchronized.
+//  - Entering a monitor has acquire semantics, and exiting its last entry
+//    has release semantics, so the new owner sees the previous owner's
+//    writes.
+//  - Different objects never share a monitor, so nested synchronized
+//    statements only deadlock where Java code would.
+//  - A monitor isn't the lock @synchronized uses for the same object.
+//    Native code that must exclude translated synchronized code should call
+//    these functions.  For the same reason, --fast-monitors is a build mode
+//    for the whole program: the JRE emulation library's own synchronized
+//    classes, such as Vector, Hashtable and StringBuffer, must be translated
+//    with it too, so that a client synchronizing on one of them excludes its
+//    methods.  Build the library with J2OBJC_FAST_MONITORS=YES, which
+//    translates it with --fast-monitors; JreMonitorEnter() throws in a
+//    library built without it.
+//
+//  An uncontended enter finds the object's monitor record without locking,
+//  and takes it with one compare-and-swap; an uncontended exit is one store
+//  and one load.  Only contended monitors use a mutex and condition
+//  variable, and only binding a record to an object locks its table stripe.
+//
+
+#ifndef _JreMonitor_H_
+#define _JreMonitor_H_
+
+#import <Foundation/Foundation.h>
+
+typedef struct JreMonitor JreMonitor;
+
+FOUNDATION_EXPORT JreMonitor *JreMonitorEnter(id object);
+
+FOUNDATION_EXPORT void JreMonitorExit(JreMonitor *monitor);
+
+#endif // _JreMonitor_H_
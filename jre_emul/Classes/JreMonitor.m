@@ -0,0 +1,188 @@
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+//
+//  JreMonitor.m
+//  JreEmulation
+//
+//  Each monitor is a record in a table, whose stripes are chosen by the
+//  object's address.  A stripe's records are a list that only grows, so
+//  they are found without locking.  A record stays bound to its object after
+//  it is released, which makes the next enter of that object cheap; once a
+//  stripe has JRE_MONITOR_STRIPE_RECORDS records, an idle one is rebound to
+//  another object instead of allocating one.  A record is only rebound by a
+//  thread that owns it while no thread waits for it, so a thread that finds
+//  a record checks that it is still bound to its object after taking it.
+//
+
+#import "JreMonitor.h"
+#import "JreEmulation.h"
+
+#import <pthread.h>
+#import <stdlib.h>
+
+#define JRE_MONITOR_STRIPES 256  // Must be a power of two.
+#define JRE_MONITOR_STRIPE_RECORDS 8
+
+struct JreMonitor {
+  void *object;          // Only changed by the owner, while nothing waits.
+  uintptr_t owner;       // The owning thread, or 0.
+  int count;             // The owner's entries; only used by the owner.
+  int waiters;           // Threads waiting for the monitor.
+  pthread_mutex_t mutex;
+  pthread_cond_t released;
+  JreMonitor *next;
+};
+
+typedef struct {
+  pthread_mutex_t lock;  // Held while binding a record to an object.
+  JreMonitor *records;
+} JreMonitorStripe;
+
+static JreMonitorStripe stripes[JRE_MONITOR_STRIPES] = {
+  [0 ... JRE_MONITOR_STRIPES - 1] = { PTHREAD_MUTEX_INITIALIZER, NULL }
+};
+
+static inline JreMonitorStripe *getStripe(void *object) {
+  uintptr_t hash = (uintptr_t) object >> 4;  // Objects are 16-byte aligned.
+  hash ^= hash >> 8;
+  return &stripes[hash & (JRE_MONITOR_STRIPES - 1)];
+}
+
+static JreMonitor *findRecord(JreMonitorStripe *stripe, void *object) {
+  JreMonitor *record = __atomic_load_n(&stripe->records, __ATOMIC_ACQUIRE);
+  for (; record; record = record->next) {
+    if (__atomic_load_n(&record->object, __ATOMIC_ACQUIRE) == object) {
+      return record;
+    }
+  }
+  return NULL;
+}
+
+static inline BOOL tryAcquire(JreMonitor *record, uintptr_t thread) {
+  uintptr_t expected = 0;
+  return __atomic_compare_exchange_n(&record->owner, &expected, thread, false,
+                                     __ATOMIC_SEQ_CST, __ATOMIC_RELAXED);
+}
+
+static void release(JreMonitor *record) {
+  // Sequentially consistent, with the increment of waiters in
+  // waitForRecord(): either this load sees a waiter, which is signaled,
+  // or the waiter's compare-and-swap sees the monitor released.
+  __atomic_store_n(&record->owner, 0, __ATOMIC_SEQ_CST);
+  if (__atomic_load_n(&record->waiters, __ATOMIC_SEQ_CST) > 0) {
+    pthread_mutex_lock(&record->mutex);
+    pthread_cond_signal(&record->released);
+    pthread_mutex_unlock(&record->mutex);
+  }
+}
+
+// Waits until the thread owns a record, and returns YES, or returns NO if
+// the record was bound to another object.
+static BOOL waitForRecord(JreMonitor *record, void *object, uintptr_t thread) {
+  BOOL acquired = NO;
+  pthread_mutex_lock(&record->mutex);
+  __atomic_add_fetch(&record->waiters, 1, __ATOMIC_SEQ_CST);
+  while (__atomic_load_n(&record->object, __ATOMIC_ACQUIRE) == object) {
+    if (tryAcquire(record, thread)) {
+      acquired = YES;
+      break;
+    }
+    pthread_cond_wait(&record->released, &record->mutex);
+  }
+  __atomic_sub_fetch(&record->waiters, 1, __ATOMIC_SEQ_CST);
+  pthread_mutex_unlock(&record->mutex);
+  return acquired;
+}
+
+// Returns a record that the thread owns, bound to the object, or NULL if
+// another thread bound one first.
+static JreMonitor *bindRecord(JreMonitorStripe *stripe, void *object, uintptr_t thread) {
+  pthread_mutex_lock(&stripe->lock);
+  JreMonitor *record = findRecord(stripe, object);
+  if (record) {
+    pthread_mutex_unlock(&stripe->lock);
+    return NULL;
+  }
+  int count = 0;
+  for (record = stripe->records; record; record = record->next) {
+    count++;
+  }
+  if (count >= JRE_MONITOR_STRIPE_RECORDS) {
+    for (record = stripe->records; record; record = record->next) {
+      if (tryAcquire(record, thread)) {
+        if (__atomic_load_n(&record->waiters, __ATOMIC_SEQ_CST) == 0) {
+          __atomic_store_n(&record->object, object, __ATOMIC_RELEASE);
+          pthread_mutex_unlock(&stripe->lock);
+          return record;
+        }
+        release(record);
+      }
+    }
+  }
+  record = calloc(1, sizeof(JreMonitor));
+  pthread_mutex_init(&record->mutex, NULL);
+  pthread_cond_init(&record->released, NULL);
+  record->object = object;
+  record->owner = thread;
+  record->next = stripe->records;
+  __atomic_store_n(&stripe->records, record, __ATOMIC_RELEASE);
+  pthread_mutex_unlock(&stripe->lock);
+  return record;
+}
+
+JreMonitor *JreMonitorEnter(id object) {
+#if !J2OBJC_FAST_MONITORS
+  // This library's translated classes synchronize with @synchronized, which
+  // doesn't exclude these monitors.
+  [NSException raise:NSInternalInconsistencyException
+              format:@"JreMonitorEnter() requires a JRE emulation library built "
+                     @"with J2OBJC_FAST_MONITORS=YES"];
+#endif
+  if (!object) {
+    [NSObject throwNullPointerException];
+  }
+  void *key = (ARCBRIDGE void *) object;
+  uintptr_t thread = (uintptr_t) pthread_self();
+  JreMonitorStripe *stripe = getStripe(key);
+  for (;;) {
+    JreMonitor *record = findRecord(stripe, key);
+    if (!record) {
+      record = bindRecord(stripe, key, thread);
+      if (record) {
+        record->count = 1;
+        return record;
+      }
+      continue;
+    }
+    // A record the thread owns can't be rebound.
+    if (__atomic_load_n(&record->owner, __ATOMIC_RELAXED) == thread
+        && record->object == key) {
+      record->count++;
+      return record;
+    }
+    if (tryAcquire(record, thread) || waitForRecord(record, key, thread)) {
+      if (record->object == key) {
+        record->count = 1;
+        return record;
+      }
+      // Rebound before it was acquired.
+      release(record);
+    }
+  }
+}
+
+void JreMonitorExit(JreMonitor *monitor) {
+  if (--monitor->count == 0) {
+    release(monitor);
+  }
+}
@@ -6,6 +6,7 @@
 //  Copyright 2012 Google, Inc. All rights reserved.
 //
 
+#import "JreFastEnumeration.h"
 #import "java/lang/CloneNotSupportedException.h"
 #import "java/lang/IllegalArgumentException.h"
 #import "java/lang/IllegalStateException.h"
@@ -18,6 +19,57 @@
 #import "java/util/NoSuchElementException.h"
 #import "java/util/Set.h"
 
+// The parts of a HashMap's entries that its views enumerate.
+typedef enum {
+  JavaUtilHashMap_ENTRIES,
+  JavaUtilHashMap_KEYS,
+  JavaUtilHashMap_VALUES
+} JavaUtilHashMap_Part;
+
+// Returns a map's next entry, key or value in a fast enumeration buffer,
+// continuing from the bucket and entry saved in the enumeration state.  One
+// element is returned per call, so it's read after the previous element's
+// loop body ran: put() of an existing key replaces its value without
+// changing modCount, and the buffer doesn't retain the old value.
+static NSUInteger JavaUtilHashMap_enumerate(
+    JavaUtilHashMap *map, JavaUtilHashMap_Part part, NSFastEnumerationState *state,
+    id __unsafe_unretained *stackbuf) {
+  if (state->state == 0) {
+    state->state = JRE_DIRECT_ENUMERATION;
+    // The loop reads an unsigned long, which can be wider than modCount, so
+    // it checks a copy that each call refreshes.
+    state->mutationsPtr = &state->extra[3];
+    state->extra[0] = 0;  // The next bucket.
+    state->extra[1] = 0;  // The next entry in the current bucket.
+    state->extra[2] = (unsigned int) map->modCount_;
+  } else if (state->extra[2] != (unsigned int) map->modCount_) {
+    // The last element's loop body modified the map, so the saved entry
+    // may have been released.
+    @throw AUTORELEASE([[JavaUtilConcurrentModificationException alloc] init]);
+  }
+  state->extra[3] = (unsigned int) map->modCount_;
+  int position = (int) state->extra[0];
+  JavaUtilHashMap_Entry *entry = (ARCBRIDGE JavaUtilHashMap_Entry *) (void *) state->extra[1];
+  while (entry == nil) {
+    if (position >= map->elementDataLength_) {
+      state->extra[0] = position;
+      return 0;
+    }
+    entry = map->elementData_[position++];
+  }
+  if (part == JavaUtilHashMap_KEYS) {
+    stackbuf[0] = entry->key_;
+  } else if (part == JavaUtilHashMap_VALUES) {
+    stackbuf[0] = entry->value_;
+  } else {
+    stackbuf[0] = entry;
+  }
+  state->extra[0] = position;
+  state->extra[1] = (unsigned long) (ARCBRIDGE void *) entry->next_;
+  state->itemsPtr = stackbuf;
+  return 1;
+}
+
 @implementation JavaUtilHashMap
 
 @synthesize elementCount = elementCount_;
@@ -656,6 +708,15 @@
                       initWithJavaUtilHashMap:associatedMap_]);
 }
 
+- (NSUInteger)countByEnumeratingWithState:(NSFastEnumerationState *)state
+                                  objects:(id __unsafe_unretained *)stackbuf
+                                    count:(NSUInteger)len {
+  if (JreUsesDefaultFastEnumeration(self, state, [JavaUtilHashMap_HashMapEntrySet class])) {
+    return JreDefaultFastEnumeration(self, state, stackbuf);
+  }
+  return JavaUtilHashMap_enumerate(associatedMap_, JavaUtilHashMap_ENTRIES, state, stackbuf);
+}
+
 @end
 
 
@@ -683,6 +744,15 @@
                       initWithJavaUtilHashMap:outer_]);
 }
 
+- (NSUInteger)countByEnumeratingWithState:(NSFastEnumerationState *)state
+                                  objects:(id __unsafe_unretained *)stackbuf
+                                    count:(NSUInteger)len {
+  if (JreUsesDefaultFastEnumeration(self, state, [JavaUtilHashMap_KeySet class])) {
+    return JreDefaultFastEnumeration(self, state, stackbuf);
+  }
+  return JavaUtilHashMap_enumerate(outer_, JavaUtilHashMap_KEYS, state, stackbuf);
+}
+
 - (id)initWithJavaUtilHashMap:(JavaUtilHashMap *)outer {
   if ((self = [super init])) {
     outer_ = outer;
@@ -712,6 +782,15 @@
                       initWithJavaUtilHashMap:outer_]);
 }
 
+- (NSUInteger)countByEnumeratingWithState:(NSFastEnumerationState *)state
+                                  objects:(id __unsafe_unretained *)stackbuf
+                                    count:(NSUInteger)len {
+  if (JreUsesDefaultFastEnumeration(self, state, [JavaUtilHashMap_ValuesCollection class])) {
+    return JreDefaultFastEnumeration(self, state, stackbuf);
+  }
+  return JavaUtilHashMap_enumerate(outer_, JavaUtilHashMap_VALUES, state, stackbuf);
+}
+
 - (id)initWithJavaUtilHashMap:(JavaUtilHashMap *)outer {
   if ((self = [super init])) {
     outer_ = outer;
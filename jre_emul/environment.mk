@@ -26,6 +26,8 @@
 #                           (-Wflag-name) or turn off warnings that are set
 #                           (-Wno-flag-name).
 # CLANG_ENABLE_OBJC_ARC=YES Translate and build with ARC
+# J2OBJC_FAST_MONITORS=YES  Translate with --fast-monitors, which programs
+#                           translated with --fast-monitors require
 #
 # Author: Tom Ball
 
@@ -109,6 +111,11 @@ OBJCFLAGS := $(OBJCFLAGS) -fobjc-arc -fobjc-arc-exceptions \
   -Wno-unused-value -Wno-arc-bridge-casts-disallowed-in-nonarc
 endif
 
+ifeq ($(J2OBJC_FAST_MONITORS), YES)
+J2OBJC := $(J2OBJC) --fast-monitors
+OBJCFLAGS := $(OBJCFLAGS) -DJ2OBJC_FAST_MONITORS=1
+endif
+
 # Flags for the static analyzer.
 STATIC_ANALYZER_FLAGS = \
   -Xclang -analyzer-checker -Xclang security.insecureAPI.UncheckedReturn \
@@ -21,8 +21,6 @@ import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.net.MalformedURLException;
@@ -30,24 +28,41 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.charset.Charset;
 import java.text.DateFormat;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
 
 import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.ClassInstanceCreation;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.ParameterizedType;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.QualifiedType;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SimpleType;
+import org.eclipse.jdt.core.dom.Type;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.Document;
 import org.eclipse.text.edits.MalformedTreeException;
@@ -56,26 +71,37 @@ import org.eclipse.text.edits.TextEdit;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Charsets;
 import com.google.common.collect.Lists;
-import com.google.common.io.CharStreams;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.io.Files;
 import com.google.devtools.j2objc.gen.ObjectiveCHeaderGenerator;
 import com.google.devtools.j2objc.gen.ObjectiveCImplementationGenerator;
 import com.google.devtools.j2objc.sym.Symbols;
 import com.google.devtools.j2objc.translate.AnonymousClassConverter;
+import com.google.devtools.j2objc.translate.ArrayInitializerHoister;
 import com.google.devtools.j2objc.translate.Autoboxer;
 import com.google.devtools.j2objc.translate.DeadCodeEliminator;
 import com.google.devtools.j2objc.translate.DestructorGenerator;
+import com.google.devtools.j2objc.translate.Devirtualizer;
+import com.google.devtools.j2objc.translate.DirectArrayAccessResolver;
 import com.google.devtools.j2objc.translate.GwtConverter;
 import com.google.devtools.j2objc.translate.InitializationNormalizer;
 import com.google.devtools.j2objc.translate.InnerClassExtractor;
 import com.google.devtools.j2objc.translate.JavaToIOSMethodTranslator;
 import com.google.devtools.j2objc.translate.JavaToIOSTypeConverter;
+import com.google.devtools.j2objc.translate.MethodMappingCache;
+import com.google.devtools.j2objc.translate.NilCheckResolver;
 import com.google.devtools.j2objc.translate.Rewriter;
+import com.google.devtools.j2objc.translate.StringLiteralHoister;
+import com.google.devtools.j2objc.translate.TypeCheckResolver;
 import com.google.devtools.j2objc.types.Types;
 import com.google.devtools.j2objc.util.ASTNodeException;
 import com.google.devtools.j2objc.util.DeadCodeMap;
 import com.google.devtools.j2objc.util.NameTable;
 import com.google.devtools.j2objc.util.ProGuardUsageParser;
+import com.google.devtools.j2objc.util.SourcePathIndex;
+import com.google.devtools.j2objc.util.TimingProfile;
+import com.google.devtools.j2objc.util.TranslationCache;
 import com.google.devtools.j2objc.wrapper.Renamer;
 
 /**
@@ -88,11 +114,47 @@ import com.google.devtools.j2objc.wrapper.Renamer;
  * @author Tom Ball
  */
 public class J2ObjC {
-  private static String currentFileName;
-  private static CompilationUnit currentUnit;
-  private static int nFiles = 0;
-  private static int nErrors = 0;
-  private static int nWarnings = 0;
+  private static final ThreadLocal<String> currentFileName = new ThreadLocal<String>();
+  private static final ThreadLocal<CompilationUnit> currentUnit =
+      new ThreadLocal<CompilationUnit>();
+  private static final AtomicInteger nFiles = new AtomicInteger();
+  private static final AtomicInteger nErrors = new AtomicInteger();
+  private static final AtomicInteger nWarnings = new AtomicInteger();
+  private static final AtomicInteger nUnchangedOutputs = new AtomicInteger();
+  private static final AtomicInteger nNilChecksRemoved = new AtomicInteger();
+  private static final List<String> devirtualizedCalls =
+      Collections.synchronizedList(Lists.<String>newArrayList());
+
+  // The names the types of this run's source files may have, set before
+  // any file is translated.
+  private static final Set<String> translatedTypeNames = Sets.newHashSet();
+
+  // The simple names of the classes this run's source files extend, set
+  // before any file is translated with --cached-type-checks.
+  private static final Set<String> extendedClassNames = Sets.newHashSet();
+
+  // Errors and warnings reported by the current thread, so that a file's
+  // translation isn't abandoned because of another file's errors.
+  private static final ThreadLocal<ErrorCount> threadErrors = new ThreadLocal<ErrorCount>() {
+    @Override
+    protected ErrorCount initialValue() {
+      return new ErrorCount();
+    }
+  };
+
+  private static class ErrorCount {
+    int errors;
+    int warnings;
+  }
+
+  // Null unless --incremental was specified.
+  private TranslationCache cache;
+
+  private SourcePathIndex sourcePathIndex;
+
+  // Mappings loaded from the tool's resources, which a translation server
+  // reuses for each request.
+  private static final Map<String, Properties> resourceMappings = Maps.newHashMap();
 
   public enum Language {
     OBJECTIVE_C(".m"), OBJECTIVE_CPP(".mm");
@@ -109,10 +171,18 @@ public class J2ObjC {
   }
 
   static {
-    // Always enable assertions in translator.
+    // Enable assertions in translator, unless --no-assertions is specified.
+    setAssertionStatus(true);
+  }
+
+  /**
+   * Sets whether the translator's classes are loaded with assertions
+   * enabled.  Classes that are already loaded keep their status.
+   */
+  private static void setAssertionStatus(boolean enabled) {
     ClassLoader loader = J2ObjC.class.getClassLoader();
     if (loader != null) {
-      loader.setPackageAssertionStatus(J2ObjC.class.getPackage().getName(), true);
+      loader.setPackageAssertionStatus(J2ObjC.class.getPackage().getName(), enabled);
     }
   }
 
@@ -130,7 +200,7 @@ public class J2ObjC {
     logger.finest("reading " + filename);
 
     // Read file
-    currentFileName = filename;
+    currentFileName.set(filename);
     String source = getSource(filename);
     if (source == null) {
       error("no such file: " + filename);
@@ -139,20 +209,55 @@ public class J2ObjC {
     long readTime = System.currentTimeMillis();
 
     // Parse and resolve source
-    currentUnit = parse(filename, source);
+    CompilationUnit unit = parse(filename, source);
+    currentUnit.set(unit);
     long compileTime = System.currentTimeMillis();
     if (getCurrentErrorLevel() > beginningErrorLevel) {
       return; // Continue to next file.
     }
 
+    long translateTime = translate(filename, source, unit);
+    long endTime = System.currentTimeMillis();
+    printTimingInfo(readTime - startTime, compileTime - readTime, translateTime - compileTime,
+        endTime - translateTime, endTime - startTime);
+  }
+
+  /**
+   * Translates a parsed and resolved compilation unit, and writes the
+   * generated Objective-C files.
+   *
+   * @return the time the translation passes finished, or zero if they failed
+   */
+  private long translate(String filename, String source, CompilationUnit unit) {
     logger.finest("translating " + filename);
+    int beginningErrorLevel = getCurrentErrorLevel();
+    String cacheEntry = cache != null ? cache.createEntry(source, unit) : null;
     long translateTime = 0L;
-    initializeTranslation(currentUnit);
+    TimingProfile.startFile(filename);
+    initializeTranslation(unit);
+    TimingProfile.endPass("initializeTranslation");
     try {
-      String newSource = translate(currentUnit, source);
+      if (Options.eliminateDeadCodeInMemory() && Options.getDeadCodeMap() != null
+          && new DeadCodeEliminator(Options.getDeadCodeMap()).generatesCode(unit)) {
+        // The declarations the eliminator generates wouldn't have bindings,
+        // so the unit is translated from its rewritten source instead.
+        if (!recordModifications()) {
+          unit.recordModifications();
+        }
+        source = rewriteDeadCode(unit, source);
+        cleanup();
+        unit = parse(filename, source);
+        currentUnit.set(unit);
+        if (getCurrentErrorLevel() > beginningErrorLevel) {
+          return 0L;
+        }
+        initializeTranslation(unit);
+        TimingProfile.endPass("DeadCodeEliminator");
+      }
+      String newSource = translate(unit, source);
       translateTime = System.currentTimeMillis();
 
-      if (currentUnit.types().isEmpty()) {
+      if (unit.types().isEmpty()) {
         logger.finest("skipping dead file " + filename);
       } else {
         if (Options.printConvertedSources()) {
@@ -163,41 +268,162 @@ public class J2ObjC {
             "writing output file(s) to " + Options.getOutputDirectory().getAbsolutePath());
 
         // write header
-        ObjectiveCHeaderGenerator.generate(filename, source, currentUnit);
+        ObjectiveCHeaderGenerator.generate(filename, source, unit);
+        TimingProfile.endPass("ObjectiveCHeaderGenerator");
 
         // write implementation file
         ObjectiveCImplementationGenerator.generate(
-            filename, Options.getLanguage(), currentUnit, source);
+            filename, Options.getLanguage(), unit, source);
+        TimingProfile.endPass("ObjectiveCImplementationGenerator");
       }
     } catch (ASTNodeException e) {
       error(e);
     } finally {
       cleanup();
+      TimingProfile.endFile();
+    }
+    if (cacheEntry != null && translateTime > 0L
+        && getCurrentErrorLevel() == beginningErrorLevel) {
+      cache.update(filename, cacheEntry);
+    }
+    return translateTime;
+  }
+
+  /**
+   * Returns the source files that need to be translated, skipping those
+   * whose cache entries show they haven't changed since the last translation.
+   */
+  private List<String> removeUnchangedSources(List<String> paths) {
+    List<String> result = Lists.newArrayList();
+    for (String path : paths) {
+      String source = null;
+      try {
+        source = getSource(path);
+      } catch (IOException e) {
+        // Reported when the file is translated.
+      }
+      if (source != null && cache.isUpToDate(path, source)) {
+        logger.finest("skipping unchanged file " + path);
+      } else {
+        result.add(path);
+      }
     }
+    int nSkipped = paths.size() - result.size();
+    if (nSkipped > 0) {
+      printInfo(String.format("Skipped %d unchanged %s", nSkipped,
+          nSkipped == 1 ? "file" : "files"));
+    }
+    return result;
+  }
 
+  /**
+   * Parses a batch of source files with a single ASTParser, so that they
+   * share one binding environment instead of each file resolving the
+   * classpath and common supertypes again.  Each unit is translated as
+   * soon as it is resolved.
+   */
+  private void translateBatch(List<String> paths) {
+    long startTime = System.currentTimeMillis();
+    Map<String, String> sourceFiles = Maps.newLinkedHashMap();
+    for (String path : paths) {
+      sourceFiles.put(new File(path).getAbsolutePath(), path);
+    }
+    BatchRequestor requestor = new BatchRequestor(sourceFiles);
+    ASTParser parser = newParser();
+    parser.createASTs(sourceFiles.keySet().toArray(new String[sourceFiles.size()]), null,
+        new String[0], requestor, null);
+
+    if (logger.getLevel().intValue() <= Level.FINE.intValue()) {
+      long totalTime = System.currentTimeMillis() - startTime;
+      System.out.println(
+          String.format("batch: files=%d parse=%.3f translate=%.3f total=%.3f",
+          paths.size(), inSeconds(totalTime - requestor.translateTime),
+          inSeconds(requestor.translateTime), inSeconds(totalTime)));
+    }
+  }
+
+  /**
+   * Translates the units of a batch as the parser resolves them.
+   */
+  private class BatchRequestor extends FileASTRequestor {
+    private final Map<String, String> sourceFiles;
+    private long translateTime = 0L;
+
+    BatchRequestor(Map<String, String> sourceFiles) {
+      this.sourceFiles = sourceFiles;
+    }
+
+    @Override
+    public void acceptAST(String sourceFilePath, CompilationUnit unit) {
+      long startTime = System.currentTimeMillis();
+      String filename = sourceFiles.get(sourceFilePath);
+      if (filename == null) {
+        filename = sourceFilePath;
+      }
+      printInfo("translating " + filename);
+      try {
+        translateBatchUnit(filename, unit);
+        nFiles.incrementAndGet();
+      } catch (IOException e) {
+        error(e.getMessage());
+      }
+      translateTime += System.currentTimeMillis() - startTime;
+    }
+  }
+
+  /**
+   * Translates a unit resolved by a batch parse.  Its parse time is
+   * included in the batch's timing.
+   */
+  private void translateBatchUnit(String filename, CompilationUnit unit) throws IOException {
+    long startTime = System.currentTimeMillis();
+    int beginningErrorLevel = getCurrentErrorLevel();
+    currentFileName.set(filename);
+    currentUnit.set(unit);
+    String source = getSource(filename);
+    if (source == null) {
+      error("no such file: " + filename);
+      return;
+    }
+    long readTime = System.currentTimeMillis();
+    reportParseErrors(filename, unit);
+    if (getCurrentErrorLevel() > beginningErrorLevel) {
+      return; // Continue to next file.
+    }
+
+    long translateTime = translate(filename, source, unit);
     long endTime = System.currentTimeMillis();
-    printTimingInfo(readTime - startTime, compileTime - readTime, translateTime - compileTime,
+    printTimingInfo(readTime - startTime, 0L, translateTime - readTime,
         endTime - translateTime, endTime - startTime);
   }
 
-  private static CompilationUnit parse(String filename, String source) {
-    logger.finest("parsing " + filename);
+  private static ASTParser newParser() {
     ASTParser parser = ASTParser.newParser(AST.JLS4);
     Map<String, String> compilerOptions = Options.getCompilerOptions();
     parser.setCompilerOptions(compilerOptions);
-    parser.setSource(source.toCharArray());
     parser.setResolveBindings(true);
     setPaths(parser);
+    return parser;
+  }
+
+  @VisibleForTesting
+  static CompilationUnit parse(String filename, String source) {
+    logger.finest("parsing " + filename);
+    ASTParser parser = newParser();
+    parser.setSource(source.toCharArray());
     parser.setUnitName(filename);
     CompilationUnit unit = (CompilationUnit) parser.createAST(null);
+    reportParseErrors(filename, unit);
+    return unit;
+  }
 
+  private static void reportParseErrors(String filename, CompilationUnit unit) {
     for (IProblem problem : getCompilationErrors(unit)) {
       if (problem.isError()) {
         error(String.format("%s:%s: %s",
             filename, problem.getSourceLineNumber(), problem.getMessage()));
       }
     }
-    return unit;
   }
 
   private static List<IProblem> getCompilationErrors(CompilationUnit unit) {
@@ -229,9 +455,13 @@ public class J2ObjC {
    * @throws AssertionError if the dead code eliminator makes invalid edits
    */
   public static String removeDeadCode(CompilationUnit unit, String source) {
-    if (Options.getDeadCodeMap() == null) {
+    if (Options.getDeadCodeMap() == null || Options.eliminateDeadCodeInMemory()) {
       return source;
     }
+    return rewriteDeadCode(unit, source);
+  }
+
+  private static String rewriteDeadCode(CompilationUnit unit, String source) {
     logger.finest("removing dead code");
     new DeadCodeEliminator(Options.getDeadCodeMap()).run(unit);
 
@@ -249,6 +479,9 @@ public class J2ObjC {
 
   private String[] removeDeadCode(String[] files) throws IOException {
     loadDeadCodeMap();
+    if (Options.eliminateDeadCodeInMemory()) {
+      return files;  // Dead code is removed as the first translation pass.
+    }
     if (Options.getDeadCodeMap() != null) {
       for (int i = 0; i < files.length; i++) {
         String filename = files[i];
@@ -300,7 +533,15 @@ public class J2ObjC {
       return path;
     }
     initializeTranslation(unit);
-    String newSource = removeDeadCode(unit, source);
+    if (!recordModifications()) {
+      unit.recordModifications();  // The rewritten source is translated.
+    }
+    String newSource;
+    try {
+      newSource = rewriteDeadCode(unit, source);
+    } finally {
+      cleanup();
+    }
     if (!newSource.equals(source)) {
       // Save the new source to the tmpdir and update the files list.
       String pkg = unit.getPackage().getName().getFullyQualifiedName();
@@ -337,50 +578,116 @@ public class J2ObjC {
    *
    * @param unit the compilation unit created by ASTParser
    * @param source the Java source used by ASTParser
-   * @return the rewritten source
+   * @return the rewritten source, or null if converted sources weren't
+   *     requested, as its modifications weren't recorded
    * @throws AssertionError if the translator makes invalid edits
    */
   public static String translate(CompilationUnit unit, String source) {
 
+    // Remove dead code, unless it was removed by rewriting the sources.
+    // Units whose elimination generates code are rewritten before they're
+    // parsed, as the generated declarations wouldn't have bindings.
+    if (Options.eliminateDeadCodeInMemory() && Options.getDeadCodeMap() != null) {
+      DeadCodeEliminator eliminator = new DeadCodeEliminator(Options.getDeadCodeMap());
+      if (!eliminator.generatesCode(unit)) {
+        eliminator.run(unit);
+      }
+      endPass(unit, "DeadCodeEliminator");
+    }
+
     // Update code that has GWT references.
     new GwtConverter().run(unit);
+    endPass(unit, "GwtConverter");
 
     // Modify AST to be more compatible with Objective C
     new Rewriter().run(unit);
+    endPass(unit, "Rewriter");
 
     new Renamer().run(unit);
+    endPass(unit, "Renamer");
 
     // Add auto-boxing conversions.
     new Autoboxer(unit.getAST()).run(unit);
+    endPass(unit, "Autoboxer");
 
     // Extract inner and anonymous classes
     new AnonymousClassConverter(unit).run(unit);
+    endPass(unit, "AnonymousClassConverter");
     new InnerClassExtractor(unit).run(unit);
+    endPass(unit, "InnerClassExtractor");
 
     // Normalize init statements
     new InitializationNormalizer().run(unit);
+    endPass(unit, "InitializationNormalizer");
 
     // Translate core Java type use to similar iOS types
     new JavaToIOSTypeConverter().run(unit);
+    endPass(unit, "JavaToIOSTypeConverter");
     Map<String, String> methodMappings = Options.getMethodMappings();
     if (methodMappings.isEmpty()) {
       // Method maps are loaded here so tests can call translate() directly.
       loadMappingFiles();
     }
     new JavaToIOSMethodTranslator(unit, methodMappings).run(unit);
+    endPass(unit, "JavaToIOSMethodTranslator");
 
     // Add dealloc/finalize method(s), if necessary.  This is done
     // after inner class extraction, so that each class releases
     // only its own instance variables.
     new DestructorGenerator().run(unit);
+    endPass(unit, "DestructorGenerator");
 
     for (Plugin plugin : Options.getPlugins()) {
-      plugin.processUnit(unit);
+      // Plugins aren't required to be thread-safe.
+      synchronized (plugin) {
+        plugin.processUnit(unit);
+      }
+      endPass(unit, plugin.getClass().getSimpleName());
+    }
+
+    // Verify all modified nodes have type bindings, unless every pass is
+    // verified.
+    if (Options.getVerificationLevel() == Options.VerificationLevel.FINAL) {
+      Types.verifyNode(unit);
+      TimingProfile.endPass("verifyNode");
+    }
+
+    if (Options.directArrayAccess()) {
+      new DirectArrayAccessResolver().run(unit);
+      endPass(unit, "DirectArrayAccessResolver");
+    }
+
+    if (Options.devirtualize()) {
+      new Devirtualizer().run(unit);
+      endPass(unit, "Devirtualizer");
+    }
+
+    if (Options.hoistStringLiterals()) {
+      new StringLiteralHoister().run(unit);
+      endPass(unit, "StringLiteralHoister");
+    }
+
+    if (Options.staticArrayInitializers()) {
+      new ArrayInitializerHoister().run(unit);
+      endPass(unit, "ArrayInitializerHoister");
     }
 
-    // Verify all modified nodes have type bindings
-    Types.verifyNode(unit);
+    if (Options.cachedTypeChecks()) {
+      new TypeCheckResolver().run(unit);
+      endPass(unit, "TypeCheckResolver");
+    }
 
+    // Find the dereferences that don't need nil checks.  This is done last,
+    // so the analysis sees the statements and array accesses that are
+    // generated.
+    if (Options.eliminateNilChecks()) {
+      new NilCheckResolver().run(unit);
+      endPass(unit, "NilCheckResolver");
+    }
+
+    if (!Options.printConvertedSources()) {
+      return null;
+    }
     Document doc = new Document(source);
     TextEdit edit = unit.rewrite(doc, Options.getCompilerOptions());
     try {
@@ -390,16 +697,42 @@ public class J2ObjC {
     } catch (BadLocationException e) {
       throw new AssertionError(e);
     }
+    TimingProfile.endPass("rewrite");
     return doc.get();
   }
 
+  /**
+   * Ends a translation pass, and verifies the unit's bindings if every pass
+   * is verified.
+   */
+  private static void endPass(CompilationUnit unit, String pass) {
+    TimingProfile.endPass(pass);
+    if (Options.getVerificationLevel() == Options.VerificationLevel.ALL_PASSES) {
+      Types.verifyNode(unit, pass);
+      TimingProfile.endPass("verifyNode");
+    }
+  }
+
   public static void initializeTranslation(CompilationUnit unit) {
-    unit.recordModifications();
+    if (recordModifications()) {
+      unit.recordModifications();
+    }
     NameTable.initialize(unit);
     Types.initialize(unit);
     Symbols.initialize(unit);
   }
 
+  /**
+   * Returns true if the units' modified sources are printed, so their
+   * modifications are recorded from the start.  Recording modifications and
+   * rewriting the source is a significant part of translation time, so it
+   * is skipped otherwise; the dead code pre-pass, whose rewritten source is
+   * used, records the modifications of the units it parses itself.
+   */
+  private static boolean recordModifications() {
+    return Options.printConvertedSources();
+  }
+
   private void saveConvertedSource(String filename, String content) {
     try {
       File outputFile = new File(Options.getOutputDirectory(), filename);
@@ -448,52 +781,39 @@ public class J2ObjC {
   }
 
   private String getSource(String path) throws IOException {
-    File file = findSourceFile(path);
+    File file = getFileOrNull(path);
     if (file == null) {
-      return findArchivedSource(path);
-    } else {
-      return Files.toString(file, Charset.defaultCharset());
+      SourcePathIndex index = getSourcePathIndex();
+      file = index.findFile(path);
+      if (file == null) {
+        return index.readArchivedFile(path);
+      }
     }
+    return Files.toString(file, Charset.defaultCharset());
   }
 
-  private File findSourceFile(String filename) {
-    File f = getFileOrNull(filename);
-    if (f != null) {
-      return f;
-    }
-    for (String pathEntry : Options.getSourcePathEntries()) {
-      f = getFileOrNull(pathEntry + File.separatorChar + filename);
-      if (f != null) {
-        return f;
-      }
+  /**
+   * Returns the index of the current sourcepath, which is rebuilt if the
+   * sourcepath has changed since it was last used.
+   */
+  private synchronized SourcePathIndex getSourcePathIndex() throws IOException {
+    String[] sourcePath = Options.getSourcePathEntries();
+    if (sourcePathIndex == null || !sourcePathIndex.isIndexOf(sourcePath)) {
+      closeSourcePathIndex();
+      sourcePathIndex = new SourcePathIndex(sourcePath);
     }
-    return null;
+    return sourcePathIndex;
   }
 
-  private String findArchivedSource(String path) throws IOException {
-    for (String pathEntry : Options.getSourcePathEntries()) {
-      File f = new File(pathEntry);
-      if (f.exists() && f.isFile()) {
-        ZipFile zfile;
-        try {
-          zfile = new ZipFile(f);
-        } catch (ZipException e) {
-          // Not a zip or jar file, so skip it.
-          continue;
-        }
-        ZipEntry entry = zfile.getEntry(path);
-        if (entry == null) {
-          continue;
-        }
-        try {
-          Reader in = new InputStreamReader(zfile.getInputStream(entry));
-          return CharStreams.toString(in);
-        } finally {
-          zfile.close();  // Also closes input stream.
-        }
+  private synchronized void closeSourcePathIndex() throws IOException {
+    if (sourcePathIndex != null) {
+      if (logger.getLevel().intValue() <= Level.FINEST.intValue()) {
+        System.out.println(String.format("sourcepath index: hits=%d misses=%d",
+            sourcePathIndex.getHitCount(), sourcePathIndex.getMissCount()));
       }
+      sourcePathIndex.close();
+      sourcePathIndex = null;
     }
-    return null;
   }
 
   private File getFileOrNull(String fileName) {
@@ -501,7 +821,11 @@ public class J2ObjC {
     return f.exists() ? f : null;
   }
 
-  private static void translateSourceJar(J2ObjC compiler, String jarPath) throws IOException {
+  /**
+   * Returns the paths of the Java sources in a source jar.
+   */
+  private static List<String> getSourceJarEntries(String jarPath) throws IOException {
+    List<String> sources = Lists.newArrayList();
     File f = new File(jarPath);
     if (f.exists() && f.isFile()) {
       ZipFile zfile = new ZipFile(f);
@@ -511,18 +835,97 @@ public class J2ObjC {
           ZipEntry entry = enumerator.nextElement();
           String path = entry.getName();
           if (path.endsWith(".java")) {
-            printInfo("translating " + path);
-            compiler.translate(path);
-            nFiles++;
+            sources.add(path);
           }
         }
-      } catch (ZipException e) {
-        // Not a zip or jar file, so skip it.
-        return;
       } finally {
         zfile.close();  // Also closes input stream.
       }
     }
+    return sources;
+  }
+
+  private void translateFile(String path) {
+    printInfo("translating " + path);
+    try {
+      translate(path);
+      nFiles.incrementAndGet();
+    } catch (IOException e) {
+      error(e.getMessage());
+    }
+  }
+
+  /**
+   * Translates the specified source files, concurrently if more than one
+   * thread was requested.  Each file's state is confined to the thread
+   * translating it, so the generated files are the same as a serial run.
+   * In batch mode, the source files on disk are split into one parser batch
+   * per thread; archived sources are always parsed individually.
+   */
+  private static void translateFiles(final J2ObjC compiler, List<String> paths) {
+    List<Runnable> tasks = Lists.newArrayList();
+    List<String> batchPaths = Lists.newArrayList();
+    for (final String path : paths) {
+      if (Options.batchTranslate() && new File(path).isFile()) {
+        batchPaths.add(path);
+      } else {
+        tasks.add(new Runnable() {
+          public void run() {
+            compiler.translateFile(path);
+          }
+        });
+      }
+    }
+    if (!batchPaths.isEmpty()) {
+      int nBatches = Math.min(Options.getThreadCount(), batchPaths.size());
+      int batchSize = (batchPaths.size() + nBatches - 1) / nBatches;
+      for (final List<String> batch : Lists.partition(batchPaths, batchSize)) {
+        tasks.add(new Runnable() {
+          public void run() {
+            compiler.translateBatch(batch);
+          }
+        });
+      }
+    }
+    runTasks(tasks);
+  }
+
+  private static void runTasks(List<Runnable> tasks) {
+    int nThreads = Math.min(Options.getThreadCount(), tasks.size());
+    if (nThreads <= 1) {
+      for (Runnable task : tasks) {
+        task.run();
+      }
+      return;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+    try {
+      List<Future<?>> results = Lists.newArrayList();
+      for (Runnable task : tasks) {
+        results.add(executor.submit(task));
+      }
+      for (Future<?> result : results) {
+        try {
+          result.get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          error(e);
+        } catch (ExecutionException e) {
+          // Rethrow internal errors as a serial translation would.
+          Throwable cause = e.getCause();
+          if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          }
+          if (cause instanceof Error) {
+            throw (Error) cause;
+          }
+          throw new AssertionError(cause);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
   }
 
   /**
@@ -539,7 +942,8 @@ public class J2ObjC {
    * error conditions.
    */
   public static void error() {
-    nErrors++;
+    nErrors.incrementAndGet();
+    threadErrors.get().errors++;
   }
 
   /**
@@ -547,8 +951,8 @@ public class J2ObjC {
    */
   public static void error(ASTNodeException e) {
     System.err.println(String.format("Internal error, translating %s, line %d\nStack trace:",
-        currentFileName, currentUnit.getLineNumber(e.getSourcePosition())));
-    nErrors++;
+        currentFileName.get(), currentUnit.get().getLineNumber(e.getSourcePosition())));
+    error();
     e.getCause().printStackTrace(System.err);
   }
 
@@ -558,9 +962,10 @@ public class J2ObjC {
   public static void warning(String message) {
     System.err.println("warning: " + message);
     if (Options.treatWarningsAsErrors()) {
-      nErrors++;
+      error();
     } else {
-      nWarnings++;
+      nWarnings.incrementAndGet();
+      threadErrors.get().warnings++;
     }
   }
 
@@ -569,7 +974,7 @@ public class J2ObjC {
    */
   public static void error(ASTNode node, String message) {
     int line = getNodeLine(node);
-    error(String.format("%s:%s: %s", currentFileName, line, message));
+    error(String.format("%s:%s: %s", currentFileName.get(), line, message));
   }
 
   /**
@@ -577,11 +982,12 @@ public class J2ObjC {
    */
   public static void warning(ASTNode node, String message) {
     int line = getNodeLine(node);
-    warning(String.format("%s:%s: %s", currentFileName, line, message));
+    warning(String.format("%s:%s: %s", currentFileName.get(), line, message));
   }
 
   private int getCurrentErrorLevel() {
-    return Options.treatWarningsAsErrors() ? nErrors + nWarnings : nErrors;
+    ErrorCount count = threadErrors.get();
+    return Options.treatWarningsAsErrors() ? count.errors + count.warnings : count.errors;
   }
 
   private static int getNodeLine(ASTNode node) {
@@ -602,7 +1008,8 @@ public class J2ObjC {
     Options.setDeadCodeMap(map);
   }
 
-  private static void loadMappingFiles() {
+  @VisibleForTesting
+  static void loadMappingFiles() {
     for (String resourceName : Options.getMappingFiles()) {
       Properties mappings = new Properties();
       try {
@@ -614,6 +1021,8 @@ public class J2ObjC {
           } finally {
             reader.close();
           }
+        } else if (resourceMappings.containsKey(resourceName)) {
+          mappings = resourceMappings.get(resourceName);
         } else {
           InputStream stream = J2ObjC.class.getResourceAsStream(resourceName);
           if (stream == null) {
@@ -621,6 +1030,7 @@ public class J2ObjC {
           } else {
             try {
               mappings.load(stream);
+              resourceMappings.put(resourceName, mappings);
             } finally {
               stream.close();
             }
@@ -637,30 +1047,180 @@ public class J2ObjC {
         Options.getMethodMappings().put(javaMethod, iosMethod);
       }
     }
+    MethodMappingCache.invalidate();
   }
 
   @VisibleForTesting
   static void reset() {
-    nErrors = 0;
-    nWarnings = 0;
-    nFiles = 0;
-    currentFileName = null;
-    currentUnit = null;
+    nErrors.set(0);
+    nWarnings.set(0);
+    nFiles.set(0);
+    nUnchangedOutputs.set(0);
+    nNilChecksRemoved.set(0);
+    devirtualizedCalls.clear();
+    translatedTypeNames.clear();
+    extendedClassNames.clear();
+    MethodMappingCache.reset();
+    NameTable.resetNameCache();
+    threadErrors.remove();
+    currentFileName.remove();
+    currentUnit.remove();
   }
 
   public static int getErrorCount() {
-    return nErrors;
+    return nErrors.get();
   }
 
   public static int getWarningCount() {
-    return nWarnings;
+    return nWarnings.get();
   }
 
-  private static void exit() {
-    printInfo(String.format("Translated %d %s: %d errors, %d warnings",
-        nFiles, nFiles == 1 ? "file" : "files", nErrors, nWarnings));
-    Options.deleteTemporaryDirectory();
-    System.exit(nErrors);
+  /**
+   * Records an output file that wasn't written, as its content didn't change.
+   */
+  public static void unchangedOutput() {
+    nUnchangedOutputs.incrementAndGet();
+  }
+
+  /**
+   * Records a nil check that wasn't generated, as NilCheckResolver proved
+   * its expression is non-null.
+   */
+  public static void nilCheckRemoved() {
+    nNilChecksRemoved.incrementAndGet();
+  }
+
+  public static int getNilChecksRemoved() {
+    return nNilChecksRemoved.get();
+  }
+
+  /**
+   * Records the qualified names the top-level types of source files may
+   * have.  A file's package isn't known before it's parsed, so each of its
+   * path's suffixes is a name, such as "C", "b.C" and "a.b.C" for
+   * "src/a/b/C.java".
+   */
+  @VisibleForTesting
+  public static void addTranslatedTypeNames(List<String> paths) {
+    for (String path : paths) {
+      String[] parts =
+          path.substring(0, path.length() - ".java".length()).replace('\\', '/').split("/");
+      String name = null;
+      for (int i = parts.length - 1; i >= 0 && !parts[i].isEmpty(); i--) {
+        name = name == null ? parts[i] : parts[i] + "." + name;
+        translatedTypeNames.add(name);
+      }
+    }
+  }
+
+  /**
+   * Returns true if a top-level type is declared in one of this run's
+   * source files, assuming the file is named after the type, as Java
+   * requires of public types.
+   */
+  public static boolean isTranslatedType(String qualifiedName) {
+    return translatedTypeNames.contains(qualifiedName);
+  }
+
+  /**
+   * Records the simple names of the classes that the source files' types
+   * extend, including their anonymous classes.  The files are parsed
+   * without bindings, so a name also matches other classes with that name.
+   */
+  private void addExtendedClassNames(List<String> paths) {
+    for (String path : paths) {
+      String source;
+      try {
+        source = getSource(path);
+      } catch (IOException e) {
+        // Reported when the file is translated.
+        continue;
+      }
+      if (source != null) {
+        ASTParser parser = ASTParser.newParser(AST.JLS4);
+        parser.setCompilerOptions(Options.getCompilerOptions());
+        parser.setSource(source.toCharArray());
+        addExtendedClassNames((CompilationUnit) parser.createAST(null));
+      }
+    }
+  }
+
+  @VisibleForTesting
+  public static void addExtendedClassNames(CompilationUnit unit) {
+    unit.accept(new ASTVisitor() {
+      @Override
+      public boolean visit(TypeDeclaration node) {
+        addExtendedClassName(node.getSuperclassType());
+        return true;
+      }
+
+      @Override
+      public boolean visit(ClassInstanceCreation node) {
+        if (node.getAnonymousClassDeclaration() != null) {
+          addExtendedClassName(node.getType());
+        }
+        return true;
+      }
+    });
+  }
+
+  private static void addExtendedClassName(Type type) {
+    if (type instanceof ParameterizedType) {
+      type = ((ParameterizedType) type).getType();
+    }
+    if (type instanceof SimpleType) {
+      Name name = ((SimpleType) type).getName();
+      extendedClassNames.add(name.isSimpleName() ? ((SimpleName) name).getIdentifier()
+          : ((QualifiedName) name).getName().getIdentifier());
+    } else if (type instanceof QualifiedType) {
+      extendedClassNames.add(((QualifiedType) type).getName().getIdentifier());
+    }
+  }
+
+  /**
+   * Returns true if a class with the specified simple name may be extended
+   * by a type declared in one of this run's source files.
+   */
+  public static boolean isExtendedClassName(String simpleName) {
+    return extendedClassNames.contains(simpleName);
+  }
+
+  /**
+   * Records a method invocation that Devirtualizer converted into a call of
+   * the method's function.
+   */
+  public static void callDevirtualized(ASTNode node, String method, String function) {
+    devirtualizedCalls.add(String.format("%s:%s: %s -> %s",
+        currentFileName.get(), getNodeLine(node), method, function));
+  }
+
+  @VisibleForTesting
+  public static List<String> getDevirtualizedCalls() {
+    synchronized (devirtualizedCalls) {
+      return Lists.newArrayList(devirtualizedCalls);
+    }
+  }
+
+  /**
+   * Writes the converted calls to the devirtualization report file, if one
+   * was specified.  Calls are sorted, as files may be translated in parallel.
+   */
+  private static void writeDevirtualizationReport() {
+    File reportFile = Options.getDevirtualizationReportFile();
+    if (reportFile != null) {
+      List<String> calls = getDevirtualizedCalls();
+      Collections.sort(calls);
+      StringBuilder sb = new StringBuilder();
+      for (String call : calls) {
+        sb.append(call);
+        sb.append('\n');
+      }
+      try {
+        Files.write(sb, reportFile, Charsets.UTF_8);
+      } catch (IOException e) {
+        error(e.getMessage());
+      }
+    }
   }
 
   private static void printInfo(String msg) {
@@ -683,6 +1243,27 @@ public class J2ObjC {
     }
   }
 
+  /**
+   * Prints the per-pass totals and slowest files, and writes them to the
+   * timing report file, if one was specified.
+   */
+  private static void printTimingProfile() {
+    if (!TimingProfile.isEnabled()) {
+      return;
+    }
+    if (logger.getLevel().intValue() <= Level.FINE.intValue()) {
+      System.out.print(TimingProfile.getSummary());
+    }
+    File reportFile = Options.getTimingReportFile();
+    if (reportFile != null) {
+      try {
+        TimingProfile.writeReport(reportFile);
+      } catch (IOException e) {
+        error(e.getMessage());
+      }
+    }
+  }
+
   private static float inSeconds(long milliseconds) {
     return (float) milliseconds / 1000;
   }
@@ -744,7 +1325,7 @@ public class J2ObjC {
 
   public static void error(Exception e) {
     logger.log(Level.SEVERE, "Exiting due to exception", e);
-    System.exit(1);
+    Options.exit(1);
   }
 
   /**
@@ -754,17 +1335,47 @@ public class J2ObjC {
    * @throws IOException
    */
   public static void main(String[] args) {
+    if (args.length > 0 && args[0].equals("--server")) {
+      if (args.length != 2) {
+        Options.usage("--server requires a port number");
+      }
+      try {
+        TranslationServer.serve(Integer.parseInt(args[1]));
+      } catch (NumberFormatException e) {
+        Options.usage("invalid port: " + args[1]);
+      } catch (IOException e) {
+        error(e);
+      }
+      return;
+    }
+    System.exit(run(args));
+  }
+
+  /**
+   * Translates the files specified by a command-line.
+   *
+   * @param args command-line arguments: flags and source file names
+   * @return the number of errors reported
+   */
+  static int run(String[] args) {
+    reset();
     String[] files = null;
     try {
       files = Options.load(args);
       if (files.length == 0) {
         Options.help(); // Exits, due to no files specified.
       }
+      if (!Options.enableAssertions()) {
+        // Translation servers reject this option, as requests share their classes.
+        setAssertionStatus(false);
+      }
     } catch (IOException e) {
       error(e.getMessage());
-      System.exit(1);
+      return getErrorCount();
     }
     J2ObjC compiler = new J2ObjC();
+    TimingProfile.reset(logger.getLevel().intValue() <= Level.FINE.intValue()
+        || Options.getTimingReportFile() != null);
 
     try {
       initPlugins(Options.getPluginPathEntries(), Options.getPluginOptionString());
@@ -781,20 +1392,43 @@ public class J2ObjC {
       error(e.getMessage());
     }
     if (compiler.getCurrentErrorLevel() > beginningErrorLevel) {
-      return;
+      return getErrorCount();
     }
 
-    nFiles = 0;
+    // Load the method mappings before any translation starts, as they are
+    // shared by all translation threads.
+    if (Options.getMethodMappings().isEmpty()) {
+      loadMappingFiles();
+    }
+
+    nFiles.set(0);
+    List<String> sources = Lists.newArrayList();
     for (int i = 0; i < files.length; i++) {
       String file = files[i];
-      try {
-        if (file.endsWith(".java")) {  // Eclipse may send all project entities.
-          printInfo("translating " + file);
-          compiler.translate(file);
-          nFiles++;
-        } else if (file.endsWith(".jar")) {
-          translateSourceJar(compiler, file);
+      if (file.endsWith(".java")) {  // Eclipse may send all project entities.
+        sources.add(file);
+      } else if (file.endsWith(".jar")) {
+        try {
+          sources.addAll(getSourceJarEntries(file));
+        } catch (IOException e) {
+          error(e.getMessage());
         }
+      }
+    }
+    // Unchanged sources were translated with the same options, so their
+    // types are included.
+    addTranslatedTypeNames(sources);
+    if (Options.cachedTypeChecks()) {
+      compiler.addExtendedClassNames(sources);
+    }
+    if (Options.incremental()) {
+      compiler.cache = TranslationCache.load(Options.getOutputDirectory());
+      sources = compiler.removeUnchangedSources(sources);
+    }
+    translateFiles(compiler, sources);
+    if (compiler.cache != null) {
+      try {
+        compiler.cache.save();
       } catch (IOException e) {
         error(e.getMessage());
       }
@@ -804,6 +1438,37 @@ public class J2ObjC {
       plugin.endProcessing(Options.getOutputDirectory());
     }
 
-    exit();
+    try {
+      compiler.closeSourcePathIndex();
+    } catch (IOException e) {
+      error(e.getMessage());
+    }
+
+    int translated = nFiles.get();
+    printInfo(String.format("Translated %d %s: %d errors, %d warnings",
+        translated, translated == 1 ? "file" : "files", nErrors.get(), nWarnings.get()));
+    printTimingProfile();
+    writeDevirtualizationReport();
+    if (logger.getLevel().intValue() <= Level.FINEST.intValue()) {
+      if (Options.eliminateNilChecks()) {
+        System.out.println(String.format("Nil checks removed: %d", nNilChecksRemoved.get()));
+      }
+      int hits = MethodMappingCache.getHitCount();
+      int lookups = hits + MethodMappingCache.getMissCount();
+      System.out.println(String.format("Method description cache: hits=%d misses=%d (%.1f%%)",
+          hits, lookups - hits, lookups > 0 ? 100.0 * hits / lookups : 0.0));
+      hits = NameTable.getNameCacheHitCount();
+      lookups = hits + NameTable.getNameCacheMissCount();
+      System.out.println(String.format("Type name cache: hits=%d misses=%d (%.1f%%)",
+          hits, lookups - hits, lookups > 0 ? 100.0 * hits / lookups : 0.0));
+      if (Options.devirtualize()) {
+        System.out.println(String.format("Devirtualized calls: %d", devirtualizedCalls.size()));
+      }
+      if (Options.writeIfChanged()) {
+        System.out.println(String.format("Unchanged output files: %d", nUnchangedOutputs.get()));
+      }
+    }
+    Options.deleteTemporaryDirectory();
+    return getErrorCount();
   }
 }
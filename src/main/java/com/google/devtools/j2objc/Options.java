@@ -64,6 +64,27 @@ public class Options {
   private static boolean generateTestMain = true;
   private static boolean memoryDebug = false;
   private static boolean generateNativeStubs = false;
+  private static int threadCount = 1;
+  private static boolean batchTranslate = false;
+  private static boolean incremental = false;
+  private static boolean eliminateDeadCodeInMemory = false;
+  private static File timingReportFile = null;
+  private static boolean writeIfChanged = false;
+  private static boolean eliminateNilChecks = false;
+  private static boolean directArrayAccess = false;
+  private static boolean fastEnumeration = false;
+  private static boolean devirtualize = false;
+  private static File devirtualizationReportFile = null;
+  private static boolean typedStringConcatenation = false;
+  private static boolean hoistStringLiterals = false;
+  private static boolean staticArrayInitializers = false;
+  private static boolean staticFieldGlobals = false;
+  private static boolean cachedTypeChecks = false;
+  private static boolean fastMonitors = false;
+  private static boolean lazyBindings = false;
+  private static VerificationLevel verificationLevel = VerificationLevel.FINAL;
+  private static boolean enableAssertions = true;
+  private static boolean exitOnError = true;
 
   private static DeadCodeMap deadCodeMap = null;
   private static File proGuardUsageFile = null;
@@ -108,6 +129,12 @@ public class Options {
   private static final MemoryManagementOption DEFAULT_MEMORY_MANAGEMENT_OPTION =
       MemoryManagementOption.REFERENCE_COUNTING;
 
+  /**
+   * When the bindings of a unit's nodes are verified: never, once after the
+   * passes that change them, or after every pass.
+   */
+  public static enum VerificationLevel { OFF, FINAL, ALL_PASSES }
+
   // Share a single logger so it's level is easily configurable.
   private static final Logger logger = Logger.getLogger(J2ObjC.class.getName());
 
@@ -167,6 +194,11 @@ public class Options {
           usage("--dead-code-report requires an argument");
         }
         proGuardUsageFile = new File(args[nArg]);
+      } else if (arg.equals("-j")) {
+        if (++nArg == args.length) {
+          usage("-j requires an argument");
+        }
+        threadCount = getThreadCountArgument(args[nArg]);
       } else if (arg.equals("--prefix")) {
         if (++nArg == args.length) {
           usage("--prefix requires an argument");
@@ -189,6 +221,57 @@ public class Options {
         } else {
           usage("unsupported language: " + s);
         }
+      } else if (arg.equals("--write-if-changed")) {
+        writeIfChanged = true;
+      } else if (arg.equals("--eliminate-nil-checks")) {
+        eliminateNilChecks = true;
+      } else if (arg.equals("--direct-array-access")) {
+        directArrayAccess = true;
+      } else if (arg.equals("--fast-enumeration")) {
+        fastEnumeration = true;
+      } else if (arg.equals("--devirtualize")) {
+        devirtualize = true;
+      } else if (arg.equals("--devirtualization-report")) {
+        if (++nArg == args.length) {
+          usage("--devirtualization-report requires an argument");
+        }
+        devirtualizationReportFile = new File(args[nArg]);
+      } else if (arg.equals("--typed-string-concatenation")) {
+        typedStringConcatenation = true;
+      } else if (arg.equals("--hoist-string-literals")) {
+        hoistStringLiterals = true;
+      } else if (arg.equals("--static-array-initializers")) {
+        staticArrayInitializers = true;
+      } else if (arg.equals("--static-field-globals")) {
+        staticFieldGlobals = true;
+      } else if (arg.equals("--cached-type-checks")) {
+        cachedTypeChecks = true;
+      } else if (arg.equals("--fast-monitors")) {
+        fastMonitors = true;
+      } else if (arg.equals("--lazy-bindings")) {
+        lazyBindings = true;
+      } else if (arg.equals("--verify-bindings")) {
+        if (++nArg == args.length) {
+          usage("--verify-bindings requires an argument");
+        }
+        String s = args[nArg];
+        if (s.equals("off")) {
+          verificationLevel = VerificationLevel.OFF;
+        } else if (s.equals("final")) {
+          verificationLevel = VerificationLevel.FINAL;
+        } else if (s.equals("all")) {
+          verificationLevel = VerificationLevel.ALL_PASSES;
+        } else {
+          usage("unsupported verification level: " + s);
+        }
+      } else if (arg.equals("--no-assertions")) {
+        enableAssertions = false;
+      } else if (arg.equals("--dead-code-in-memory")) {
+        eliminateDeadCodeInMemory = true;
+      } else if (arg.equals("--incremental")) {
+        incremental = true;
+      } else if (arg.equals("--batch-translate")) {
+        batchTranslate = true;
       } else if (arg.equals("--print-converted-sources")) {
         printConvertedSources = true;
       } else if (arg.equals("--ignore-missing-imports")) {
@@ -217,6 +300,11 @@ public class Options {
         logger.setLevel(Level.WARNING);
       } else if (arg.equals("-t") || arg.equals("--timing-info")) {
         logger.setLevel(Level.FINE);
+      } else if (arg.equals("--timing-report")) {
+        if (++nArg == args.length) {
+          usage("--timing-report requires an argument");
+        }
+        timingReportFile = new File(args[nArg]);
       } else if (arg.equals("-v") || arg.equals("--verbose")) {
         logger.setLevel(Level.FINEST);
       } else if (arg.startsWith(XBOOTCLASSPATH)) {
@@ -253,6 +341,19 @@ public class Options {
     return files;
   }
 
+  private static int getThreadCountArgument(String arg) {
+    int n = 0;
+    try {
+      n = Integer.parseInt(arg);
+    } catch (NumberFormatException e) {
+      // Reported below.
+    }
+    if (n < 1) {
+      usage("invalid thread count: " + arg);
+    }
+    return n;
+  }
+
   /**
    * Add prefix option, which has a format of "<package>=<prefix>".
    */
@@ -302,12 +403,98 @@ public class Options {
   public static void usage(String invalidUseMsg) {
     System.err.println("j2objc: " + invalidUseMsg);
     System.err.println(usageMessage);
-    System.exit(1);
+    exit(1);
   }
 
   public static void help() {
     System.err.println(helpMessage);
-    System.exit(0);
+    exit(0);
+  }
+
+  /**
+   * Terminates the tool, or just the current request when run by a
+   * translation server.
+   */
+  public static void exit(int status) {
+    if (exitOnError) {
+      System.exit(status);
+    }
+    throw new ExitException(status);
+  }
+
+  /**
+   * Thrown instead of exiting the VM while a translation server is running.
+   */
+  public static class ExitException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    ExitException(int status) {
+      super("exit status " + status);
+      this.status = status;
+    }
+
+    public int getStatus() {
+      return status;
+    }
+  }
+
+  public static void setExitOnError(boolean b) {
+    exitOnError = b;
+  }
+
+  /**
+   * Restores the default options, so that a translation server loads each
+   * request's options from scratch.
+   */
+  public static void reset() {
+    sourcePathEntries = Lists.newArrayList(".");
+    classPathEntries = Lists.newArrayList(".");
+    pluginPathEntries = Lists.newArrayList();
+    pluginOptionString = "";
+    plugins = new ArrayList<Plugin>();
+    outputDirectory = new File(".");
+    usePackageDirectories = true;
+    language = Language.OBJECTIVE_C;
+    printConvertedSources = false;
+    ignoreMissingImports = false;
+    memoryManagementOption = null;
+    emitLineDirectives = false;
+    warningsAsErrors = false;
+    inlineFieldAccess = true;
+    methodMappings.clear();
+    generateTestMain = true;
+    memoryDebug = false;
+    generateNativeStubs = false;
+    threadCount = 1;
+    batchTranslate = false;
+    incremental = false;
+    eliminateDeadCodeInMemory = false;
+    timingReportFile = null;
+    writeIfChanged = false;
+    eliminateNilChecks = false;
+    directArrayAccess = false;
+    fastEnumeration = false;
+    devirtualize = false;
+    devirtualizationReportFile = null;
+    typedStringConcatenation = false;
+    hoistStringLiterals = false;
+    staticArrayInitializers = false;
+    staticFieldGlobals = false;
+    cachedTypeChecks = false;
+    fastMonitors = false;
+    lazyBindings = false;
+    verificationLevel = VerificationLevel.FINAL;
+    enableAssertions = true;
+    deadCodeMap = null;
+    proGuardUsageFile = null;
+    acceptJsniDelimiters = true;
+    mappingFiles.clear();
+    mappingFiles.add(JRE_MAPPINGS_FILE);
+    temporaryDirectory = null;
+    bootclasspath = null;
+    packagePrefixes.clear();
   }
 
   private static List<String> getPathArgument(String argument) {
@@ -381,6 +568,57 @@ public class Options {
     memoryDebug = value;
   }
 
+  /**
+   * Returns the number of files that can be translated concurrently.
+   */
+  public static int getThreadCount() {
+    return threadCount;
+  }
+
+  @VisibleForTesting
+  public static void setThreadCount(int n) {
+    threadCount = n;
+  }
+
+  /**
+   * If true, source files are parsed together in batches that share a
+   * binding environment, rather than one parser per file.
+   */
+  public static boolean batchTranslate() {
+    return batchTranslate;
+  }
+
+  @VisibleForTesting
+  public static void setBatchTranslate(boolean b) {
+    batchTranslate = b;
+  }
+
+  /**
+   * If true, sources that haven't changed since they were last translated
+   * into the output directory are skipped.
+   */
+  public static boolean incremental() {
+    return incremental;
+  }
+
+  @VisibleForTesting
+  public static void setIncremental(boolean b) {
+    incremental = b;
+  }
+
+  /**
+   * If true, dead code is removed from each unit as it is translated,
+   * rather than by rewriting all sources before translation starts.
+   */
+  public static boolean eliminateDeadCodeInMemory() {
+    return eliminateDeadCodeInMemory;
+  }
+
+  @VisibleForTesting
+  public static void setEliminateDeadCodeInMemory(boolean b) {
+    eliminateDeadCodeInMemory = b;
+  }
+
   public static boolean generateNativeStubs() {
     return generateNativeStubs;
   }
@@ -405,6 +643,11 @@ public class Options {
     return printConvertedSources;
   }
 
+  @VisibleForTesting
+  public static void setPrintConvertedSources(boolean b) {
+    printConvertedSources = b;
+  }
+
   public static boolean ignoreMissingImports() {
     return ignoreMissingImports;
   }
@@ -474,6 +717,217 @@ public class Options {
     return generateTestMain;
   }
 
+  /**
+   * If true, generated files are only written if their content changed, so
+   * that unchanged files keep their modification times.
+   */
+  public static boolean writeIfChanged() {
+    return writeIfChanged;
+  }
+
+  @VisibleForTesting
+  public static void setWriteIfChanged(boolean b) {
+    writeIfChanged = b;
+  }
+
+  /**
+   * If true, nil checks of local variables that are proven to be non-null
+   * aren't generated.
+   */
+  public static boolean eliminateNilChecks() {
+    return eliminateNilChecks;
+  }
+
+  @VisibleForTesting
+  public static void setEliminateNilChecks(boolean b) {
+    eliminateNilChecks = b;
+  }
+
+  /**
+   * If true, the elements of primitive arrays are accessed through the
+   * array's buffer in loops that can't index outside of the array.
+   */
+  public static boolean directArrayAccess() {
+    return directArrayAccess;
+  }
+
+  @VisibleForTesting
+  public static void setDirectArrayAccess(boolean b) {
+    directArrayAccess = b;
+  }
+
+  /**
+   * If true, enhanced for loops over JRE collections that support the
+   * NSFastEnumeration protocol are translated to Objective-C for-in loops.
+   */
+  public static boolean fastEnumeration() {
+    return fastEnumeration;
+  }
+
+  @VisibleForTesting
+  public static void setFastEnumeration(boolean b) {
+    fastEnumeration = b;
+  }
+
+  /**
+   * If true, a class's calls of its own static, private and non-overriding
+   * final class methods invoke C functions instead of sending messages.
+   */
+  public static boolean devirtualize() {
+    return devirtualize;
+  }
+
+  @VisibleForTesting
+  public static void setDevirtualize(boolean b) {
+    devirtualize = b;
+  }
+
+  /**
+   * Returns the file the devirtualized calls are listed in, or null if a
+   * report wasn't requested.
+   */
+  public static File getDevirtualizationReportFile() {
+    return devirtualizationReportFile;
+  }
+
+  @VisibleForTesting
+  public static void setDevirtualizationReportFile(File f) {
+    devirtualizationReportFile = f;
+  }
+
+  /**
+   * If true, string concatenations call JreStrcat() with their operands'
+   * types, instead of formatting them with NSString stringWithFormat:.
+   */
+  public static boolean typedStringConcatenation() {
+    return typedStringConcatenation;
+  }
+
+  @VisibleForTesting
+  public static void setTypedStringConcatenation(boolean b) {
+    typedStringConcatenation = b;
+  }
+
+  /**
+   * If true, string literals that can't be Objective-C literals are built
+   * once per file, instead of each time their expression is evaluated.
+   */
+  public static boolean hoistStringLiterals() {
+    return hoistStringLiterals;
+  }
+
+  @VisibleForTesting
+  public static void setHoistStringLiterals(boolean b) {
+    hoistStringLiterals = b;
+  }
+
+  /**
+   * If true, large constant primitive array initializers are generated as
+   * static C arrays, which read-only arrays use without copying.
+   */
+  public static boolean staticArrayInitializers() {
+    return staticArrayInitializers;
+  }
+
+  @VisibleForTesting
+  public static void setStaticArrayInitializers(boolean b) {
+    staticArrayInitializers = b;
+  }
+
+  /**
+   * If true, static variables are generated as global C variables, which
+   * other classes access directly after checking that the declaring class
+   * is initialized, instead of sending accessor messages.
+   */
+  public static boolean staticFieldGlobals() {
+    return staticFieldGlobals;
+  }
+
+  @VisibleForTesting
+  public static void setStaticFieldGlobals(boolean b) {
+    staticFieldGlobals = b;
+  }
+
+  /**
+   * If true, instanceof tests call the runtime's type checking functions,
+   * with their target classes and protocols cached in file-scope statics.
+   */
+  public static boolean cachedTypeChecks() {
+    return cachedTypeChecks;
+  }
+
+  @VisibleForTesting
+  public static void setCachedTypeChecks(boolean b) {
+    cachedTypeChecks = b;
+  }
+
+  /**
+   * If true, synchronized statements and methods enter and exit monitors
+   * with the runtime's JreMonitorEnter() and JreMonitorExit() functions,
+   * instead of using @synchronized.  The monitors don't exclude
+   * @synchronized, so all of a program's code, including the JRE emulation
+   * library, must be translated with this option.
+   */
+  public static boolean fastMonitors() {
+    return fastMonitors;
+  }
+
+  @VisibleForTesting
+  public static void setFastMonitors(boolean b) {
+    fastMonitors = b;
+  }
+
+  /**
+   * If true, the bindings of a unit's parsed nodes are resolved when they
+   * are looked up, rather than all being mapped before it is translated.
+   */
+  public static boolean lazyBindings() {
+    return lazyBindings;
+  }
+
+  @VisibleForTesting
+  public static void setLazyBindings(boolean b) {
+    lazyBindings = b;
+  }
+
+  /**
+   * Returns when the bindings of translated units are verified.
+   */
+  public static VerificationLevel getVerificationLevel() {
+    return verificationLevel;
+  }
+
+  @VisibleForTesting
+  public static void setVerificationLevel(VerificationLevel level) {
+    verificationLevel = level;
+  }
+
+  /**
+   * If false, the assertions of translator classes that haven't been loaded
+   * yet are disabled.  Translation server requests can't disable them.
+   */
+  public static boolean enableAssertions() {
+    return enableAssertions;
+  }
+
+  @VisibleForTesting
+  public static void setEnableAssertions(boolean b) {
+    enableAssertions = b;
+  }
+
+  /**
+   * Returns the file the per-pass timing profile is written to, or null if
+   * a report wasn't requested.
+   */
+  public static File getTimingReportFile() {
+    return timingReportFile;
+  }
+
+  @VisibleForTesting
+  public static void setTimingReportFile(File f) {
+    timingReportFile = f;
+  }
+
   public static File getProGuardUsageFile() {
     return proGuardUsageFile;
   }
@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * Forwards a j2objc command-line to a {@link TranslationServer}, and
+ * reports its output and exit status as if it were translated locally.
+ * This class only depends on the JRE, so it starts quickly.
+ *
+ * <p>Usage: TranslationClient &lt;port&gt; &lt;j2objc arguments&gt;
+ */
+public class TranslationClient {
+
+  public static void main(String[] args) {
+    if (args.length < 1) {
+      System.err.println("Usage: TranslationClient <port> <j2objc arguments>");
+      System.exit(1);
+    }
+    String[] translateArgs = new String[args.length - 1];
+    System.arraycopy(args, 1, translateArgs, 0, translateArgs.length);
+    try {
+      System.exit(translate(Integer.parseInt(args[0]), translateArgs));
+    } catch (NumberFormatException e) {
+      System.err.println("invalid port: " + args[0]);
+    } catch (IOException e) {
+      System.err.println("cannot connect to j2objc server: " + e.getMessage());
+    }
+    System.exit(1);
+  }
+
+  /**
+   * Sends a translation request to the server on the specified local port.
+   *
+   * @return the translation's exit status
+   */
+  static int translate(int port, String[] args) throws IOException {
+    Socket socket = new Socket(InetAddress.getByName(null), port);
+    try {
+      DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      out.writeUTF(System.getProperty("user.dir"));
+      out.writeInt(args.length);
+      for (String arg : args) {
+        out.writeUTF(arg);
+      }
+      out.flush();
+
+      DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      while (true) {
+        int type = in.readByte();
+        if (type == TranslationServer.EXIT) {
+          return in.readInt();
+        }
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        PrintStream stream = type == TranslationServer.STDERR ? System.err : System.out;
+        stream.write(bytes);
+        stream.flush();
+      }
+    } finally {
+      socket.close();
+    }
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A resident translator, which keeps the JVM, the loaded tool resources and
+ * method mappings warm between translations.  Requests are read from a
+ * loopback socket, as sent by {@link TranslationClient}: the client's working
+ * directory, followed by its command-line arguments.  The translation's
+ * standard output and error are sent back as frames, followed by its exit
+ * status.
+ *
+ * <p>Requests are translated one at a time, as the translator's output
+ * streams are global; use -j for concurrency within a request.
+ */
+public class TranslationServer {
+
+  // Frame types sent to the client.
+  static final int STDOUT = 1;
+  static final int STDERR = 2;
+  static final int EXIT = 3;
+
+  // Options whose argument is a single path, or a list of paths.
+  private static final Set<String> FILE_OPTIONS =
+      ImmutableSet.of("-d", "--mapping", "--prefixes", "--dead-code-report",
+          "--timing-report", "--devirtualization-report");
+  private static final Set<String> PATH_OPTIONS =
+      ImmutableSet.of("-classpath", "-sourcepath", "-pluginpath");
+
+  // Other options that take an argument.
+  private static final Set<String> VALUE_OPTIONS =
+      ImmutableSet.of("-pluginoptions", "-j", "--prefix", "-x", "--verify-bindings");
+
+  private static final String XBOOTCLASSPATH = "-Xbootclasspath:";
+
+  private static final Logger logger = Logger.getLogger(TranslationServer.class.getName());
+
+  /**
+   * Serves translation requests on the specified local port, until the
+   * process is killed.
+   */
+  public static void serve(int port) throws IOException {
+    ServerSocket serverSocket = new ServerSocket(port, 0, InetAddress.getByName(null));
+    Options.setExitOnError(false);
+    System.out.println("j2objc server listening on port " + serverSocket.getLocalPort());
+    while (true) {
+      Socket socket = serverSocket.accept();
+      try {
+        handleRequest(socket);
+      } catch (IOException e) {
+        logger.log(Level.WARNING, "request failed", e);
+      } finally {
+        socket.close();
+      }
+    }
+  }
+
+  private static void handleRequest(Socket socket) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    File workingDirectory = new File(in.readUTF());
+    String[] args = new String[in.readInt()];
+    for (int i = 0; i < args.length; i++) {
+      args[i] = in.readUTF();
+    }
+
+    DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    PrintStream stdout = System.out;
+    PrintStream stderr = System.err;
+    PrintStream requestOut = new PrintStream(new FrameOutputStream(out, STDOUT), true);
+    PrintStream requestErr = new PrintStream(new FrameOutputStream(out, STDERR), true);
+    System.setOut(requestOut);
+    System.setErr(requestErr);
+    int status;
+    try {
+      Options.reset();
+      status = J2ObjC.run(resolveArguments(args, workingDirectory));
+    } catch (Options.ExitException e) {
+      status = e.getStatus();
+    } catch (RuntimeException e) {
+      e.printStackTrace();
+      status = 1;
+    } catch (AssertionError e) {
+      e.printStackTrace();
+      status = 1;
+    } finally {
+      requestOut.flush();
+      requestErr.flush();
+      System.setOut(stdout);
+      System.setErr(stderr);
+      Options.deleteTemporaryDirectory();
+    }
+    synchronized (out) {
+      out.writeByte(EXIT);
+      out.writeInt(status);
+      out.flush();
+    }
+  }
+
+  /**
+   * Resolves a client's relative paths against its working directory, which
+   * also becomes the default class path and output directory, and the first
+   * sourcepath entry, as the translator looks up relative source paths in
+   * its own working directory before the sourcepath.  Source files that
+   * aren't found relative to the working directory are left unchanged, to be
+   * found on the sourcepath; the others are reported (and named in the
+   * generated files' headers) by their resolved paths.
+   *
+   * <p>--no-assertions is rejected, as the translator's classes were loaded,
+   * with assertions enabled, by the server's earlier requests.
+   */
+  @VisibleForTesting
+  static String[] resolveArguments(String[] args, File workingDirectory) {
+    List<String> result = Lists.newArrayList(
+        "-classpath", workingDirectory.getPath(), "-d", workingDirectory.getPath(),
+        "-sourcepath", workingDirectory.getPath());
+    int nArg = 0;
+    while (nArg < args.length) {
+      String arg = args[nArg++];
+      if (arg.equals("--no-assertions")) {
+        Options.usage("--no-assertions can't be used with a translation server");
+      }
+      result.add(arg);
+      if (nArg < args.length && FILE_OPTIONS.contains(arg)) {
+        result.add(resolve(args[nArg++], workingDirectory));
+      } else if (nArg < args.length && PATH_OPTIONS.contains(arg)) {
+        result.add(resolvePath(args[nArg++], workingDirectory));
+      } else if (nArg < args.length && VALUE_OPTIONS.contains(arg)) {
+        result.add(args[nArg++]);
+      } else if (arg.startsWith(XBOOTCLASSPATH)) {
+        result.set(result.size() - 1, XBOOTCLASSPATH
+            + resolvePath(arg.substring(XBOOTCLASSPATH.length()), workingDirectory));
+      } else if (!arg.startsWith("-")) {
+        File f = new File(arg);
+        if (!f.isAbsolute() && new File(workingDirectory, arg).exists()) {
+          result.set(result.size() - 1, resolve(arg, workingDirectory));
+        }
+      }
+    }
+    return result.toArray(new String[result.size()]);
+  }
+
+  private static String resolve(String path, File workingDirectory) {
+    File f = new File(path);
+    return f.isAbsolute() ? path : new File(workingDirectory, path).getPath();
+  }
+
+  private static String resolvePath(String path, File workingDirectory) {
+    List<String> entries = Lists.newArrayList();
+    for (String entry : Splitter.on(':').split(path)) {
+      entries.add(entry.isEmpty() ? entry : resolve(entry, workingDirectory));
+    }
+    return Joiner.on(':').join(entries);
+  }
+
+  /**
+   * Sends the bytes written to it to the client as frames of one type.
+   */
+  private static class FrameOutputStream extends OutputStream {
+    private final DataOutputStream out;
+    private final int type;
+
+    FrameOutputStream(DataOutputStream out, int type) {
+      this.out = out;
+      this.type = type;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      synchronized (out) {
+        out.writeByte(type);
+        out.writeInt(len);
+        out.write(b, off, len);
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      synchronized (out) {
+        out.flush();
+      }
+    }
+  }
+}
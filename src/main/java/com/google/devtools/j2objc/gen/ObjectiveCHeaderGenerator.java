@@ -145,6 +145,8 @@ public class ObjectiveCHeaderGenerator extends ObjectiveCSourceFileGenerator {
 
     if (Types.isInterface(node)) {
       printStaticInterface(typeName, methods);
+    } else {
+      printStaticGlobals(node, typeName);
     }
 
     ITypeBinding binding = Types.getTypeBinding(node);
@@ -187,6 +189,35 @@ public class ObjectiveCHeaderGenerator extends ObjectiveCSourceFileGenerator {
     }
   }
 
+  /**
+   * Declares the class's static globals, which other classes access
+   * directly, and its initialized flag.
+   */
+  private void printStaticGlobals(TypeDeclaration node, String typeName) {
+    boolean hadGlobal = false;
+    for (FieldDeclaration f : node.getFields()) {
+      @SuppressWarnings("unchecked")
+      List<VariableDeclarationFragment> fragments = f.fragments(); // safe by specification
+      for (VariableDeclarationFragment var : fragments) {
+        IVariableBinding binding = Types.getVariableBinding(var);
+        if (Types.isStaticGlobal(binding)) {
+          if (!hadGlobal) {
+            newline();
+            if (Types.hasInitializedFlag(Types.getTypeBinding(node))) {
+              printf("FOUNDATION_EXPORT BOOL %s_initialized;\n", typeName);
+            }
+            hadGlobal = true;
+          }
+          String typeString = NameTable.javaRefToObjC(f.getType());
+          if (!typeString.endsWith("*")) {
+            typeString += " ";
+          }
+          printf("FOUNDATION_EXPORT %s%s;\n", typeString, NameTable.getName(binding));
+        }
+      }
+    }
+  }
+
   private void printStaticInterface(String typeName, List<MethodDeclaration> methods) {
     // Print @interface for static constants, if any.
     List<MethodDeclaration> accessors = findInterfaceConstantAccessors(methods);
@@ -16,6 +16,7 @@
 
 package com.google.devtools.j2objc.gen;
 
+import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.devtools.j2objc.J2ObjC;
@@ -31,6 +32,7 @@ import com.google.devtools.j2objc.util.NameTable;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
 import org.eclipse.jdt.core.dom.AnnotationTypeDeclaration;
+import org.eclipse.jdt.core.dom.ArrayInitializer;
 import org.eclipse.jdt.core.dom.BlockComment;
 import org.eclipse.jdt.core.dom.BodyDeclaration;
 import org.eclipse.jdt.core.dom.Comment;
@@ -43,6 +45,7 @@ import org.eclipse.jdt.core.dom.FieldDeclaration;
 import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.InstanceofExpression;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.Modifier;
 import org.eclipse.jdt.core.dom.SimpleName;
@@ -63,6 +66,8 @@ import java.util.Set;
 public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGenerator {
   private Set<IVariableBinding> fieldHiders;
   private final String suffix;
+
+  private static final int ELEMENTS_PER_LINE = 16;
   private Set<String> invokedConstructors = Sets.newHashSet();
 
   /**
@@ -94,6 +99,9 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
       findInvokedConstructors(unit);
       printStart(getSourceFileName());
       printImports(unit);
+      printStringLiteralTable();
+      printHoistedArrayInitializers();
+      printTypeCheckCaches();
       unit.accept(new ErrorReportingASTVisitor() {
         @Override
         public boolean visit(TypeDeclaration node) {
@@ -186,9 +194,18 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
       printf("@implementation %s\n\n", typeName);
       List<FieldDeclaration> fields = Lists.newArrayList(node.getFields());
       printStaticReferencesMethod(fields);
+      if (Types.hasInitializedFlag(Types.getTypeBinding(node))) {
+        printf("BOOL %s_initialized = NO;\n", typeName);
+      }
       printStaticVars(Lists.newArrayList(node.getFields()), /* isInterface */ false);
+      printFunctionDeclarations(node);
       printProperties(node.getFields());
       printMethods(node);
+      if (Types.hasInitializedFlag(Types.getTypeBinding(node)) && !hasStaticInitializer(node)) {
+        // Set the flag, after any superclass is initialized.
+        printf("+ (void)initialize {\n  if (self == [%s class]) {\n"
+            + "    J2OBJC_SET_INITIALIZED(%s);\n  }\n}\n\n", typeName, typeName);
+      }
       printObjCTypeMethod(node);
 
       println("@end");
@@ -520,8 +537,102 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
     println("@end");
   }
 
+  /**
+   * Prints the static C arrays that ArrayInitializerHoister moved array
+   * initializers into, with a line per ELEMENTS_PER_LINE elements.
+   */
+  private void printHoistedArrayInitializers() {
+    for (ArrayInitializer init : Types.getHoistedArrayInitializers()) {
+      ITypeBinding componentType = Types.getTypeBinding(init).getComponentType();
+      printf("static const %s %s[] = {", NameTable.javaRefToObjC(componentType),
+          Types.getHoistedArrayInitializerName(init));
+      @SuppressWarnings("unchecked")
+      List<Expression> elements = init.expressions(); // safe by definition
+      for (int i = 0; i < elements.size(); i++) {
+        if (i % ELEMENTS_PER_LINE == 0) {
+          print("\n ");
+        }
+        printf(" %s%s", generateExpression(elements.get(i)),
+            i + 1 < elements.size() ? "," : "");
+      }
+      println("\n};\n");
+    }
+  }
+
+  /**
+   * Declares the functions of the type's devirtualized methods, since they
+   * may be called before they are defined.
+   */
+  private void printFunctionDeclarations(TypeDeclaration node) {
+    boolean declared = false;
+    for (MethodDeclaration m : node.getMethods()) {
+      if (Types.isDevirtualizedMethod(Types.getMethodBinding(m))) {
+        printf("static %s;\n", makeFunctionDeclaration(node, m));
+        declared = true;
+      }
+    }
+    if (declared) {
+      newline();
+    }
+  }
+
+  /**
+   * Prints the unit's string literal table, and the functions that fill
+   * and read it.  The table is filled the first time one of its strings is
+   * read, which dispatch_once makes thread safe.  The strings are never
+   * released.
+   */
+  private void printStringLiteralTable() {
+    List<String> literals = Types.getHoistedStringLiterals();
+    if (literals.isEmpty()) {
+      return;
+    }
+    String prefix = Types.getStringLiteralTablePrefix();
+    printf("static NSString *%s_stringLiterals_[%d];\n", prefix, literals.size());
+    printf("static dispatch_once_t %s_stringLiteralsOnce_;\n\n", prefix);
+    printf("static void %s_initStringLiterals_(void *context) {\n", prefix);
+    for (int i = 0; i < literals.size(); i++) {
+      String s = literals.get(i);
+      printf("  %s_stringLiterals_[%d] = [[NSString alloc] initWithCharacters:%s length:%d];\n",
+          prefix, i, StatementGenerator.buildCharArray(s), s.length());
+    }
+    println("}\n");
+    printf("static inline NSString *%s_stringLiteral_(int index) {\n", prefix);
+    printf("  dispatch_once_f(&%s_stringLiteralsOnce_, NULL, %s_initStringLiterals_);\n",
+        prefix, prefix);
+    printf("  return %s_stringLiterals_[index];\n", prefix);
+    println("}\n");
+  }
+
+  /**
+   * Declares the statics that the unit's cached instanceof tests keep their
+   * targets in, which are set when each test first runs.
+   */
+  private void printTypeCheckCaches() {
+    Set<String> names = Sets.newHashSet();
+    for (InstanceofExpression node : Types.getCachedTypeChecks()) {
+      ITypeBinding type = Types.getTypeBinding(node.getRightOperand()).getErasure();
+      String name = StatementGenerator.getTypeCheckCacheName(type);
+      if (names.add(name)) {
+        if (type.isArray()) {
+          printf("static IOSClass *%s;\n", name);
+        } else if (Types.isInterface(type)) {
+          printf("static void *%s;\n", name);
+        } else {
+          printf("static Class %s;\n", name);
+        }
+      }
+    }
+    if (!names.isEmpty()) {
+      newline();
+    }
+  }
+
   @Override
   protected String methodDeclaration(MethodDeclaration m) {
+    if (Types.isDevirtualizedMethod(Types.getMethodBinding(m))) {
+      return devirtualizedMethodDeclaration(m);
+    }
     int modifiers = m.getModifiers();
     if ((modifiers & Modifier.NATIVE) > 0) {
       if (hasNativeCode(m)) {
@@ -536,6 +647,34 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
     return super.methodDeclaration(m) + " " + reindent(methodBody) + "\n\n";
   }
 
+  /**
+   * Returns a method's function, followed by the method, which calls it.
+   */
+  private String devirtualizedMethodDeclaration(MethodDeclaration m) {
+    AbstractTypeDeclaration type = (AbstractTypeDeclaration) m.getParent();
+    boolean isStatic = Modifier.isStatic(m.getModifiers());
+    String functionBody = generateStatement(m.getBody(), true);
+    if (Modifier.isSynchronized(m.getModifiers())) {
+      String lock = isStatic ? "[" + NameTable.getFullName(type) + " class]" : "self";
+      functionBody = synchronizedBody(lock, functionBody);
+    }
+
+    List<String> args = Lists.newArrayList();
+    if (!isStatic) {
+      args.add("self");
+    }
+    for (Object param : m.parameters()) {
+      args.add(getParameterName((SingleVariableDeclaration) param));
+    }
+    String call = String.format("%s(%s)",
+        NameTable.makeFunctionName(type, m), Joiner.on(", ").join(args));
+    String methodBody = Types.isVoidType(m.getReturnType2())
+        ? "{\n" + call + ";\n}" : "{\nreturn " + call + ";\n}";
+
+    return "static " + makeFunctionDeclaration(type, m) + " " + reindent(functionBody) + "\n\n"
+        + super.methodDeclaration(m) + " " + reindent(methodBody) + "\n\n";
+  }
+
   private String generateNativeStub(MethodDeclaration m) {
     IMethodBinding binding = Types.getMethodBinding(m);
     String methodName = NameTable.getName(binding);
@@ -574,15 +713,25 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
 
     boolean isStatic = (m.getModifiers() & Modifier.STATIC) != 0;
     boolean isSynchronized = (m.getModifiers() & Modifier.SYNCHRONIZED) != 0;
-    if (isStatic && isSynchronized) {
-      methodBody = reindent("{\n@synchronized([self class]) {\n" + methodBody + "}\n}\n");
-    } else if (isSynchronized) {
-      methodBody = reindent("{\n@synchronized(self) {\n" + methodBody + "}\n}\n");
+    if (isSynchronized) {
+      methodBody = synchronizedBody(isStatic ? "[self class]" : "self", methodBody);
     }
 
     return methodBody;
   }
 
+  /**
+   * Returns a synchronized method's body, which holds the lock object's
+   * monitor while it runs.
+   */
+  private String synchronizedBody(String lock, String body) {
+    if (Options.fastMonitors()) {
+      return reindent("{\nJreMonitor *monitor__ = JreMonitorEnter(" + lock + ");\n@try "
+          + body + " @finally {\nJreMonitorExit(monitor__);\n}\n}\n");
+    }
+    return reindent("{\n@synchronized(" + lock + ") {\n" + body + "}\n}\n");
+  }
+
   @Override
   protected String getParameterName(SingleVariableDeclaration param) {
     String name = super.getParameterName(param);
@@ -766,10 +915,23 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
     for (Statement statement : statements) {
       sb.append(generateStatement(statement, false, true));
     }
+    if (Types.hasInitializedFlag(Types.getMethodBinding(m).getDeclaringClass())) {
+      sb.append("J2OBJC_SET_INITIALIZED(" + className + ");\n");
+    }
     sb.append("}\n}");
     print("+ (void)initialize " + reindent(sb.toString()) + "\n\n");
   }
 
+  private static boolean hasStaticInitializer(TypeDeclaration node) {
+    for (MethodDeclaration m : node.getMethods()) {
+      if (Modifier.isStatic(m.getModifiers())
+          && NameTable.CLINIT_NAME.equals(m.getName().getIdentifier())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private String generateStatement(Statement stmt, boolean asFunction, boolean inConstructor) {
     return StatementGenerator.generate(stmt, fieldHiders, asFunction,
         getBuilder().getSourcePosition());
@@ -911,10 +1073,12 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
           if (!Types.isPrimitiveConstant(binding)) {
             String name = NameTable.getName(binding);
             Expression initializer = var.getInitializer();
+            // Static globals are declared in the header.
+            String storageClass = Types.isStaticGlobal(binding) ? "" : "static ";
             if (initializer != null) {
-              printConstant(name, initializer);
+              printConstant(storageClass, name, initializer);
             } else {
-              printf("static %s %s;\n", NameTable.javaRefToObjC(f.getType()), name);
+              printf("%s%s %s;\n", storageClass, NameTable.javaRefToObjC(f.getType()), name);
             }
             hadStaticVar = true;
           }
@@ -985,12 +1149,12 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
     }
   }
 
-  private void printConstant(String name, Expression initializer) {
+  private void printConstant(String storageClass, String name, Expression initializer) {
     Object constant = initializer.resolveConstantExpressionValue();
     String text = generateExpression(initializer);
     // non-constant initializers were already moved to static blocks
     assert constant != null;
-    print("static ");
+    print(storageClass);
     if (constant instanceof String) {
       printf("NSString * %s = %s;\n", name, text);
     } else if (constant instanceof Boolean) {
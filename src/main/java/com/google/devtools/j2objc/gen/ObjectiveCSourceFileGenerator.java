@@ -16,6 +16,7 @@
 
 package com.google.devtools.j2objc.gen;
 
+import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import com.google.devtools.j2objc.types.IOSMethod;
 import com.google.devtools.j2objc.types.IOSParameter;
@@ -377,32 +378,32 @@ public abstract class ObjectiveCSourceFileGenerator extends SourceFileGenerator
 
   /**
    * Returns a function declaration string from a specified class and method.
+   * An instance method's function has the receiver as its first parameter,
+   * named "self", so the method's body can be used unchanged.
    */
   protected String makeFunctionDeclaration(AbstractTypeDeclaration cls,
       MethodDeclaration method) {
     StringBuffer sb = new StringBuffer();
-    Type returnType = method.getReturnType2();
-    ITypeBinding binding = Types.getTypeBinding(returnType);
-    if (binding.isEnum()) {
-      sb.append(NameTable.javaTypeToObjC(returnType, true));
-    } else {
-      sb.append(NameTable.javaRefToObjC(returnType));
+    // The same return type as the method's, so the method can return the
+    // function's result.
+    String returnType = NameTable.javaRefToObjC(method.getReturnType2());
+    sb.append(returnType);
+    if (!returnType.endsWith("*")) {
+      sb.append(' ');
     }
-    sb.append(' ');
     sb.append(NameTable.makeFunctionName(cls, method));
     sb.append('(');
-    for (Iterator<?> iterator = method.parameters().iterator(); iterator.hasNext(); ) {
-      Object o = iterator.next();
-      if (o instanceof SingleVariableDeclaration) {
-        SingleVariableDeclaration param = (SingleVariableDeclaration) o;
-        String fieldType = NameTable.javaRefToObjC(param.getType());
-        String fieldName = param.getName().getIdentifier();
-        sb.append(String.format("%s %s", fieldType, fieldName));
-        if (iterator.hasNext()) {
-          sb.append(", ");
-        }
-      }
+    List<String> params = Lists.newArrayList();
+    if (!Modifier.isStatic(method.getModifiers())) {
+      params.add(NameTable.getFullName(cls) + " *self");
+    }
+    for (Object o : method.parameters()) {
+      SingleVariableDeclaration param = (SingleVariableDeclaration) o;
+      String fieldType = NameTable.javaRefToObjC(param.getType());
+      String fieldName = getParameterName(param);
+      params.add(fieldType.endsWith("*") ? fieldType + fieldName : fieldType + ' ' + fieldName);
     }
+    sb.append(params.isEmpty() ? "void" : Joiner.on(", ").join(params));
     sb.append(')');
     return sb.toString();
   }
@@ -130,6 +130,11 @@ public abstract class SourceFileGenerator {
         source += '\n';
       }
 
+      if (Options.writeIfChanged()
+          && isUnchanged(outputFile, J2ObjC.getFileHeader(sourceFileName), source)) {
+        J2ObjC.unchangedOutput();
+        return;
+      }
       Files.write(source, outputFile, Charset.defaultCharset());
     } catch (IOException e) {
       J2ObjC.error(e.getMessage());
@@ -138,6 +143,31 @@ public abstract class SourceFileGenerator {
     }
   }
 
+  /**
+   * Returns true if an output file exists with the same content as a new
+   * translation.  The file headers are only compared by their number of
+   * lines, since they include the user and date of translation.
+   */
+  private static boolean isUnchanged(File outputFile, String header, String source)
+      throws IOException {
+    if (!outputFile.isFile() || !source.startsWith(header)) {
+      return false;
+    }
+    String oldSource = Files.toString(outputFile, Charset.defaultCharset());
+    int oldHeaderEnd = 0;
+    for (int i = 0; i < header.length(); i++) {
+      if (header.charAt(i) == '\n') {
+        oldHeaderEnd = oldSource.indexOf('\n', oldHeaderEnd) + 1;
+        if (oldHeaderEnd == 0) {
+          return false;
+        }
+      }
+    }
+    int length = source.length() - header.length();
+    return oldSource.length() - oldHeaderEnd == length
+        && oldSource.regionMatches(oldHeaderEnd, source, header.length(), length);
+  }
+
   protected void print(String s) {
     builder.print(s);
   }
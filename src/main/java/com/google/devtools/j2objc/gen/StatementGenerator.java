@@ -110,7 +110,6 @@ import com.google.devtools.j2objc.util.ErrorReportingASTVisitor;
 import com.google.devtools.j2objc.util.NameTable;
 import com.google.devtools.j2objc.util.UnicodeUtils;
 import com.google.devtools.j2objc.wrapper.MethodMapBuilder;
-import com.google.j2objc.annotations.Mask;
 import com.google.j2objc.annotations.Selector;
 
 /**
@@ -185,6 +184,32 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
     return Types.mapSimpleTypeName(NameTable.javaTypeToObjC(binding, true));
   }
 
+  /**
+   * Prints a call of a method's function, which Devirtualizer converted
+   * from a message sent to the class or to self.
+   */
+  private void printFunctionInvocation(MethodInvocation node, String functionName) {
+    buffer.append(functionName);
+    buffer.append('(');
+    @SuppressWarnings("unchecked")
+    List<Expression> args = node.arguments();
+    if (!Modifier.isStatic(Types.getMethodBinding(node).getModifiers())) {
+      buffer.append(args.isEmpty() ? "self" : "self, ");
+    }
+    for (Iterator<Expression> it = args.iterator(); it.hasNext(); ) {
+      Expression arg = it.next();
+      if (arg instanceof ArrayInitializer) {
+        printArrayLiteral((ArrayInitializer) arg);
+      } else {
+        arg.accept(this);
+      }
+      if (it.hasNext()) {
+        buffer.append(", ");
+      }
+    }
+    buffer.append(')');
+  }
+
   private void printArguments(IMethodBinding method, List<Expression> args) {
     if (method != null && method.isVarargs()) {
       printVarArgs(method, args);
@@ -256,6 +281,11 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
   }
 
   private void printArrayLiteral(ArrayInitializer arrayInit) {
+    String hoistedName = Types.getHoistedArrayInitializerName(arrayInit);
+    if (hoistedName != null) {
+      buffer.append(hoistedName);
+      return;
+    }
     ITypeBinding binding = Types.getTypeBinding(arrayInit);
     assert binding.isArray();
     ITypeBinding componentType = binding.getComponentType();
@@ -333,9 +363,8 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
   }
 
   private void printNilCheck(Expression e, boolean needsCast) {
-    IVariableBinding sym = Types.getVariableBinding(e);
-    // Outer class references should always be non-nil.
-    if (sym != null && !sym.getName().startsWith("this$") && !hasNilCheckParent(e, sym) && !Types.isPrimitive(sym.getType())) {
+    if (Types.needsNilCheck(e) && !isProvenNonNull(e)) {
+      IVariableBinding sym = Types.getVariableBinding(e);
       ITypeBinding symType = Types.mapType(sym.getType());
       if (needsCast && (Types.getNSObject().isEqualTo(symType) ||
           Types.getIOSClass().isEqualTo(symType) || Types.getNSString().isEqualTo(symType))) {
@@ -362,27 +391,12 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
     }
   }
 
-  private boolean hasNilCheckParent(Expression e, IVariableBinding sym) {
-    ASTNode parent = e.getParent();
-    while (parent != null) {
-      if (parent instanceof IfStatement) {
-        Expression condition = ((IfStatement) parent).getExpression();
-        if (condition instanceof InfixExpression) {
-          InfixExpression infix = (InfixExpression) condition;
-          IBinding lhs = Types.getBinding(infix.getLeftOperand());
-          if (lhs != null && infix.getRightOperand() instanceof NullLiteral) {
-            return sym.isEqualTo(lhs);
-          }
-          IBinding rhs = Types.getBinding(infix.getRightOperand());
-          if (rhs != null && infix.getLeftOperand() instanceof NullLiteral) {
-            return sym.isEqualTo(rhs);
-          }
-        }
-      }
-      parent = parent.getParent();
-      if (parent instanceof MethodDeclaration) {
-        break;
-      }
+  // Returns true if NilCheckResolver proved that a variable that would
+  // otherwise be checked is non-null.
+  private boolean isProvenNonNull(Expression e) {
+    if (nilCheckDepth == 0 && Types.isNonNullExpression(e)) {
+      J2ObjC.nilCheckRemoved();
+      return true;
     }
     return false;
   }
@@ -412,6 +426,14 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
 
   @Override
   public boolean visit(ArrayAccess node) {
+    if (Types.isDirectArrayAccess(node)) {
+      // The enclosing loop fetched the array's buffer, and checked the index.
+      buffer.append(getArrayBufferName(Types.getVariableBinding(node.getArray())));
+      buffer.append('[');
+      node.getIndex().accept(this);
+      buffer.append(']');
+      return false;
+    }
     ITypeBinding elementType = Types.getTypeBinding(node);
     boolean castPrinted = false;
     if (!elementType.isPrimitive()) {
@@ -629,7 +651,7 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
       buffer.append(", ");
       rhs.accept(this);
       buffer.append(")");
-    } else if (lhs instanceof ArrayAccess) {
+    } else if (lhs instanceof ArrayAccess && !Types.isDirectArrayAccess((ArrayAccess) lhs)) {
       printArrayElementAssignment(lhs, rhs, op);
     } else if (op == Operator.RIGHT_SHIFT_UNSIGNED_ASSIGN) {
       lhs.accept(this);
@@ -650,7 +672,21 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
         String methodsClassName = Types.getTypeBinding(getOwningType(node)).toString();
         useWriter = Types.isStaticVariable(var) && !declaringClassName.equals(methodsClassName);
       }
-      if (useWriter) {
+      if (useWriter && Types.isStaticGlobal(var)) {
+        if (Options.useReferenceCounting() && !var.getType().isPrimitive()
+            && !Types.isWeakReference(var)) {
+          buffer.append("JreOperatorRetainedAssign(&");
+          lhs.accept(this);
+          buffer.append(", ");
+          rhs.accept(this);
+          buffer.append(")");
+        } else {
+          lhs.accept(this);
+          buffer.append(" = ");
+          rhs.accept(this);
+        }
+        return false;
+      } else if (useWriter) {
         // convert static var assignment to its writer message
         buffer.append('[');
         if (lhs instanceof QualifiedName) {
@@ -796,7 +832,7 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
       if (lhs instanceof SimpleName) {
         if (isProperty((SimpleName) lhs)) {
           String name = NameTable.getName((SimpleName) lhs);
-          nativeName = NameTable.javaFieldToObjC(name);
+          nativeName = getInstanceVariablePrefix() + NameTable.javaFieldToObjC(name);
         } else if (isStaticVariableAccess(lhs)) {
           nativeName = NameTable.getName((SimpleName) lhs);
         }
@@ -1063,8 +1099,24 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
 
   @Override
   public boolean visit(EnhancedForStatement node) {
-    // Enhanced for loops should be rewritten prior to code generation.
-    assert false;
+    // Rewriter only keeps the enhanced for loops over collections that
+    // support fast enumeration.  NIL_CHK returns id, which any collection
+    // type can be enumerated as.
+    String objcType = NameTable.javaRefToObjC(node.getParameter().getType());
+    buffer.append("for (");
+    buffer.append(objcType);
+    if (!objcType.endsWith("*")) {
+      buffer.append(' ');
+    }
+    if (Options.useARC()) {
+      // Enumeration variables are const under ARC, unless declared strong.
+      buffer.append("__strong ");
+    }
+    node.getParameter().getName().accept(this);
+    buffer.append(" in NIL_CHK(");
+    node.getExpression().accept(this);
+    buffer.append(")) ");
+    node.getBody().accept(this);
     return false;
   }
 
@@ -1105,6 +1157,18 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
   @Override
   public boolean visit(ForStatement node) {
     boolean emitAutoreleasePool = false;
+    List<IVariableBinding> directAccessArrays = Types.getDirectAccessArrays(node);
+    if (!directAccessArrays.isEmpty()) {
+      // Fetch the buffers once, as the loop's condition checks the indexes.
+      buffer.append("{\n");
+      for (IVariableBinding array : directAccessArrays) {
+        ITypeBinding componentType = array.getType().getComponentType();
+        IOSArrayTypeBinding arrayType = Types.resolveArrayType(componentType);
+        buffer.append(String.format("%s *%s = [%s %s];\n",
+            NameTable.javaRefToObjC(componentType), getArrayBufferName(array),
+            NameTable.getName(array), arrayType.getBufferMethod()));
+      }
+    }
     buffer.append("for (");
     for (Iterator<Expression> it = node.initializers().iterator(); it.hasNext(); ) {
       Expression next = it.next();
@@ -1133,9 +1197,16 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
     }
     buffer.append(") ");
     node.getBody().accept(this);
+    if (!directAccessArrays.isEmpty()) {
+      buffer.append("}\n");
+    }
     return false;
   }
 
+  private static String getArrayBufferName(IVariableBinding array) {
+    return NameTable.getName(array) + "Buffer__";
+  }
+
   @Override
   public boolean visit(IfStatement node) {
     buffer.append("if (");
@@ -1188,15 +1259,19 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
    * Converts a string concatenation expression into a NSString format string and a
    * list of arguments for it, containing all the non-literal expressions.  If the
    * expression is all literals, then a string concatenation is printed.  If not,
-   * then a NSString stringWithFormat: message is output.
+   * then a NSString stringWithFormat: message is output, or with
+   * --typed-string-concatenation, a JreStrcat() call.
    */
-  @SuppressWarnings("fallthrough")
   private void printStringConcatenation(Expression leftOperand, Expression rightOperand,
       List<Expression> extendedOperands) {
     // Copy all operands into a single list.
     List<Expression> operands = Lists.newArrayList(leftOperand, rightOperand);
     operands.addAll(extendedOperands);
-    String format = "@\"";
+
+    // The constant text before each argument, and after the last one.  The
+    // text is escaped for a string literal, with '%' characters doubled.
+    List<String> segments = Lists.newArrayList();
+    StringBuilder text = new StringBuilder();
 
     AST ast = leftOperand.getAST();
     List<Expression> args = Lists.newArrayList();
@@ -1213,7 +1288,7 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
           if (UnicodeUtils.hasValidCppCharacters(s)) {
             s = unquoteAndEscape(literal.getEscapedValue());
             s = UnicodeUtils.escapeNonLatinCharacters(s);
-            format += UnicodeUtils.escapeStringLiteral(s);
+            text.append(UnicodeUtils.escapeStringLiteral(s));
           } else {
             J2ObjC.error(operand,
                 "String constant has Unicode or octal escape sequences that are not valid in " +
@@ -1223,12 +1298,12 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
         } else if (value instanceof Character) {
           char c = (Character) value;
           if (c == '"') {
-            format += '\\';
+            text.append('\\');
           }
-          format += c;
+          text.append(c);
           continue;
         } else if (value != null) {
-          format += value.toString();
+          text.append(value.toString());
           continue;
         } // else fall through to next section.
       }
@@ -1236,62 +1311,47 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
         StringLiteral literal = (StringLiteral) operand;
         if (UnicodeUtils.hasValidCppCharacters(literal.getLiteralValue())) {
           String s = unquoteAndEscape(literal.getEscapedValue());
-          format += UnicodeUtils.escapeStringLiteral(s);
+          text.append(UnicodeUtils.escapeStringLiteral(s));
         } else {
           // Convert to NSString invocation when printing args.
-          format += "%@";
+          segments.add(text.toString());
+          text.setLength(0);
           args.add(operand);
         }
       } else if (operand instanceof BooleanLiteral) {
-        format += String.valueOf(((BooleanLiteral) operand).booleanValue());
+        text.append(String.valueOf(((BooleanLiteral) operand).booleanValue()));
       } else if (operand instanceof CharacterLiteral) {
-        format += unquoteAndEscape(((CharacterLiteral) operand).getEscapedValue());
+        text.append(unquoteAndEscape(((CharacterLiteral) operand).getEscapedValue()));
       } else if (operand instanceof NumberLiteral) {
-        format += ((NumberLiteral) operand).getToken();
+        text.append(((NumberLiteral) operand).getToken());
       } else {
+        segments.add(text.toString());
+        text.setLength(0);
         args.add(operand);
-
-        // Append format specifier.
-        ITypeBinding operandType = Types.getTypeBinding(operand);
-        if (operandType.isPrimitive()) {
-          String type = operandType.getBinaryName();
-          assert type.length() == 1;
-          switch (type.charAt(0)) {
-            case 'B':  // byte
-            case 'I':  // int
-            case 'S':  // short
-              format += "%d";
-              break;
-            case 'J':  // long
-              format += "%qi";
-              break;
-            case 'D':  // double
-            case 'F':  // float
-              format += "%f";
-              break;
-            case 'C':  // char
-              format += "%c";
-              break;
-            case 'Z':  // boolean
-              format += "%@";
-              break;
-            default:
-              throw new AssertionError("unknown primitive type: " + type);
-          }
-        } else {
-          format += "%@";
-        }
       }
     }
-    format += '"';
+    segments.add(text.toString());
 
     if (args.isEmpty()) {
-      buffer.append(format.replace("%%", "%")); // unescape % character
+      buffer.append("@\"" + segments.get(0).replace("%%", "%") + '"'); // unescape % character
       return;
     }
 
+    if (Options.typedStringConcatenation()) {
+      printTypedStringConcatenation(segments, args);
+      return;
+    }
+
+    StringBuilder format = new StringBuilder("@\"");
+    for (int i = 0; i < args.size(); i++) {
+      format.append(segments.get(i));
+      format.append(getFormatSpecifier(args.get(i)));
+    }
+    format.append(segments.get(args.size()));
+    format.append('"');
+
     buffer.append("[NSString stringWithFormat:");
-    buffer.append(format);
+    buffer.append(format.toString());
     buffer.append(", ");
     for (Iterator<Expression> iter = args.iterator(); iter.hasNext(); ) {
       printStringConcatenationArg(iter.next());
@@ -1302,6 +1362,85 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
     buffer.append(']');
   }
 
+  /**
+   * Returns the stringWithFormat: specifier of a string concatenation argument.
+   */
+  private String getFormatSpecifier(Expression arg) {
+    ITypeBinding argType = Types.getTypeBinding(arg);
+    if (!argType.isPrimitive()) {
+      return "%@";
+    }
+    String type = argType.getBinaryName();
+    assert type.length() == 1;
+    switch (type.charAt(0)) {
+      case 'B':  // byte
+      case 'I':  // int
+      case 'S':  // short
+        return "%d";
+      case 'J':  // long
+        return "%qi";
+      case 'D':  // double
+      case 'F':  // float
+        return "%f";
+      case 'C':  // char
+        return "%c";
+      case 'Z':  // boolean
+        return "%@";
+      default:
+        throw new AssertionError("unknown primitive type: " + type);
+    }
+  }
+
+  /**
+   * Prints a string concatenation as a JreStrcat() call, whose first
+   * argument has a character for each of the others' types, so the
+   * runtime doesn't parse a format string.  The constant text is passed as
+   * string literals.  JreStrcat appends the operands to a stack buffer, and
+   * copies it into a string of the concatenation's length.
+   */
+  private void printTypedStringConcatenation(List<String> segments, List<Expression> args) {
+    StringBuilder types = new StringBuilder();
+    List<Object> operands = Lists.newArrayList();
+    for (int i = 0; i <= args.size(); i++) {
+      String segment = segments.get(i);
+      if (segment.length() > 0) {
+        types.append('$');
+        operands.add("@\"" + segment.replace("%%", "%") + '"');
+      }
+      if (i < args.size()) {
+        types.append(getConcatenationType(args.get(i)));
+        operands.add(args.get(i));
+      }
+    }
+    buffer.append("JreStrcat(\"");
+    buffer.append(types.toString());
+    buffer.append('"');
+    for (Object operand : operands) {
+      buffer.append(", ");
+      if (operand instanceof String) {
+        buffer.append((String) operand);
+      } else {
+        // Booleans are passed as BOOLs, rather than converted to strings.
+        printStringConcatenationArg((Expression) operand, false);
+      }
+    }
+    buffer.append(')');
+  }
+
+  /**
+   * Returns the JreStrcat() type character of an argument: its binary
+   * name for primitive types, '$' for strings and '@' for other objects.
+   */
+  private char getConcatenationType(Expression arg) {
+    ITypeBinding argType = Types.getTypeBinding(arg);
+    if (argType.isPrimitive()) {
+      char type = argType.getBinaryName().charAt(0);
+      // Promoted to ints when passed as varargs.
+      return type == 'B' || type == 'S' ? 'I' : type;
+    }
+    return Types.isJavaStringType(argType) ? '$' : '@';
+  }
+
   // Remove surrounding single or double-quotes, and escape sequences.
   private String unquoteAndEscape(String s) {
     if (s == null || s.length() < 2) {
@@ -1320,7 +1459,12 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
   }
 
   private void printStringConcatenationArg(Expression arg) {
-    if (Types.getTypeBinding(arg).isEqualTo(arg.getAST().resolveWellKnownType("boolean"))) {
+    printStringConcatenationArg(arg, true);
+  }
+
+  private void printStringConcatenationArg(Expression arg, boolean convertBoolean) {
+    if (convertBoolean
+        && Types.getTypeBinding(arg).isEqualTo(arg.getAST().resolveWellKnownType("boolean"))) {
       buffer.append("[JavaLangBoolean toStringWithBOOL:");
       arg.accept(this);
       buffer.append(']');
@@ -1329,7 +1473,7 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
     if (arg instanceof StringLiteral) {
       // Strings with all valid C99 characters were previously converted,
       // so this literal needs to be defined with a char array.
-      buffer.append(buildStringFromChars(((StringLiteral) arg).getLiteralValue()));
+      printStringFromChars(((StringLiteral) arg).getLiteralValue());
       return;
     }
     if (stringConcatenationArgNeedsIntCast(arg)) {
@@ -1363,6 +1507,10 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
     ITypeBinding leftBinding = Types.getTypeBinding(node.getLeftOperand());
     ITypeBinding rightBinding = Types.getTypeBinding(node.getRightOperand());
 
+    if (Types.isCachedTypeCheck(node)) {
+      printCachedTypeCheck(node, rightBinding.getErasure());
+      return false;
+    }
     if (rightBinding.isArray()) {
       ITypeBinding elementType = rightBinding.getElementType();
       assert elementType != null;
@@ -1398,6 +1546,44 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
     return false;
   }
 
+  /**
+   * Prints an instanceof test as a call of one of the runtime's type
+   * checking functions.  The target is cached in a file-scope static, which
+   * ObjectiveCImplementationGenerator declares.
+   */
+  private void printCachedTypeCheck(InstanceofExpression node, ITypeBinding type) {
+    String cache = getTypeCheckCacheName(type);
+    if (type.isArray()) {
+      buffer.append("JreIsObjectArrayOfType(");
+      node.getLeftOperand().accept(this);
+      buffer.append(", J2OBJC_CACHE(" + cache + ", ");
+      printObjectArrayType(type.getElementType());
+      buffer.append("))");
+    } else if (Types.isInterface(type)) {
+      buffer.append("JreConformsToProtocol(");
+      node.getLeftOperand().accept(this);
+      buffer.append(", @protocol(" + NameTable.getFullName(type) + "), &" + cache + ")");
+    } else {
+      buffer.append(Types.hasLeafClassTarget(node)
+          ? "JreIsInstanceOfLeafClass(" : "JreIsInstanceOfClass(");
+      node.getLeftOperand().accept(this);
+      buffer.append(", J2OBJC_CACHE(" + cache + ", [" + NameTable.getFullName(type) + " class]))");
+    }
+  }
+
+  /**
+   * Returns the name of the file-scope static that caches a type check's
+   * target: the class, the last class that conformed to the protocol, or
+   * the object array's element type.
+   */
+  static String getTypeCheckCacheName(ITypeBinding type) {
+    if (type.isArray()) {
+      return NameTable.getFullName(type.getElementType().getErasure()) + "_arrayType_";
+    }
+    String typeName = NameTable.getFullName(type);
+    return Types.isInterface(type) ? typeName + "_conformingClass_" : typeName + "_class_";
+  }
+
   @Override
   public boolean visit(LabeledStatement node) {
     node.getLabel().accept(this);
@@ -1417,7 +1603,10 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
     Expression receiver = node.getExpression();
     ITypeBinding receiverType = receiver != null ? Types.getTypeBinding(receiver) : null;
 
-    if (Types.isFunction(binding)) {
+    String functionName = Types.getFunctionName(node);
+    if (functionName != null) {
+      printFunctionInvocation(node, functionName);
+    } else if (Types.isFunction(binding)) {
       buffer.append(methodName);
       buffer.append("(");
       for (Iterator<Expression> it = node.arguments().iterator(); it.hasNext(); ) {
@@ -1427,10 +1616,9 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
         }
       }
       buffer.append(")");
-    } else if (node.resolveMethodBinding() != null && Types.hasAnnotation(node.resolveMethodBinding(), Mask.class)) {
+    } else if (Types.isMaskedInvocation(node)) {
       receiver.accept(this);
-    } else if (methodName.equals("isAssignableFrom") &&
-        binding.getDeclaringClass().equals(Types.getIOSClass())) {
+    } else if (Types.isAssignableFromInvocation(node)) {
       printIsAssignableFromExpression(node);
     } else if (methodName.equals("getClass") && receiver != null && Types.isInterface(receiverType)) {
       printInterfaceGetClass(node, receiver);
@@ -1649,7 +1837,8 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
 
   @Override
   public boolean visit(PostfixExpression node) {
-    if (node.getOperand() instanceof ArrayAccess) {
+    if (node.getOperand() instanceof ArrayAccess
+        && !Types.isDirectArrayAccess((ArrayAccess) node.getOperand())) {
       PostfixExpression.Operator op = node.getOperator();
       if (op == PostfixExpression.Operator.INCREMENT
           || op == PostfixExpression.Operator.DECREMENT) {
@@ -1665,7 +1854,8 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
 
   @Override
   public boolean visit(PrefixExpression node) {
-    if (node.getOperand() instanceof ArrayAccess) {
+    if (node.getOperand() instanceof ArrayAccess
+        && !Types.isDirectArrayAccess((ArrayAccess) node.getOperand())) {
       PrefixExpression.Operator op = node.getOperator();
       if (op == PrefixExpression.Operator.INCREMENT || op == PrefixExpression.Operator.DECREMENT) {
         String methodName = op == PrefixExpression.Operator.INCREMENT ? "incr" : "decr";
@@ -1758,6 +1948,10 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
     ITypeBinding owningType = owner != null ?
         Types.getTypeBinding(owner).getTypeDeclaration() : null;
     boolean isPublic = owningType != null ? useStaticPublicAccessor(expression, owningType) : true;
+    if (isPublic && Types.isStaticGlobal(var)) {
+      printStaticGlobalReference(var);
+      return;
+    }
     if (isPublic) {
       buffer.append('[');
       ITypeBinding declaringClass = var.getDeclaringClass();
@@ -1783,6 +1977,24 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
     }
   }
 
+  /**
+   * Prints a reference to another class's static global, which checks that
+   * the class is initialized unless the variable is a constant.
+   */
+  private void printStaticGlobalReference(IVariableBinding var) {
+    ITypeBinding declaringClass = var.getDeclaringClass().getTypeDeclaration();
+    String name = NameTable.getStaticVarQualifiedName(declaringClass, var.getName());
+    if (Types.needsInitializationCheck(var)) {
+      buffer.append("J2OBJC_STATIC_VAR(");
+      buffer.append(NameTable.getFullName(declaringClass));
+      buffer.append(", ");
+      buffer.append(name);
+      buffer.append(')');
+    } else {
+      buffer.append(name);
+    }
+  }
+
   /**
    * Returns the type declaration which the specified node is part of.
    */
@@ -1906,6 +2118,7 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
       } else {
         String name = NameTable.getName(node);
         if (Options.inlineFieldAccess() && isProperty(node)) {
+          buffer.append(getInstanceVariablePrefix());
           buffer.append(NameTable.javaFieldToObjC(name));
         } else {
           if (isProperty(node)) {
@@ -1931,6 +2144,14 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
     return false;
   }
 
+  /**
+   * Returns the prefix of an instance variable accessed by its name, which
+   * a method's function has to access through its self parameter.
+   */
+  private String getInstanceVariablePrefix() {
+    return asFunction ? "self->" : "";
+  }
+
   private boolean isProperty(SimpleName name) {
     IVariableBinding var = Types.getVariableBinding(name);
     if (!var.isField() || Modifier.isStatic(var.getModifiers())) {
@@ -1982,17 +2203,39 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
       buffer.append('@');
       buffer.append(UnicodeUtils.escapeStringLiteral(node.getEscapedValue()));
     } else {
-      buffer.append(buildStringFromChars(node.getLiteralValue()));
+      printStringFromChars(node.getLiteralValue());
     }
     return false;
   }
 
+  /**
+   * Prints a string that can't be an Objective-C literal.  It is read from
+   * the unit's string literal table if StringLiteralHoister added it, and
+   * otherwise built from its characters.
+   */
+  private void printStringFromChars(String s) {
+    int index = Types.getHoistedStringLiteralIndex(s);
+    if (index >= 0) {
+      buffer.append(String.format("%s_stringLiteral_(%d)",
+          Types.getStringLiteralTablePrefix(), index));
+    } else {
+      buffer.append(buildStringFromChars(s));
+    }
+  }
+
   @VisibleForTesting
   static String buildStringFromChars(String s) {
+    return "[NSString stringWithCharacters:" + buildCharArray(s) + " length:"
+        + s.length() + ']';
+  }
+
+  /**
+   * Returns a unichar array expression with a string's characters.
+   */
+  static String buildCharArray(String s) {
     int length = s.length();
     StringBuilder buffer = new StringBuilder();
-    buffer.append(
-        "[NSString stringWithCharacters:(unichar[]) { ");
+    buffer.append("(unichar[]) { ");
     int i = 0;
     while (i < length) {
       char c = s.charAt(i);
@@ -2002,10 +2245,7 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
         buffer.append(", ");
       }
     }
-    buffer.append(" } length:");
-    String lengthString = Integer.toString(length);
-    buffer.append(lengthString);
-    buffer.append(']');
+    buffer.append(" }");
     return buffer.toString();
   }
 
@@ -2139,6 +2379,14 @@ public class StatementGenerator extends ErrorReportingASTVisitor {
 
   @Override
   public boolean visit(SynchronizedStatement node) {
+    if (Options.fastMonitors()) {
+      buffer.append("{\nJreMonitor *monitor__ = JreMonitorEnter(");
+      node.getExpression().accept(this);
+      buffer.append(");\n@try ");
+      node.getBody().accept(this);
+      buffer.append(" @finally {\nJreMonitorExit(monitor__);\n}\n}\n");
+      return false;
+    }
     buffer.append("@synchronized (");
     node.getExpression().accept(this);
     buffer.append(") ");
@@ -16,7 +16,6 @@
 
 package com.google.devtools.j2objc.sym;
 
-import com.google.common.collect.Maps;
 import com.google.devtools.j2objc.types.Types;
 
 import org.eclipse.jdt.core.dom.ASTNode;
@@ -45,7 +44,10 @@ import java.util.Map;
 import java.util.Stack;
 
 /**
- * Builds a symbol table by walking a source file's AST.
+ * Builds a symbol table by walking a source file's AST.  The scope each
+ * block, method and type declaration owns is indexed on its node, so
+ * subtrees that passes insert later can be added without walking the
+ * nodes that are already indexed again.
  *
  * @author Tom Ball
  */
@@ -53,18 +55,30 @@ class SymbolTableBuilder extends ASTVisitor {
   private Stack<Scope> scopeStack = new Stack<Scope>();
 
   private final CompilationUnit unit;
+  private final ASTNode updateRoot;
   private final Map<IBinding, Symbol> symbolTable;
-  private final Map<ASTNode, Scope> scopeTable = Maps.newHashMap();
 
-  static Map<ASTNode, Scope> build(ASTNode node, Map<IBinding, Symbol> symbolTable) {
+  /**
+   * Builds the symbols and scope index of a compilation unit.
+   */
+  static void build(CompilationUnit unit, Map<IBinding, Symbol> symbolTable) {
+    unit.accept(new SymbolTableBuilder(unit, null, symbolTable));
+  }
+
+  /**
+   * Adds the symbols and scopes of a subtree a pass inserted.  Scope owners
+   * in it that are already indexed, such as declarations copied from
+   * another part of the unit, are not walked again.
+   */
+  static void update(ASTNode node, Map<IBinding, Symbol> symbolTable) {
     CompilationUnit unit = node instanceof CompilationUnit ? (CompilationUnit) node : null;
-    SymbolTableBuilder builder = new SymbolTableBuilder(unit, symbolTable);
-    node.accept(builder);
-    return builder.scopeTable;
+    node.accept(new SymbolTableBuilder(unit, node, symbolTable));
   }
 
-  public SymbolTableBuilder(CompilationUnit unit, Map<IBinding, Symbol> symbolTable) {
+  private SymbolTableBuilder(
+      CompilationUnit unit, ASTNode updateRoot, Map<IBinding, Symbol> symbolTable) {
     this.unit = unit;
+    this.updateRoot = updateRoot;
     this.symbolTable = symbolTable;
     scopeStack.push(Symbols.getGlobalScope());
   }
@@ -74,19 +88,35 @@ class SymbolTableBuilder extends ASTVisitor {
   }
 
   /**
-   * Push a block scope onto the stack.
+   * Returns true if a node within an inserted subtree already owns a scope,
+   * so its own subtree was indexed before.
    */
-  private void pushScope(ASTNode owner) {
+  private boolean isIndexed(ASTNode node) {
+    return updateRoot != null && node != updateRoot && Symbols.getOwnedScope(node) != null;
+  }
+
+  /**
+   * Push a block scope onto the stack.  Returns false if the block was
+   * already indexed, so its children are skipped.
+   */
+  private boolean pushScope(ASTNode owner) {
+    if (isIndexed(owner)) {
+      scopeStack.push(Symbols.getOwnedScope(owner));
+      return false;
+    }
     Scope currentScope = currentScope();
     Scope newScope = new Scope(owner, null, currentScope);
     scopeStack.push(newScope);
-    scopeTable.put(owner, newScope);
+    Symbols.setOwnedScope(owner, newScope);
+    return true;
   }
 
   /**
-   * Push a new type declaration scope.
+   * Push a new type declaration scope.  Returns false if the declaration
+   * was already indexed, so its members are skipped.
    */
-  private TypeSymbol pushType(ASTNode node) {
+  private boolean pushType(ASTNode node) {
+    boolean indexed = isIndexed(node);
     assert node instanceof AbstractTypeDeclaration || node instanceof AnonymousClassDeclaration;
     ITypeBinding type = Types.getTypeBinding(node);
     type = type.getTypeDeclaration();
@@ -95,8 +125,8 @@ class SymbolTableBuilder extends ASTVisitor {
     currentScope().define(symbol);
     Scope newScope = symbol.getScope();
     scopeStack.push(newScope);
-    scopeTable.put(node, newScope);
-    return symbol;
+    Symbols.setOwnedScope(node, newScope);
+    return !indexed;
   }
 
   /**
@@ -110,7 +140,7 @@ class SymbolTableBuilder extends ASTVisitor {
     currentScope().define(symbol);
     Scope newScope = symbol.getScope();
     scopeStack.push(newScope);
-    scopeTable.put(declaration, newScope);
+    Symbols.setOwnedScope(declaration, newScope);
     return symbol;
   }
 
@@ -181,8 +211,7 @@ class SymbolTableBuilder extends ASTVisitor {
 
   @Override
   public boolean visit(AnnotationTypeDeclaration node) {
-    pushType(node);
-    return true;
+    return pushType(node);
   }
 
   @Override
@@ -192,8 +221,7 @@ class SymbolTableBuilder extends ASTVisitor {
 
   @Override
   public boolean visit(AnonymousClassDeclaration node) {
-    pushType(node);
-    return true;
+    return pushType(node);
   }
 
   @Override
@@ -203,8 +231,7 @@ class SymbolTableBuilder extends ASTVisitor {
 
   @Override
   public boolean visit(Block node) {
-    pushScope(node);
-    return true;
+    return pushScope(node);
   }
 
   @Override
@@ -214,8 +241,7 @@ class SymbolTableBuilder extends ASTVisitor {
 
   @Override
   public boolean visit(CatchClause node) {
-    pushScope(node);
-    return true;
+    return pushScope(node);
   }
 
   @Override
@@ -225,8 +251,7 @@ class SymbolTableBuilder extends ASTVisitor {
 
   @Override
   public boolean visit(EnhancedForStatement node) {
-    pushScope(node);
-    return true;
+    return pushScope(node);
   }
 
   @Override
@@ -242,8 +267,7 @@ class SymbolTableBuilder extends ASTVisitor {
 
   @Override
   public boolean visit(EnumDeclaration node) {
-    pushType(node);
-    return true;
+    return pushType(node);
   }
 
   @Override
@@ -253,8 +277,7 @@ class SymbolTableBuilder extends ASTVisitor {
 
   @Override
   public boolean visit(ForStatement node) {
-    pushScope(node);
-    return true;
+    return pushScope(node);
   }
 
   @Override
@@ -265,7 +288,11 @@ class SymbolTableBuilder extends ASTVisitor {
   @SuppressWarnings("unchecked")
   @Override
   public boolean visit(MethodDeclaration node) {
+    boolean indexed = isIndexed(node);
     MethodSymbol symbol = pushMethod(node);
+    if (indexed) {
+      return false;
+    }
     symbol.setParameters(node.parameters());  // safe by definition
     return true;
   }
@@ -283,8 +310,7 @@ class SymbolTableBuilder extends ASTVisitor {
 
   @Override
   public boolean visit(TypeDeclaration node) {
-    pushType(node);
-    return true;
+    return pushType(node);
   }
 
   @Override
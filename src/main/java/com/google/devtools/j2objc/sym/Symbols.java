@@ -42,30 +42,52 @@ public class Symbols {
   private final Map<IBinding, Symbol> symbolTable = Maps.newHashMap();
   private final CompilationUnit currentUnit;
   private final Scope globalScope = new Scope();
-  private static Symbols instance;
-  private Map<ASTNode, Scope> scopeTable;
-  private static Set<IBinding> resolutionSet = Sets.newLinkedHashSet();
+
+  // The node property that holds the scope a node owns.
+  private static final String SCOPE_PROPERTY = "j2objc.scope";
+
+  // Each translation thread has its own instance and resolution queue, so
+  // units can be translated concurrently.
+  private static final ThreadLocal<Symbols> instances = new ThreadLocal<Symbols>();
+  private static final ThreadLocal<Set<IBinding>> resolutionSets =
+      new ThreadLocal<Set<IBinding>>() {
+        @Override
+        protected Set<IBinding> initialValue() {
+          return Sets.newLinkedHashSet();
+        }
+      };
 
   /**
    * Initialize this service using the AST returned by the parser.
    */
   public static void initialize(CompilationUnit unit) {
-    instance = new Symbols(unit);
+    instances.set(new Symbols(unit));
+    Set<IBinding> resolutionSet = resolutionSets.get();
     for (IBinding binding : resolutionSet) {
       resolveQueuedBinding(binding);
     }
     resolutionSet.clear();
-    instance.scopeTable = SymbolTableBuilder.build(unit, instance.symbolTable);
+    SymbolTableBuilder.build(unit, instance().symbolTable);
   }
 
   public static void cleanup() {
-    instance = null;
-    resolutionSet.clear();
+    instances.remove();
+    resolutionSets.get().clear();
+  }
+
+  private static Symbols instance() {
+    return instances.get();
   }
 
+  /**
+   * Adds the symbols and scopes of a subtree that a pass inserted.  Blocks,
+   * methods and types in it that were indexed before, such as those of
+   * declarations NodeCopier copied, keep their scopes and aren't walked.
+   * Removed subtrees need no update, as their scopes are held by their
+   * nodes.
+   */
   public static void scanAST(ASTNode node) {
-    Map<ASTNode, Scope> newScopes = SymbolTableBuilder.build(node, instance.symbolTable);
-    instance.scopeTable.putAll(newScopes);
+    SymbolTableBuilder.update(node, instance().symbolTable);
   }
 
   private Symbols(CompilationUnit unit) {
@@ -73,13 +95,17 @@ public class Symbols {
   }
 
   public static Scope getGlobalScope() {
-    return instance.globalScope;
+    return instance().globalScope;
   }
 
+  /**
+   * Returns the innermost scope containing a node, which is held by the
+   * node itself if it owns one, or else by its nearest owning ancestor.
+   */
   public static Scope getScope(ASTNode node) {
     ASTNode n = node;
     while (n != null) {
-      Scope scope = instance.scopeTable.get(n);
+      Scope scope = getOwnedScope(n);
       if (scope != null) {
         return scope;
       }
@@ -89,11 +115,7 @@ public class Symbols {
   }
 
   public static void queueForResolution(IBinding binding) {
-    if (resolutionSet != null) {
-      resolutionSet.add(binding);
-    } else {
-      resolveQueuedBinding(binding);
-    }
+    resolutionSets.get().add(binding);
   }
 
   private static void resolveQueuedBinding(IBinding binding) {
@@ -111,7 +133,7 @@ public class Symbols {
       return null;
     }
     binding = binding.getTypeDeclaration();
-    TypeSymbol symbol = (TypeSymbol) instance.symbolTable.get(binding);
+    TypeSymbol symbol = (TypeSymbol) instance().symbolTable.get(binding);
     if (symbol == null) {
       // Update table with symbol references.
       if (binding.getSuperclass() != null) {
@@ -135,9 +157,9 @@ public class Symbols {
         MethodSymbol declaringMethod = resolve(binding.getDeclaringMethod());
         enclosingScope = declaringMethod.getScope();
       }
-      ASTNode declaration = instance.currentUnit.findDeclaringNode(binding);
+      ASTNode declaration = instance().currentUnit.findDeclaringNode(binding);
       symbol = new TypeSymbol(declaration, binding, enclosingScope);
-      instance.symbolTable.put(binding, symbol);
+      instance().symbolTable.put(binding, symbol);
       for (IVariableBinding field : binding.getDeclaredFields()) {
         resolve(field);
       }
@@ -157,13 +179,13 @@ public class Symbols {
       return null;
     }
     binding = binding.getMethodDeclaration();
-    MethodSymbol symbol = (MethodSymbol) instance.symbolTable.get(binding);
+    MethodSymbol symbol = (MethodSymbol) instance().symbolTable.get(binding);
     if (symbol == null) {
       TypeSymbol declaringType = resolve(binding.getDeclaringClass());
       if (declaringType != null) {  // Declaring type is null for functions.
         symbol = new MethodSymbol(method, binding, declaringType.getScope());
       }
-      instance.symbolTable.put(binding, symbol);
+      instance().symbolTable.put(binding, symbol);
     }
     if (method != null) {
       scanAST(method);
@@ -176,7 +198,7 @@ public class Symbols {
       return null;
     }
     binding = binding.getVariableDeclaration();
-    VariableSymbol symbol = (VariableSymbol) instance.symbolTable.get(binding);
+    VariableSymbol symbol = (VariableSymbol) instance().symbolTable.get(binding);
     if (symbol == null) {
       resolve(binding.getType());
       IMethodBinding declaringMethod = binding.getDeclaringMethod();
@@ -190,17 +212,28 @@ public class Symbols {
           symbol = new VariableSymbol(binding, type.getScope());
         }
       }
-      instance.symbolTable.put(binding, symbol);
+      instance().symbolTable.put(binding, symbol);
     }
     return symbol;
   }
 
+  /**
+   * Returns the scope a block, method or type declaration owns, or null.
+   */
+  static Scope getOwnedScope(ASTNode node) {
+    return (Scope) node.getProperty(SCOPE_PROPERTY);
+  }
+
+  static void setOwnedScope(ASTNode node, Scope scope) {
+    node.setProperty(SCOPE_PROPERTY, scope);
+  }
+
   public static void substitute(ASTNode oldNode, ASTNode newNode) {
-    Scope scope = instance.scopeTable.get(oldNode);
+    Scope scope = getOwnedScope(oldNode);
     if (scope != null) {
-      instance.scopeTable.remove(oldNode);
-      Scope previous = instance.scopeTable.put(newNode, scope);
-      assert previous == null;
+      setOwnedScope(oldNode, null);
+      assert getOwnedScope(newNode) == null;
+      setOwnedScope(newNode, scope);
     }
   }
 }
@@ -31,6 +31,7 @@ import org.eclipse.jdt.core.dom.NumberLiteral;
 import org.eclipse.jdt.core.dom.PostfixExpression;
 import org.eclipse.jdt.core.dom.PrefixExpression;
 import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
 import org.eclipse.jdt.core.dom.Statement;
 import org.eclipse.jdt.core.dom.Type;
 import org.eclipse.jdt.core.dom.VariableDeclarationExpression;
@@ -68,6 +69,15 @@ public final class ASTFactory {
     return frag;
   }
 
+  public static SingleVariableDeclaration newSingleVariableDeclaration(
+      AST ast, IVariableBinding binding) {
+    SingleVariableDeclaration decl = ast.newSingleVariableDeclaration();
+    decl.setName(newSimpleName(ast, binding));
+    decl.setType(Types.makeType(binding.getType()));
+    Types.addBinding(decl, binding);
+    return decl;
+  }
+
   @SuppressWarnings("unchecked")
   public static VariableDeclarationStatement newVariableDeclarationStatement(
       AST ast, IVariableBinding binding, Expression initializer) {
@@ -0,0 +1,301 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.devtools.j2objc.types.GeneratedMethodBinding;
+import com.google.devtools.j2objc.types.GeneratedVariableBinding;
+import com.google.devtools.j2objc.types.IOSArrayTypeBinding;
+import com.google.devtools.j2objc.types.Types;
+import com.google.devtools.j2objc.util.ErrorReportingASTVisitor;
+import com.google.devtools.j2objc.util.NameTable;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.ArrayAccess;
+import org.eclipse.jdt.core.dom.ArrayInitializer;
+import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.BooleanLiteral;
+import org.eclipse.jdt.core.dom.CastExpression;
+import org.eclipse.jdt.core.dom.CharacterLiteral;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.FieldAccess;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.InfixExpression;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.Modifier;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.NumberLiteral;
+import org.eclipse.jdt.core.dom.ParenthesizedExpression;
+import org.eclipse.jdt.core.dom.PostfixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+
+import java.util.List;
+
+/**
+ * Moves large constant primitive array initializers into static C arrays.
+ *
+ * <p>The Rewriter converts an array initializer into an IOSArray message
+ * whose argument is a C array literal, such as
+ * "[IOSIntArray arrayWithInts:(int[]){ 1, 2, 3 } count:3]".  Each time it
+ * runs, the literal is built on the stack before the array copies it, and
+ * clang compiles large literals slowly.  If all of an initializer's elements
+ * are constants, ObjectiveCImplementationGenerator declares them as a
+ * static const array instead, which the message is passed.
+ *
+ * <p>If the initializer is a private static final field's value, and the
+ * unit only reads the field's elements and length, the array's elements
+ * can't be written: the field is inaccessible to other classes, and its
+ * value isn't passed to other code.  The array then uses the static array
+ * as its buffer, rather than copying it.  A field with a generated static
+ * accessor isn't read-only, as the accessor is declared in the public
+ * header, where native code can call it.
+ */
+public class ArrayInitializerHoister extends ErrorReportingASTVisitor {
+
+  // Smaller initializers are left in place, as the copy is cheap.
+  @VisibleForTesting
+  static final int MIN_HOISTED_LENGTH = 16;
+
+  private CompilationUnit unit;
+  private int hoistedCount = 0;
+
+  @Override
+  public boolean visit(CompilationUnit node) {
+    unit = node;
+    return true;
+  }
+
+  @Override
+  public void endVisit(MethodInvocation node) {
+    IMethodBinding method = Types.getMethodBinding(node);
+    if (method == null || !(method.getDeclaringClass() instanceof IOSArrayTypeBinding)) {
+      return;
+    }
+    @SuppressWarnings("unchecked")
+    List<Expression> args = node.arguments(); // safe by definition
+    if (args.isEmpty() || !(args.get(0) instanceof ArrayInitializer)) {
+      return;
+    }
+    ArrayInitializer init = (ArrayInitializer) args.get(0);
+    if (!Types.getTypeBinding(init).getComponentType().isPrimitive()
+        || init.expressions().size() < MIN_HOISTED_LENGTH || !isConstant(init)) {
+      return;
+    }
+    String name = String.format("%s_arrayInitializer%d_",
+        NameTable.getFullName(getOwningType(node)), hoistedCount++);
+    Types.addHoistedArrayInitializer(init, name);
+
+    IVariableBinding field = getInitializedField(node);
+    if (field != null && hasReadOnlyElements(field)) {
+      useNoCopyMethod(node, method);
+    }
+  }
+
+  private static boolean isConstant(ArrayInitializer init) {
+    @SuppressWarnings("unchecked")
+    List<Expression> elements = init.expressions(); // safe by definition
+    for (Expression e : elements) {
+      if (!isConstant(e)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns true if an expression is generated as a C constant expression.
+   * Primitive constant variables are generated as macros.
+   */
+  private static boolean isConstant(Expression e) {
+    if (e instanceof NumberLiteral || e instanceof CharacterLiteral
+        || e instanceof BooleanLiteral) {
+      return true;
+    } else if (e instanceof PrefixExpression) {
+      PrefixExpression.Operator op = ((PrefixExpression) e).getOperator();
+      return op != PrefixExpression.Operator.INCREMENT
+          && op != PrefixExpression.Operator.DECREMENT
+          && isConstant(((PrefixExpression) e).getOperand());
+    } else if (e instanceof ParenthesizedExpression) {
+      return isConstant(((ParenthesizedExpression) e).getExpression());
+    } else if (e instanceof CastExpression) {
+      return isConstant(((CastExpression) e).getExpression());
+    } else if (e instanceof InfixExpression) {
+      InfixExpression infix = (InfixExpression) e;
+      if (!isConstant(infix.getLeftOperand()) || !isConstant(infix.getRightOperand())) {
+        return false;
+      }
+      @SuppressWarnings("unchecked")
+      List<Expression> extendedOperands = infix.extendedOperands(); // safe by definition
+      for (Expression operand : extendedOperands) {
+        if (!isConstant(operand)) {
+          return false;
+        }
+      }
+      return true;
+    } else if (e instanceof Name) {
+      return Types.isPrimitiveConstant(Types.getVariableBinding(e));
+    }
+    return false;
+  }
+
+  private static AbstractTypeDeclaration getOwningType(ASTNode node) {
+    ASTNode n = node.getParent();
+    while (!(n instanceof AbstractTypeDeclaration)) {
+      n = n.getParent();
+    }
+    return (AbstractTypeDeclaration) n;
+  }
+
+  /**
+   * Returns the private static final field an array creation is assigned
+   * to, or null if it's used some other way.
+   */
+  private static IVariableBinding getInitializedField(MethodInvocation node) {
+    ASTNode parent = node.getParent();
+    Expression var;
+    if (parent instanceof Assignment && ((Assignment) parent).getRightHandSide() == node) {
+      var = ((Assignment) parent).getLeftHandSide();
+    } else if (parent instanceof VariableDeclarationFragment) {
+      var = ((VariableDeclarationFragment) parent).getName();
+    } else {
+      return null;
+    }
+    IVariableBinding field = Types.getVariableBinding(var);
+    int modifiers = Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL;
+    if (field == null || !field.isField() || (field.getModifiers() & modifiers) != modifiers) {
+      return null;
+    }
+    return field.getVariableDeclaration();
+  }
+
+  /**
+   * Returns true if all references to a field read its elements or length.
+   * Returning it, including from its generated accessor, is an escape.
+   */
+  private boolean hasReadOnlyElements(final IVariableBinding field) {
+    final String accessorName = NameTable.getStaticAccessorName(field.getName());
+    final boolean[] escapes = new boolean[1];
+    ASTVisitor visitor = new ASTVisitor() {
+      @Override
+      public boolean visit(SimpleName node) {
+        checkReference(node);
+        return false;
+      }
+
+      @Override
+      public boolean visit(QualifiedName node) {
+        if (isField(node)) {
+          checkReference(node);
+          return false;
+        }
+        return true;
+      }
+
+      @Override
+      public boolean visit(FieldAccess node) {
+        if (isField(node.getName())) {
+          checkReference(node);
+          return false;
+        }
+        return true;
+      }
+
+      @Override
+      public boolean visit(MethodInvocation node) {
+        // Another type reading the field through its accessor.
+        IMethodBinding method = Types.getMethodBinding(node);
+        if (method != null && method.getName().equals(accessorName)
+            && method.getParameterTypes().length == 0
+            && method.getDeclaringClass().getTypeDeclaration().isEqualTo(
+                field.getDeclaringClass().getTypeDeclaration())) {
+          escapes[0] = true;
+        }
+        return true;
+      }
+
+      private boolean isField(Expression node) {
+        IVariableBinding var = Types.getVariableBinding(node);
+        return var != null && var.getVariableDeclaration().isEqualTo(field);
+      }
+
+      private void checkReference(Expression node) {
+        if (isField(node) && !isReadOnlyReference(node)) {
+          escapes[0] = true;
+        }
+      }
+    };
+    // The package and import declarations' names don't have bindings.
+    @SuppressWarnings("unchecked")
+    List<AbstractTypeDeclaration> types = unit.types(); // safe by definition
+    for (AbstractTypeDeclaration type : types) {
+      type.accept(visitor);
+    }
+    return !escapes[0];
+  }
+
+  private static boolean isReadOnlyReference(Expression node) {
+    ASTNode parent = node.getParent();
+    if (parent instanceof ArrayAccess) {
+      return ((ArrayAccess) parent).getArray() == node && !isWritten((ArrayAccess) parent);
+    } else if (parent instanceof QualifiedName) {
+      QualifiedName qualifiedName = (QualifiedName) parent;
+      return qualifiedName.getQualifier() == node
+          && qualifiedName.getName().getIdentifier().equals("length");
+    } else if (parent instanceof Assignment) {
+      // The field's initialization, as the field is final.
+      return ((Assignment) parent).getLeftHandSide() == node;
+    } else if (parent instanceof VariableDeclarationFragment) {
+      return ((VariableDeclarationFragment) parent).getName() == node;
+    }
+    return false;
+  }
+
+  private static boolean isWritten(ArrayAccess access) {
+    ASTNode parent = access.getParent();
+    if (parent instanceof Assignment) {
+      return ((Assignment) parent).getLeftHandSide() == access;
+    } else if (parent instanceof PrefixExpression) {
+      PrefixExpression.Operator op = ((PrefixExpression) parent).getOperator();
+      return op == PrefixExpression.Operator.INCREMENT
+          || op == PrefixExpression.Operator.DECREMENT;
+    }
+    return parent instanceof PostfixExpression;
+  }
+
+  /**
+   * Changes an array creation to call the method that uses the static C
+   * array as the new array's buffer, such as "arrayWithNoCopyInts".
+   */
+  private static void useNoCopyMethod(MethodInvocation node, IMethodBinding method) {
+    String name = method.getName().replaceFirst("^arrayWith", "arrayWithNoCopy");
+    GeneratedMethodBinding binding = new GeneratedMethodBinding(name, method.getModifiers(),
+        method.getReturnType(), method.getDeclaringClass(), false, false, true);
+    for (ITypeBinding paramType : method.getParameterTypes()) {
+      binding.addParameter(
+          new GeneratedVariableBinding(paramType, false, true, null, binding));
+    }
+    node.getName().setIdentifier(name);
+    Types.addBinding(node.getName(), binding);
+    Types.addBinding(node, binding);
+  }
+}
@@ -31,6 +31,7 @@ import com.google.j2objc.annotations.Weak;
 import com.google.j2objc.annotations.WeakOuter;
 
 import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.Annotation;
 import org.eclipse.jdt.core.dom.AnnotationTypeDeclaration;
 import org.eclipse.jdt.core.dom.AnnotationTypeMemberDeclaration;
@@ -39,6 +40,7 @@ import org.eclipse.jdt.core.dom.Block;
 import org.eclipse.jdt.core.dom.BodyDeclaration;
 import org.eclipse.jdt.core.dom.CastExpression;
 import org.eclipse.jdt.core.dom.ClassInstanceCreation;
+import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.EnumDeclaration;
 import org.eclipse.jdt.core.dom.Expression;
 import org.eclipse.jdt.core.dom.FieldDeclaration;
@@ -71,6 +73,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Updates the Java AST to remove methods and classes reported as dead
@@ -85,9 +88,9 @@ public class DeadCodeEliminator extends ErrorReportingASTVisitor {
   private static final String WEAK = Weak.class.getName();
   private static final String WEAK_OUTER = WeakOuter.class.getName();
 
-  private static int classCount = 0;
+  private static final AtomicInteger classCount = new AtomicInteger();
   private static String generateClassName() {
-    return "J2OBJC_DUMMY_CLASS_" + (classCount++);
+    return "J2OBJC_DUMMY_CLASS_" + classCount.getAndIncrement();
   }
 
   // Keep track of generated method declarations so we don't delete them.
@@ -116,14 +119,8 @@ public class DeadCodeEliminator extends ErrorReportingASTVisitor {
       generateMissingMethods(node.getAST(), binding, body);
     }
 
-    ITypeBinding clazz = node.resolveBinding();
-    ITypeBinding superClass = clazz.getSuperclass();
-    if (!Types.isInterface(clazz) && !clazz.isAnonymous() && superClass != null
-        && !getConstructors(clazz).hasNext()) {
-      Iterator<IMethodBinding> superConstructors = getVisible(getConstructors(superClass));
-      if (superConstructors.hasNext() && !getWithArity(0, superConstructors).hasNext()) {
-        generateConstructor(node);
-      }
+    if (needsConstructor(binding)) {
+      generateConstructor(node);
     }
 
     finishElimination();
@@ -198,6 +195,52 @@ public class DeadCodeEliminator extends ErrorReportingASTVisitor {
     removeAnnotation(annotation);
   }
 
+  /**
+   * Returns true if eliminating a unit's dead code adds declarations to it:
+   * stubs of dead methods that its types must still implement, or
+   * constructors that replace a class's dead ones.  The added declarations
+   * don't have bindings, so such a unit can only be translated once its
+   * rewritten source is parsed again.
+   */
+  public boolean generatesCode(CompilationUnit unit) {
+    final List<ITypeBinding> types = Lists.newArrayList();
+    final List<ITypeBinding> classes = Lists.newArrayList();
+    unit.accept(new ASTVisitor() {
+      @Override
+      public boolean visit(TypeDeclaration node) {
+        ITypeBinding binding = node.resolveBinding();
+        if (!Types.isInterface(node) && !Modifier.isAbstract(node.getModifiers())) {
+          types.add(binding);
+        }
+        classes.add(binding);
+        return true;
+      }
+
+      @Override
+      public boolean visit(EnumDeclaration node) {
+        types.add(node.resolveBinding());
+        return true;
+      }
+
+      @Override
+      public boolean visit(AnonymousClassDeclaration node) {
+        types.add(node.resolveBinding());
+        return true;
+      }
+    });
+    for (ITypeBinding type : types) {
+      if (hasMissingMethods(type)) {
+        return true;
+      }
+    }
+    for (ITypeBinding clazz : classes) {
+      if (needsConstructor(clazz)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Remove dead members from a type.
    */
@@ -249,6 +292,7 @@ public class DeadCodeEliminator extends ErrorReportingASTVisitor {
    * Also adds an import statement if necessary.
    */
   private void generateMissingMethods(AST ast, ITypeBinding type, List<BodyDeclaration> body) {
+    // Keep in sync with hasMissingMethods().
     List<List<IMethodBinding>> groups =
         groupOverrideEquivalentMethods(getVisibleMethods(type));
     for (List<IMethodBinding> group : groups) {
@@ -262,6 +306,18 @@ public class DeadCodeEliminator extends ErrorReportingASTVisitor {
     }
   }
 
+  /**
+   * Returns true if generateMissingMethods() adds stubs to a type.
+   */
+  private boolean hasMissingMethods(ITypeBinding type) {
+    for (List<IMethodBinding> group : groupOverrideEquivalentMethods(getVisibleMethods(type))) {
+      if (!group.get(0).isConstructor() && getConcreteMethod(group) == null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Returns a non-abstract method from a list of override-equivalent methods
    * that is return-type substitutable for all the others and has a throws
@@ -684,6 +740,20 @@ public class DeadCodeEliminator extends ErrorReportingASTVisitor {
   // =========================================================================
   // Constructors
 
+  /**
+   * Returns true if a class needs a generated constructor, as all of its
+   * constructors are dead and its superclass has no visible nullary one.
+   */
+  private boolean needsConstructor(ITypeBinding clazz) {
+    ITypeBinding superClass = clazz.getSuperclass();
+    if (!Types.isInterface(clazz) && !clazz.isAnonymous() && superClass != null
+        && !getConstructors(clazz).hasNext()) {
+      Iterator<IMethodBinding> superConstructors = getVisible(getConstructors(superClass));
+      return superConstructors.hasNext() && !getWithArity(0, superConstructors).hasNext();
+    }
+    return false;
+  }
+
   /**
    * Adds a nullary constructor that invokes a superclass constructor with
    * default arguments.
@@ -0,0 +1,202 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.devtools.j2objc.J2ObjC;
+import com.google.devtools.j2objc.types.Types;
+import com.google.devtools.j2objc.util.ErrorReportingASTVisitor;
+import com.google.devtools.j2objc.util.NameTable;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.Modifier;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.SuperFieldAccess;
+import org.eclipse.jdt.core.dom.SuperMethodInvocation;
+import org.eclipse.jdt.core.dom.ThisExpression;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts calls of methods that can't be overridden into C function calls,
+ * which don't need objc_msgSend's method lookup.
+ *
+ * <p>Static and private methods, and the methods of final classes that don't
+ * override or implement an inherited method, are candidates.  A call is
+ * converted if it is made by the declaring class's own code, with an
+ * implicit or "this" receiver (or the class name, for static methods).  The
+ * class is then already initialized, so the function doesn't need to send a
+ * message to trigger +initialize.  Methods with at least one converted call
+ * are generated as a function, and the method is kept as a wrapper that
+ * calls it, so other classes, subclasses and reflection still find it.
+ */
+public class Devirtualizer extends ErrorReportingASTVisitor {
+
+  // The candidate methods of the types being visited, mapped to their
+  // declarations.
+  private final Map<IMethodBinding, MethodDeclaration> candidates = Maps.newHashMap();
+
+  @Override
+  public boolean visit(TypeDeclaration node) {
+    if (!node.isInterface()) {
+      for (MethodDeclaration method : node.getMethods()) {
+        if (canDevirtualize(node, method)) {
+          candidates.put(Types.getMethodBinding(method), method);
+        }
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void endVisit(MethodInvocation node) {
+    IMethodBinding binding = Types.getMethodBinding(node);
+    if (binding == null) {
+      return;
+    }
+    MethodDeclaration method = candidates.get(binding.getMethodDeclaration());
+    if (method == null || !isDirectCall(node, Types.getMethodBinding(method))) {
+      return;
+    }
+    AbstractTypeDeclaration type = (AbstractTypeDeclaration) method.getParent();
+    String functionName = NameTable.makeFunctionName(type, method);
+    Types.addDevirtualizedMethod(Types.getMethodBinding(method));
+    Types.addFunctionInvocation(node, functionName);
+    J2ObjC.callDevirtualized(node, describe(Types.getMethodBinding(method)), functionName);
+  }
+
+  private static boolean canDevirtualize(TypeDeclaration type, MethodDeclaration method) {
+    IMethodBinding binding = Types.getMethodBinding(method);
+    int modifiers = method.getModifiers();
+    if (binding == null || method.isConstructor() || method.getBody() == null
+        || Modifier.isNative(modifiers) || Modifier.isAbstract(modifiers)
+        || method.isVarargs() || !method.typeParameters().isEmpty()
+        || binding.getReturnType().isTypeVariable()) {
+      return false;
+    }
+    // Methods the generators treat specially.
+    String name = method.getName().getIdentifier();
+    if (name.equals(NameTable.CLINIT_NAME) || name.equals("main")
+        || Types.getMappedMethod(binding) != null || Types.isFunction(binding)
+        || Types.isAction(binding)) {
+      return false;
+    }
+    if (!Modifier.isStatic(modifiers) && !Modifier.isPrivate(modifiers)
+        && (!Modifier.isFinal(type.getModifiers()) || overridesInheritedMethod(binding))) {
+      return false;
+    }
+    // A function can't send messages to super.
+    return !usesSuper(method);
+  }
+
+  /**
+   * Returns true if a call is made by the method's declaring class to the
+   * class or the instance running the call.
+   */
+  private static boolean isDirectCall(MethodInvocation node, IMethodBinding method) {
+    AbstractTypeDeclaration owner = getOwningType(node);
+    if (owner == null || !Types.getTypeBinding(owner).getTypeDeclaration().isEqualTo(
+        method.getDeclaringClass().getTypeDeclaration())) {
+      return false;
+    }
+    Expression receiver = node.getExpression();
+    if (receiver == null) {
+      return true;
+    }
+    if (Modifier.isStatic(method.getModifiers())) {
+      return receiver instanceof Name && Types.getBinding(receiver) instanceof ITypeBinding;
+    }
+    return receiver instanceof ThisExpression
+        && ((ThisExpression) receiver).getQualifier() == null;
+  }
+
+  private static AbstractTypeDeclaration getOwningType(ASTNode node) {
+    ASTNode n = node.getParent();
+    while (n != null && !(n instanceof AbstractTypeDeclaration)) {
+      n = n.getParent();
+    }
+    return (AbstractTypeDeclaration) n;
+  }
+
+  private static boolean overridesInheritedMethod(IMethodBinding method) {
+    List<ITypeBinding> supertypes = Lists.newArrayList();
+    ITypeBinding type = method.getDeclaringClass();
+    if (type.getSuperclass() != null) {
+      supertypes.add(type.getSuperclass());
+    }
+    supertypes.addAll(Lists.newArrayList(type.getInterfaces()));
+    while (!supertypes.isEmpty()) {
+      ITypeBinding supertype = supertypes.remove(0);
+      for (IMethodBinding inherited : supertype.getDeclaredMethods()) {
+        if (method.overrides(inherited)) {
+          return true;
+        }
+      }
+      if (supertype.getSuperclass() != null) {
+        supertypes.add(supertype.getSuperclass());
+      }
+      supertypes.addAll(Lists.newArrayList(supertype.getInterfaces()));
+    }
+    return false;
+  }
+
+  private static boolean usesSuper(MethodDeclaration method) {
+    final boolean[] result = new boolean[1];
+    method.getBody().accept(new ASTVisitor() {
+      @Override
+      public boolean visit(SuperMethodInvocation node) {
+        result[0] = true;
+        return false;
+      }
+
+      @Override
+      public boolean visit(SuperFieldAccess node) {
+        result[0] = true;
+        return false;
+      }
+    });
+    return result[0];
+  }
+
+  /**
+   * Returns a method's Java signature, such as "Foo.add(int)".
+   */
+  private static String describe(IMethodBinding method) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(method.getDeclaringClass().getName());
+    sb.append('.');
+    sb.append(method.getName());
+    sb.append('(');
+    ITypeBinding[] parameterTypes = method.getParameterTypes();
+    for (int i = 0; i < parameterTypes.length; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(parameterTypes[i].getName());
+    }
+    sb.append(')');
+    return sb.toString();
+  }
+}
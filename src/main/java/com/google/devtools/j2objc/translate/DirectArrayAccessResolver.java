@@ -0,0 +1,288 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.common.collect.Sets;
+import com.google.devtools.j2objc.types.Types;
+import com.google.devtools.j2objc.util.ErrorReportingASTVisitor;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.ArrayAccess;
+import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.ForStatement;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.InfixExpression;
+import org.eclipse.jdt.core.dom.Initializer;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.NumberLiteral;
+import org.eclipse.jdt.core.dom.PostfixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.TypeDeclarationStatement;
+import org.eclipse.jdt.core.dom.VariableDeclarationExpression;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+
+import java.util.Set;
+
+/**
+ * Finds counted loops over primitive arrays whose accesses are always in
+ * range, so StatementGenerator can access the elements through the array's
+ * C buffer instead of sending a range-checked message for each one.
+ *
+ * <p>A loop qualifies if its index is an int that starts at a non-negative
+ * constant, is only incremented by its one updater, and is tested by a
+ * condition of the form "i < a.length", or "i < n" where n was initialized
+ * to a.length.  The condition is then the loop's range check, as "a[i]" is
+ * in range anywhere in the body, so the accesses are marked.  Only local
+ * arrays that the loop (or, for "i < n", the method) doesn't assign are
+ * considered, as fields may be changed by the code the loop calls.  Enhanced
+ * for statements over arrays have already been rewritten into this form.
+ */
+public class DirectArrayAccessResolver extends ErrorReportingASTVisitor {
+
+  // The body of the method or initializer being visited.
+  private Block methodBody;
+
+  @Override
+  public boolean visit(MethodDeclaration node) {
+    methodBody = node.getBody();
+    return true;
+  }
+
+  @Override
+  public boolean visit(Initializer node) {
+    methodBody = node.getBody();
+    return true;
+  }
+
+  @Override
+  public boolean visit(ForStatement node) {
+    IVariableBinding index = getIndexVariable(node);
+    if (index != null) {
+      IVariableBinding array = getBoundingArray(node, index);
+      if (array != null) {
+        markAccesses(node, array, index);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the loop's index variable, if it is declared by the loop with a
+   * non-negative initial value and is only changed by the loop's updater,
+   * which increments it by one.
+   */
+  private static IVariableBinding getIndexVariable(ForStatement node) {
+    if (node.initializers().size() != 1 || node.updaters().size() != 1
+        || node.getExpression() == null) {
+      return null;
+    }
+    Object init = node.initializers().get(0);
+    if (!(init instanceof VariableDeclarationExpression)
+        || ((VariableDeclarationExpression) init).fragments().size() != 1) {
+      return null;
+    }
+    VariableDeclarationFragment fragment = (VariableDeclarationFragment)
+        ((VariableDeclarationExpression) init).fragments().get(0);
+    IVariableBinding index = Types.getVariableBinding(fragment.getName());
+    if (index == null || !index.getType().getName().equals("int")
+        || getNonNegativeValue(fragment.getInitializer()) < 0) {
+      return null;
+    }
+    if (!isIncrement((Expression) node.updaters().get(0), index)) {
+      return null;
+    }
+    Set<IVariableBinding> assigned = getAssignedVariables(node.getBody());
+    assigned.addAll(getAssignedVariables(node.getExpression()));
+    return assigned.contains(index) ? null : index;
+  }
+
+  /**
+   * Returns the array whose length the loop condition tests the index
+   * against, or null if the condition doesn't have that form.
+   */
+  private IVariableBinding getBoundingArray(ForStatement node, IVariableBinding index) {
+    if (!(node.getExpression() instanceof InfixExpression)) {
+      return null;
+    }
+    InfixExpression condition = (InfixExpression) node.getExpression();
+    if (condition.getOperator() != InfixExpression.Operator.LESS
+        || condition.hasExtendedOperands() || !isVariable(condition.getLeftOperand(), index)) {
+      return null;
+    }
+    Expression bound = condition.getRightOperand();
+    IVariableBinding array = getLengthArray(bound);
+    if (array != null) {
+      // "i < a.length"
+      Set<IVariableBinding> assigned = getAssignedVariables(node);
+      return assigned.contains(array) ? null : array;
+    }
+    if (!(bound instanceof SimpleName) || methodBody == null) {
+      return null;
+    }
+    // "i < n", where n is a.length.
+    IVariableBinding length = Types.getVariableBinding(bound);
+    VariableDeclarationFragment lengthDecl = findDeclaration(methodBody, length);
+    if (lengthDecl == null || lengthDecl.getInitializer() == null) {
+      return null;
+    }
+    array = getLengthArray(lengthDecl.getInitializer());
+    if (array == null) {
+      return null;
+    }
+    Set<IVariableBinding> assigned = getAssignedVariables(methodBody);
+    return assigned.contains(array) || assigned.contains(length) ? null : array;
+  }
+
+  private static void markAccesses(
+      final ForStatement loop, final IVariableBinding array, final IVariableBinding index) {
+    loop.getBody().accept(new ASTVisitor() {
+      @Override
+      public boolean visit(ArrayAccess node) {
+        if (isVariable(node.getArray(), array) && isVariable(node.getIndex(), index)) {
+          Types.addDirectArrayAccess(loop, node);
+        }
+        return true;
+      }
+
+      @Override
+      public boolean visit(TypeDeclarationStatement node) {
+        return false;
+      }
+    });
+  }
+
+  /**
+   * Returns the array if the expression is the length of a local primitive
+   * array, or null.
+   */
+  private static IVariableBinding getLengthArray(Expression e) {
+    if (!(e instanceof QualifiedName)) {
+      return null;
+    }
+    QualifiedName name = (QualifiedName) e;
+    if (!name.getName().getIdentifier().equals("length")
+        || !(name.getQualifier() instanceof SimpleName)) {
+      return null;
+    }
+    IVariableBinding array = Types.getVariableBinding(name.getQualifier());
+    if (array == null || array.isField()) {
+      return null;
+    }
+    ITypeBinding type = array.getType();
+    return type.isArray() && type.getComponentType().isPrimitive() ? array : null;
+  }
+
+  private static boolean isIncrement(Expression e, IVariableBinding var) {
+    if (e instanceof PostfixExpression) {
+      PostfixExpression postfix = (PostfixExpression) e;
+      return postfix.getOperator() == PostfixExpression.Operator.INCREMENT
+          && isVariable(postfix.getOperand(), var);
+    }
+    if (e instanceof PrefixExpression) {
+      PrefixExpression prefix = (PrefixExpression) e;
+      return prefix.getOperator() == PrefixExpression.Operator.INCREMENT
+          && isVariable(prefix.getOperand(), var);
+    }
+    if (e instanceof Assignment) {
+      Assignment assignment = (Assignment) e;
+      return assignment.getOperator() == Assignment.Operator.PLUS_ASSIGN
+          && isVariable(assignment.getLeftHandSide(), var)
+          && getNonNegativeValue(assignment.getRightHandSide()) == 1;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the value of a decimal int literal, or -1 if the expression
+   * isn't one.
+   */
+  private static int getNonNegativeValue(Expression e) {
+    if (e instanceof NumberLiteral) {
+      try {
+        return Integer.parseInt(((NumberLiteral) e).getToken());
+      } catch (NumberFormatException ex) {
+        // Not a decimal int.
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isVariable(Expression e, IVariableBinding var) {
+    if (!(e instanceof SimpleName)) {
+      return false;
+    }
+    IVariableBinding binding = Types.getVariableBinding(e);
+    return binding != null && binding.isEqualTo(var);
+  }
+
+  private static VariableDeclarationFragment findDeclaration(
+      ASTNode root, final IVariableBinding var) {
+    final VariableDeclarationFragment[] result = new VariableDeclarationFragment[1];
+    root.accept(new ASTVisitor() {
+      @Override
+      public boolean visit(VariableDeclarationFragment node) {
+        if (isVariable(node.getName(), var)) {
+          result[0] = node;
+        }
+        return result[0] == null;
+      }
+    });
+    return result[0];
+  }
+
+  /**
+   * Returns the variables that are assigned, incremented or decremented
+   * within a node.
+   */
+  private static Set<IVariableBinding> getAssignedVariables(ASTNode node) {
+    final Set<IVariableBinding> assigned = Sets.newHashSet();
+    node.accept(new ASTVisitor() {
+      @Override
+      public void endVisit(Assignment node) {
+        add(node.getLeftHandSide());
+      }
+
+      @Override
+      public void endVisit(PrefixExpression node) {
+        PrefixExpression.Operator op = node.getOperator();
+        if (op == PrefixExpression.Operator.INCREMENT
+            || op == PrefixExpression.Operator.DECREMENT) {
+          add(node.getOperand());
+        }
+      }
+
+      @Override
+      public void endVisit(PostfixExpression node) {
+        add(node.getOperand());
+      }
+
+      private void add(Expression e) {
+        if (e instanceof SimpleName) {
+          IVariableBinding var = Types.getVariableBinding(e);
+          if (var != null) {
+            assigned.add(var);
+          }
+        }
+      }
+    });
+    return assigned;
+  }
+}
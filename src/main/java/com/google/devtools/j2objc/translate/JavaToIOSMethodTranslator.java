@@ -18,6 +18,7 @@ package com.google.devtools.j2objc.translate;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.Block;
@@ -74,13 +75,20 @@ public class JavaToIOSMethodTranslator extends ErrorReportingASTVisitor {
   private List<IMethodBinding> mappedMethods = Lists.newArrayList();
   private final ITypeBinding javaLangCloneable;
 
-  private final Map<String, String> methodMappings = Maps.newHashMap();
+  // The session's mappings, which are shared rather than copied, and the
+  // mappings of the wrapper methods this unit uses.
+  private final Map<String, String> methodMappings;
+  private final Map<String, String> wrapperMappings;
+  private final Set<String> mappedNames;
+  private final Set<String> wrapperNames;
 
   public JavaToIOSMethodTranslator(CompilationUnit unit, Map<String, String> methodMappings) {
     this.unit = unit;
     this.ast = unit.getAST();
-    initializeWrapperMethodBindings();
-    this.methodMappings.putAll(methodMappings);
+    this.methodMappings = methodMappings;
+    wrapperMappings = MethodMapBuilder.buildMap(unit);
+    mappedNames = MethodMappingCache.getMappedNames(methodMappings);
+    wrapperNames = MethodMappingCache.getMethodNames(wrapperMappings);
     initializeWrapperTypeBindings();
     loadTargetMethods(ast.resolveWellKnownType("java.lang.Object"));
     loadTargetMethods(ast.resolveWellKnownType("java.lang.Class"));
@@ -90,10 +98,6 @@ public class JavaToIOSMethodTranslator extends ErrorReportingASTVisitor {
     javaLangCloneable = ast.resolveWellKnownType("java.lang.Cloneable");
   }
 
-  private void initializeWrapperMethodBindings() {
-    methodMappings.putAll(MethodMapBuilder.buildMap(unit));
-  }
-
   private void initializeWrapperTypeBindings() {
     for (ITypeBinding typeBinding : WrapperSetBuilder.buildSet(unit)) {
       loadTargetMethods(typeBinding);
@@ -151,7 +155,7 @@ public class JavaToIOSMethodTranslator extends ErrorReportingASTVisitor {
     IMethodBinding binding = Types.getMethodBinding(node);
     JavaMethod desc = getDescription(binding);
     if (desc != null) {
-      mapMethod(node, binding, methodMappings.get(desc.getKey()));
+      mapMethod(node, binding, getMapping(desc.getKey()));
       return true;
     }
 
@@ -164,7 +168,7 @@ public class JavaToIOSMethodTranslator extends ErrorReportingASTVisitor {
           continue;
         }
         String key = md.getKey();
-        String value = methodMappings.get(key);
+        String value = getMapping(key);
         if (value != null) {
           mapMethod(node, binding, value);
         }
@@ -229,7 +233,7 @@ public class JavaToIOSMethodTranslator extends ErrorReportingASTVisitor {
     // FIXME: mapped ClassInstanceCreation
     if (md != null && !Types.isWrapper(binding.getDeclaringClass())) {
       String key = md.getKey();
-      String value = methodMappings.get(key);
+      String value = getMapping(key);
       if (value != null) {
         IOSMethod iosMethod = new IOSMethod(value, binding, binding.getDeclaringClass(), ast);
         IMethodBinding methodBinding = iosMethod.resolveBinding();
@@ -296,7 +300,7 @@ public class JavaToIOSMethodTranslator extends ErrorReportingASTVisitor {
     }
     if (md != null) {
       String key = md.getKey();
-      String value = methodMappings.get(key);
+      String value = getMapping(key);
       if (value == null) {
         J2ObjC.error(node, createMissingMethodMessage(binding));
         return true;
@@ -318,7 +322,7 @@ public class JavaToIOSMethodTranslator extends ErrorReportingASTVisitor {
         if (binding.overrides(methodBinding)) {
           JavaMethod desc = getDescription(methodBinding);
           if (desc != null) {
-            String value = methodMappings.get(desc.getKey());
+            String value = getMapping(desc.getKey());
             if (value != null) {
               IOSMethod iosMethod = new IOSMethod(value, binding, ast);
               NameTable.rename(methodBinding, iosMethod.getName());
@@ -376,7 +380,7 @@ public class JavaToIOSMethodTranslator extends ErrorReportingASTVisitor {
     JavaMethod md = getDescription(binding);
     if (md != null) {
       String key = md.getKey();
-      String value = methodMappings.get(key);
+      String value = getMapping(key);
       if (value == null) {
         // Method has same name as a mapped method's, but it's ignored since
         // it doesn't override it.
@@ -400,7 +404,7 @@ public class JavaToIOSMethodTranslator extends ErrorReportingASTVisitor {
         if (binding.overrides(methodBinding)) {
           JavaMethod desc = getDescription(methodBinding);
           if (desc != null) {
-            String value = methodMappings.get(desc.getKey());
+            String value = getMapping(desc.getKey());
             if (value != null) {
               IOSMethod iosMethod = new IOSMethod(value, binding, ast);
               node.setName(NameTable.unsafeSimpleName(iosMethod.getName(), ast));
@@ -429,7 +433,7 @@ public class JavaToIOSMethodTranslator extends ErrorReportingASTVisitor {
     JavaMethod md = getDescription(binding);
     if (md != null) {
       String key = md.getKey();
-      String value = methodMappings.get(key);
+      String value = getMapping(key);
       if (value == null) {
         // Method has same name as a mapped method's, but it's ignored since
         // it doesn't override it.
@@ -453,7 +457,7 @@ public class JavaToIOSMethodTranslator extends ErrorReportingASTVisitor {
         if (binding.overrides(methodBinding)) {
           JavaMethod desc = getDescription(methodBinding);
           if (desc != null) {
-            String value = methodMappings.get(desc.getKey());
+            String value = getMapping(desc.getKey());
             if (value != null) {
               IOSMethod iosMethod = new IOSMethod(value, binding, ast);
               //node.setName(NameTable.unsafeSimpleName(iosMethod.getName(), ast));
@@ -477,14 +481,27 @@ public class JavaToIOSMethodTranslator extends ErrorReportingASTVisitor {
   }
 
   private JavaMethod addDescription(IMethodBinding binding) {
-    JavaMethod desc = JavaMethod.getJavaMethod(binding);
-    if (desc != null && methodMappings.containsKey(desc.getKey())) {
+    String name = binding.getName();
+    if (!mappedNames.contains(name) && !wrapperNames.contains(name)) {
+      return null;  // binding isn't mapped.
+    }
+    JavaMethod desc = MethodMappingCache.getDescription(binding);
+    if (desc != null && getMapping(desc.getKey()) != null) {
       descriptions.put(binding, desc);
       return desc;
     }
     return null;  // binding isn't mapped.
   }
 
+  /**
+   * Returns the iOS method a Java method key is mapped to, or null.  The
+   * session's mappings take precedence over the unit's wrapper mappings.
+   */
+  private String getMapping(String key) {
+    String value = methodMappings.get(key);
+    return value != null ? value : wrapperMappings.get(key);
+  }
+
   /**
    * Explicitly walk block statement lists, to work around a bug in
    * ASTNode.visitChildren that skips list members.
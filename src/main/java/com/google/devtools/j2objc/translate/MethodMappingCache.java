@@ -0,0 +1,134 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.devtools.j2objc.types.GeneratedMethodBinding;
+import com.google.devtools.j2objc.types.IOSMethodBinding;
+import com.google.devtools.j2objc.types.JavaMethod;
+
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The method mapping state that a translation session's units share.
+ *
+ * <p>Each unit's JavaToIOSMethodTranslator describes the methods it looks
+ * up, including all of Object's, Class's and String's, and each description
+ * builds the method's signature.  Methods of classes from class files, such
+ * as the JRE's, are the same in every unit, so their descriptions are
+ * cached here by binding key, which is the same in every unit's
+ * environment.  The names of the mapped methods are also indexed, so that
+ * methods with other names are rejected without a description.
+ *
+ * <p>This class is thread-safe, as units are translated concurrently.
+ */
+public class MethodMappingCache {
+
+  private static final ConcurrentMap<String, JavaMethod> descriptions =
+      new ConcurrentHashMap<String, JavaMethod>();
+
+  // The mappings the name index was built from, and their size then.
+  private static Map<String, String> indexedMappings = null;
+  private static int indexedSize = 0;
+  private static Set<String> mappedNames = ImmutableSet.of();
+
+  private static final AtomicInteger hits = new AtomicInteger();
+  private static final AtomicInteger misses = new AtomicInteger();
+
+  /**
+   * Returns the description of a method, or null if it has none.
+   */
+  public static JavaMethod getDescription(IMethodBinding binding) {
+    ITypeBinding declaringClass = binding.getDeclaringClass();
+    // Generated bindings don't have keys, and source methods are usually
+    // only used by a few units.
+    if (declaringClass == null || declaringClass.isFromSource()
+        || binding instanceof GeneratedMethodBinding || binding instanceof IOSMethodBinding) {
+      return JavaMethod.getJavaMethod(binding);
+    }
+    String key = binding.getKey();
+    JavaMethod desc = descriptions.get(key);
+    if (desc != null) {
+      hits.incrementAndGet();
+      return desc;
+    }
+    misses.incrementAndGet();
+    desc = JavaMethod.getJavaMethod(binding);
+    if (desc != null) {
+      descriptions.putIfAbsent(key, desc);
+    }
+    return desc;
+  }
+
+  /**
+   * Returns the names of the methods a session's mappings map.  The index
+   * is rebuilt if the mappings have changed since it was built.
+   */
+  public static synchronized Set<String> getMappedNames(Map<String, String> mappings) {
+    if (mappings != indexedMappings || mappings.size() != indexedSize) {
+      mappedNames = ImmutableSet.copyOf(getMethodNames(mappings));
+      indexedMappings = mappings;
+      indexedSize = mappings.size();
+    }
+    return mappedNames;
+  }
+
+  /**
+   * Returns the method names of mapping keys, such as "equals" for
+   * "java.lang.Object.equals(Ljava/lang/Object;)Z".
+   */
+  public static Set<String> getMethodNames(Map<String, String> mappings) {
+    Set<String> names = Sets.newHashSet();
+    for (String key : mappings.keySet()) {
+      int paren = key.indexOf('(');
+      if (paren > 0) {
+        names.add(key.substring(key.lastIndexOf('.', paren) + 1, paren));
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Marks the name index stale, after the session's mappings are reloaded.
+   */
+  public static synchronized void invalidate() {
+    indexedMappings = null;
+  }
+
+  public static int getHitCount() {
+    return hits.get();
+  }
+
+  public static int getMissCount() {
+    return misses.get();
+  }
+
+  @VisibleForTesting
+  public static synchronized void reset() {
+    descriptions.clear();
+    invalidate();
+    hits.set(0);
+    misses.set(0);
+  }
+}
@@ -0,0 +1,807 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.devtools.j2objc.types.Types;
+import com.google.devtools.j2objc.util.ErrorReportingASTVisitor;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
+import org.eclipse.jdt.core.dom.ArrayAccess;
+import org.eclipse.jdt.core.dom.ArrayCreation;
+import org.eclipse.jdt.core.dom.ArrayInitializer;
+import org.eclipse.jdt.core.dom.AssertStatement;
+import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.BreakStatement;
+import org.eclipse.jdt.core.dom.CastExpression;
+import org.eclipse.jdt.core.dom.CatchClause;
+import org.eclipse.jdt.core.dom.ClassInstanceCreation;
+import org.eclipse.jdt.core.dom.ConditionalExpression;
+import org.eclipse.jdt.core.dom.ConstructorInvocation;
+import org.eclipse.jdt.core.dom.ContinueStatement;
+import org.eclipse.jdt.core.dom.DoStatement;
+import org.eclipse.jdt.core.dom.EnhancedForStatement;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.FieldAccess;
+import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.ForStatement;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.IfStatement;
+import org.eclipse.jdt.core.dom.InfixExpression;
+import org.eclipse.jdt.core.dom.Initializer;
+import org.eclipse.jdt.core.dom.InstanceofExpression;
+import org.eclipse.jdt.core.dom.LabeledStatement;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.Modifier;
+import org.eclipse.jdt.core.dom.NullLiteral;
+import org.eclipse.jdt.core.dom.ParenthesizedExpression;
+import org.eclipse.jdt.core.dom.PostfixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.ReturnStatement;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.StringLiteral;
+import org.eclipse.jdt.core.dom.SuperConstructorInvocation;
+import org.eclipse.jdt.core.dom.SuperMethodInvocation;
+import org.eclipse.jdt.core.dom.SwitchCase;
+import org.eclipse.jdt.core.dom.SwitchStatement;
+import org.eclipse.jdt.core.dom.ThisExpression;
+import org.eclipse.jdt.core.dom.ThrowStatement;
+import org.eclipse.jdt.core.dom.TryStatement;
+import org.eclipse.jdt.core.dom.TypeDeclarationStatement;
+import org.eclipse.jdt.core.dom.TypeLiteral;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+import org.eclipse.jdt.core.dom.WhileStatement;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds dereferences of local variables and parameters that can't be nil,
+ * so StatementGenerator can skip their nil checks.  A variable is non-null
+ * after it is assigned a new instance, a literal or another non-null value,
+ * after a dereference that is generated with a nil check (as the check
+ * would have thrown), and where it is guarded by a null or instanceof test.
+ * Which dereferences are checked is decided by {@link
+ * Types#needsNilCheck} and {@link Types#hasNilCheckedReceiver}, which
+ * StatementGenerator also uses.
+ *
+ * <p>The analysis is flow-sensitive but structured: loops, switches, labeled
+ * statements and try statements keep only the facts about variables they
+ * don't assign.  Method arguments and operands are treated as unsequenced,
+ * as the generated Objective-C doesn't guarantee their evaluation order.
+ * This pass runs after all other translation passes, so the AST it marks is
+ * the one that is generated.
+ */
+public class NilCheckResolver extends ErrorReportingASTVisitor {
+
+  // The variables known to be non-null at the current point, or null if the
+  // current point is unreachable.
+  private Set<IVariableBinding> safeVars = Sets.newHashSet();
+
+  // Set by visitCondition(): the variables that are non-null when the
+  // condition is true and when it is false.
+  private Set<IVariableBinding> trueVars;
+  private Set<IVariableBinding> falseVars;
+
+  // The number of enclosing receivers that are printed with a nil check.
+  // The generator doesn't check the expressions within a checked one.
+  private int nilCheckDepth = 0;
+
+  @Override
+  public boolean preVisit2(ASTNode node) {
+    super.preVisit2(node);
+    // The generator prints a node's replacement instead of the node.
+    ASTNode replacement = Types.getNode(node);
+    if (replacement != null) {
+      replacement.accept(this);
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public boolean visit(MethodDeclaration node) {
+    if (node.getBody() != null) {
+      safeVars = Sets.newHashSet();
+      node.getBody().accept(this);
+    }
+    return false;
+  }
+
+  @Override
+  public boolean visit(Initializer node) {
+    safeVars = Sets.newHashSet();
+    node.getBody().accept(this);
+    return false;
+  }
+
+  @Override
+  public boolean visit(FieldDeclaration node) {
+    return false;
+  }
+
+  @Override
+  public boolean visit(AnonymousClassDeclaration node) {
+    // Converted to inner classes by AnonymousClassConverter.
+    return false;
+  }
+
+  @Override
+  public boolean visit(TypeDeclarationStatement node) {
+    return false;
+  }
+
+  // Statements.
+
+  @Override
+  public boolean visit(VariableDeclarationFragment node) {
+    Expression initializer = node.getInitializer();
+    if (initializer != null) {
+      initializer.accept(this);
+    }
+    IVariableBinding var = getTrackedVariable(node.getName());
+    if (var != null) {
+      setNonNull(var, initializer != null && isNonNull(initializer));
+    }
+    return false;
+  }
+
+  @Override
+  public boolean visit(SingleVariableDeclaration node) {
+    IVariableBinding var = getTrackedVariable(node.getName());
+    if (var != null) {
+      // Caught exceptions are never null.
+      setNonNull(var, node.getParent() instanceof CatchClause);
+    }
+    return false;
+  }
+
+  @Override
+  public boolean visit(IfStatement node) {
+    visitCondition(node.getExpression());
+    Set<IVariableBinding> elseVars = falseVars;
+    safeVars = trueVars;
+    node.getThenStatement().accept(this);
+    Set<IVariableBinding> afterThen = safeVars;
+    safeVars = elseVars;
+    if (node.getElseStatement() != null) {
+      node.getElseStatement().accept(this);
+    }
+    safeVars = intersect(afterThen, safeVars);
+    return false;
+  }
+
+  @Override
+  public boolean visit(WhileStatement node) {
+    removeAll(safeVars, getAssignedVariables(node));
+    Set<IVariableBinding> loopVars = copy(safeVars);
+    visitCondition(node.getExpression());
+    Set<IVariableBinding> exitVars = falseVars;
+    safeVars = trueVars;
+    node.getBody().accept(this);
+    safeVars = hasBreak(node) ? loopVars : exitVars;
+    return false;
+  }
+
+  @Override
+  public boolean visit(DoStatement node) {
+    removeAll(safeVars, getAssignedVariables(node));
+    Set<IVariableBinding> loopVars = copy(safeVars);
+    node.getBody().accept(this);
+    safeVars = copy(loopVars);
+    visitCondition(node.getExpression());
+    safeVars = hasBreak(node) ? loopVars : falseVars;
+    return false;
+  }
+
+  @Override
+  public boolean visit(ForStatement node) {
+    visitSequential(node.initializers());
+    Set<IVariableBinding> assigned = getAssignedVariables(node.getBody());
+    for (Object updater : node.updaters()) {
+      assigned.addAll(getAssignedVariables((ASTNode) updater));
+    }
+    if (node.getExpression() != null) {
+      assigned.addAll(getAssignedVariables(node.getExpression()));
+    }
+    removeAll(safeVars, assigned);
+    Set<IVariableBinding> loopVars = copy(safeVars);
+    Set<IVariableBinding> exitVars = null;  // Unreachable without a condition.
+    if (node.getExpression() != null) {
+      visitCondition(node.getExpression());
+      exitVars = falseVars;
+      safeVars = trueVars;
+    }
+    node.getBody().accept(this);
+    safeVars = copy(loopVars);
+    visitSequential(node.updaters());
+    safeVars = hasBreak(node) ? loopVars : exitVars;
+    return false;
+  }
+
+  @Override
+  public boolean visit(EnhancedForStatement node) {
+    node.getExpression().accept(this);
+    Set<IVariableBinding> assigned = getAssignedVariables(node.getBody());
+    assigned.addAll(getAssignedVariables(node.getParameter()));
+    removeAll(safeVars, assigned);
+    Set<IVariableBinding> loopVars = copy(safeVars);
+    node.getBody().accept(this);
+    safeVars = loopVars;
+    return false;
+  }
+
+  @Override
+  public boolean visit(SwitchStatement node) {
+    node.getExpression().accept(this);
+    removeAll(safeVars, getAssignedVariables(node));
+    Set<IVariableBinding> caseVars = copy(safeVars);
+    for (Object stmt : node.statements()) {
+      if (stmt instanceof SwitchCase) {
+        // A case can be reached by a jump as well as by falling through.
+        safeVars = intersect(safeVars, caseVars);
+      } else {
+        ((ASTNode) stmt).accept(this);
+      }
+    }
+    safeVars = intersect(safeVars, caseVars);
+    return false;
+  }
+
+  @Override
+  public boolean visit(LabeledStatement node) {
+    removeAll(safeVars, getAssignedVariables(node));
+    Set<IVariableBinding> labelVars = copy(safeVars);
+    node.getBody().accept(this);
+    safeVars = intersect(safeVars, labelVars);
+    return false;
+  }
+
+  @Override
+  public boolean visit(TryStatement node) {
+    Set<IVariableBinding> assigned = getAssignedVariables(node.getBody());
+    Set<IVariableBinding> catchVars = copy(safeVars);
+    removeAll(catchVars, assigned);
+    node.getBody().accept(this);
+    Set<IVariableBinding> exitVars = safeVars;
+    for (Object clause : node.catchClauses()) {
+      CatchClause catchClause = (CatchClause) clause;
+      safeVars = copy(catchVars);
+      catchClause.getException().accept(this);
+      catchClause.getBody().accept(this);
+      exitVars = intersect(exitVars, safeVars);
+      assigned.addAll(getAssignedVariables(catchClause));
+    }
+    if (node.getFinally() != null) {
+      // The finally block also runs after an exception, so it can only rely
+      // on the facts that hold before the try statement.
+      removeAll(catchVars, assigned);
+      safeVars = catchVars;
+      node.getFinally().accept(this);
+      if (exitVars == null) {
+        safeVars = null;
+      }
+    } else {
+      safeVars = exitVars;
+    }
+    return false;
+  }
+
+  @Override
+  public boolean visit(AssertStatement node) {
+    // Assertions may be disabled, so nothing learned from them is kept.
+    Set<IVariableBinding> savedVars = copy(safeVars);
+    node.getExpression().accept(this);
+    if (node.getMessage() != null) {
+      node.getMessage().accept(this);
+    }
+    safeVars = savedVars;
+    return false;
+  }
+
+  @Override
+  public void endVisit(ReturnStatement node) {
+    safeVars = null;
+  }
+
+  @Override
+  public void endVisit(ThrowStatement node) {
+    safeVars = null;
+  }
+
+  @Override
+  public void endVisit(BreakStatement node) {
+    safeVars = null;
+  }
+
+  @Override
+  public void endVisit(ContinueStatement node) {
+    safeVars = null;
+  }
+
+  // Expressions.
+
+  @Override
+  public boolean visit(MethodInvocation node) {
+    Expression receiver = node.getExpression();
+    if (receiver != null) {
+      IMethodBinding method = Types.getMethodBinding(node);
+      if (method != null && !Modifier.isStatic(method.getModifiers())
+          && Types.hasNilCheckedReceiver(node)) {
+        dereference(receiver);
+      } else {
+        receiver.accept(this);
+      }
+    }
+    visitUnsequenced(node.arguments());
+    return false;
+  }
+
+  @Override
+  public boolean visit(SuperMethodInvocation node) {
+    visitUnsequenced(node.arguments());
+    return false;
+  }
+
+  @Override
+  public boolean visit(ConstructorInvocation node) {
+    visitUnsequenced(node.arguments());
+    return false;
+  }
+
+  @Override
+  public boolean visit(SuperConstructorInvocation node) {
+    if (node.getExpression() != null) {
+      node.getExpression().accept(this);
+    }
+    visitUnsequenced(node.arguments());
+    return false;
+  }
+
+  @Override
+  public boolean visit(ClassInstanceCreation node) {
+    if (node.getExpression() != null) {
+      node.getExpression().accept(this);
+    }
+    visitUnsequenced(node.arguments());
+    return false;
+  }
+
+  @Override
+  public boolean visit(ArrayCreation node) {
+    visitUnsequenced(node.dimensions());
+    if (node.getInitializer() != null) {
+      node.getInitializer().accept(this);
+    }
+    return false;
+  }
+
+  @Override
+  public boolean visit(ArrayInitializer node) {
+    visitUnsequenced(node.expressions());
+    return false;
+  }
+
+  @Override
+  public boolean visit(FieldAccess node) {
+    if (isInstanceField(Types.getBinding(node.getName()))) {
+      dereference(node.getExpression());
+    } else {
+      node.getExpression().accept(this);
+    }
+    return false;
+  }
+
+  @Override
+  public boolean visit(QualifiedName node) {
+    // Array length is an instance field too.
+    if (isInstanceField(Types.getBinding(node))) {
+      dereference(node.getQualifier());
+    }
+    return false;
+  }
+
+  @Override
+  public boolean visit(ArrayAccess node) {
+    if (Types.isDirectArrayAccess(node)) {
+      // The loop that indexes the array's buffer dereferenced it.
+      node.getArray().accept(this);
+    } else {
+      dereference(node.getArray());
+    }
+    node.getIndex().accept(this);
+    return false;
+  }
+
+  @Override
+  public boolean visit(Assignment node) {
+    Expression lhs = node.getLeftHandSide();
+    Expression rhs = node.getRightHandSide();
+    IVariableBinding var = getTrackedVariable(lhs);
+    if (var == null) {
+      lhs.accept(this);
+    }
+    rhs.accept(this);
+    if (var != null) {
+      setNonNull(var, node.getOperator() == Assignment.Operator.ASSIGN
+          ? isNonNull(rhs) : Types.isJavaStringType(var.getType()));
+    }
+    return false;
+  }
+
+  @Override
+  public boolean visit(PrefixExpression node) {
+    node.getOperand().accept(this);
+    killIncremented(node.getOperand(), node.getOperator() == PrefixExpression.Operator.INCREMENT
+        || node.getOperator() == PrefixExpression.Operator.DECREMENT);
+    return false;
+  }
+
+  @Override
+  public boolean visit(PostfixExpression node) {
+    node.getOperand().accept(this);
+    killIncremented(node.getOperand(), true);
+    return false;
+  }
+
+  @Override
+  public boolean visit(InfixExpression node) {
+    InfixExpression.Operator op = node.getOperator();
+    if (op == InfixExpression.Operator.CONDITIONAL_AND
+        || op == InfixExpression.Operator.CONDITIONAL_OR) {
+      visitCondition(node);
+      safeVars = intersect(trueVars, falseVars);
+    } else {
+      List<Expression> operands = Lists.newArrayList();
+      operands.add(node.getLeftOperand());
+      operands.add(node.getRightOperand());
+      for (Object operand : node.extendedOperands()) {
+        operands.add((Expression) operand);
+      }
+      visitUnsequenced(operands);
+    }
+    return false;
+  }
+
+  @Override
+  public boolean visit(ConditionalExpression node) {
+    visitCondition(node.getExpression());
+    Set<IVariableBinding> elseVars = falseVars;
+    safeVars = trueVars;
+    node.getThenExpression().accept(this);
+    Set<IVariableBinding> afterThen = safeVars;
+    safeVars = elseVars;
+    node.getElseExpression().accept(this);
+    safeVars = intersect(afterThen, safeVars);
+    return false;
+  }
+
+  /**
+   * Visits a boolean expression, setting trueVars and falseVars to the
+   * variables that are non-null when it evaluates to true and to false.
+   * The current state is left as the variables non-null in either case.
+   */
+  private void visitCondition(Expression condition) {
+    if (condition instanceof ParenthesizedExpression) {
+      visitCondition(((ParenthesizedExpression) condition).getExpression());
+      return;
+    }
+    if (condition instanceof PrefixExpression
+        && ((PrefixExpression) condition).getOperator() == PrefixExpression.Operator.NOT) {
+      visitCondition(((PrefixExpression) condition).getOperand());
+      Set<IVariableBinding> vars = trueVars;
+      trueVars = falseVars;
+      falseVars = vars;
+      return;
+    }
+    if (condition instanceof InfixExpression) {
+      InfixExpression infix = (InfixExpression) condition;
+      InfixExpression.Operator op = infix.getOperator();
+      if (op == InfixExpression.Operator.CONDITIONAL_AND
+          || op == InfixExpression.Operator.CONDITIONAL_OR) {
+        visitShortCircuit(infix, op == InfixExpression.Operator.CONDITIONAL_AND);
+        return;
+      }
+      if ((op == InfixExpression.Operator.EQUALS || op == InfixExpression.Operator.NOT_EQUALS)
+          && !infix.hasExtendedOperands()) {
+        IVariableBinding var = getNullTestedVariable(infix);
+        if (var != null) {
+          trueVars = copy(safeVars);
+          falseVars = copy(safeVars);
+          add(op == InfixExpression.Operator.NOT_EQUALS ? trueVars : falseVars, var);
+          return;
+        }
+      }
+    }
+    condition.accept(this);
+    trueVars = copy(safeVars);
+    falseVars = copy(safeVars);
+    if (condition instanceof InstanceofExpression) {
+      IVariableBinding var =
+          getTrackedVariable(((InstanceofExpression) condition).getLeftOperand());
+      if (var != null) {
+        add(trueVars, var);
+      }
+    }
+  }
+
+  private void visitShortCircuit(InfixExpression node, boolean isAnd) {
+    List<Expression> operands = Lists.newArrayList();
+    operands.add(node.getLeftOperand());
+    operands.add(node.getRightOperand());
+    for (Object operand : node.extendedOperands()) {
+      operands.add((Expression) operand);
+    }
+    // The state in which the next operand is evaluated, and the state when
+    // an earlier operand decided the result.
+    Set<IVariableBinding> continueVars = null;
+    Set<IVariableBinding> decidedVars = null;
+    boolean first = true;
+    for (Expression operand : operands) {
+      if (!first) {
+        safeVars = continueVars;
+      }
+      visitCondition(operand);
+      continueVars = isAnd ? trueVars : falseVars;
+      Set<IVariableBinding> operandDecided = isAnd ? falseVars : trueVars;
+      decidedVars = first ? operandDecided : intersect(decidedVars, operandDecided);
+      first = false;
+    }
+    trueVars = isAnd ? continueVars : decidedVars;
+    falseVars = isAnd ? decidedVars : continueVars;
+    safeVars = intersect(trueVars, falseVars);
+  }
+
+  /**
+   * Visits expressions whose evaluation order isn't defined in the generated
+   * code.  Each is analyzed from the same starting state, and afterwards
+   * only the facts about variables none of them assign are combined.
+   */
+  private void visitUnsequenced(List<?> expressions) {
+    if (expressions.size() < 2) {
+      visitSequential(expressions);
+      return;
+    }
+    Set<IVariableBinding> startVars = copy(safeVars);
+    Set<IVariableBinding> endVars = copy(safeVars);
+    Set<IVariableBinding> assigned = Sets.newHashSet();
+    for (Object expression : expressions) {
+      safeVars = copy(startVars);
+      ((ASTNode) expression).accept(this);
+      if (endVars != null && safeVars != null) {
+        endVars.addAll(safeVars);
+      }
+      assigned.addAll(getAssignedVariables((ASTNode) expression));
+    }
+    removeAll(endVars, assigned);
+    safeVars = endVars;
+  }
+
+  private void visitSequential(List<?> nodes) {
+    for (Object node : nodes) {
+      ((ASTNode) node).accept(this);
+    }
+  }
+
+  /**
+   * Visits the receiver of a dereference that StatementGenerator prints with
+   * printNilCheck().  If the receiver is checked and is a variable known to
+   * be non-null, it is marked so its check is skipped; either way, it is
+   * non-null afterwards, as the check would have thrown otherwise.  A
+   * dereference that isn't checked proves nothing.
+   */
+  private void dereference(Expression receiver) {
+    boolean isChecked = nilCheckDepth == 0 && Types.needsNilCheck(receiver);
+    IVariableBinding var = getTrackedVariable(receiver);
+    if (var == null) {
+      if (isChecked) {
+        nilCheckDepth++;
+      }
+      receiver.accept(this);
+      if (isChecked) {
+        nilCheckDepth--;
+      }
+      return;
+    }
+    if (isChecked) {
+      if (safeVars != null && safeVars.contains(var)) {
+        Types.addNonNullExpression(receiver);
+      }
+      add(safeVars, var);
+    }
+  }
+
+  /**
+   * Returns true if an expression that has just been visited evaluates to a
+   * non-null value.
+   */
+  private boolean isNonNull(Expression e) {
+    if (e instanceof ClassInstanceCreation || e instanceof ArrayCreation
+        || e instanceof ArrayInitializer || e instanceof StringLiteral
+        || e instanceof TypeLiteral || e instanceof ThisExpression) {
+      return true;
+    }
+    if (e instanceof ParenthesizedExpression) {
+      return isNonNull(((ParenthesizedExpression) e).getExpression());
+    }
+    if (e instanceof CastExpression) {
+      return isNonNull(((CastExpression) e).getExpression());
+    }
+    if (e instanceof Assignment) {
+      Assignment assignment = (Assignment) e;
+      return assignment.getOperator() == Assignment.Operator.ASSIGN
+          && isNonNull(assignment.getRightHandSide());
+    }
+    if (e instanceof ConditionalExpression) {
+      ConditionalExpression conditional = (ConditionalExpression) e;
+      return isNonNull(conditional.getThenExpression())
+          && isNonNull(conditional.getElseExpression());
+    }
+    if (e instanceof InfixExpression) {
+      // String concatenation.
+      return Types.isJavaStringType(Types.getTypeBinding(e));
+    }
+    IVariableBinding var = getTrackedVariable(e);
+    return var != null && safeVars != null && safeVars.contains(var);
+  }
+
+  private void killIncremented(Expression operand, boolean isIncrement) {
+    IVariableBinding var = isIncrement ? getTrackedVariable(operand) : null;
+    if (var != null && safeVars != null) {
+      safeVars.remove(var);
+    }
+  }
+
+  private void setNonNull(IVariableBinding var, boolean isNonNull) {
+    if (safeVars != null) {
+      if (isNonNull) {
+        safeVars.add(var);
+      } else {
+        safeVars.remove(var);
+      }
+    }
+  }
+
+  /**
+   * Returns the variable compared with null, if the expression is a null
+   * test of a tracked variable.
+   */
+  private static IVariableBinding getNullTestedVariable(InfixExpression node) {
+    if (node.getRightOperand() instanceof NullLiteral) {
+      return getTrackedVariable(node.getLeftOperand());
+    }
+    if (node.getLeftOperand() instanceof NullLiteral) {
+      return getTrackedVariable(node.getRightOperand());
+    }
+    return null;
+  }
+
+  /**
+   * Returns the binding of a local variable or parameter that the analysis
+   * tracks, or null if the expression isn't one.
+   */
+  private static IVariableBinding getTrackedVariable(Expression e) {
+    if (!(e instanceof SimpleName)) {
+      return null;
+    }
+    IVariableBinding var = Types.getVariableBinding(e);
+    if (var == null || var.isField()) {
+      return null;
+    }
+    ITypeBinding type = var.getType();
+    return type != null && !type.isPrimitive() ? var : null;
+  }
+
+  private static boolean isInstanceField(IBinding binding) {
+    return binding instanceof IVariableBinding && ((IVariableBinding) binding).isField()
+        && !Modifier.isStatic(binding.getModifiers());
+  }
+
+  /**
+   * Returns the tracked variables that are assigned anywhere within a node.
+   */
+  private static Set<IVariableBinding> getAssignedVariables(ASTNode node) {
+    final Set<IVariableBinding> assigned = Sets.newHashSet();
+    node.accept(new ASTVisitor() {
+      @Override
+      public void endVisit(Assignment node) {
+        addTracked(node.getLeftHandSide());
+      }
+
+      @Override
+      public void endVisit(PrefixExpression node) {
+        addTracked(node.getOperand());
+      }
+
+      @Override
+      public void endVisit(PostfixExpression node) {
+        addTracked(node.getOperand());
+      }
+
+      @Override
+      public void endVisit(VariableDeclarationFragment node) {
+        addTracked(node.getName());
+      }
+
+      @Override
+      public void endVisit(SingleVariableDeclaration node) {
+        addTracked(node.getName());
+      }
+
+      private void addTracked(Expression e) {
+        IVariableBinding var = getTrackedVariable(e);
+        if (var != null) {
+          assigned.add(var);
+        }
+      }
+    });
+    return assigned;
+  }
+
+  /**
+   * Returns true if a loop contains a break statement.  Breaks that belong
+   * to nested statements are included, which is conservative.
+   */
+  private static boolean hasBreak(ASTNode loop) {
+    final boolean[] found = new boolean[1];
+    loop.accept(new ASTVisitor() {
+      @Override
+      public boolean visit(BreakStatement node) {
+        found[0] = true;
+        return false;
+      }
+    });
+    return found[0];
+  }
+
+  private static Set<IVariableBinding> copy(Set<IVariableBinding> vars) {
+    return vars != null ? Sets.newHashSet(vars) : null;
+  }
+
+  // Combines the states of two paths; an unreachable path adds no constraint.
+  private static Set<IVariableBinding> intersect(
+      Set<IVariableBinding> a, Set<IVariableBinding> b) {
+    if (a == null) {
+      return copy(b);
+    }
+    if (b == null) {
+      return copy(a);
+    }
+    Set<IVariableBinding> result = Sets.newHashSet(a);
+    result.retainAll(b);
+    return result;
+  }
+
+  private static void add(Set<IVariableBinding> vars, IVariableBinding var) {
+    if (vars != null) {
+      vars.add(var);
+    }
+  }
+
+  private static void removeAll(Set<IVariableBinding> vars, Set<IVariableBinding> toRemove) {
+    if (vars != null) {
+      vars.removeAll(toRemove);
+    }
+  }
+}
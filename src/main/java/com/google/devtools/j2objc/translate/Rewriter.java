@@ -18,6 +18,7 @@ package com.google.devtools.j2objc.translate;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.sym.Symbols;
 import com.google.devtools.j2objc.types.GeneratedMethodBinding;
 import com.google.devtools.j2objc.types.GeneratedTypeBinding;
@@ -113,6 +114,19 @@ public class Rewriter extends ErrorReportingASTVisitor {
   private static final List<String> typeQualifierKeywords = Lists.newArrayList("in", "out",
       "inout", "oneway", "bycopy", "byref");
 
+  /**
+   * The collection classes whose JRE emulation enumerates its elements
+   * using the NSFastEnumeration protocol.
+   */
+  private static final List<String> fastEnumerationClasses = Lists.newArrayList(
+      "java.util.ArrayList", "java.util.HashSet");
+
+  /**
+   * The HashMap methods that return views which support fast enumeration.
+   */
+  private static final List<String> fastEnumerationMapViews = Lists.newArrayList(
+      "keySet", "values", "entrySet");
+
   @SuppressWarnings("unchecked")
   @Override
   public boolean visit(TypeDeclaration node) {
@@ -551,10 +565,64 @@ public class Rewriter extends ErrorReportingASTVisitor {
       Types.addAutoreleasePool(loopBody);
     }
 
-    Block newBlock = expressionType.isArray() ?
-        makeArrayIterationBlock(ast, expression, expressionType, loopVariable, loopBody) :
-        makeIterableBlock(ast, expression, expressionType, loopVariable, loopBody);
-    ClassConverter.setProperty(node, newBlock);
+    if (expressionType.isArray()) {
+      ClassConverter.setProperty(node,
+          makeArrayIterationBlock(ast, expression, expressionType, loopVariable, loopBody));
+    } else if (Options.fastEnumeration() && isFastEnumerable(expression, expressionType)) {
+      makeFastEnumerationLoop(ast, node, expressionType, loopVariable, loopBody);
+    } else {
+      ClassConverter.setProperty(node,
+          makeIterableBlock(ast, expression, expressionType, loopVariable, loopBody));
+    }
+  }
+
+  /**
+   * Returns true if an enhanced for loop's expression is statically known to
+   * be a JRE collection that supports fast enumeration: a subclass
+   * of one of the fastEnumerationClasses, or a view of a HashMap.  Other
+   * collections, including those with an interface type, are iterated.
+   */
+  private static boolean isFastEnumerable(Expression expression, ITypeBinding type) {
+    if (!type.isInterface()) {
+      for (ITypeBinding t = type; t != null; t = t.getSuperclass()) {
+        if (fastEnumerationClasses.contains(t.getErasure().getQualifiedName())) {
+          return true;
+        }
+      }
+    }
+    if (expression instanceof MethodInvocation) {
+      MethodInvocation invocation = (MethodInvocation) expression;
+      Expression receiver = invocation.getExpression();
+      if (receiver != null && invocation.arguments().isEmpty()
+          && fastEnumerationMapViews.contains(invocation.getName().getIdentifier())) {
+        ITypeBinding receiverType = Types.getTypeBinding(receiver);
+        return receiverType != null
+            && receiverType.getErasure().getQualifiedName().equals("java.util.HashMap");
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Keeps an enhanced for loop, so it's generated as an Objective-C fast
+   * enumeration.  A primitive loop variable is declared in the body, and
+   * assigned from the collection's element so it can be unboxed.
+   */
+  private void makeFastEnumerationLoop(
+      AST ast, EnhancedForStatement node, ITypeBinding expressionType,
+      IVariableBinding loopVariable, Block loopBody) {
+    if (loopVariable.getType().isPrimitive()) {
+      ITypeBinding iterableType = Types.findInterface(expressionType, "java.lang.Iterable");
+      IMethodBinding iteratorMethod = Types.findDeclaredMethod(iterableType, "iterator");
+      IMethodBinding nextMethod =
+          Types.findDeclaredMethod(iteratorMethod.getReturnType(), "next");
+      IVariableBinding elementVariable = new GeneratedVariableBinding(
+          "e__", 0, nextMethod.getReturnType(), false, false, null, null);
+      getStatements(loopBody).add(0, ASTFactory.newVariableDeclarationStatement(
+          ast, loopVariable, ASTFactory.newSimpleName(ast, elementVariable)));
+      node.setParameter(ASTFactory.newSingleVariableDeclaration(ast, elementVariable));
+    }
+    node.setBody(loopBody);
   }
 
   private Block makeArrayIterationBlock(
@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.types.Types;
+import com.google.devtools.j2objc.util.ErrorReportingASTVisitor;
+import com.google.devtools.j2objc.util.NameTable;
+import com.google.devtools.j2objc.util.UnicodeUtils;
+
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnnotationTypeDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MarkerAnnotation;
+import org.eclipse.jdt.core.dom.NormalAnnotation;
+import org.eclipse.jdt.core.dom.SingleMemberAnnotation;
+import org.eclipse.jdt.core.dom.StringLiteral;
+
+import java.util.List;
+
+/**
+ * Finds the string literals that can't be generated as Objective-C string
+ * literals, because they have characters that aren't valid in C, and adds
+ * them to the compilation unit's string literal table.
+ *
+ * <p>StatementGenerator builds those literals from their characters, which
+ * otherwise happens each time the literal is evaluated.  The table is a
+ * file-scope array that ObjectiveCImplementationGenerator fills when one of
+ * its literals is first used, and the literals' expressions read it.  A
+ * value used several times in the unit has one entry.
+ */
+public class StringLiteralHoister extends ErrorReportingASTVisitor {
+
+  @Override
+  public boolean visit(CompilationUnit node) {
+    @SuppressWarnings("unchecked")
+    List<AbstractTypeDeclaration> types = node.types(); // safe by definition
+    if (types.isEmpty()) {
+      return false;
+    }
+    Types.setStringLiteralTablePrefix(NameTable.getFullName(types.get(0)));
+    return true;
+  }
+
+  @Override
+  public boolean visit(StringLiteral node) {
+    String value = node.getLiteralValue();
+    if (!UnicodeUtils.hasValidCppCharacters(value)) {
+      Types.addHoistedStringLiteral(value);
+    }
+    return false;
+  }
+
+  // Annotations aren't generated in implementation files.
+
+  @Override
+  public boolean visit(AnnotationTypeDeclaration node) {
+    return false;
+  }
+
+  @Override
+  public boolean visit(MarkerAnnotation node) {
+    return false;
+  }
+
+  @Override
+  public boolean visit(NormalAnnotation node) {
+    return false;
+  }
+
+  @Override
+  public boolean visit(SingleMemberAnnotation node) {
+    return false;
+  }
+}
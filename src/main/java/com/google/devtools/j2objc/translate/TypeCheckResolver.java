@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.common.collect.Sets;
+import com.google.devtools.j2objc.J2ObjC;
+import com.google.devtools.j2objc.types.Types;
+import com.google.devtools.j2objc.util.ErrorReportingASTVisitor;
+
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.InstanceofExpression;
+import org.eclipse.jdt.core.dom.Modifier;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Converts instanceof tests to the runtime's type checking functions, whose
+ * targets are cached in file-scope statics.
+ *
+ * <p>An instanceof test is otherwise generated as an isKindOfClass: or
+ * conformsToProtocol: message, whose argument is fetched with another
+ * message each time, and an object array test also creates the element
+ * type's IOSClass.  The functions walk the object's superclass chain
+ * directly, and remember the last class that conformed to a protocol.
+ *
+ * <p>If a target class has no subclasses in the translated program, because
+ * it's final, it's private, local or anonymous and not extended in this
+ * unit, or no other source file of the run extends a class with its name,
+ * the function first compares the object's class with it, which is then
+ * almost always enough.  Primitive array tests are left as they are.
+ */
+public class TypeCheckResolver extends ErrorReportingASTVisitor {
+
+  // The classes that types declared in this unit extend.
+  private final Set<ITypeBinding> superclasses = Sets.newHashSet();
+
+  @Override
+  public boolean visit(CompilationUnit node) {
+    ASTVisitor collector = new ASTVisitor() {
+      @Override
+      public boolean visit(TypeDeclaration node) {
+        addSuperclass(Types.getTypeBinding(node));
+        return true;
+      }
+
+      @Override
+      public boolean visit(AnonymousClassDeclaration node) {
+        addSuperclass(Types.getTypeBinding(node));
+        return true;
+      }
+    };
+    // The package and import declarations' names don't have bindings.
+    @SuppressWarnings("unchecked")
+    List<AbstractTypeDeclaration> types = node.types(); // safe by definition
+    for (AbstractTypeDeclaration type : types) {
+      type.accept(collector);
+    }
+    return true;
+  }
+
+  private void addSuperclass(ITypeBinding type) {
+    if (type != null && type.getSuperclass() != null) {
+      superclasses.add(type.getSuperclass().getTypeDeclaration());
+    }
+  }
+
+  @Override
+  public void endVisit(InstanceofExpression node) {
+    ITypeBinding target = Types.getTypeBinding(node.getRightOperand());
+    if (target == null || (target.isArray() && target.getElementType().isPrimitive())) {
+      return;
+    }
+    Types.addCachedTypeCheck(node, isLeafClass(target));
+  }
+
+  private boolean isLeafClass(ITypeBinding type) {
+    type = type.getTypeDeclaration();
+    // Mapped types, such as NSString, have subclasses in Foundation.
+    if (!type.isClass() || !type.isFromSource() || Types.hasIOSEquivalent(type)) {
+      return false;
+    }
+    int modifiers = type.getModifiers();
+    if (Modifier.isFinal(modifiers)) {
+      return true;
+    }
+    if (superclasses.contains(type)) {
+      return false;
+    }
+    // Other units can't extend these classes.
+    if (Modifier.isPrivate(modifiers) || type.isLocal() || type.isAnonymous()) {
+      return true;
+    }
+    String name = type.getName();
+    int typeParameters = name.indexOf('<');
+    if (typeParameters >= 0) {
+      name = name.substring(0, typeParameters);
+    }
+    return Types.isTranslatedType(type) && !J2ObjC.isExtendedClassName(name);
+  }
+}
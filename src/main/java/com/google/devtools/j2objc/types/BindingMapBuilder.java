@@ -16,6 +16,8 @@
 
 package com.google.devtools.j2objc.types;
 
+import com.google.devtools.j2objc.Options;
+
 import java.util.Map;
 
 import org.eclipse.jdt.core.dom.ASTNode;
@@ -89,7 +91,9 @@ class BindingMapBuilder extends ErrorReportingASTVisitor {
   public static Map<Object, IBinding> buildBindingMap(CompilationUnit unit) {
     BindingMapBuilder builder = new BindingMapBuilder();
     builder.run(unit);
-    BindingMapVerifier.verify(unit, builder.bindingMap);
+    if (Options.getVerificationLevel() != Options.VerificationLevel.OFF) {
+      BindingMapVerifier.verify(unit, builder.bindingMap);
+    }
     return builder.bindingMap;
   }
 
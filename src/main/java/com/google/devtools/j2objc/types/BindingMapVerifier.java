@@ -16,6 +16,7 @@
 
 package com.google.devtools.j2objc.types;
 
+import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.util.ErrorReportingASTVisitor;
 
 import org.eclipse.jdt.core.dom.ASTNode;
@@ -67,24 +68,39 @@ import java.util.Map;
 
 /**
  * Walks an AST and asserts there is a resolved binding for every ASTNode type
- * that is supposed to have one.
+ * that is supposed to have one.  The check doesn't depend on whether
+ * assertions are enabled, as {@link Options#getVerificationLevel()} controls
+ * when it's made.
  *
  * @author Tom Ball
  */
 class BindingMapVerifier extends ErrorReportingASTVisitor {
   private final Map<Object, IBinding> bindingMap;
+  private final String pass;
 
   public static void verify(ASTNode node, Map<Object, IBinding> bindingMap) {
-    BindingMapVerifier builder = new BindingMapVerifier(bindingMap);
+    verify(node, bindingMap, null);
+  }
+
+  /**
+   * Verifies the bindings of a node after a translation pass, which is named
+   * by the error if a binding is missing.
+   */
+  public static void verify(ASTNode node, Map<Object, IBinding> bindingMap, String pass) {
+    BindingMapVerifier builder = new BindingMapVerifier(bindingMap, pass);
     builder.run(node);
   }
 
-  private BindingMapVerifier(Map<Object, IBinding> bindingMap) {
+  private BindingMapVerifier(Map<Object, IBinding> bindingMap, String pass) {
     this.bindingMap = bindingMap;
+    this.pass = pass;
   }
 
   private boolean verify(ASTNode node) {
-    assert bindingMap.get(node) != null;
+    if (bindingMap.get(node) == null) {
+      String message = "no binding for " + node.getClass().getSimpleName();
+      throw new AssertionError(pass != null ? message + ", after " + pass : message);
+    }
     return true;
   }
 
@@ -27,6 +27,7 @@ public class IOSArrayTypeBinding extends IOSTypeBinding {
   private final String initMethod;
   private final String accessMethod;
   private final String copyMethod;
+  private final String bufferMethod;
   private final ITypeBinding elementType;
   private final ITypeBinding primitiveElementType;
 
@@ -40,16 +41,20 @@ public class IOSArrayTypeBinding extends IOSTypeBinding {
    *                   parameter name
    * @param copyMethod the method used to copy the contents of this array, not including
    *                   parameter names
+   * @param bufferMethod the method that returns this array's C buffer, or null
+   *                   for Object[]
    * @param elementType the binding for the type of element this array contains
    * @param primitiveElementType the binding for the primitive type corresponding to
    *                   the element this array contains. null for Object[].
    */
   public IOSArrayTypeBinding(String name, String initMethod, String accessMethod,
-      String copyMethod, ITypeBinding elementType, ITypeBinding primitiveElementType) {
+      String copyMethod, String bufferMethod, ITypeBinding elementType,
+      ITypeBinding primitiveElementType) {
     super(name, false);
     this.initMethod = initMethod;
     this.accessMethod = accessMethod;
     this.copyMethod = copyMethod;
+    this.bufferMethod = bufferMethod;
     this.elementType = elementType;
     this.primitiveElementType = primitiveElementType;
   }
@@ -85,6 +90,14 @@ public class IOSArrayTypeBinding extends IOSTypeBinding {
     return copyMethod;
   }
 
+  /**
+   * Returns the name of the method that returns the array's C buffer, such
+   * as "charBuffer", or null for Object[].
+   */
+  public String getBufferMethod() {
+    return bufferMethod;
+  }
+
   @Override
   public ITypeBinding getElementType() {
     return elementType;
@@ -0,0 +1,201 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.types;
+
+import com.google.common.collect.ForwardingMap;
+import com.google.common.collect.Maps;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
+import org.eclipse.jdt.core.dom.BreakStatement;
+import org.eclipse.jdt.core.dom.ClassInstanceCreation;
+import org.eclipse.jdt.core.dom.ConstructorInvocation;
+import org.eclipse.jdt.core.dom.ContinueStatement;
+import org.eclipse.jdt.core.dom.EnumConstantDeclaration;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.FieldAccess;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.LabeledStatement;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.MethodRef;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.StructuralPropertyDescriptor;
+import org.eclipse.jdt.core.dom.SuperConstructorInvocation;
+import org.eclipse.jdt.core.dom.SuperFieldAccess;
+import org.eclipse.jdt.core.dom.SuperMethodInvocation;
+import org.eclipse.jdt.core.dom.Type;
+import org.eclipse.jdt.core.dom.TypeParameter;
+import org.eclipse.jdt.core.dom.VariableDeclaration;
+
+import java.util.Map;
+
+/**
+ * A binding map that resolves the bindings of parsed nodes from JDT when
+ * they are looked up, instead of copying them all when a unit is
+ * initialized, as {@link BindingMapBuilder} does.  Only the bindings
+ * translation passes add, such as those of the nodes they create, and the
+ * bindings of labels are stored.  An added binding replaces a node's
+ * resolved binding.
+ *
+ * <p>A node has the binding BindingMapBuilder would map it to, or none if
+ * the builder doesn't visit it.  JDT finds a parsed node's binding by its
+ * identity, so a node keeps its binding when passes move it or change its
+ * children.
+ */
+class LazyBindingMap extends ForwardingMap<Object, IBinding> {
+
+  // keys may be ASTNodes or IOS nodes
+  private final Map<Object, IBinding> addedBindings = Maps.newHashMap();
+
+  @Override
+  protected Map<Object, IBinding> delegate() {
+    return addedBindings;
+  }
+
+  @Override
+  public IBinding get(Object key) {
+    IBinding binding = addedBindings.get(key);
+    if (binding != null || !(key instanceof ASTNode) || addedBindings.containsKey(key)) {
+      return binding;
+    }
+    ASTNode node = (ASTNode) key;
+    if (isLabel(node)) {
+      // Labels have no JDT bindings, so each is created once.
+      binding = new IOSTypeBinding(((SimpleName) node).getIdentifier(), false);
+      addedBindings.put(node, binding);
+      return binding;
+    }
+    return resolveBinding(node);
+  }
+
+  /**
+   * Returns the binding JDT resolves for a node, matching the visit
+   * methods of BindingMapBuilder.
+   */
+  static IBinding resolveBinding(ASTNode node) {
+    switch (node.getNodeType()) {
+      case ASTNode.ANNOTATION_TYPE_DECLARATION:
+      case ASTNode.ENUM_DECLARATION:
+      case ASTNode.TYPE_DECLARATION:
+        return ((AbstractTypeDeclaration) node).resolveBinding();
+      case ASTNode.ANONYMOUS_CLASS_DECLARATION:
+        return ((AnonymousClassDeclaration) node).resolveBinding();
+      case ASTNode.ARRAY_ACCESS:
+      case ASTNode.ARRAY_CREATION:
+      case ASTNode.ARRAY_INITIALIZER:
+      case ASTNode.ASSIGNMENT:
+      case ASTNode.BOOLEAN_LITERAL:
+      case ASTNode.CAST_EXPRESSION:
+      case ASTNode.CHARACTER_LITERAL:
+      case ASTNode.CONDITIONAL_EXPRESSION:
+      case ASTNode.INFIX_EXPRESSION:
+      case ASTNode.INSTANCEOF_EXPRESSION:
+      case ASTNode.NULL_LITERAL:
+      case ASTNode.NUMBER_LITERAL:
+      case ASTNode.PARENTHESIZED_EXPRESSION:
+      case ASTNode.POSTFIX_EXPRESSION:
+      case ASTNode.PREFIX_EXPRESSION:
+      case ASTNode.STRING_LITERAL:
+      case ASTNode.THIS_EXPRESSION:
+      case ASTNode.TYPE_LITERAL:
+      case ASTNode.VARIABLE_DECLARATION_EXPRESSION:
+        return ((Expression) node).resolveTypeBinding();
+      case ASTNode.ARRAY_TYPE:
+      case ASTNode.PARAMETERIZED_TYPE:
+      case ASTNode.PRIMITIVE_TYPE:
+      case ASTNode.QUALIFIED_TYPE:
+      case ASTNode.SIMPLE_TYPE:
+        return isExcluded(node) ? null : ((Type) node).resolveBinding();
+      case ASTNode.QUALIFIED_NAME:
+      case ASTNode.SIMPLE_NAME:
+        return isExcluded(node) ? null : ((Name) node).resolveBinding();
+      case ASTNode.CLASS_INSTANCE_CREATION:
+        return ((ClassInstanceCreation) node).resolveConstructorBinding();
+      case ASTNode.CONSTRUCTOR_INVOCATION:
+        return ((ConstructorInvocation) node).resolveConstructorBinding();
+      case ASTNode.SUPER_CONSTRUCTOR_INVOCATION:
+        return ((SuperConstructorInvocation) node).resolveConstructorBinding();
+      case ASTNode.ENUM_CONSTANT_DECLARATION:
+        return ((EnumConstantDeclaration) node).resolveConstructorBinding();
+      case ASTNode.FIELD_ACCESS:
+        return ((FieldAccess) node).resolveFieldBinding();
+      case ASTNode.SUPER_FIELD_ACCESS:
+        return ((SuperFieldAccess) node).resolveFieldBinding();
+      case ASTNode.METHOD_DECLARATION:
+        return ((MethodDeclaration) node).resolveBinding();
+      case ASTNode.METHOD_INVOCATION:
+        return ((MethodInvocation) node).resolveMethodBinding();
+      case ASTNode.SUPER_METHOD_INVOCATION:
+        return ((SuperMethodInvocation) node).resolveMethodBinding();
+      case ASTNode.METHOD_REF:
+        return isExcluded(node) ? null : ((MethodRef) node).resolveBinding();
+      case ASTNode.SINGLE_VARIABLE_DECLARATION:
+      case ASTNode.VARIABLE_DECLARATION_FRAGMENT:
+        return ((VariableDeclaration) node).resolveBinding();
+      case ASTNode.TYPE_PARAMETER:
+        return ((TypeParameter) node).resolveBinding();
+      default:
+        return null;
+    }
+  }
+
+  private static boolean isLabel(ASTNode node) {
+    if (node.getNodeType() != ASTNode.SIMPLE_NAME) {
+      return false;
+    }
+    StructuralPropertyDescriptor location = node.getLocationInParent();
+    return location == BreakStatement.LABEL_PROPERTY
+        || location == ContinueStatement.LABEL_PROPERTY
+        || location == LabeledStatement.LABEL_PROPERTY;
+  }
+
+  /**
+   * Returns true if a name or type is in a package or import declaration,
+   * or in a Javadoc comment, which BindingMapBuilder doesn't visit.
+   */
+  private static boolean isExcluded(ASTNode node) {
+    ASTNode parent = node.getParent();
+    while (parent != null) {
+      switch (parent.getNodeType()) {
+        case ASTNode.PACKAGE_DECLARATION:
+        case ASTNode.IMPORT_DECLARATION:
+        case ASTNode.JAVADOC:
+          return true;
+        case ASTNode.MARKER_ANNOTATION:
+        case ASTNode.NORMAL_ANNOTATION:
+        case ASTNode.SINGLE_MEMBER_ANNOTATION:
+        case ASTNode.MEMBER_VALUE_PAIR:
+        case ASTNode.TAG_ELEMENT:
+        case ASTNode.MEMBER_REF:
+        case ASTNode.METHOD_REF:
+        case ASTNode.METHOD_REF_PARAMETER:
+        case ASTNode.QUALIFIED_NAME:
+        case ASTNode.SIMPLE_NAME:
+        case ASTNode.ARRAY_TYPE:
+        case ASTNode.PARAMETERIZED_TYPE:
+        case ASTNode.QUALIFIED_TYPE:
+        case ASTNode.SIMPLE_TYPE:
+          parent = parent.getParent();
+          break;
+        default:
+          return false;
+      }
+    }
+    return false;
+  }
+}
@@ -27,15 +27,19 @@ import org.eclipse.jdt.core.dom.ArrayCreation;
 import org.eclipse.jdt.core.dom.ArrayInitializer;
 import org.eclipse.jdt.core.dom.ArrayType;
 import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.Block;
 import org.eclipse.jdt.core.dom.BooleanLiteral;
 import org.eclipse.jdt.core.dom.CastExpression;
+import org.eclipse.jdt.core.dom.CatchClause;
 import org.eclipse.jdt.core.dom.CharacterLiteral;
 import org.eclipse.jdt.core.dom.ClassInstanceCreation;
 import org.eclipse.jdt.core.dom.ConditionalExpression;
 import org.eclipse.jdt.core.dom.ConstructorInvocation;
+import org.eclipse.jdt.core.dom.EnhancedForStatement;
 import org.eclipse.jdt.core.dom.EnumConstantDeclaration;
 import org.eclipse.jdt.core.dom.EnumDeclaration;
 import org.eclipse.jdt.core.dom.FieldAccess;
+import org.eclipse.jdt.core.dom.ForStatement;
 import org.eclipse.jdt.core.dom.IBinding;
 import org.eclipse.jdt.core.dom.InfixExpression;
 import org.eclipse.jdt.core.dom.InstanceofExpression;
@@ -156,6 +160,12 @@ public class NodeCopier extends ASTMatcher {
     return super.match(node, other);
   }
 
+  @Override
+  public boolean match(Block node, Object other) {
+    Symbols.substitute(node, (ASTNode) other);
+    return super.match(node, other);
+  }
+
   @Override
   public boolean match(BooleanLiteral node, Object other) {
     copy(node, other);
@@ -168,6 +178,12 @@ public class NodeCopier extends ASTMatcher {
     return super.match(node, other);
   }
 
+  @Override
+  public boolean match(CatchClause node, Object other) {
+    Symbols.substitute(node, (ASTNode) other);
+    return super.match(node, other);
+  }
+
   @Override
   public boolean match(CharacterLiteral node, Object other) {
     copy(node, other);
@@ -192,6 +208,12 @@ public class NodeCopier extends ASTMatcher {
     return super.match(node, other);
   }
 
+  @Override
+  public boolean match(EnhancedForStatement node, Object other) {
+    Symbols.substitute(node, (ASTNode) other);
+    return super.match(node, other);
+  }
+
   @Override
   public boolean match(EnumConstantDeclaration node, Object other) {
     copy(node, other);
@@ -210,6 +232,12 @@ public class NodeCopier extends ASTMatcher {
     return super.match(node, other);
   }
 
+  @Override
+  public boolean match(ForStatement node, Object other) {
+    Symbols.substitute(node, (ASTNode) other);
+    return super.match(node, other);
+  }
+
   @Override
   public boolean match(InfixExpression node, Object other) {
     copy(node, other);
@@ -29,9 +29,13 @@ import java.util.Set;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.ArrayAccess;
+import org.eclipse.jdt.core.dom.ArrayInitializer;
 import org.eclipse.jdt.core.dom.Block;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.ForStatement;
 import org.eclipse.jdt.core.dom.IAnnotationBinding;
 import org.eclipse.jdt.core.dom.IBinding;
 import org.eclipse.jdt.core.dom.IMemberValuePairBinding;
@@ -39,6 +43,11 @@ import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.IPackageBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.IfStatement;
+import org.eclipse.jdt.core.dom.InfixExpression;
+import org.eclipse.jdt.core.dom.InstanceofExpression;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.MethodInvocation;
 import org.eclipse.jdt.core.dom.Modifier;
 import org.eclipse.jdt.core.dom.NullLiteral;
 import org.eclipse.jdt.core.dom.PrimitiveType;
@@ -60,6 +69,7 @@ import com.google.j2objc.annotations.Action;
 import com.google.j2objc.annotations.AutoreleasePool;
 import com.google.j2objc.annotations.Deregister;
 import com.google.j2objc.annotations.Function;
+import com.google.j2objc.annotations.Mask;
 import com.google.j2objc.annotations.Model;
 import com.google.j2objc.annotations.Outlet;
 import com.google.j2objc.annotations.Register;
@@ -101,7 +111,9 @@ public class Types {
   private final ITypeBinding voidType;
   private final ITypeBinding booleanType;
 
-  private static Types instance;
+  // Each translation thread has its own instance, so units can be
+  // translated concurrently.
+  private static final ThreadLocal<Types> instances = new ThreadLocal<Types>();
 
   // Non-standard naming pattern is used, since in this case it's more readable.
   public final IOSTypeBinding NSCopying = new IOSTypeBinding("NSCopying", true);
@@ -136,6 +148,34 @@ public class Types {
 
   private final Set<Block> autoreleasePoolBlocks = Sets.newHashSet();
 
+  // Expressions that NilCheckResolver proved are non-null where they are dereferenced.
+  private final Set<Expression> nonNullExpressions = Sets.newHashSet();
+
+  // Counted loops whose array accesses DirectArrayAccessResolver proved are
+  // in range, mapped to the arrays those accesses read and write.
+  private final Map<ForStatement, List<IVariableBinding>> directAccessLoops = Maps.newHashMap();
+  private final Set<ArrayAccess> directArrayAccesses = Sets.newHashSet();
+
+  // Methods that Devirtualizer also generates as C functions, and the calls
+  // to them that invoke those functions, mapped to the function names.
+  private final Set<IMethodBinding> devirtualizedMethods = Sets.newHashSet();
+  private final Map<MethodInvocation, String> functionInvocations = Maps.newHashMap();
+
+  // The string literals that StringLiteralHoister added to the unit's
+  // string literal table, mapped to their indexes, and the prefix of the
+  // table's generated names.
+  private final Map<String, Integer> hoistedStringLiterals = Maps.newLinkedHashMap();
+  private String stringLiteralTablePrefix;
+
+  // Array initializers that ArrayInitializerHoister moved into static C
+  // arrays, mapped to the arrays' names, in declaration order.
+  private final Map<ArrayInitializer, String> hoistedArrayInitializers = Maps.newLinkedHashMap();
+
+  // Instanceof tests that TypeCheckResolver converted to the runtime's type
+  // checking functions, with their targets cached in file-scope statics,
+  // mapped to whether the target is a class without subclasses.
+  private final Map<InstanceofExpression, Boolean> cachedTypeChecks = Maps.newLinkedHashMap();
+
   // The first argument of a iOS method isn't named, but Java requires some sort of valid parameter
   // name.  The method mapper therefore uses this string, which the generators ignore.
   public static final String EMPTY_PARAMETER_NAME = "__empty_parameter__";
@@ -164,7 +204,8 @@ public class Types {
     populateArrayTypeMaps();
     populatePrimitiveTypeNameMap();
     populatePrimitiveAndWrapperTypeMaps();
-    bindingMap = BindingMapBuilder.buildBindingMap(compilationUnit);
+    bindingMap = Options.lazyBindings()
+        ? new LazyBindingMap() : BindingMapBuilder.buildBindingMap(compilationUnit);
     setGlobalRenamings();
 
     initializeWrapperMappings();
@@ -203,32 +244,39 @@ public class Types {
 
   private void initializeArrayTypes() {
     IOSBooleanArray = new IOSArrayTypeBinding(
-        "IOSBooleanArray", "arrayWithBooleans", "booleanAtIndex", "getBooleans",
+        "IOSBooleanArray", "arrayWithBooleans", "booleanAtIndex", "getBooleans", "booleanBuffer",
         ast.resolveWellKnownType("java.lang.Boolean"), ast.resolveWellKnownType("boolean"));
     IOSByteArray =
         new IOSArrayTypeBinding("IOSByteArray", "arrayWithBytes", "byteAtIndex", "getBytes",
-            ast.resolveWellKnownType("java.lang.Byte"), ast.resolveWellKnownType("byte"));
+            "byteBuffer", ast.resolveWellKnownType("java.lang.Byte"),
+            ast.resolveWellKnownType("byte"));
     IOSCharArray =
         new IOSArrayTypeBinding("IOSCharArray", "arrayWithCharacters", "charAtIndex", "getChars",
-            ast.resolveWellKnownType("java.lang.Character"), ast.resolveWellKnownType("char"));
+            "charBuffer", ast.resolveWellKnownType("java.lang.Character"),
+            ast.resolveWellKnownType("char"));
     IOSDoubleArray =
         new IOSArrayTypeBinding("IOSDoubleArray", "arrayWithDoubles", "doubleAtIndex", "getDoubles",
-            ast.resolveWellKnownType("java.lang.Double"), ast.resolveWellKnownType("double"));
+            "doubleBuffer", ast.resolveWellKnownType("java.lang.Double"),
+            ast.resolveWellKnownType("double"));
     IOSFloatArray =
         new IOSArrayTypeBinding("IOSFloatArray", "arrayWithFloats", "floatAtIndex", "getFloats",
-            ast.resolveWellKnownType("java.lang.Float"), ast.resolveWellKnownType("float"));
+            "floatBuffer", ast.resolveWellKnownType("java.lang.Float"),
+            ast.resolveWellKnownType("float"));
     IOSIntArray =
         new IOSArrayTypeBinding("IOSIntArray", "arrayWithInts", "intAtIndex", "getInts",
-            ast.resolveWellKnownType("java.lang.Integer"), ast.resolveWellKnownType("int"));
+            "intBuffer", ast.resolveWellKnownType("java.lang.Integer"),
+            ast.resolveWellKnownType("int"));
     IOSLongArray =
         new IOSArrayTypeBinding("IOSLongArray", "arrayWithLongs", "longAtIndex", "getLongs",
-            ast.resolveWellKnownType("java.lang.Long"), ast.resolveWellKnownType("long"));
+            "longBuffer", ast.resolveWellKnownType("java.lang.Long"),
+            ast.resolveWellKnownType("long"));
     IOSObjectArray =
         new IOSArrayTypeBinding("IOSObjectArray", "arrayWithObjects", "objectAtIndex", "getObjects",
-            ast.resolveWellKnownType("java.lang.Object"), null);
+            null, ast.resolveWellKnownType("java.lang.Object"), null);
     IOSShortArray =
         new IOSArrayTypeBinding("IOSShortArray", "arrayWithShorts", "shortAtIndex", "getShorts",
-            ast.resolveWellKnownType("java.lang.Short"), ast.resolveWellKnownType("short"));
+            "shortBuffer", ast.resolveWellKnownType("java.lang.Short"),
+            ast.resolveWellKnownType("short"));
 
     iosBindingMap.put("IOSBooleanArray", IOSBooleanArray);
     iosBindingMap.put("IOSByteArray", IOSByteArray);
@@ -467,15 +515,80 @@ public class Types {
         binding.getConstantValue() != null;
   }
 
+  /**
+   * Returns true if a static variable is generated as a global C variable,
+   * which other classes access directly instead of through its accessors.
+   * Only classes translated with the --static-field-globals option have
+   * them: those declared in the current unit or in another of the run's
+   * source files.  Classes only found on the sourcepath were translated
+   * separately, perhaps without it.
+   */
+  public static boolean isStaticGlobal(IVariableBinding var) {
+    if (!Options.staticFieldGlobals() || var == null || !var.isField()
+        || !isStaticVariable(var) || isPrimitiveConstant(var)) {
+      return false;
+    }
+    ITypeBinding type = var.getDeclaringClass();
+    return type != null && type.isClass() && type.isFromSource() && !isWrapper(type)
+        && isTranslatedType(type);
+  }
+
+  /**
+   * Returns true if a type's top-level type is declared in the current unit
+   * or in another of the run's source files.
+   */
+  public static boolean isTranslatedType(ITypeBinding type) {
+    while (type.getDeclaringClass() != null) {
+      type = type.getDeclaringClass();
+    }
+    String name = type.getErasure().getQualifiedName();
+    @SuppressWarnings("unchecked")
+    List<AbstractTypeDeclaration> unitTypes = instance().unit.types(); // safe by definition
+    for (AbstractTypeDeclaration unitType : unitTypes) {
+      ITypeBinding unitTypeBinding = getTypeBinding(unitType);
+      if (unitTypeBinding != null && name.equals(unitTypeBinding.getErasure().getQualifiedName())) {
+        return true;
+      }
+    }
+    return J2ObjC.isTranslatedType(name);
+  }
+
+  /**
+   * Returns true if a static global's class must be initialized before the
+   * variable is accessed: all of them except final variables with constant
+   * values, which aren't set by the class's initializer.
+   */
+  public static boolean needsInitializationCheck(IVariableBinding var) {
+    return isStaticGlobal(var)
+        && !(Modifier.isFinal(var.getModifiers()) && var.getConstantValue() != null);
+  }
+
+  /**
+   * Returns true if a type has an initialized flag, which its +initialize
+   * method sets, as at least one of its static globals needs it.
+   */
+  public static boolean hasInitializedFlag(ITypeBinding type) {
+    for (IVariableBinding field : type.getDeclaredFields()) {
+      if (needsInitializationCheck(field)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Initialize this service using the AST returned by the parser.
    */
   public static void initialize(CompilationUnit unit) {
-    instance = new Types(unit);
+    instances.set(new Types(unit));
   }
 
   public static void cleanup() {
-    instance = null;
+    instances.remove();
+  }
+
+  private static Types instance() {
+    return instances.get();
   }
 
   /**
@@ -489,9 +602,9 @@ public class Types {
     if (binding.isArray()) {
       return resolveArrayType(binding.getComponentType());
     }
-    ITypeBinding newBinding = instance.typeMap.get(binding);
-    if (newBinding == null && binding.isAssignmentCompatible(instance.javaClassType)) {
-      newBinding = instance.typeMap.get(instance.javaClassType);
+    ITypeBinding newBinding = instance().typeMap.get(binding);
+    if (newBinding == null && binding.isAssignmentCompatible(instance().javaClassType)) {
+      newBinding = instance().typeMap.get(instance().javaClassType);
     }
     return newBinding != null ? newBinding : binding;
   }
@@ -500,7 +613,7 @@ public class Types {
    * Given a fully-qualified type name, return its binding.
    */
   public static ITypeBinding mapTypeName(String typeName) {
-    ITypeBinding binding = instance.ast.resolveWellKnownType(typeName);
+    ITypeBinding binding = instance().ast.resolveWellKnownType(typeName);
     return mapType(binding);
   }
 
@@ -508,7 +621,7 @@ public class Types {
    * Returns whether a given type has an iOS equivalent.
    */
   public static boolean hasIOSEquivalent(ITypeBinding binding) {
-    return binding.isArray() || instance.typeMap.containsKey(binding.getTypeDeclaration());
+    return binding.isArray() || instance().typeMap.containsKey(binding.getTypeDeclaration());
   }
 
   /**
@@ -522,15 +635,15 @@ public class Types {
    * Returns true if a type name refers to an iOS type.
    */
   public static boolean isIOSType(String name) {
-    return instance.simpleTypeMap.get(name) != null
-        || instance.simpleTypeMap.containsValue(name);
+    return instance().simpleTypeMap.get(name) != null
+        || instance().simpleTypeMap.containsValue(name);
   }
 
   /**
    * Returns a simple (no package) name for a given one.
    */
   public static String mapSimpleTypeName(String typeName) {
-    String newName = instance.simpleTypeMap.get(typeName);
+    String newName = instance().simpleTypeMap.get(typeName);
     return newName != null ? newName : typeName;
   }
 
@@ -541,19 +654,19 @@ public class Types {
     Type type;
     if (binding.isPrimitive()) {
       PrimitiveType.Code typeCode = PrimitiveType.toCode(binding.getName());
-      type = instance.ast.newPrimitiveType(typeCode);
+      type = instance().ast.newPrimitiveType(typeCode);
     } else if (binding.isArray() && !(binding instanceof IOSArrayTypeBinding)) {
       Type componentType = makeType(binding.getComponentType());
-      type = instance.ast.newArrayType(componentType);
+      type = instance().ast.newArrayType(componentType);
     } else {
       String typeName = binding.getErasure().getName();
       if (typeName == "") {
         // Debugging aid for anonymous (no-name) classes.
         typeName = "$Local$";
       }
-      SimpleName name = instance.ast.newSimpleName(typeName);
+      SimpleName name = instance().ast.newSimpleName(typeName);
       addBinding(name, binding);
-      type = instance.ast.newSimpleType(name);
+      type = instance().ast.newSimpleType(name);
     }
     addBinding(type, binding);
     return type;
@@ -581,85 +694,85 @@ public class Types {
    * type.
    */
   public static boolean isMappedMethod(IMethodBinding method) {
-    return method instanceof IOSMethodBinding ? true : instance.mappedMethods.containsKey(method);
+    return method instanceof IOSMethodBinding ? true : instance().mappedMethods.containsKey(method);
   }
 
   public static void addMappedIOSMethod(IMethodBinding binding, IOSMethod method) {
-    instance.mappedMethods.put(binding, method);
+    instance().mappedMethods.put(binding, method);
     Types.addBinding(method, binding);
   }
 
   public static IOSMethod getMappedMethod(IMethodBinding binding) {
-    return instance.mappedMethods.get(binding);
+    return instance().mappedMethods.get(binding);
   }
 
   /**
    * Returns true if a specified variable binding refers has a replacement.
    */
   public static boolean isMappedVariable(IVariableBinding var) {
-    return instance.mappedVariables.containsKey(var);
+    return instance().mappedVariables.containsKey(var);
   }
 
   public static void addMappedVariable(ASTNode node, IVariableBinding newBinding) {
     IVariableBinding oldBinding = getVariableBinding(node);
     assert oldBinding != null;
-    instance.mappedVariables.put(oldBinding, newBinding);
+    instance().mappedVariables.put(oldBinding, newBinding);
   }
 
   public static IVariableBinding getMappedVariable(IVariableBinding binding) {
-    IVariableBinding var = instance.mappedVariables.get(binding);
+    IVariableBinding var = instance().mappedVariables.get(binding);
     return var != null ? var : binding;
   }
 
   public static void addMappedInvocation(Expression method, IMethodBinding binding) {
-    instance.mappedInvocations.put(method, binding);
+    instance().mappedInvocations.put(method, binding);
     Types.addBinding(method, binding);
   }
 
   public static IMethodBinding resolveInvocationBinding(Expression invocation) {
-    if (instance.mappedInvocations.containsKey(invocation)) {
-      return instance.mappedInvocations.get(invocation);
+    if (instance().mappedInvocations.containsKey(invocation)) {
+      return instance().mappedInvocations.get(invocation);
     }
     return null;
   }
 
   public static IOSTypeBinding resolveIOSType(String name) {
-    return instance.iosBindingMap.get(name);
+    return instance().iosBindingMap.get(name);
   }
 
   public static String resolveIOSHeader(String name) {
-    return instance.iosHeaderMap.get(name);
+    return instance().iosHeaderMap.get(name);
   }
 
   public static ITypeBinding resolveOriginalTypeBinding(IOSTypeBinding iosTypeBinding) {
-    return instance.reverseBindingMap.get(iosTypeBinding);
+    return instance().reverseBindingMap.get(iosTypeBinding);
   }
 
   public static boolean hasIOSHeader(String name) {
-    return instance.iosHeaderMap.containsKey(name);
+    return instance().iosHeaderMap.containsKey(name);
   }
 
   public static boolean isJavaObjectType(ITypeBinding type) {
-    return instance.javaObjectType.equals(type);
+    return instance().javaObjectType.equals(type);
   }
 
   public static boolean isJavaStringType(ITypeBinding type) {
-    return instance.javaStringType.equals(type);
+    return instance().javaStringType.equals(type);
   }
 
   public static boolean isJavaNumberType(ITypeBinding type) {
-    return type.isAssignmentCompatible(instance.javaNumberType);
+    return type.isAssignmentCompatible(instance().javaNumberType);
   }
 
   public static boolean isFloatingPointType(ITypeBinding type) {
-    return type.isEqualTo(instance.ast.resolveWellKnownType("double")) ||
-        type.isEqualTo(instance.ast.resolveWellKnownType("float")) ||
-        type == instance.ast.resolveWellKnownType("java.lang.Double") ||
-        type == instance.ast.resolveWellKnownType("java.lang.Float");
+    return type.isEqualTo(instance().ast.resolveWellKnownType("double")) ||
+        type.isEqualTo(instance().ast.resolveWellKnownType("float")) ||
+        type == instance().ast.resolveWellKnownType("java.lang.Double") ||
+        type == instance().ast.resolveWellKnownType("java.lang.Float");
   }
 
   public static boolean isBooleanType(ITypeBinding type) {
-    return instance.booleanType.equals(type);
+    return instance().booleanType.equals(type);
   }
 
   public static ITypeBinding resolveIOSType(Type type) {
@@ -671,27 +784,27 @@ public class Types {
   }
 
   public static IOSTypeBinding resolveArrayType(String name) {
-    return instance.arrayTypeMap.get(name);
+    return instance().arrayTypeMap.get(name);
   }
 
   public static IOSArrayTypeBinding resolveArrayType(ITypeBinding binding) {
-    IOSArrayTypeBinding arrayBinding = instance.arrayBindingMap.get(binding);
-    return arrayBinding != null ? arrayBinding : instance.IOSObjectArray;
+    IOSArrayTypeBinding arrayBinding = instance().arrayBindingMap.get(binding);
+    return arrayBinding != null ? arrayBinding : instance().IOSObjectArray;
   }
 
   public static String getPrimitiveTypeName(ITypeBinding binding) {
-    return instance.primitiveTypeNameMap.get(binding);
+    return instance().primitiveTypeNameMap.get(binding);
   }
 
   public static IBinding getBinding(Object node) {
-    IBinding binding = instance.bindingMap.get(node);
+    IBinding binding = instance().bindingMap.get(node);
     assert binding != null;
     return binding;
   }
 
   public static void addBinding(Object node, IBinding binding) {
     assert binding != null;
-    instance.bindingMap.put(node, binding);
+    instance().bindingMap.put(node, binding);
   }
 
   /**
@@ -738,43 +851,51 @@ public class Types {
    * ASTNode type that is supposed to have one.
    */
   public static void verifyNode(ASTNode node) {
-    BindingMapVerifier.verify(node, instance.bindingMap);
+    BindingMapVerifier.verify(node, instance().bindingMap);
+  }
+
+  /**
+   * Verifies a node's bindings after a translation pass, naming the pass if
+   * a binding is missing.
+   */
+  public static void verifyNode(ASTNode node, String pass) {
+    BindingMapVerifier.verify(node, instance().bindingMap, pass);
   }
 
   public static void verifyNodes(List<? extends ASTNode> nodes) {
     for (ASTNode node : nodes) {
-      BindingMapVerifier.verify(node, instance.bindingMap);
+      BindingMapVerifier.verify(node, instance().bindingMap);
     }
   }
 
   public static void substitute(ASTNode oldNode, ASTNode replacement) {
-    instance.substitutionMap.put(oldNode, replacement);
+    instance().substitutionMap.put(oldNode, replacement);
   }
 
   public static ASTNode getNode(ASTNode currentNode) {
-    return instance.substitutionMap.get(currentNode);
+    return instance().substitutionMap.get(currentNode);
   }
 
   static ITypeBinding getIOSArrayComponentType(IOSArrayTypeBinding arrayType) {
-    ITypeBinding type = instance.componentTypeMap.get(arrayType);
-    return type != null ? type : instance.NSObject;
+    ITypeBinding type = instance().componentTypeMap.get(arrayType);
+    return type != null ? type : instance().NSObject;
   }
 
   public static ITypeBinding renameTypeBinding(String newName, ITypeBinding newDeclaringClass,
       ITypeBinding originalBinding) {
     ITypeBinding renamedBinding =
         RenamedTypeBinding.rename(newName, newDeclaringClass, originalBinding);
-    instance.renamedTypeMap.put(originalBinding, renamedBinding);
+    instance().renamedTypeMap.put(originalBinding, renamedBinding);
     return renamedBinding;
   }
 
   public static ITypeBinding getRenamedBinding(ITypeBinding original) {
-    return original != null && instance.renamedTypeMap.containsKey(original)
-        ? instance.renamedTypeMap.get(original) : original;
+    return original != null && instance().renamedTypeMap.containsKey(original)
+        ? instance().renamedTypeMap.get(original) : original;
   }
 
   public static void addFunction(IMethodBinding binding) {
-    instance.functions.add(binding);
+    instance().functions.add(binding);
   }
 
   public static boolean isFunction(IMethodBinding binding) {
@@ -782,11 +903,11 @@ public class Types {
       if (hasAnnotation(getDelegate(binding), Function.class))
         return true;
     }
-    if (instance.functions.contains(binding)) {
+    if (instance().functions.contains(binding)) {
       return true;
     }
     IMethodBinding decl = binding.getMethodDeclaration();
-    return decl != null ? instance.functions.contains(decl) : false;
+    return decl != null ? instance().functions.contains(decl) : false;
   }
 
   private static IMethodBinding getDelegate(IMethodBinding binding) {
@@ -801,11 +922,11 @@ public class Types {
   }
 
   public static boolean isVoidType(ITypeBinding type) {
-    return type.isEqualTo(instance.voidType);
+    return type.isEqualTo(instance().voidType);
   }
 
   public static boolean isJavaVoidType(ITypeBinding type) {
-    return type.isEqualTo(instance.javaVoidType);
+    return type.isEqualTo(instance().javaVoidType);
   }
 
   /**
@@ -828,35 +949,35 @@ public class Types {
    * for gcc to verify parameters of generic interface's methods
    */
   public static void addVariableCast(IVariableBinding var, ITypeBinding castType) {
-    instance.variablesNeedingCasts.put(var.getVariableDeclaration(), castType);
+    instance().variablesNeedingCasts.put(var.getVariableDeclaration(), castType);
   }
 
   public static boolean variableHasCast(IVariableBinding var) {
-    return instance.variablesNeedingCasts.containsKey(var.getVariableDeclaration());
+    return instance().variablesNeedingCasts.containsKey(var.getVariableDeclaration());
   }
 
   public static ITypeBinding getCastForVariable(IVariableBinding var) {
-    return instance.variablesNeedingCasts.get(var.getVariableDeclaration());
+    return instance().variablesNeedingCasts.get(var.getVariableDeclaration());
   }
 
   public static void addReleaseableFields(Collection<IVariableBinding> fields) {
     for (IVariableBinding field : fields) {
-      instance.releaseableFields.add(field.getVariableDeclaration());
+      instance().releaseableFields.add(field.getVariableDeclaration());
     }
   }
 
   public static boolean isReleaseableField(IVariableBinding var) {
-    return var != null ? instance.releaseableFields.contains(var.getVariableDeclaration()) : false;
+    return var != null ? instance().releaseableFields.contains(var.getVariableDeclaration()) : false;
   }
 
   public static NullLiteral newNullLiteral() {
-    NullLiteral nullLiteral = instance.ast.newNullLiteral();
+    NullLiteral nullLiteral = instance().ast.newNullLiteral();
     addBinding(nullLiteral, NullType.SINGLETON);
     return nullLiteral;
   }
 
   public static SimpleName newLabel(String identifier) {
-    SimpleName node = instance.ast.newSimpleName(identifier);
+    SimpleName node = instance().ast.newSimpleName(identifier);
     addBinding(node, new IOSTypeBinding(identifier, false));
     return node;
   }
@@ -884,27 +1005,27 @@ public class Types {
   }
 
   public static ITypeBinding getWrapperType(ITypeBinding primitiveType) {
-    return instance.primitiveToWrapperTypes.get(primitiveType);
+    return instance().primitiveToWrapperTypes.get(primitiveType);
   }
 
   public static ITypeBinding getPrimitiveType(ITypeBinding wrapperType) {
-    return instance.wrapperToPrimitiveTypes.get(wrapperType);
+    return instance().wrapperToPrimitiveTypes.get(wrapperType);
   }
 
   public static ITypeBinding getNSNumber() {
-    return instance.NSNumber;
+    return instance().NSNumber;
   }
 
   public static ITypeBinding getNSObject() {
-    return instance.NSObject;
+    return instance().NSObject;
   }
 
   public static ITypeBinding getNSString() {
-    return instance.NSString;
+    return instance().NSString;
   }
 
   public static ITypeBinding getIOSClass() {
-    return instance.IOSClass;
+    return instance().IOSClass;
   }
 
   public static boolean isWeakReference(IVariableBinding var) {
@@ -953,11 +1074,231 @@ public class Types {
     if (Options.useGC()) {
       J2ObjC.warning(block, "@AutoreleasePool ignored in GC mode");
     }
-    instance.autoreleasePoolBlocks.add(block);
+    instance().autoreleasePoolBlocks.add(block);
   }
 
   public static boolean hasAutoreleasePool(Block block) {
-    return instance.autoreleasePoolBlocks.contains(block);
+    return instance().autoreleasePoolBlocks.contains(block);
+  }
+
+  public static void addNonNullExpression(Expression expression) {
+    instance().nonNullExpressions.add(expression);
+  }
+
+  /**
+   * Returns true if an expression is known to be non-null where it is
+   * dereferenced, so it doesn't need a nil check.
+   */
+  public static boolean isNonNullExpression(Expression expression) {
+    return instance().nonNullExpressions.contains(expression);
+  }
+
+  /**
+   * Returns true if a dereferenced expression is generated with a nil check,
+   * unless NilCheckResolver proved it's non-null.  Only reference variables
+   * are checked, other than outer references and variables that an
+   * enclosing if statement compares with null.
+   */
+  public static boolean needsNilCheck(Expression e) {
+    IVariableBinding var = getVariableBinding(e);
+    // Outer class references should always be non-nil.
+    return var != null && !var.getName().startsWith("this$") && !hasNilCheckParent(e, var)
+        && !isPrimitive(var.getType());
+  }
+
+  private static boolean hasNilCheckParent(Expression e, IVariableBinding sym) {
+    ASTNode parent = e.getParent();
+    while (parent != null) {
+      if (parent instanceof IfStatement) {
+        Expression condition = ((IfStatement) parent).getExpression();
+        if (condition instanceof InfixExpression) {
+          InfixExpression infix = (InfixExpression) condition;
+          IBinding lhs = getBinding(infix.getLeftOperand());
+          if (lhs != null && infix.getRightOperand() instanceof NullLiteral) {
+            return sym.isEqualTo(lhs);
+          }
+          IBinding rhs = getBinding(infix.getRightOperand());
+          if (rhs != null && infix.getLeftOperand() instanceof NullLiteral) {
+            return sym.isEqualTo(rhs);
+          }
+        }
+      }
+      parent = parent.getParent();
+      if (parent instanceof MethodDeclaration) {
+        break;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns true if a method invocation is generated as a message to its
+   * receiver, which is printed with a nil check if it needsNilCheck().
+   * Functions, @Mask methods and Class.isAssignableFrom() don't check
+   * their receivers.
+   */
+  public static boolean hasNilCheckedReceiver(MethodInvocation node) {
+    IMethodBinding binding = getMethodBinding(node);
+    return node.getExpression() != null && binding != null && getFunctionName(node) == null
+        && !isFunction(binding) && !isMaskedInvocation(node)
+        && !isAssignableFromInvocation(node);
+  }
+
+  /**
+   * Returns true if an invocation is of a @Mask method, which is generated
+   * as its receiver.
+   */
+  public static boolean isMaskedInvocation(MethodInvocation node) {
+    IMethodBinding binding = node.resolveMethodBinding();
+    return binding != null && hasAnnotation(binding, Mask.class);
+  }
+
+  /**
+   * Returns true if an invocation is of Class.isAssignableFrom(), which is
+   * generated specially, as it can test protocols as well as classes.
+   */
+  public static boolean isAssignableFromInvocation(MethodInvocation node) {
+    return NameTable.getName(node.getName()).equals("isAssignableFrom")
+        && getMethodBinding(node).getDeclaringClass().equals(getIOSClass());
+  }
+
+  /**
+   * Records that an array access in a loop is always in range, so it can
+   * use the array's buffer, which is fetched once before the loop.
+   */
+  public static void addDirectArrayAccess(ForStatement loop, ArrayAccess access) {
+    IVariableBinding array = getVariableBinding(access.getArray());
+    List<IVariableBinding> arrays = instance().directAccessLoops.get(loop);
+    if (arrays == null) {
+      arrays = Lists.newArrayList();
+      instance().directAccessLoops.put(loop, arrays);
+    }
+    if (!arrays.contains(array)) {
+      arrays.add(array);
+    }
+    instance().directArrayAccesses.add(access);
+  }
+
+  /**
+   * Returns the arrays whose buffers a loop accesses directly.
+   */
+  public static List<IVariableBinding> getDirectAccessArrays(ForStatement loop) {
+    List<IVariableBinding> arrays = instance().directAccessLoops.get(loop);
+    return arrays != null ? arrays : Collections.<IVariableBinding>emptyList();
+  }
+
+  public static boolean isDirectArrayAccess(ArrayAccess access) {
+    return instance().directArrayAccesses.contains(access);
+  }
+
+  /**
+   * Records that a method is also generated as a C function, which is
+   * called directly instead of sending the method's message.
+   */
+  public static void addDevirtualizedMethod(IMethodBinding method) {
+    instance().devirtualizedMethods.add(method);
+  }
+
+  public static boolean isDevirtualizedMethod(IMethodBinding method) {
+    return instance().devirtualizedMethods.contains(method);
+  }
+
+  public static void addFunctionInvocation(MethodInvocation invocation, String functionName) {
+    instance().functionInvocations.put(invocation, functionName);
+  }
+
+  /**
+   * Returns the name of the C function a method invocation calls, or null
+   * if the method's message is sent.
+   */
+  public static String getFunctionName(MethodInvocation invocation) {
+    return instance().functionInvocations.get(invocation);
+  }
+
+  public static void addHoistedArrayInitializer(ArrayInitializer node, String name) {
+    instance().hoistedArrayInitializers.put(node, name);
+  }
+
+  /**
+   * Returns the name of the static C array an array initializer was moved
+   * into, or null if it is generated in place.
+   */
+  public static String getHoistedArrayInitializerName(ArrayInitializer node) {
+    return instance().hoistedArrayInitializers.get(node);
+  }
+
+  /**
+   * Returns the array initializers that were moved into static C arrays, in
+   * the order their arrays are declared.
+   */
+  public static List<ArrayInitializer> getHoistedArrayInitializers() {
+    return Lists.newArrayList(instance().hoistedArrayInitializers.keySet());
+  }
+
+  public static void addCachedTypeCheck(InstanceofExpression node, boolean isLeafClass) {
+    instance().cachedTypeChecks.put(node, isLeafClass);
+  }
+
+  /**
+   * Returns true if an instanceof test calls a type checking function, with
+   * its target cached in a file-scope static, rather than sending messages.
+   */
+  public static boolean isCachedTypeCheck(InstanceofExpression node) {
+    return instance().cachedTypeChecks.containsKey(node);
+  }
+
+  /**
+   * Returns true if a cached instanceof test's target is a class without
+   * subclasses, so objects whose class is the target are checked first.
+   */
+  public static boolean hasLeafClassTarget(InstanceofExpression node) {
+    return Boolean.TRUE.equals(instance().cachedTypeChecks.get(node));
+  }
+
+  /**
+   * Returns the unit's cached instanceof tests, in the order they were found.
+   */
+  public static List<InstanceofExpression> getCachedTypeChecks() {
+    return Lists.newArrayList(instance().cachedTypeChecks.keySet());
+  }
+
+  public static void setStringLiteralTablePrefix(String prefix) {
+    instance().stringLiteralTablePrefix = prefix;
+  }
+
+  /**
+   * Returns the prefix of the names of the unit's string literal table and
+   * its functions, which is the unit's first type's name.
+   */
+  public static String getStringLiteralTablePrefix() {
+    return instance().stringLiteralTablePrefix;
+  }
+
+  /**
+   * Adds a string value to the unit's string literal table, unless it is
+   * already there.
+   */
+  public static void addHoistedStringLiteral(String value) {
+    Map<String, Integer> literals = instance().hoistedStringLiterals;
+    if (!literals.containsKey(value)) {
+      literals.put(value, literals.size());
+    }
+  }
+
+  /**
+   * Returns the index of a string value in the unit's string literal table,
+   * or -1 if it isn't there.
+   */
+  public static int getHoistedStringLiteralIndex(String value) {
+    Integer index = instance().hoistedStringLiterals.get(value);
+    return index != null ? index : -1;
+  }
+
+  /**
+   * Returns the values in the unit's string literal table, in table order.
+   */
+  public static List<String> getHoistedStringLiterals() {
+    return Lists.newArrayList(instance().hoistedStringLiterals.keySet());
   }
 
   public static boolean isWrapper(ITypeBinding binding) {
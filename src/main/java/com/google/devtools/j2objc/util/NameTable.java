@@ -19,9 +19,11 @@ package com.google.devtools.j2objc.util;
 import java.io.File;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import org.eclipse.jdt.core.dom.AST;
@@ -41,14 +43,20 @@ import org.eclipse.jdt.core.dom.PrimitiveType;
 import org.eclipse.jdt.core.dom.QualifiedType;
 import org.eclipse.jdt.core.dom.SimpleName;
 import org.eclipse.jdt.core.dom.SimplePropertyDescriptor;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
 import org.eclipse.jdt.core.dom.SimpleType;
 import org.eclipse.jdt.core.dom.Type;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.types.GeneratedTypeBinding;
 import com.google.devtools.j2objc.types.IOSTypeBinding;
 import com.google.devtools.j2objc.types.Types;
 
@@ -59,8 +67,29 @@ import com.google.devtools.j2objc.types.Types;
  */
 public class NameTable {
 
-  private static NameTable instance;
+  // Each translation thread has its own instance, so units can be
+  // translated concurrently.
+  private static final ThreadLocal<NameTable> instances = new ThreadLocal<NameTable>();
   private final Map<IBinding, String> renamings = Maps.newHashMap();
+  private boolean hasTypeRenamings = false;
+  private final CompilationUnit unit;
+
+  /**
+   * Names that are the same in all of a session's units, which translation
+   * threads share: the full names of types that units don't declare, from
+   * class files or the sourcepath, keyed by binding key, and camel-cased
+   * qualified names.  The cache is cleared when the package prefixes
+   * change, and a unit doesn't use it for types that it renames, or whose
+   * outer types it renames.
+   */
+  @VisibleForTesting
+  static final int MAX_CACHED_NAMES = 20000;
+  private static final Cache<String, String> fullNames = newNameCache();
+  private static final Cache<String, String> camelCaseNames = newNameCache();
+  private static Map<String, String> cachedPrefixes = ImmutableMap.of();
+  private static volatile boolean cacheNames = true;
+  private static final AtomicInteger nameCacheHits = new AtomicInteger();
+  private static final AtomicInteger nameCacheMisses = new AtomicInteger();
 
   public static final String CLINIT_NAME = "initialize";
 
@@ -169,19 +198,26 @@ public class NameTable {
    */
   private final Map<String, String> prefixMap;
 
-  private NameTable(Map<String, String> prefixMap) {
+  private NameTable(Map<String, String> prefixMap, CompilationUnit unit) {
     this.prefixMap = prefixMap;
+    this.unit = unit;
   }
 
   /**
    * Initialize this service using the AST returned by the parser.
    */
   public static void initialize(CompilationUnit unit) {
-    instance = new NameTable(Options.getPackagePrefixes());
+    Map<String, String> prefixMap = Options.getPackagePrefixes();
+    checkCachedPrefixes(prefixMap);
+    instances.set(new NameTable(prefixMap, unit));
   }
 
   public static void cleanup() {
-    instance = null;
+    instances.remove();
+  }
+
+  private static NameTable instance() {
+    return instances.get();
   }
 
   /**
@@ -192,7 +228,7 @@ public class NameTable {
   public static String getName(IBinding binding) {
     assert binding != null;
     binding = getBindingDeclaration(binding);
-    String newName = instance.renamings.get(binding);
+    String newName = instance().renamings.get(binding);
     if (newName != null) {
       return newName;
     }
@@ -240,7 +276,7 @@ public class NameTable {
   }
 
   public static boolean isRenamed(IBinding binding) {
-    return instance.renamings.containsKey(binding);
+    return instance().renamings.containsKey(binding);
   }
 
   public static boolean isRenamed(SimpleName node) {
@@ -252,7 +288,7 @@ public class NameTable {
    */
   public static void rename(IBinding oldName, String newName) {
     oldName = getBindingDeclaration(oldName);
-    String previousName = instance.renamings.get(oldName);
+    String previousName = instance().renamings.get(oldName);
     if (previousName != null && !previousName.equals(newName)) {
       logger.fine(String.format("Changing previous rename: %s => %s, now: %s => %s",
           oldName.toString(), previousName, oldName, newName));
@@ -261,7 +297,11 @@ public class NameTable {
   }
 
   public static void rename(IBinding oldName, String newName, boolean allowPreviousRenames) {
-    instance.renamings.put(getBindingDeclaration(oldName), newName);
+    IBinding declaration = getBindingDeclaration(oldName);
+    instance().renamings.put(declaration, newName);
+    if (declaration instanceof ITypeBinding) {
+      instance().hasTypeRenamings = true;
+    }
   }
 
   /**
@@ -283,11 +323,18 @@ public class NameTable {
    * example, java.util.logging.Level is returned as JavaUtilLoggingLevel.
    */
   public static String camelCaseQualifiedName(String fqn) {
-    StringBuilder sb = new StringBuilder();
-    for (String part : fqn.split("\\.")) {
-      sb.append(capitalize(part));
+    String name = cacheNames ? camelCaseNames.getIfPresent(fqn) : null;
+    if (name == null) {
+      StringBuilder sb = new StringBuilder();
+      for (String part : fqn.split("\\.")) {
+        sb.append(capitalize(part));
+      }
+      name = sb.toString();
+      if (cacheNames) {
+        camelCaseNames.put(fqn, name);
+      }
     }
-    return sb.toString();
+    return name;
   }
 
   /**
@@ -421,6 +468,47 @@ public class NameTable {
       return primitiveTypeToObjC(binding.getName());
     }
     binding = Types.mapType(binding.getErasure());  // Make sure type variables aren't included.
+    String key = getNameCacheKey(binding);
+    if (key == null) {
+      return getUncachedFullName(binding);
+    }
+    String name = fullNames.getIfPresent(key);
+    if (name != null) {
+      nameCacheHits.incrementAndGet();
+      return name;
+    }
+    nameCacheMisses.incrementAndGet();
+    name = getUncachedFullName(binding);
+    fullNames.put(key, name);
+    return name;
+  }
+
+  /**
+   * Returns the key of a type's name in the name cache, or null if the
+   * name isn't cached.
+   */
+  private static String getNameCacheKey(ITypeBinding binding) {
+    // Generated and modified types don't have keys of their own.
+    if (!cacheNames || binding instanceof GeneratedTypeBinding
+        || Proxy.isProxyClass(binding.getClass())) {
+      return null;
+    }
+    NameTable instance = instance();
+    if (binding.isFromSource() && instance.unit != null
+        && instance.unit.findDeclaringNode(binding) != null) {
+      return null;
+    }
+    if (instance.hasTypeRenamings) {
+      for (ITypeBinding type = binding; type != null; type = type.getDeclaringClass()) {
+        if (instance.renamings.containsKey(type.getTypeDeclaration())) {
+          return null;
+        }
+      }
+    }
+    return binding.getKey();
+  }
+
+  private static String getUncachedFullName(ITypeBinding binding) {
     String suffix = binding.isEnum() ? "Enum" : "";
     String prefix = "";
     IMethodBinding outerMethod = binding.getDeclaringMethod();
@@ -462,11 +550,28 @@ public class NameTable {
   }
 
   /**
-   * Returns a "Type_method" function name for static methods, such as from
-   * enum types.
+   * Returns a "Type_selector" function name for a method, where the
+   * selector's colons are replaced by underscores, so overloaded methods
+   * have different functions.  For example, "int add(int n)" in class Foo
+   * is "Foo_addWithInt_".
    */
   public static String makeFunctionName(AbstractTypeDeclaration cls, MethodDeclaration method) {
-    return getFullName(cls) + '_' + method.getName().getIdentifier();
+    IMethodBinding binding = Types.getMethodBinding(method);
+    StringBuilder sb = new StringBuilder();
+    sb.append(getFullName(cls));
+    sb.append('_');
+    sb.append(getName(binding));
+    ITypeBinding[] parameterTypes = Types.getOriginalMethodBinding(binding).getParameterTypes();
+    List<?> params = method.parameters();
+    for (int i = 0; i < params.size(); i++) {
+      ITypeBinding typeBinding = parameterTypes[i];
+      String typeName = typeBinding.isTypeVariable() ? ID_TYPE
+          : javaTypeToObjC(((SingleVariableDeclaration) params.get(i)).getType(), true);
+      String keyword = "with" + capitalize(getParameterTypeName(typeName, typeBinding));
+      sb.append(i == 0 ? capitalize(keyword) : keyword);
+      sb.append('_');
+    }
+    return sb.toString();
   }
 
   /**
@@ -577,7 +682,8 @@ public class NameTable {
   }
 
   public static void mapPackageToPrefix(String packageName, String prefix) {
-    instance.prefixMap.put(packageName, prefix);
+    instance().prefixMap.put(packageName, prefix);
+    checkCachedPrefixes(instance().prefixMap);
   }
 
   /**
@@ -587,16 +693,51 @@ public class NameTable {
    */
   public static String getPrefix(String packageName) {
     if (hasPrefix(packageName)) {
-      return instance.prefixMap.get(packageName);
-    }
-    StringBuilder sb = new StringBuilder();
-    for (String part : packageName.split("\\.")) {
-      sb.append(capitalize(part));
+      return instance().prefixMap.get(packageName);
     }
-    return sb.toString();
+    return camelCaseQualifiedName(packageName);
   }
 
   public static boolean hasPrefix(String packageName) {
-    return instance.prefixMap.containsKey(packageName);
+    return instance().prefixMap.containsKey(packageName);
+  }
+
+  private static Cache<String, String> newNameCache() {
+    return CacheBuilder.newBuilder().maximumSize(MAX_CACHED_NAMES).build();
+  }
+
+  /**
+   * Clears the name cache if the package prefixes have changed since its
+   * names were generated.
+   */
+  private static synchronized void checkCachedPrefixes(Map<String, String> prefixMap) {
+    if (!cachedPrefixes.equals(prefixMap)) {
+      fullNames.invalidateAll();
+      cachedPrefixes = ImmutableMap.copyOf(prefixMap);
+    }
+  }
+
+  /**
+   * Clears the name cache and its statistics, at the start of a session.
+   */
+  public static synchronized void resetNameCache() {
+    fullNames.invalidateAll();
+    camelCaseNames.invalidateAll();
+    cachedPrefixes = ImmutableMap.of();
+    nameCacheHits.set(0);
+    nameCacheMisses.set(0);
+  }
+
+  public static int getNameCacheHitCount() {
+    return nameCacheHits.get();
+  }
+
+  public static int getNameCacheMissCount() {
+    return nameCacheMisses.get();
+  }
+
+  @VisibleForTesting
+  public static void setNameCacheEnabled(boolean b) {
+    cacheNames = b;
   }
 }
@@ -0,0 +1,153 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.util;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.CharStreams;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * An index of the source files on a sourcepath.  Archives are opened once,
+ * and their entries indexed, when the index is created; directories are
+ * listed the first time a file in them is looked up.  As with javac,
+ * sourcepath directories take precedence over archives.
+ */
+public class SourcePathIndex {
+  private final List<String> sourcePath;
+  private final List<File> directories = Lists.newArrayList();
+  private final List<ZipFile> archives = Lists.newArrayList();
+
+  // Maps each archived file to the first archive that contains it.
+  private final Map<String, ZipFile> archivedFiles = Maps.newHashMap();
+
+  // Directory listings, by directory path.
+  private final Map<String, Set<String>> listings = Maps.newConcurrentMap();
+
+  private final AtomicInteger hits = new AtomicInteger();
+  private final AtomicInteger misses = new AtomicInteger();
+
+  public SourcePathIndex(String[] sourcePath) throws IOException {
+    this.sourcePath = Arrays.asList(sourcePath);
+    for (String entry : sourcePath) {
+      File f = new File(entry);
+      if (f.isDirectory()) {
+        directories.add(f);
+      } else if (f.isFile()) {
+        ZipFile zfile;
+        try {
+          zfile = new ZipFile(f);
+        } catch (ZipException e) {
+          // Not a zip or jar file, so skip it.
+          continue;
+        }
+        archives.add(zfile);
+        Enumeration<? extends ZipEntry> enumerator = zfile.entries();
+        while (enumerator.hasMoreElements()) {
+          String path = enumerator.nextElement().getName();
+          if (!archivedFiles.containsKey(path)) {
+            archivedFiles.put(path, zfile);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns true if this index was created for the specified sourcepath.
+   */
+  public boolean isIndexOf(String[] sourcePath) {
+    return this.sourcePath.equals(Arrays.asList(sourcePath));
+  }
+
+  /**
+   * Returns the file in a sourcepath directory with the specified relative
+   * path, or null if there isn't one.
+   */
+  public File findFile(String path) {
+    File relativeFile = new File(path);
+    String parent = relativeFile.getParent();
+    String name = relativeFile.getName();
+    for (File dir : directories) {
+      File parentDir = parent != null ? new File(dir, parent) : dir;
+      if (getListing(parentDir).contains(name)) {
+        hits.incrementAndGet();
+        return new File(parentDir, name);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the contents of the archived file with the specified path, or
+   * null if no sourcepath archive contains it.
+   */
+  public String readArchivedFile(String path) throws IOException {
+    ZipFile zfile = archivedFiles.get(path);
+    if (zfile == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    Reader in = new InputStreamReader(zfile.getInputStream(zfile.getEntry(path)));
+    try {
+      return CharStreams.toString(in);
+    } finally {
+      in.close();
+    }
+  }
+
+  private Set<String> getListing(File dir) {
+    String key = dir.getPath();
+    Set<String> listing = listings.get(key);
+    if (listing == null) {
+      String[] names = dir.list();
+      listing = names != null ? ImmutableSet.copyOf(names) : ImmutableSet.<String>of();
+      listings.put(key, listing);
+    }
+    return listing;
+  }
+
+  public int getHitCount() {
+    return hits.get();
+  }
+
+  public int getMissCount() {
+    return misses.get();
+  }
+
+  /**
+   * Closes the sourcepath's archives.
+   */
+  public void close() throws IOException {
+    for (ZipFile zfile : archives) {
+      zfile.close();
+    }
+  }
+}
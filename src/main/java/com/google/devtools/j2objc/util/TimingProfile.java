@@ -0,0 +1,378 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.util;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the wall time, CPU time and allocated bytes of each translation
+ * pass, per file.  A file's profile is started by {@link #startFile}, and
+ * each pass is measured from the end of the previous one by
+ * {@link #endPass}; both do nothing unless profiling is enabled, so the
+ * passes can be marked unconditionally.
+ *
+ * <p>CPU time and allocated bytes are measured for the current thread,
+ * and are reported as zero if the JVM doesn't support them.
+ */
+public class TimingProfile {
+
+  /**
+   * The number of slowest files included in summaries and reports.
+   */
+  public static final int TOP_FILES = 10;
+
+  private static final String ALL = "*";
+
+  private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+  private static final boolean cpuTimeSupported = threadBean.isCurrentThreadCpuTimeSupported();
+  private static final boolean allocationSupported =
+      threadBean instanceof com.sun.management.ThreadMXBean
+      && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported();
+
+  private static volatile boolean enabled = false;
+  private static final List<FileProfile> files =
+      Collections.synchronizedList(Lists.<FileProfile>newArrayList());
+  private static final ThreadLocal<FileProfile> currentFile = new ThreadLocal<FileProfile>();
+
+  /**
+   * Discards all recorded profiles, and enables or disables profiling.
+   */
+  public static void reset(boolean enable) {
+    if (enable && cpuTimeSupported && !threadBean.isThreadCpuTimeEnabled()) {
+      threadBean.setThreadCpuTimeEnabled(true);
+    }
+    if (enable && allocationSupported) {
+      ((com.sun.management.ThreadMXBean) threadBean).setThreadAllocatedMemoryEnabled(true);
+    }
+    enabled = enable;
+    files.clear();
+    currentFile.remove();
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Starts the profile of a file, which is translated by the current thread.
+   */
+  public static void startFile(String filename) {
+    if (enabled) {
+      FileProfile profile = new FileProfile(filename);
+      files.add(profile);
+      currentFile.set(profile);
+    }
+  }
+
+  /**
+   * Records the pass that ran since the file's profile was started, or
+   * since the previous pass ended.
+   */
+  public static void endPass(String pass) {
+    if (enabled) {
+      FileProfile profile = currentFile.get();
+      if (profile != null) {
+        profile.endPass(pass);
+      }
+    }
+  }
+
+  /**
+   * Ends the profile of the current thread's file.
+   */
+  public static void endFile() {
+    currentFile.remove();
+  }
+
+  /**
+   * Returns the total of each pass over all files, in the order the passes
+   * first ran.
+   */
+  public static Map<String, Sample> getPassTotals() {
+    Map<String, Sample> totals = Maps.newLinkedHashMap();
+    for (FileProfile profile : getFiles()) {
+      for (Map.Entry<String, Sample> entry : profile.passes.entrySet()) {
+        Sample total = totals.get(entry.getKey());
+        if (total == null) {
+          total = new Sample();
+          totals.put(entry.getKey(), total);
+        }
+        total.add(entry.getValue());
+      }
+    }
+    return totals;
+  }
+
+  /**
+   * Returns the profiles of the files with the longest total wall time,
+   * slowest first.
+   */
+  public static List<FileProfile> getSlowestFiles(int n) {
+    List<FileProfile> sorted = getFiles();
+    Collections.sort(sorted, new Comparator<FileProfile>() {
+      public int compare(FileProfile a, FileProfile b) {
+        long aTime = a.getTotal().wallNanos;
+        long bTime = b.getTotal().wallNanos;
+        return aTime > bTime ? -1 : aTime < bTime ? 1 : a.filename.compareTo(b.filename);
+      }
+    });
+    return sorted.subList(0, Math.min(n, sorted.size()));
+  }
+
+  private static List<FileProfile> getFiles() {
+    synchronized (files) {
+      return Lists.newArrayList(files);
+    }
+  }
+
+  /**
+   * Returns a table of the per-pass totals and the slowest files, for
+   * printing with the other timing information.
+   */
+  public static String getSummary() {
+    StringBuilder sb = new StringBuilder();
+    String header = "%-42s %10s %10s %12s%n";
+    String format = "  %-40s %10.3f %10.3f %12.1f%n";
+    sb.append(String.format(header, "pass totals:", "wall", "cpu", "alloc(MB)"));
+    for (Map.Entry<String, Sample> entry : getPassTotals().entrySet()) {
+      Sample sample = entry.getValue();
+      sb.append(String.format(format, entry.getKey(), sample.getWallSeconds(),
+          sample.getCpuSeconds(), sample.getAllocatedMegabytes()));
+    }
+    sb.append(String.format(header, "slowest files:", "wall", "cpu", "alloc(MB)"));
+    for (FileProfile profile : getSlowestFiles(TOP_FILES)) {
+      // File paths are usually too long to align, so they're printed last.
+      Sample sample = profile.getTotal();
+      sb.append(String.format("  %40s %10.3f %10.3f %12.1f  %s%n", "", sample.getWallSeconds(),
+          sample.getCpuSeconds(), sample.getAllocatedMegabytes(), profile.filename));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Writes the per-pass totals and the profiles of the slowest files to a
+   * report file, as CSV if its name ends with ".csv", otherwise as JSON.
+   */
+  public static void writeReport(File reportFile) throws IOException {
+    String report = reportFile.getName().endsWith(".csv") ? getCsvReport() : getJsonReport();
+    File parent = reportFile.getAbsoluteFile().getParentFile();
+    if (parent != null) {
+      parent.mkdirs();
+    }
+    Files.write(report, reportFile, Charsets.UTF_8);
+  }
+
+  /**
+   * Returns the report as CSV.  The per-pass totals are the rows whose file
+   * is "*", and each file's total is the row whose pass is "*".
+   */
+  static String getCsvReport() {
+    StringBuilder sb = new StringBuilder("file,pass,wall_ms,cpu_ms,allocated_bytes\n");
+    for (Map.Entry<String, Sample> entry : getPassTotals().entrySet()) {
+      appendCsvRow(sb, ALL, entry.getKey(), entry.getValue());
+    }
+    for (FileProfile profile : getSlowestFiles(TOP_FILES)) {
+      appendCsvRow(sb, profile.filename, ALL, profile.getTotal());
+      for (Map.Entry<String, Sample> entry : profile.passes.entrySet()) {
+        appendCsvRow(sb, profile.filename, entry.getKey(), entry.getValue());
+      }
+    }
+    return sb.toString();
+  }
+
+  private static void appendCsvRow(StringBuilder sb, String file, String pass, Sample sample) {
+    sb.append(csvField(file)).append(',').append(csvField(pass)).append(',')
+        .append(sample.getWallMillis()).append(',').append(sample.getCpuMillis()).append(',')
+        .append(sample.allocatedBytes).append('\n');
+  }
+
+  private static String csvField(String s) {
+    if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0) {
+      return '"' + s.replace("\"", "\"\"") + '"';
+    }
+    return s;
+  }
+
+  /**
+   * Returns the report as a JSON object.
+   */
+  static String getJsonReport() {
+    StringBuilder sb = new StringBuilder("{\n");
+    sb.append("  \"files\": ").append(files.size()).append(",\n");
+    sb.append("  \"passTotals\": ");
+    appendJsonPasses(sb, getPassTotals(), "  ");
+    sb.append(",\n  \"slowestFiles\": [");
+    String separator = "\n";
+    for (FileProfile profile : getSlowestFiles(TOP_FILES)) {
+      sb.append(separator).append("    {\"file\": ").append(jsonString(profile.filename))
+          .append(", ");
+      appendJsonSample(sb, profile.getTotal());
+      sb.append(",\n     \"passes\": ");
+      appendJsonPasses(sb, profile.passes, "     ");
+      sb.append("}");
+      separator = ",\n";
+    }
+    sb.append("\n  ]\n}\n");
+    return sb.toString();
+  }
+
+  private static void appendJsonPasses(StringBuilder sb, Map<String, Sample> passes,
+      String indent) {
+    sb.append('[');
+    String separator = "\n";
+    for (Map.Entry<String, Sample> entry : passes.entrySet()) {
+      sb.append(separator).append(indent).append("  {\"pass\": ")
+          .append(jsonString(entry.getKey())).append(", ");
+      appendJsonSample(sb, entry.getValue());
+      sb.append('}');
+      separator = ",\n";
+    }
+    sb.append('\n').append(indent).append(']');
+  }
+
+  private static void appendJsonSample(StringBuilder sb, Sample sample) {
+    sb.append("\"wallMillis\": ").append(sample.getWallMillis())
+        .append(", \"cpuMillis\": ").append(sample.getCpuMillis())
+        .append(", \"allocatedBytes\": ").append(sample.allocatedBytes);
+  }
+
+  private static String jsonString(String s) {
+    StringBuilder sb = new StringBuilder("\"");
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c == '"' || c == '\\') {
+        sb.append('\\').append(c);
+      } else if (c < ' ') {
+        sb.append(String.format("\\u%04x", (int) c));
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.append('"').toString();
+  }
+
+  private static long getCpuTime() {
+    return cpuTimeSupported ? threadBean.getCurrentThreadCpuTime() : 0L;
+  }
+
+  private static long getAllocatedBytes() {
+    return allocationSupported
+        ? ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(
+            Thread.currentThread().getId())
+        : 0L;
+  }
+
+  /**
+   * The resources used by a pass, or by several passes or files.
+   */
+  public static class Sample {
+    private long wallNanos;
+    private long cpuNanos;
+    private long allocatedBytes;
+
+    void add(Sample other) {
+      wallNanos += other.wallNanos;
+      cpuNanos += other.cpuNanos;
+      allocatedBytes += other.allocatedBytes;
+    }
+
+    public long getWallMillis() {
+      return wallNanos / 1000000;
+    }
+
+    public long getCpuMillis() {
+      return cpuNanos / 1000000;
+    }
+
+    public long getAllocatedBytes() {
+      return allocatedBytes;
+    }
+
+    private double getWallSeconds() {
+      return wallNanos / 1e9;
+    }
+
+    private double getCpuSeconds() {
+      return cpuNanos / 1e9;
+    }
+
+    private double getAllocatedMegabytes() {
+      return allocatedBytes / (1024.0 * 1024.0);
+    }
+  }
+
+  /**
+   * The passes run on one file.
+   */
+  public static class FileProfile {
+    private final String filename;
+    private final Map<String, Sample> passes = Maps.newLinkedHashMap();
+    private long lastWallTime;
+    private long lastCpuTime;
+    private long lastAllocatedBytes;
+
+    FileProfile(String filename) {
+      this.filename = filename;
+      lastWallTime = System.nanoTime();
+      lastCpuTime = getCpuTime();
+      lastAllocatedBytes = getAllocatedBytes();
+    }
+
+    void endPass(String pass) {
+      long wallTime = System.nanoTime();
+      long cpuTime = getCpuTime();
+      long allocatedBytes = getAllocatedBytes();
+      Sample sample = passes.get(pass);
+      if (sample == null) {
+        sample = new Sample();
+        passes.put(pass, sample);
+      }
+      sample.wallNanos += wallTime - lastWallTime;
+      sample.cpuNanos += cpuTime - lastCpuTime;
+      sample.allocatedBytes += allocatedBytes - lastAllocatedBytes;
+      lastWallTime = wallTime;
+      lastCpuTime = cpuTime;
+      lastAllocatedBytes = allocatedBytes;
+    }
+
+    public String getFilename() {
+      return filename;
+    }
+
+    public Map<String, Sample> getPasses() {
+      return Collections.unmodifiableMap(passes);
+    }
+
+    public Sample getTotal() {
+      Sample total = new Sample();
+      for (Sample sample : passes.values()) {
+        total.add(sample);
+      }
+      return total;
+    }
+  }
+}
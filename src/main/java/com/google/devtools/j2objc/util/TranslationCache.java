@@ -0,0 +1,352 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.util;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.Plugin;
+
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.EnumDeclaration;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * A persistent record of the files translated into an output directory,
+ * used to skip sources whose translation would not change.  Each entry
+ * records the hash of the source, the hash of the translation options,
+ * and the hashes of the sources of the types the unit was resolved against.
+ */
+public class TranslationCache {
+  public static final String MANIFEST_NAME = ".j2objc-cache";
+
+  private static final HashFunction HASH_FUNCTION = Hashing.sha1();
+  private static final String SEPARATOR = "\t";
+  private static final Splitter SPLITTER = Splitter.on(SEPARATOR);
+  private static final Joiner JOINER = Joiner.on(SEPARATOR);
+
+  private final File manifestFile;
+  private final String optionsHash;
+  private final Map<String, String> entries = Maps.newConcurrentMap();
+
+  // Dependency hashes computed by this run, as many units share supertypes.
+  private final Map<String, String> fileHashes = Maps.newConcurrentMap();
+
+  private TranslationCache(File manifestFile, String optionsHash) {
+    this.manifestFile = manifestFile;
+    this.optionsHash = optionsHash;
+  }
+
+  /**
+   * Loads the cache manifest from the specified output directory.  A missing
+   * or unreadable manifest results in an empty cache.
+   */
+  public static TranslationCache load(File outputDirectory) {
+    TranslationCache cache =
+        new TranslationCache(new File(outputDirectory, MANIFEST_NAME), hashOptions());
+    if (cache.manifestFile.exists()) {
+      Properties properties = new Properties();
+      try {
+        InputStream in = new FileInputStream(cache.manifestFile);
+        try {
+          properties.load(in);
+        } finally {
+          in.close();
+        }
+      } catch (IOException e) {
+        // Rebuild the cache.
+        return cache;
+      }
+      for (String path : properties.stringPropertyNames()) {
+        cache.entries.put(path, properties.getProperty(path));
+      }
+    }
+    return cache;
+  }
+
+  /**
+   * Writes the cache manifest.
+   */
+  public void save() throws IOException {
+    Properties properties = new Properties();
+    properties.putAll(entries);
+    manifestFile.getParentFile().mkdirs();
+    OutputStream out = new FileOutputStream(manifestFile);
+    try {
+      properties.store(out, "J2ObjC translation cache");
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Returns true if the specified source was translated with the same
+   * options, and none of its supertypes' sources have changed since.
+   */
+  public boolean isUpToDate(String path, String source) {
+    String entry = entries.get(path);
+    if (entry == null) {
+      return false;
+    }
+    // A malformed entry, such as one truncated by a hand edit, never matches.
+    Iterator<String> fields = SPLITTER.split(entry).iterator();
+    if (!fields.hasNext() || !fields.next().equals(hashSource(source))
+        || !fields.hasNext() || !fields.next().equals(optionsHash)) {
+      return false;
+    }
+    while (fields.hasNext()) {
+      String dependency = fields.next();
+      if (!fields.hasNext() || !fields.next().equals(hashFile(dependency))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Creates a cache entry for a source file.  This must be called before
+   * the unit is translated, while its bindings match the original source.
+   */
+  public String createEntry(String source, CompilationUnit unit) {
+    List<String> fields = Lists.newArrayList(hashSource(source), optionsHash);
+    for (String dependency : findDependencies(unit)) {
+      fields.add(dependency);
+      fields.add(hashFile(dependency));
+    }
+    return JOINER.join(fields);
+  }
+
+  /**
+   * Records the entry of a successfully translated source file.
+   */
+  public void update(String path, String entry) {
+    entries.put(path, entry);
+  }
+
+  /**
+   * Returns the source files on the sourcepath that declare the types the
+   * unit was resolved against: the supertypes of its types, including its
+   * inner and anonymous classes, and the types whose names, fields and
+   * methods it references.  A change to any of them, such as a field's type
+   * or a new overload, can change the unit's translation.
+   */
+  private static Set<String> findDependencies(CompilationUnit unit) {
+    final Set<ITypeBinding> types = Sets.newHashSet();
+    unit.accept(new ASTVisitor() {
+      @Override
+      public boolean visit(TypeDeclaration node) {
+        addSupertypes(node.resolveBinding(), types);
+        return true;
+      }
+
+      @Override
+      public boolean visit(EnumDeclaration node) {
+        addSupertypes(node.resolveBinding(), types);
+        return true;
+      }
+
+      @Override
+      public boolean visit(AnonymousClassDeclaration node) {
+        addSupertypes(node.resolveBinding(), types);
+        return true;
+      }
+
+      @Override
+      public boolean visit(SimpleName node) {
+        IBinding binding = node.resolveBinding();
+        if (binding instanceof ITypeBinding) {
+          addType((ITypeBinding) binding, types);
+        } else if (binding instanceof IVariableBinding) {
+          // Local variables don't have declaring classes.
+          addType(((IVariableBinding) binding).getDeclaringClass(), types);
+        } else if (binding instanceof IMethodBinding) {
+          addType(((IMethodBinding) binding).getDeclaringClass(), types);
+        }
+        return true;
+      }
+    });
+
+    Set<String> unitTypes = Sets.newHashSet();
+    @SuppressWarnings("unchecked")
+    List<AbstractTypeDeclaration> declarations = unit.types(); // safe by definition
+    for (AbstractTypeDeclaration declaration : declarations) {
+      ITypeBinding binding = declaration.resolveBinding();
+      if (binding != null) {
+        unitTypes.add(binding.getQualifiedName());
+      }
+    }
+
+    Set<String> dependencies = Sets.newTreeSet();
+    for (ITypeBinding type : types) {
+      while (type.getDeclaringClass() != null) {
+        type = type.getDeclaringClass();
+      }
+      // Binary types are hashed with the classpath, in the options.
+      if (!type.isFromSource() || type.getPackage() == null
+          || unitTypes.contains(type.getQualifiedName())) {
+        continue;
+      }
+      String pkg = type.getPackage().getName();
+      String path = pkg.isEmpty() ? type.getName() + ".java"
+          : pkg.replace('.', File.separatorChar) + File.separatorChar + type.getName() + ".java";
+      for (String entry : Options.getSourcePathEntries()) {
+        File f = new File(entry, path);
+        if (f.isFile()) {
+          dependencies.add(f.getAbsolutePath());
+          break;
+        }
+      }
+    }
+    return dependencies;
+  }
+
+  private static void addType(ITypeBinding type, Set<ITypeBinding> types) {
+    if (type == null) {
+      return;
+    }
+    if (type.isArray()) {
+      type = type.getElementType();
+    }
+    if (!type.isPrimitive() && !type.isTypeVariable()) {
+      types.add(type.getErasure());
+    }
+  }
+
+  private static void addSupertypes(ITypeBinding type, Set<ITypeBinding> supertypes) {
+    if (type == null) {
+      return;
+    }
+    ITypeBinding superclass = type.getSuperclass();
+    if (superclass != null && supertypes.add(superclass.getErasure())) {
+      addSupertypes(superclass, supertypes);
+    }
+    for (ITypeBinding intrface : type.getInterfaces()) {
+      if (supertypes.add(intrface.getErasure())) {
+        addSupertypes(intrface, supertypes);
+      }
+    }
+  }
+
+  private String hashFile(String path) {
+    String hash = fileHashes.get(path);
+    if (hash == null) {
+      try {
+        hash = Files.hash(new File(path), HASH_FUNCTION).toString();
+      } catch (IOException e) {
+        // A missing dependency never matches its entry.
+        hash = "";
+      }
+      fileHashes.put(path, hash);
+    }
+    return hash;
+  }
+
+  private static String hashSource(String source) {
+    return HASH_FUNCTION.hashString(source, Charsets.UTF_8).toString();
+  }
+
+  /**
+   * Hashes the options that affect the generated files, including the
+   * optimization flags and the binding and devirtualization report options,
+   * since a skipped unit is neither verified nor reported.  Archives on the
+   * class and source paths are included by size and modification time, as
+   * their contents aren't tracked per type.
+   */
+  private static String hashOptions() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(Options.getLanguage()).append('\n');
+    sb.append(Options.getMemoryManagementOption()).append('\n');
+    sb.append(Options.emitLineDirectives()).append(Options.memoryDebug())
+        .append(Options.generateNativeStubs()).append(Options.inlineFieldAccess())
+        .append(Options.generateTestMain()).append(Options.usePackageDirectories())
+        .append(Options.acceptJsniDelimiters()).append(Options.ignoreMissingImports())
+        .append('\n');
+    sb.append(Options.eliminateNilChecks()).append(Options.directArrayAccess())
+        .append(Options.fastEnumeration()).append(Options.devirtualize())
+        .append(Options.typedStringConcatenation()).append(Options.hoistStringLiterals())
+        .append(Options.staticArrayInitializers()).append(Options.staticFieldGlobals())
+        .append(Options.cachedTypeChecks()).append(Options.fastMonitors())
+        .append(Options.eliminateDeadCodeInMemory()).append(Options.lazyBindings())
+        .append('\n');
+    sb.append(Options.getVerificationLevel()).append('\n');
+    sb.append(Options.getDevirtualizationReportFile()).append('\n');
+    sb.append(Options.getFileHeader()).append('\n');
+    appendMap(sb, Options.getPackagePrefixes());
+    appendMap(sb, Options.getMethodMappings());
+    appendMap(sb, Options.getCompilerOptions());
+    for (Plugin plugin : Options.getPlugins()) {
+      sb.append(plugin.getClass().getName()).append('\n');
+    }
+    sb.append(Options.getPluginOptionString()).append('\n');
+    File usageFile = Options.getProGuardUsageFile();
+    if (usageFile != null) {
+      appendFile(sb, usageFile);
+    }
+    for (String entry : Options.getClassPathEntries()) {
+      appendFile(sb, new File(entry));
+    }
+    for (String entry : Options.getSourcePathEntries()) {
+      File f = new File(entry);
+      if (f.isFile()) {
+        appendFile(sb, f);
+      }
+    }
+    return HASH_FUNCTION.hashString(sb, Charsets.UTF_8).toString();
+  }
+
+  private static void appendMap(StringBuilder sb, Map<String, String> map) {
+    if (map != null) {
+      SortedMap<String, String> sorted = Maps.newTreeMap();
+      sorted.putAll(map);
+      for (Map.Entry<String, String> entry : sorted.entrySet()) {
+        sb.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+      }
+    }
+    sb.append('\n');
+  }
+
+  private static void appendFile(StringBuilder sb, File f) {
+    sb.append(f.getAbsolutePath()).append(':').append(f.length()).append(':')
+        .append(f.lastModified()).append('\n');
+  }
+}
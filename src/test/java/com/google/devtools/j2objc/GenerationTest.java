@@ -63,11 +63,15 @@ public abstract class GenerationTest extends TestCase {
   @Override
   protected void setUp() throws IOException {
     tempDir = createTempDir();
+    loadOptions();
+    lastLog = "";
+  }
+
+  private void loadOptions() throws IOException {
     Options.load(new String[] {
       "-d", tempDir.getAbsolutePath(),
       "--mem-debug" // Run tests with memory debugging by default.
     });
-    lastLog = "";
   }
 
   @Override
@@ -333,6 +337,21 @@ public abstract class GenerationTest extends TestCase {
     Files.write(source, file, Charset.defaultCharset());
   }
 
+  /**
+   * Translates source files as the j2objc command does with the specified
+   * arguments, then restores the test's options.
+   *
+   * @return the number of errors reported
+   */
+  protected int runTranslator(String... args) throws IOException {
+    try {
+      return J2ObjC.run(args);
+    } finally {
+      Options.reset();
+      loadOptions();
+    }
+  }
+
   /**
    * Return the contents of a previously translated file, made by a call to
    * {@link #translateMethod} above.
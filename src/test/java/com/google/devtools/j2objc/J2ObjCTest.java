@@ -0,0 +1,139 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link J2ObjC}, translating whole source sets from the command
+ * line.
+ */
+public class J2ObjCTest extends GenerationTest {
+
+  private static final String[] SOURCES = {
+    "Shape.java",
+    "abstract class Shape implements Comparable<Shape> { "
+        + "  static int count; "
+        + "  Shape() { count++; } "
+        + "  abstract double area(); "
+        + "  public int compareTo(Shape other) { return Double.compare(area(), other.area()); } }",
+    "Circle.java",
+    "class Circle extends Shape { "
+        + "  private final double r; "
+        + "  Circle(double r) { this.r = r; } "
+        + "  double area() { return Math.PI * r * r; } }",
+    "Square.java",
+    "class Square extends Shape { "
+        + "  private final double side; "
+        + "  Square(double side) { this.side = side; } "
+        + "  double area() { return side * side; } "
+        + "  Color color() { return Color.RED; } }",
+    "Color.java",
+    "enum Color { RED, GREEN { String label() { return \"g\"; } }; "
+        + "  String label() { return name(); } }",
+    "Canvas.java",
+    "import java.util.*; "
+        + "class Canvas { "
+        + "  static final List<Shape> SHAPES = new ArrayList<Shape>(); "
+        + "  class Layer { Shape top() { return SHAPES.get(0); } } "
+        + "  Runnable sorter() { "
+        + "    return new Runnable() { public void run() { Collections.sort(SHAPES); } }; } "
+        + "  double total() { double sum = 0; "
+        + "    for (Shape s : SHAPES) { sum += s.area(); } return sum; } "
+        + "  static { SHAPES.add(new Circle(1)); SHAPES.add(new Square(2)); } }",
+  };
+
+  private static final String BROKEN_SOURCE = "class Broken { void m() { int x = ; } }";
+
+  /**
+   * Verifies that translating with several threads generates the same
+   * files as a serial translation.
+   */
+  public void testParallelTranslationMatchesSerial() throws IOException {
+    List<String> paths = addSources();
+    File serialDir = translate(paths, "-j", "1");
+    File parallelDir = translate(paths, "-j", "4");
+    assertSameOutput(serialDir, parallelDir, paths.size() * 2);
+  }
+
+  /**
+   * Verifies that batch translation generates the same files as a
+   * translation that parses each file separately, and that it reports the
+   * same errors for a file that doesn't parse.
+   */
+  public void testBatchTranslationMatchesPerFile() throws IOException {
+    List<String> paths = addSources();
+    addSourceFile(BROKEN_SOURCE, "Broken.java");
+    paths.add(new File(tempDir, "Broken.java").getPath());
+
+    File perFileDir = new File(tempDir, "perfile");
+    int perFileErrors = runTranslator(translatorArgs(perFileDir, paths));
+    File batchDir = new File(tempDir, "batch");
+    List<String> batchArgs = Lists.newArrayList("--batch-translate");
+    batchArgs.addAll(Arrays.asList(translatorArgs(batchDir, paths)));
+    int batchErrors = runTranslator(batchArgs.toArray(new String[0]));
+
+    assertTrue(perFileErrors > 0);
+    assertEquals(perFileErrors, batchErrors);
+    assertFalse(new File(perFileDir, "Broken.m").exists());
+    assertFalse(new File(batchDir, "Broken.m").exists());
+    assertSameOutput(perFileDir, batchDir, (paths.size() - 1) * 2);
+  }
+
+  private List<String> addSources() throws IOException {
+    List<String> paths = Lists.newArrayList();
+    for (int i = 0; i < SOURCES.length; i += 2) {
+      addSourceFile(SOURCES[i + 1], SOURCES[i]);
+      paths.add(new File(tempDir, SOURCES[i]).getPath());
+    }
+    return paths;
+  }
+
+  private File translate(List<String> paths, String... options) throws IOException {
+    File outputDir = new File(tempDir, "out" + Arrays.toString(options).hashCode());
+    List<String> args = Lists.newArrayList(options);
+    args.addAll(Arrays.asList(translatorArgs(outputDir, paths)));
+    assertEquals(0, runTranslator(args.toArray(new String[0])));
+    return outputDir;
+  }
+
+  private String[] translatorArgs(File outputDir, List<String> paths) {
+    List<String> args = Lists.newArrayList(
+        "-q", "-d", outputDir.getPath(), "-sourcepath", tempDir.getPath());
+    args.addAll(paths);
+    return args.toArray(new String[0]);
+  }
+
+  private void assertSameOutput(File expectedDir, File actualDir, int expectedCount)
+      throws IOException {
+    String[] names = expectedDir.list();
+    Arrays.sort(names);
+    String[] actualNames = actualDir.list();
+    Arrays.sort(actualNames);
+    assertEquals(Arrays.asList(names), Arrays.asList(actualNames));
+    assertEquals(expectedCount, names.length);
+    for (String name : names) {
+      assertTrue("different output for " + name, Arrays.equals(
+          Files.toByteArray(new File(expectedDir, name)),
+          Files.toByteArray(new File(actualDir, name))));
+    }
+  }
+}
@@ -29,6 +29,10 @@ public class OptionsTest extends GenerationTest {
   @Override
   protected void tearDown() throws Exception {
     Options.clearPackagePrefixes();
+    Options.setThreadCount(1);
+    Options.setBatchTranslate(false);
+    Options.setVerificationLevel(Options.VerificationLevel.FINAL);
+    Options.setEnableAssertions(true);
   }
 
   public void testMemDebug() throws IOException {
@@ -65,4 +69,28 @@ public class OptionsTest extends GenerationTest {
     assertEquals("JL", prefixMap.get("java.lang"));
     assertEquals("FB", prefixMap.get("foo.bar"));
   }
+
+  public void testThreadCount() throws IOException {
+    assertEquals(1, Options.getThreadCount());
+    String[] files = Options.load(new String[] { "-j", "4", "Test.java" });
+    assertEquals(4, Options.getThreadCount());
+    assertEquals(1, files.length);
+    assertEquals("Test.java", files[0]);
+  }
+
+  public void testBatchTranslate() throws IOException {
+    assertFalse(Options.batchTranslate());
+    Options.load(new String[] { "--batch-translate", "Test.java" });
+    assertTrue(Options.batchTranslate());
+  }
+
+  public void testVerificationLevel() throws IOException {
+    assertEquals(Options.VerificationLevel.FINAL, Options.getVerificationLevel());
+    assertTrue(Options.enableAssertions());
+    Options.load(new String[] { "--verify-bindings", "all", "--no-assertions", "Test.java" });
+    assertEquals(Options.VerificationLevel.ALL_PASSES, Options.getVerificationLevel());
+    assertFalse(Options.enableAssertions());
+    Options.load(new String[] { "--verify-bindings", "off", "Test.java" });
+    assertEquals(Options.VerificationLevel.OFF, Options.getVerificationLevel());
+  }
 }
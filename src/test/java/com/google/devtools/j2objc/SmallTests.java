@@ -27,13 +27,20 @@ import com.google.devtools.j2objc.gen.PrimitiveArrayTest;
 import com.google.devtools.j2objc.gen.StatementGeneratorTest;
 import com.google.devtools.j2objc.sym.ScopeTest;
 import com.google.devtools.j2objc.translate.AnonymousClassConverterTest;
+import com.google.devtools.j2objc.translate.ArrayInitializerHoisterTest;
 import com.google.devtools.j2objc.translate.AutoboxerTest;
 import com.google.devtools.j2objc.translate.DeadCodeEliminatorTest;
 import com.google.devtools.j2objc.translate.DestructorGeneratorTest;
+import com.google.devtools.j2objc.translate.DevirtualizerTest;
+import com.google.devtools.j2objc.translate.DirectArrayAccessResolverTest;
 import com.google.devtools.j2objc.translate.InitializationNormalizerTest;
 import com.google.devtools.j2objc.translate.InnerClassExtractorTest;
 import com.google.devtools.j2objc.translate.JavaToIOSMethodTranslatorTest;
+import com.google.devtools.j2objc.translate.MethodMappingCacheTest;
+import com.google.devtools.j2objc.translate.NilCheckResolverTest;
 import com.google.devtools.j2objc.translate.RewriterTest;
+import com.google.devtools.j2objc.translate.StringLiteralHoisterTest;
+import com.google.devtools.j2objc.translate.TypeCheckResolverTest;
 import com.google.devtools.j2objc.types.BindingMapBuilderTest;
 import com.google.devtools.j2objc.types.ImplementationImportCollectorTest;
 import com.google.devtools.j2objc.types.ModifiedTypeBindingTest;
@@ -43,6 +50,9 @@ import com.google.devtools.j2objc.util.DeadCodeMapTest;
 import com.google.devtools.j2objc.util.ErrorReportingASTVisitorTest;
 import com.google.devtools.j2objc.util.NameTableTest;
 import com.google.devtools.j2objc.util.ProGuardUsageParserTest;
+import com.google.devtools.j2objc.util.SourcePathIndexTest;
+import com.google.devtools.j2objc.util.TimingProfileTest;
+import com.google.devtools.j2objc.util.TranslationCacheTest;
 import com.google.devtools.j2objc.util.UnicodeUtilsTest;
 
 import junit.framework.Test;
@@ -59,20 +69,26 @@ public class SmallTests {
     AnonymousClassConverterTest.class,
     ArrayAccessTest.class,
     ArrayCreationTest.class,
+    ArrayInitializerHoisterTest.class,
     AutoboxerTest.class,
     BindingMapBuilderTest.class,
     DeadCodeEliminatorTest.class,
     DeadCodeMapTest.class,
     DestructorGeneratorTest.class,
+    DevirtualizerTest.class,
+    DirectArrayAccessResolverTest.class,
     ErrorReportingASTVisitorTest.class,
     HiddenFieldDetectorTest.class,
     ImplementationImportCollectorTest.class,
     InitializationNormalizerTest.class,
     InnerClassExtractorTest.class,
+    J2ObjCTest.class,
     JavaToIOSMethodTranslatorTest.class,
     LineDirectivesTest.class,
+    MethodMappingCacheTest.class,
     ModifiedTypeBindingTest.class,
     NameTableTest.class,
+    NilCheckResolverTest.class,
     ObjectiveCHeaderGeneratorTest.class,
     ObjectiveCImplementationGeneratorTest.class,
     ObjectiveCSourceFileGeneratorTest.class,
@@ -82,7 +98,13 @@ public class SmallTests {
     RenamedTypeBindingTest.class,
     RewriterTest.class,
     ScopeTest.class,
+    SourcePathIndexTest.class,
     StatementGeneratorTest.class,
+    StringLiteralHoisterTest.class,
+    TimingProfileTest.class,
+    TranslationCacheTest.class,
+    TranslationServerTest.class,
+    TypeCheckResolverTest.class,
     TypesTest.class,
     UnicodeUtilsTest.class
   };
@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link TranslationServer}.
+ */
+public class TranslationServerTest extends GenerationTest {
+
+  public void testResolveArguments() throws IOException {
+    addSourceFile("class Foo {}", "Foo.java");
+    String dir = tempDir.getPath();
+    String[] args = TranslationServer.resolveArguments(new String[] {
+        "-sourcepath", "src:/abs/src", "-d", "out", "-j", "2", "--prefix", "foo=F",
+        "-Xbootclasspath:boot.jar", "Foo.java", "p/Bar.java" }, tempDir);
+    List<String> expected = Arrays.asList(
+        "-classpath", dir, "-d", dir, "-sourcepath", dir,
+        "-sourcepath", new File(tempDir, "src").getPath() + ":/abs/src",
+        "-d", new File(tempDir, "out").getPath(), "-j", "2", "--prefix", "foo=F",
+        "-Xbootclasspath:" + new File(tempDir, "boot.jar").getPath(),
+        new File(tempDir, "Foo.java").getPath(),
+        "p/Bar.java");  // Not in the working directory, so left for the sourcepath.
+    assertEquals(expected, Arrays.asList(args));
+  }
+
+  public void testNoAssertionsIsRejected() {
+    PrintStream errStream = System.err;
+    Options.setExitOnError(false);
+    try {
+      System.setErr(new PrintStream(new ByteArrayOutputStream()));
+      TranslationServer.resolveArguments(
+          new String[] { "--no-assertions", "Foo.java" }, tempDir);
+      fail("--no-assertions was accepted");
+    } catch (Options.ExitException e) {
+      assertEquals(1, e.getStatus());
+    } finally {
+      System.setErr(errStream);
+      Options.setExitOnError(true);
+    }
+  }
+}
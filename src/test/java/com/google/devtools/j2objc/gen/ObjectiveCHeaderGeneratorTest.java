@@ -17,6 +17,7 @@
 package com.google.devtools.j2objc.gen;
 
 import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.util.NameTable;
 
 import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
@@ -480,4 +481,35 @@ public class ObjectiveCHeaderGeneratorTest extends GenerationTest {
     assertTranslation(translation, "@property (nonatomic, assign) FooBar_Internal *fieldBar;");
     assertTranslation(translation, "@property (nonatomic, retain) FooBar_Internal *fieldFoo;");
   }
+
+  public void testStaticFieldGlobalDeclarations() throws IOException {
+    Options.setStaticFieldGlobals(true);
+    try {
+      String translation = translateSourceFile(
+          "public class Example { static final int K = 1; static final String S = \"s\"; "
+          + "static int count; private static Object obj; }",
+          "Example", "Example.h");
+      assertTranslation(translation, "FOUNDATION_EXPORT BOOL Example_initialized;");
+      assertTranslation(translation, "FOUNDATION_EXPORT NSString *Example_S_;");
+      assertTranslation(translation, "FOUNDATION_EXPORT int Example_count_;");
+      assertTranslation(translation, "FOUNDATION_EXPORT id Example_obj_;");
+      assertTranslation(translation, "#define Example_K 1");
+      assertFalse(translation.contains("Example_K;"));
+    } finally {
+      Options.setStaticFieldGlobals(false);
+    }
+  }
+
+  public void testConstantStaticGlobalsDontNeedInitializedFlag() throws IOException {
+    Options.setStaticFieldGlobals(true);
+    try {
+      String translation = translateSourceFile(
+          "public class Example { static final String S = \"s\"; }",
+          "Example", "Example.h");
+      assertTranslation(translation, "FOUNDATION_EXPORT NSString *Example_S_;");
+      assertFalse(translation.contains("Example_initialized"));
+    } finally {
+      Options.setStaticFieldGlobals(false);
+    }
+  }
 }
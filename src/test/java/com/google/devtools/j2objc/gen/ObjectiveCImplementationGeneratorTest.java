@@ -534,6 +534,27 @@ public class ObjectiveCImplementationGeneratorTest extends GenerationTest {
         "  @synchronized([self class]) {");
   }
 
+  public void testFastMonitorSynchronizedMethods() throws IOException {
+    Options.setFastMonitors(true);
+    try {
+      String translation = translateSourceFile(
+          "public class Test { int n; synchronized void inc() { n++; } "
+          + "static synchronized int get() { return 1; } }",
+          "Test", "Test.m");
+      assertTranslation(translation, "- (void)inc {\n"
+          + "  JreMonitor *monitor__ = JreMonitorEnter(self);\n"
+          + "  @try {\n    n_++;\n  }\n"
+          + "  @finally {\n    JreMonitorExit(monitor__);\n  }\n}");
+      assertTranslation(translation, "+ (int)get {\n"
+          + "  JreMonitor *monitor__ = JreMonitorEnter([self class]);\n"
+          + "  @try {\n    return 1;\n  }\n"
+          + "  @finally {\n    JreMonitorExit(monitor__);\n  }\n}");
+      assertFalse(translation.contains("@synchronized"));
+    } finally {
+      Options.setFastMonitors(false);
+    }
+  }
+
   public void testNoGenMethodStubs() throws IOException {
     String translation = translateSourceFile(
         "public class Example { native void method(int i); }",
@@ -562,4 +583,35 @@ public class ObjectiveCImplementationGeneratorTest extends GenerationTest {
       Options.setGenerateNativeStubs(false);  // Restore default value.
     }
   }
+
+  public void testStaticFieldGlobalDefinitions() throws IOException {
+    Options.setStaticFieldGlobals(true);
+    try {
+      String translation = translateSourceFile(
+          "public class Example { static final String S = \"s\"; "
+          + "static Object obj = new Object(); }",
+          "Example", "Example.m");
+      assertTranslation(translation, "BOOL Example_initialized = NO;");
+      assertTranslation(translation, "\nNSString * Example_S_ = @\"s\";");
+      assertTranslation(translation, "\nid Example_obj_;");
+      assertFalse(translation.contains("static id Example_obj_;"));
+      assertTranslation(translation, "J2OBJC_SET_INITIALIZED(Example);\n  }\n}");
+    } finally {
+      Options.setStaticFieldGlobals(false);
+    }
+  }
+
+  public void testStaticFieldGlobalsWithoutInitializer() throws IOException {
+    Options.setStaticFieldGlobals(true);
+    try {
+      String translation = translateSourceFile(
+          "public class Example extends java.util.ArrayList { static int count; }",
+          "Example", "Example.m");
+      assertTranslation(translation, "int Example_count_;");
+      assertTranslation(translation, "+ (void)initialize {\n  if (self == [Example class]) {\n"
+          + "    J2OBJC_SET_INITIALIZED(Example);\n  }\n}");
+    } finally {
+      Options.setStaticFieldGlobals(false);
+    }
+  }
 }
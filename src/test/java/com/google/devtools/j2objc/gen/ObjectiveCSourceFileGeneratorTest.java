@@ -16,11 +16,14 @@
 
 package com.google.devtools.j2objc.gen;
 
+import com.google.common.io.Files;
 import com.google.devtools.j2objc.GenerationTest;
 import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.util.NameTable;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.Charset;
 
 /**
  * Tests for {@link ObjectiveCSourceFileGenerator}.
@@ -29,6 +32,12 @@ import java.io.IOException;
  */
 public class ObjectiveCSourceFileGeneratorTest extends GenerationTest {
 
+  @Override
+  protected void tearDown() throws Exception {
+    Options.setWriteIfChanged(false);
+    super.tearDown();
+  }
+
   public void testCamelCaseQualifiedName() {
     String camelCaseName = NameTable.camelCaseQualifiedName("java.lang.Object");
     assertEquals("JavaLangObject", camelCaseName);
@@ -71,4 +80,29 @@ public class ObjectiveCSourceFileGeneratorTest extends GenerationTest {
     assertTranslation(translation, "ocni();");
     assertFalse(translation.contains("jsni();"));
   }
+
+  public void testWriteIfChanged() throws IOException {
+    String source = "class Example { int i; }";
+    translateSourceFile(source, "Example", "Example.h");
+    File header = new File(tempDir, "Example.h");
+    File implementation = new File(tempDir, "Example.m");
+    assertTrue(header.setLastModified(1000L));
+    assertTrue(implementation.setLastModified(1000L));
+
+    // Unchanged files aren't written, even if their headers' dates differ.
+    String oldHeader = getTranslatedFile("Example.h").replaceFirst(" on .*\\.\n", " on 1/1/70.\n");
+    Files.write(oldHeader, header, Charset.defaultCharset());
+    assertTrue(header.setLastModified(1000L));
+    Options.setWriteIfChanged(true);
+    translateSourceFile(source, "Example", "Example.h");
+    assertEquals(1000L, header.lastModified());
+    assertEquals(1000L, implementation.lastModified());
+    assertEquals(oldHeader, getTranslatedFile("Example.h"));
+
+    // Changed files are written.
+    translateSourceFile("class Example { int j; }", "Example", "Example.h");
+    assertTrue(header.lastModified() != 1000L);
+    assertTrue(implementation.lastModified() != 1000L);
+    assertTranslation(getTranslatedFile("Example.h"), "int j_;");
+  }
 }
@@ -16,7 +16,9 @@
 
 package com.google.devtools.j2objc.gen;
 
+import com.google.common.collect.Lists;
 import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.J2ObjC;
 import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.Options.MemoryManagementOption;
 
@@ -35,6 +37,10 @@ public class StatementGeneratorTest extends GenerationTest {
   @Override
   protected void tearDown() throws Exception {
     Options.resetMemoryManagementOption();
+    Options.setTypedStringConcatenation(false);
+    Options.setStaticFieldGlobals(false);
+    Options.setFastMonitors(false);
+    Options.setFastEnumeration(false);
     super.tearDown();
   }
 
@@ -353,6 +359,92 @@ public class StatementGeneratorTest extends GenerationTest {
         "(int) [NIL_CHK(a) length]]");
   }
 
+  public void testTypedStringConcatenation() throws IOException {
+    Options.setTypedStringConcatenation(true);
+    String translation = translateSourceFile(
+      "public class Example<K,V> { Object obj; boolean b; char c; double d; float f; int i; " +
+      "long l; short s; String str; public String toString() { " +
+      "return \"obj=\" + obj + \" b=\" + b + \" c=\" + c + \" d=\" + d + \" f=\" + f" +
+      " + \" i=\" + i + \" l=\" + l + \" s=\" + s + \" str=\" + str + str; }}",
+      "Example", "Example.m");
+    assertTranslation(translation,
+        "return JreStrcat(\"$@$Z$C$D$F$I$J$I$$$\", @\"obj=\", obj_, @\" b=\", b_, " +
+        "@\" c=\", c_, @\" d=\", d_, @\" f=\", f_, @\" i=\", i_, @\" l=\", l_, " +
+        "@\" s=\", s_, @\" str=\", str_, str_);");
+  }
+
+  public void testTypedStringConcatenationLiterals() throws IOException {
+    Options.setTypedStringConcatenation(true);
+    String translation = translateSourceFile(
+        "public class Test { String test(String a) { " +
+        "  String b = \"foo\" + a.length() + \"50% \" + 'c' + 1; " +
+        "  return \"hello, \" + \"world\" + b; } }",
+        "Test", "Test.m");
+    assertTranslation(translation,
+        "NSString *b = JreStrcat(\"$I$\", @\"foo\", (int) [NIL_CHK(a) length], @\"50% c1\");");
+    assertTranslation(translation, "return JreStrcat(\"$$\", @\"hello, world\", b);");
+  }
+
+  public void testTypedStringConcatenationConstant() throws IOException {
+    Options.setTypedStringConcatenation(true);
+    String translation = translateSourceFile(
+      "public class Example<K,V> { String s = \"hello, \" + 50 + \"% of the world\\n\"; }",
+      "Example", "Example.m");
+    assertTranslation(translation,
+        "JreOperatorRetainedAssign(&s_, @\"hello, 50% of the world\\n\")");
+  }
+
+  public void testStaticFieldGlobals() throws IOException {
+    Options.setStaticFieldGlobals(true);
+    String translation = translateSourceFile(
+      "public class Example { static final String S = \"s\"; static int count; "
+      + "static Object obj; static int next() { return count++; } "
+      + "static class Inner { int test() { count += 2; Example.count = 1; "
+      + "obj = S; return count + S.length(); } } }",
+      "Example", "Example.m");
+    // The declaring class uses its variables directly.
+    assertTranslation(translation, "return Example_count_++;");
+    assertTranslation(translation, "J2OBJC_STATIC_VAR(Example, Example_count_) += 2;");
+    assertTranslation(translation, "J2OBJC_STATIC_VAR(Example, Example_count_) = 1;");
+    assertTranslation(translation,
+        "JreOperatorRetainedAssign(&J2OBJC_STATIC_VAR(Example, Example_obj_), Example_S_);");
+    assertTranslation(translation,
+        "return J2OBJC_STATIC_VAR(Example, Example_count_) + [NIL_CHK(Example_S_) length];");
+    assertFalse(translation.contains("[Example count]"));
+    assertFalse(translation.contains("[Example setCountWithInt:"));
+  }
+
+  public void testStaticFieldGlobalsOfSourcepathClass() throws IOException {
+    Options.setStaticFieldGlobals(true);
+    addSourceFile("public class Other { static int count; }", "Other.java");
+    String translation = translateSourceFile(
+      "public class Example { int test() { Other.count = 1; return Other.count; } }",
+      "Example", "Example.m");
+    // Other isn't translated in this run, so it may not have globals.
+    assertTranslation(translation, "[Other setCountWithInt:1];");
+    assertTranslation(translation, "return [Other count];");
+    assertFalse(translation.contains("Other_count_"));
+  }
+
+  public void testStaticFieldGlobalsOfTranslatedClass() throws IOException {
+    Options.setStaticFieldGlobals(true);
+    J2ObjC.addTranslatedTypeNames(Lists.newArrayList("src/Other.java"));
+    addSourceFile("public class Other { static int count; }", "Other.java");
+    String translation = translateSourceFile(
+      "public class Example { int test() { return Other.count; } }",
+      "Example", "Example.m");
+    assertTranslation(translation, "return J2OBJC_STATIC_VAR(Other, Other_count_);");
+  }
+
+  public void testStaticFieldGlobalsDisabled() throws IOException {
+    String translation = translateSourceFile(
+      "public class Example { static int count; "
+      + "static class Inner { void test() { Example.count = 1; } } }",
+      "Example", "Example.m");
+    assertTranslation(translation, "[Example setCountWithInt:1];");
+    assertFalse(translation.contains("J2OBJC_STATIC_VAR"));
+  }
+
   public void testVarargsMethodInvocation() throws IOException {
     String translation = translateSourceFile("public class Example { "
       + "public void call() { foo(null); bar(\"\", null, null); }"
@@ -1290,6 +1382,22 @@ public class StatementGeneratorTest extends GenerationTest {
     assertTranslation(translation, "@autoreleasepool {");
   }
 
+  public void testARCFastEnumerationVariableIsStrong() throws IOException {
+    Options.setMemoryManagementOption(MemoryManagementOption.ARC);
+    Options.setFastEnumeration(true);
+    String translation = translateSourceFile(
+        "import java.util.ArrayList;" +
+        "public class Test {" +
+        "  public void foo(ArrayList<String> strings) {" +
+        "    for (String s : strings) {" +
+        "      s = s.trim();" +
+        "    }" +
+        "  }" +
+        "}",
+        "Test", "Test.m");
+    assertTranslation(translation, "for (NSString *__strong s in NIL_CHK(strings)) {");
+  }
+
   public void testShiftAssignArrayElement() throws IOException {
     String translation = translateSourceFile(
         "public class Test { void test(int[] array) { " +
@@ -1392,4 +1500,40 @@ public class StatementGeneratorTest extends GenerationTest {
       "arrayWithType:[IOSClass classWithClass:[NSObject class]] count:2, " +
       "[JavaLangInteger valueOfWithInt:i], [JavaLangInteger valueOfWithInt:j] ]];");
   }
+
+  public void testSynchronizedStatement() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { int n; void test(Object o) { synchronized (o) { n++; } } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "@synchronized (o) {\n    n_++;\n  }");
+  }
+
+  public void testFastMonitorSynchronizedStatement() throws IOException {
+    Options.setFastMonitors(true);
+    String translation = translateSourceFile(
+        "public class Test { int n; int test(Object o) { "
+        + "synchronized (o) { synchronized (this) { if (n > 0) { return n; } } } return 0; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "{\n"
+        + "    JreMonitor *monitor__ = JreMonitorEnter(o);\n"
+        + "    @try {\n"
+        + "      {\n"
+        + "        JreMonitor *monitor__ = JreMonitorEnter(self);\n"
+        + "        @try {\n"
+        + "          if (n_ > 0) {\n"
+        + "            return n_;\n"
+        + "          }\n"
+        + "        }\n"
+        + "        @finally {\n"
+        + "          JreMonitorExit(monitor__);\n"
+        + "        }\n"
+        + "      }\n"
+        + "    }\n"
+        + "    @finally {\n"
+        + "      JreMonitorExit(monitor__);\n"
+        + "    }\n"
+        + "  }\n"
+        + "  return 0;");
+    assertFalse(translation.contains("@synchronized"));
+  }
 }
@@ -18,6 +18,7 @@ package com.google.devtools.j2objc.sym;
 
 import com.google.devtools.j2objc.GenerationTest;
 import com.google.devtools.j2objc.types.GeneratedVariableBinding;
+import com.google.devtools.j2objc.types.NodeCopier;
 import com.google.devtools.j2objc.types.Types;
 
 import org.eclipse.jdt.core.dom.Block;
@@ -27,6 +28,7 @@ import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.IVariableBinding;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.Statement;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 
 import java.io.IOException;
@@ -104,4 +106,53 @@ public class ScopeTest extends GenerationTest {
     VariableSymbol var = (VariableSymbol) forScope.getMembers().get(0);
     assertEquals("i", var.getName());
   }
+
+  /**
+   * Verify that rescanning a type keeps the scopes of its indexed blocks,
+   * and that an inserted block is indexed when it is scanned.
+   */
+  @SuppressWarnings("unchecked")
+  public void testScanKeepsIndexedScopes() {
+    String source = "public class Test { void foo() { for (int i = 0; i < 3; i++) { } } }";
+    CompilationUnit unit = translateType("Test", source);
+    TypeDeclaration decl = (TypeDeclaration) unit.types().get(0);
+    MethodDeclaration foo = decl.getMethods()[0];
+    List<Statement> stmts = foo.getBody().statements();
+    ForStatement stmt = (ForStatement) stmts.get(0);
+    Scope forScope = Symbols.getScope(stmt);
+    Symbols.scanAST(decl);
+    assertSame(forScope, Symbols.getScope(stmt));
+
+    Block newBlock = unit.getAST().newBlock();
+    stmts.add(newBlock);
+    Scope bodyScope = Symbols.getScope(foo.getBody());
+    assertSame(bodyScope, Symbols.getScope(newBlock));
+    Symbols.scanAST(newBlock);
+    Scope newScope = Symbols.getScope(newBlock);
+    assertNotSame(bodyScope, newScope);
+    assertSame(newBlock, newScope.getOwner());
+    assertSame(forScope, Symbols.getScope(stmt));
+  }
+
+  /**
+   * Verify that copied declarations and blocks take over their originals'
+   * scopes.
+   */
+  public void testCopiedScopes() {
+    String source = "public class Test { void foo() { for (int i = 0; i < 3; i++) { } } }";
+    CompilationUnit unit = translateType("Test", source);
+    TypeDeclaration decl = (TypeDeclaration) unit.types().get(0);
+    MethodDeclaration foo = decl.getMethods()[0];
+    ForStatement stmt = (ForStatement) foo.getBody().statements().get(0);
+    Scope methodScope = Symbols.getScope(foo);
+    Scope forScope = Symbols.getScope(stmt);
+
+    MethodDeclaration copy = NodeCopier.copySubtree(unit.getAST(), foo);
+    assertNull(Symbols.getOwnedScope(foo));
+    assertNull(Symbols.getOwnedScope(stmt));
+    assertSame(methodScope, Symbols.getOwnedScope(copy));
+    ForStatement copiedStmt = (ForStatement) copy.getBody().statements().get(0);
+    assertSame(forScope, Symbols.getScope(copiedStmt));
+    assertEquals("i", forScope.getMembers().get(0).getName());
+  }
 }
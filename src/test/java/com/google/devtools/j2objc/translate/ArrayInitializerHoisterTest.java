@@ -0,0 +1,139 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.Options;
+
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link ArrayInitializerHoister}.
+ */
+public class ArrayInitializerHoisterTest extends GenerationTest {
+
+  // Sixteen constant elements, the fewest that are hoisted.
+  private static final String ELEMENTS = "1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16";
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    Options.setStaticArrayInitializers(true);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Options.setStaticArrayInitializers(false);
+    super.tearDown();
+  }
+
+  public void testOptionDisabled() throws IOException {
+    Options.setStaticArrayInitializers(false);
+    String translation = translateSourceFile(
+        "public class Test { int[] test() { return new int[] { " + ELEMENTS + " }; } }",
+        "Test", "Test.m");
+    assertTranslation(translation,
+        "return [IOSIntArray arrayWithInts:(int[]){ " + ELEMENTS + " } count:16];");
+    assertFalse(translation.contains("arrayInitializer"));
+  }
+
+  public void testConstantInitializerIsHoisted() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { static final int N = 3; " +
+        "  int[] test() { return new int[] { " + ELEMENTS + ", -N, (char) 1 + 2 }; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "static const int Test_arrayInitializer0_[] = {\n" +
+        "  " + ELEMENTS + ",\n" +
+        "  -Test_N, (unichar) 1 + 2\n" +
+        "};");
+    assertTranslation(translation,
+        "return [IOSIntArray arrayWithInts:Test_arrayInitializer0_ count:18];");
+    assertTrue(translation.indexOf("Test_arrayInitializer0_[] =")
+        < translation.indexOf("@implementation Test"));
+  }
+
+  public void testSmallOrNonConstantInitializersAreNotHoisted() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { " +
+        "  int[] small() { return new int[] { 1, 2, 3 }; } " +
+        "  int[] nonConstant(int n) { return new int[] { " + ELEMENTS + ", n }; } " +
+        "  Object[] objects() { return new Integer[] { " + ELEMENTS + " }; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "arrayWithInts:(int[]){ 1, 2, 3 } count:3]");
+    assertTranslation(translation, "arrayWithInts:(int[]){ " + ELEMENTS + ", n } count:17]");
+    assertFalse(translation.contains("arrayInitializer"));
+  }
+
+  public void testNestedArrayInitializers() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { byte[][] test() { return new byte[][] { { " + ELEMENTS + " }, {} }; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "static const char Test_arrayInitializer0_[] = {");
+    assertTranslation(translation,
+        "[IOSByteArray arrayWithBytes:Test_arrayInitializer0_ count:16]");
+  }
+
+  public void testReadOnlyFieldWithAccessorIsCopied() throws IOException {
+    // The field's generated accessor is declared in the header, so native
+    // code can write its elements.
+    String translation = translateSourceFile(
+        "public class Test { private static final long[] TABLE = { " + ELEMENTS + " }; " +
+        "  long test(int i) { return TABLE[i] + Test.TABLE[0] + TABLE.length; } }",
+        "Test", "Test.h");
+    assertTranslation(translation, "+ (IOSLongArray *)TABLE;");
+    translation = getTranslatedFile("Test.m");
+    assertTranslation(translation, "static const long long int Test_arrayInitializer0_[] = {");
+    assertTranslation(translation, "JreOperatorRetainedAssign(&Test_TABLE_, " +
+        "[IOSLongArray arrayWithLongs:Test_arrayInitializer0_ count:16]);");
+    assertFalse(translation.contains("NoCopy"));
+  }
+
+  public void testWrittenFieldIsCopied() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { private static final int[] TABLE = { " + ELEMENTS + " }; " +
+        "  void test() { TABLE[0]++; } }",
+        "Test", "Test.m");
+    assertTranslation(translation,
+        "[IOSIntArray arrayWithInts:Test_arrayInitializer0_ count:16]");
+    assertFalse(translation.contains("NoCopy"));
+  }
+
+  public void testEscapingFieldIsCopied() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { private static final int[] TABLE = { " + ELEMENTS + " }; " +
+        "  int[] test() { return TABLE; } }",
+        "Test", "Test.m");
+    assertTranslation(translation,
+        "[IOSIntArray arrayWithInts:Test_arrayInitializer0_ count:16]");
+    assertFalse(translation.contains("NoCopy"));
+  }
+
+  public void testNonPrivateFieldIsCopied() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { static final int[] TABLE = { " + ELEMENTS + " }; }",
+        "Test", "Test.m");
+    assertTranslation(translation,
+        "[IOSIntArray arrayWithInts:Test_arrayInitializer0_ count:16]");
+    assertFalse(translation.contains("NoCopy"));
+  }
+
+  public void testInnerClassWriteIsDetected() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { private static final int[] TABLE = { " + ELEMENTS + " }; " +
+        "  static class Inner { void test() { TABLE[0] = 1; } } }",
+        "Test", "Test.m");
+    assertFalse(translation.contains("NoCopy"));
+  }
+}
@@ -16,6 +16,7 @@
 
 package com.google.devtools.j2objc.translate;
 
+import com.google.common.io.Files;
 import com.google.devtools.j2objc.GenerationTest;
 import com.google.devtools.j2objc.J2ObjC;
 import com.google.devtools.j2objc.Options;
@@ -23,6 +24,9 @@ import com.google.devtools.j2objc.util.DeadCodeMap;
 
 import org.eclipse.jdt.core.dom.CompilationUnit;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.regex.Pattern;
 
 /**
@@ -35,6 +39,7 @@ public class DeadCodeEliminatorTest extends GenerationTest {
   @Override
   public void tearDown() throws Exception {
     Options.setDeadCodeMap(null);
+    Options.setEliminateDeadCodeInMemory(false);
     super.tearDown();
   }
 
@@ -552,4 +557,42 @@ public class DeadCodeEliminatorTest extends GenerationTest {
       fail("Expected: " + code + " should have been removed from translation: " + translation);
     }
   }
+
+  public void testEliminateDeadCodeInMemory() throws IOException {
+    String source = "class A {\n" +
+        "  int deadField;\n" +
+        "  void deadMethod() {}\n" +
+        "  void liveMethod() {}\n" +
+        "}\n";
+    DeadCodeMap map = DeadCodeMap.builder()
+        .addDeadMethod("A", "deadMethod", "()V")
+        .addDeadField("A", "deadField")
+        .build();
+    Options.setDeadCodeMap(map);
+    Options.setEliminateDeadCodeInMemory(true);
+    String translation = translateSourceFile(source, "A", "A.m");
+    assertFalse(translation.contains("deadMethod"));
+    assertFalse(translation.contains("deadField"));
+    assertTranslation(translation, "- (void)liveMethod");
+
+    // Stubs of dead methods and generated constructors don't have bindings,
+    // so these files are translated from their rewritten sources.
+    addSourceFile("interface I { void m(); }", "I.java");
+    addSourceFile("class C implements I { public void m() { m(); } }", "C.java");
+    addSourceFile("class B { B(int i) {} }", "B.java");
+    addSourceFile("class S extends B { S() { super(1); } }", "S.java");
+    File usage = new File(tempDir, "usage.txt");
+    Files.write("C:\n    public void m()\nS:\n    S()\n", usage, Charset.defaultCharset());
+    String dir = tempDir.getPath();
+    assertEquals(0, runTranslator("-q", "-d", dir, "-sourcepath", dir,
+        "--dead-code-report", usage.getPath(), "--dead-code-in-memory",
+        dir + "/I.java", dir + "/C.java", dir + "/B.java", dir + "/S.java"));
+    translation = getTranslatedFile("C.m");
+    assertTranslation(translation, "- (void)m {\n  @throw [[[JavaLangAssertionError alloc] "
+        + "initWithId:@\"Cannot invoke dead method\"] autorelease];");
+    translation = getTranslatedFile("S.m");
+    assertTranslation(translation, "if ((self = [super initWithInt:(int) 0])) {\n"
+        + "    @throw [[[JavaLangAssertionError alloc] "
+        + "initWithId:@\"Cannot invoke dead method\"] autorelease];");
+  }
 }
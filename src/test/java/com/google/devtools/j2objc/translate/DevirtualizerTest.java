@@ -0,0 +1,137 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.J2ObjC;
+import com.google.devtools.j2objc.Options;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Unit tests for {@link Devirtualizer}.
+ */
+public class DevirtualizerTest extends GenerationTest {
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    Options.setDevirtualize(true);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Options.setDevirtualize(false);
+    super.tearDown();
+  }
+
+  public void testOptionDisabled() throws IOException {
+    Options.setDevirtualize(false);
+    String translation = translateSourceFile(
+        "public class Test { private int f(int n) { return n; } int test() { return f(1); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return [self fWithInt:1];");
+    assertFalse(translation.contains("Test_fWithInt_"));
+  }
+
+  public void testPrivateMethod() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { int count; " +
+        "  private int add(int n) { count += n; return count; } " +
+        "  int test() { return add(1) + this.add(2); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "static int Test_addWithInt_(Test *self, int n);");
+    assertTranslation(translation, "static int Test_addWithInt_(Test *self, int n) {");
+    assertTranslation(translation, "self->count_ += n;");
+    assertTranslation(translation, "return self->count_;");
+    assertTranslation(translation, "return Test_addWithInt_(self, n);");
+    assertTranslation(translation,
+        "return Test_addWithInt_(self, 1) + Test_addWithInt_(self, 2);");
+  }
+
+  public void testStaticMethod() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { static int total; " +
+        "  static synchronized int twice(int n) { assert n > 0; return n * 2 + total; } " +
+        "  int test() { return twice(1) + Test.twice(2); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "static int Test_twiceWithInt_(int n) {");
+    assertTranslation(translation, "@synchronized([Test class]) {");
+    assertTranslation(translation, "NSCAssert(n > 0,");
+    assertTranslation(translation, "return n * 2 + Test_total_;");
+    assertTranslation(translation, "+ (int)twiceWithInt:(int)n {");
+    assertTranslation(translation, "return Test_twiceWithInt_(n);");
+    assertTranslation(translation,
+        "return Test_twiceWithInt_(1) + Test_twiceWithInt_(2);");
+  }
+
+  public void testOverloadedMethods() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { private void f(int i) {} private void f(String s) {} " +
+        "  void test() { f(1); f(\"a\"); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "Test_fWithInt_(self, 1);");
+    assertTranslation(translation, "Test_fWithNSString_(self, @\"a\");");
+  }
+
+  public void testFinalClassMethods() throws IOException {
+    String translation = translateSourceFile(
+        "public final class Test { int f() { return 1; } " +
+        "  public String toString() { return \"\"; } " +
+        "  String test() { return f() + toString(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "Test_f(self)");
+    assertTranslation(translation, "[self description]");
+    assertFalse(translation.contains("Test_toString"));
+  }
+
+  public void testOverridableMethodIsNotConverted() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { int f() { return 1; } int test() { return f(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return [self f];");
+    assertFalse(translation.contains("Test_f"));
+  }
+
+  public void testOtherReceiversAreNotConverted() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { private int f() { return 1; } " +
+        "  int test(Test other) { return other.f(); } " +
+        "  class Inner { int g() { return f(); } } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return [((Test *) NIL_CHK(other)) f];");
+    assertTranslation(translation, "return [this$0_ f];");
+    assertFalse(translation.contains("Test_f"));
+  }
+
+  public void testSuperCallIsNotConverted() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { private int f() { return super.hashCode(); } " +
+        "  int test() { return f(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return [self f];");
+  }
+
+  public void testConvertedCallsAreReported() throws IOException {
+    int reported = J2ObjC.getDevirtualizedCalls().size();
+    translateSourceFile(
+        "public class Test { private static int f() { return 1; } int test() { return f(); } }",
+        "Test", "Test.m");
+    List<String> calls = J2ObjC.getDevirtualizedCalls();
+    assertEquals(reported + 1, calls.size());
+    assertTrue(calls.get(calls.size() - 1).endsWith("Test.f() -> Test_f"));
+  }
+}
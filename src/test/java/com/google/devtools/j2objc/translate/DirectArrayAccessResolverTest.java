@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.Options;
+
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link DirectArrayAccessResolver}.
+ */
+public class DirectArrayAccessResolverTest extends GenerationTest {
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    Options.setDirectArrayAccess(true);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Options.setDirectArrayAccess(false);
+    super.tearDown();
+  }
+
+  public void testOptionDisabled() throws IOException {
+    Options.setDirectArrayAccess(false);
+    String translation = translateSourceFile(
+        "public class Test { int test(int[] a) { int s = 0; " +
+        "  for (int i = 0; i < a.length; i++) { s += a[i]; } return s; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "s += [((IOSIntArray *) NIL_CHK(a)) intAtIndex:i];");
+    assertFalse(translation.contains("intBuffer"));
+  }
+
+  public void testLengthBoundedLoop() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { int test(int[] a) { int s = 0; " +
+        "  for (int i = 0; i < a.length; i++) { s += a[i]; } return s; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "int *aBuffer__ = [a intBuffer];");
+    assertTranslation(translation,
+        "for (int i = 0; i < (int) [((IOSIntArray *) NIL_CHK(a)) count]; i++) {");
+    assertTranslation(translation, "s += aBuffer__[i];");
+  }
+
+  public void testEnhancedForLoop() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { double test(double[] d) { double s = 0; " +
+        "  for (double x : d) { s += x; } return s; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "double *a__Buffer__ = [a__ doubleBuffer];");
+    assertTranslation(translation, "double x = a__Buffer__[i__];");
+  }
+
+  public void testElementUpdates() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { void test(long[] a) { " +
+        "  for (int i = 0; i < a.length; ++i) { a[i] = 1; a[i] += 2; a[i]++; --a[i]; } } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "long long int *aBuffer__ = [a longBuffer];");
+    assertTranslation(translation, "aBuffer__[i] = 1;");
+    assertTranslation(translation, "aBuffer__[i] += 2;");
+    assertTranslation(translation, "aBuffer__[i]++;");
+    assertTranslation(translation, "--aBuffer__[i];");
+  }
+
+  public void testUnprovableBoundIsChecked() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { int test(int[] a) { int s = 0; " +
+        "  for (int i = 0; i <= a.length; i++) { s += a[i]; } return s; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "s += [((IOSIntArray *) NIL_CHK(a)) intAtIndex:i];");
+    assertFalse(translation.contains("intBuffer"));
+  }
+
+  public void testModifiedIndexIsChecked() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { int test(int[] a) { int s = 0; " +
+        "  for (int i = 0; i < a.length; i++) { s += a[i++]; s += a[i]; } return s; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "s += [((IOSIntArray *) NIL_CHK(a)) intAtIndex:i];");
+    assertFalse(translation.contains("intBuffer"));
+  }
+
+  public void testReassignedArrayIsChecked() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { int test(int[] a, int[] b) { int s = 0; " +
+        "  for (int i = 0; i < a.length; i++) { s += a[i]; a = b; } return s; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "s += [((IOSIntArray *) NIL_CHK(a)) intAtIndex:i];");
+    assertFalse(translation.contains("intBuffer"));
+  }
+
+  public void testObjectArrayIsNotConverted() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { int test(String[] a) { int s = 0; " +
+        "  for (int i = 0; i < a.length; i++) { s += a[i].length(); } return s; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "objectAtIndex:i]");
+    assertFalse(translation.contains("Buffer__"));
+  }
+
+  public void testFieldArrayIsNotConverted() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { int[] a; int test() { int s = 0; " +
+        "  for (int i = 0; i < a.length; i++) { s += a[i]; } return s; } }",
+        "Test", "Test.m");
+    assertFalse(translation.contains("intBuffer"));
+  }
+}
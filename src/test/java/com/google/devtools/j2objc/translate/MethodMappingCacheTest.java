@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.devtools.j2objc.GenerationTest;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link MethodMappingCache}.
+ */
+public class MethodMappingCacheTest extends GenerationTest {
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    MethodMappingCache.reset();
+  }
+
+  public void testMethodNames() {
+    Map<String, String> mappings = ImmutableMap.of(
+        "java.lang.Object.equals(Ljava/lang/Object;)Z", "NSObject isEqual:(id)anObject",
+        "java.lang.String.String([B)V", "NSString stringWithBytes:(IOSByteArray *)value",
+        "java.util.Map$Entry.getKey()Ljava/lang/Object;", "JavaUtilMap_Entry getKey");
+    assertEquals(ImmutableSet.of("equals", "String", "getKey"),
+        MethodMappingCache.getMethodNames(mappings));
+  }
+
+  public void testMappedNamesRebuiltWhenMappingsChange() {
+    Map<String, String> mappings = Maps.newHashMap();
+    mappings.put("java.lang.Object.hashCode()I", "NSObject hash");
+    assertEquals(ImmutableSet.of("hashCode"), MethodMappingCache.getMappedNames(mappings));
+    mappings.put("java.lang.Object.toString()Ljava/lang/String;", "NSObject description");
+    assertEquals(ImmutableSet.of("hashCode", "toString"),
+        MethodMappingCache.getMappedNames(mappings));
+  }
+
+  public void testDescriptionsSharedByUnits() throws IOException {
+    String translation = translateSourceFile(
+        "public class A { int test(String s) { return s.length() + s.hashCode(); } }",
+        "A", "A.m");
+    assertTranslation(translation, "return [NIL_CHK(s) length] + [NIL_CHK(s) hash];");
+    int misses = MethodMappingCache.getMissCount();
+    int hits = MethodMappingCache.getHitCount();
+    assertTrue(misses > 0);
+
+    translation = translateSourceFile(
+        "public class B { int test(String s) { return s.length() + s.hashCode(); } }",
+        "B", "B.m");
+    assertTranslation(translation, "return [NIL_CHK(s) length] + [NIL_CHK(s) hash];");
+    assertEquals(misses, MethodMappingCache.getMissCount());
+    assertTrue(MethodMappingCache.getHitCount() > hits);
+  }
+}
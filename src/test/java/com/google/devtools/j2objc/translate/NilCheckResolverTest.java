@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.J2ObjC;
+import com.google.devtools.j2objc.Options;
+
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link NilCheckResolver}.
+ */
+public class NilCheckResolverTest extends GenerationTest {
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    Options.setEliminateNilChecks(true);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Options.setEliminateNilChecks(false);
+    super.tearDown();
+  }
+
+  public void testParameterIsChecked() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { int test(int[] a) { return a[0]; } }", "Test", "Test.m");
+    assertTranslation(translation, "return [((IOSIntArray *) NIL_CHK(a)) intAtIndex:0];");
+  }
+
+  public void testNewInstanceIsNonNull() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { int test() { Object o = new Object(); return o.hashCode(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return [o hash];");
+  }
+
+  public void testDereferencedVariableIsNonNull() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { int test(int[] a) { int n = a.length; return n + a[0]; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "int n = (int) [((IOSIntArray *) NIL_CHK(a)) count];");
+    assertTranslation(translation, "return n + [a intAtIndex:0];");
+  }
+
+  public void testConditionalAndGuard() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { boolean test(Object o) { " +
+        "  return o != null && o.hashCode() > 0; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return o != nil && [o hash] > 0;");
+  }
+
+  public void testEarlyReturnGuard() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { int test(Object o) { " +
+        "  if (o == null) { return 0; } return o.hashCode(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return [o hash];");
+  }
+
+  public void testReassignmentIsChecked() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { Object next() { return null; } " +
+        "  int test(Object o) { o.hashCode(); o = next(); return o.hashCode(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "[NIL_CHK(o) hash];");
+    assertTranslation(translation, "return [NIL_CHK(o) hash];");
+  }
+
+  public void testAssignmentInLoopIsChecked() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { Object next() { return null; } " +
+        "  void test() { Object o = new Object(); " +
+        "    for (int i = 0; i < 3; i++) { o.hashCode(); o = next(); } } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "[NIL_CHK(o) hash];");
+  }
+
+  public void testUnsequencedArgumentsAreChecked() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { int sum(int a, int b) { return a + b; } " +
+        "  int test(Object o) { return sum(o.hashCode(), o.hashCode()); } }",
+        "Test", "Test.m");
+    assertTranslation(translation,
+        "return [self sumWithInt:[NIL_CHK(o) hash] withInt:[NIL_CHK(o) hash]];");
+  }
+
+  public void testCaughtExceptionIsNonNull() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { void test() { " +
+        "  try { test(); } catch (RuntimeException e) { e.printStackTrace(); } } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "[e printStackTrace];");
+  }
+
+  public void testRemovedChecksAreCounted() throws IOException {
+    int removed = J2ObjC.getNilChecksRemoved();
+    translateSourceFile(
+        "public class Test { int test(String s) { int n = s.length(); return n + s.hashCode(); } }",
+        "Test", "Test.m");
+    assertEquals(removed + 1, J2ObjC.getNilChecksRemoved());
+  }
+
+  public void testUncheckedDereferenceIsNotProof() throws IOException {
+    // The generator doesn't check variables inside an if statement that
+    // compares them with null, so the else branch doesn't prove anything.
+    String translation = translateSourceFile(
+        "public class Test { String test(Object o) { " +
+        "  if (o != null) { } else { o.hashCode(); } return o.toString(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return [NIL_CHK(o) description];");
+  }
+
+  public void testIsAssignableFromIsNotProof() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { String test(Class<?> c, Class<?> d) { " +
+        "  c.isAssignableFrom(d); return c.getName(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return [NIL_CHK(c) getName];");
+  }
+
+  public void testQualifierOfCheckedReceiverIsNotProof() throws IOException {
+    // Only the field access is checked, not its qualifier.
+    String translation = translateSourceFile(
+        "public class Test { Object f; int test(Test t) { " +
+        "  t.f.hashCode(); return t.hashCode(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "[NIL_CHK(t.f) hash];");
+    assertTranslation(translation, "return [((Test *) NIL_CHK(t)) hash];");
+  }
+
+  public void testDisabledByDefault() throws IOException {
+    Options.setEliminateNilChecks(false);
+    String translation = translateSourceFile(
+        "public class Test { int test() { Object o = new Object(); return o.hashCode(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return [NIL_CHK(o) hash];");
+  }
+}
@@ -18,6 +18,7 @@ package com.google.devtools.j2objc.translate;
 
 import com.google.devtools.j2objc.GenerationTest;
 import com.google.devtools.j2objc.J2ObjC;
+import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.types.Types;
 
 import org.eclipse.jdt.core.dom.Assignment;
@@ -59,6 +60,12 @@ import java.util.List;
 @SuppressWarnings("unchecked")
 public class RewriterTest extends GenerationTest {
 
+  @Override
+  protected void tearDown() throws Exception {
+    Options.setFastEnumeration(false);
+    super.tearDown();
+  }
+
   public void testContinueAndBreakUsingSameLabel() {
     List<Statement> stmts = translateStatements(
         "int i = 0; outer: for (; i < 10; i++) { " +
@@ -590,6 +597,80 @@ public class RewriterTest extends GenerationTest {
         "charValue];");
   }
 
+  public void testEnhancedForOverArrayListIsFastEnumerated() throws IOException {
+    Options.setFastEnumeration(true);
+    String source = "import java.util.ArrayList;" +
+        "public class A { " +
+        "int test(ArrayList<String> strings) { int n = 0; " +
+        "  for (String s : strings) { n += s.length(); } return n; } }";
+    String translation = translateSourceFile(source, "A", "A.m");
+    assertTranslation(translation, "for (NSString *s in NIL_CHK(strings)) {");
+    assertFalse(translation.contains("iter__"));
+  }
+
+  public void testEnhancedForOverCollectionSubclassIsFastEnumerated() throws IOException {
+    Options.setFastEnumeration(true);
+    String source = "import java.util.HashSet;" +
+        "public class A { " +
+        "static class Names extends HashSet<String> {} " +
+        "void test(Names names) { for (String s : names) {} } }";
+    String translation = translateSourceFile(source, "A", "A.m");
+    assertTranslation(translation, "for (NSString *s in NIL_CHK(names)) {");
+  }
+
+  public void testEnhancedForOverHashMapViewsIsFastEnumerated() throws IOException {
+    Options.setFastEnumeration(true);
+    String source = "import java.util.HashMap; import java.util.Map;" +
+        "public class A { " +
+        "int test(HashMap<String, Integer> map) { int n = 0; " +
+        "  for (String key : map.keySet()) { n += key.length(); } " +
+        "  for (Map.Entry<String, Integer> e : map.entrySet()) { n += e.getValue(); } " +
+        "  return n; } }";
+    String translation = translateSourceFile(source, "A", "A.m");
+    assertTranslation(translation,
+        "for (NSString *key in NIL_CHK([((JavaUtilHashMap *) NIL_CHK(map)) keySet])) {");
+    assertTranslation(translation,
+        "for (id<JavaUtilMap_Entry> e in NIL_CHK([((JavaUtilHashMap *) NIL_CHK(map)) entrySet])) {");
+  }
+
+  public void testEnhancedForWithBoxedTypeIsFastEnumerated() throws IOException {
+    Options.setFastEnumeration(true);
+    String source = "import java.util.HashMap;" +
+        "public class A { " +
+        "int test(HashMap<String, Integer> map) { int n = 0; " +
+        "  for (int i : map.values()) { n += i; } return n; } }";
+    String translation = translateSourceFile(source, "A", "A.m");
+    assertTranslation(translation,
+        "for (JavaLangInteger *e__ in NIL_CHK([((JavaUtilHashMap *) NIL_CHK(map)) values])) {");
+    assertTranslation(translation, "int i = [((JavaLangInteger *) NIL_CHK(e__)) intValue];");
+  }
+
+  public void testEnhancedForOverArrayListIsIteratedByDefault() throws IOException {
+    String source = "import java.util.ArrayList;" +
+        "public class A { " +
+        "void test(ArrayList<String> strings) { for (String s : strings) {} } }";
+    String translation = translateSourceFile(source, "A", "A.m");
+    assertTranslation(translation,
+        "id<JavaUtilIterator> iter__ = ((id<JavaUtilIterator>) " +
+        "[((JavaUtilArrayList *) NIL_CHK(strings)) iterator]);");
+    assertFalse(translation.contains(" in NIL_CHK("));
+  }
+
+  public void testEnhancedForOverInterfaceTypesIsIterated() throws IOException {
+    Options.setFastEnumeration(true);
+    String source = "import java.util.List; import java.util.Map;" +
+        "public class A { " +
+        "void test(List<String> list, Map<String, String> map) { " +
+        "  for (String s : list) {} for (String key : map.keySet()) {} } }";
+    String translation = translateSourceFile(source, "A", "A.m");
+    assertTranslation(translation,
+        "id<JavaUtilIterator> iter__ = ((id<JavaUtilIterator>) " +
+        "[((id<JavaUtilList>) NIL_CHK(list)) iterator]);");
+    assertTranslation(translation,
+        "[((id<JavaUtilSet>) [((id<JavaUtilMap>) NIL_CHK(map)) keySet]) iterator]");
+    assertFalse(translation.contains(" in NIL_CHK("));
+  }
+
   public void testStaticArrayInitializerMove() throws IOException {
     String source = "class Test { static final double[] EVERY_SIXTEENTH_FACTORIAL = " +
         "{ 0x1.0p0, 0x1.30777758p44, 0x1.956ad0aae33a4p117, 0x1.ee69a78d72cb6p202, " +
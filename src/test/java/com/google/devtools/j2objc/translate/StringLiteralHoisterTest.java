@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.Options;
+
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link StringLiteralHoister}.
+ */
+public class StringLiteralHoisterTest extends GenerationTest {
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    Options.setHoistStringLiterals(true);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Options.setHoistStringLiterals(false);
+    super.tearDown();
+  }
+
+  public void testOptionDisabled() throws IOException {
+    Options.setHoistStringLiterals(false);
+    String translation = translateSourceFile(
+        "public class Test { String test() { return \"\\uffff\"; } }", "Test", "Test.m");
+    assertTranslation(translation,
+        "return [NSString stringWithCharacters:(unichar[]) { (int) 0xffff } length:1];");
+    assertFalse(translation.contains("Test_stringLiteral"));
+  }
+
+  public void testLiteralsAreHoisted() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { " +
+        "  String a() { return \"\\uffff\"; } " +
+        "  String b() { return \"\\ud800a\"; } " +
+        "  String c() { return \"\\uffff\"; } " +
+        "  String d() { return \"abc\"; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "static NSString *Test_stringLiterals_[2];");
+    assertTranslation(translation, "static dispatch_once_t Test_stringLiteralsOnce_;");
+    assertTranslation(translation, "static void Test_initStringLiterals_(void *context) {");
+    assertTranslation(translation, "Test_stringLiterals_[0] = [[NSString alloc] " +
+        "initWithCharacters:(unichar[]) { (int) 0xffff } length:1];");
+    assertTranslation(translation, "Test_stringLiterals_[1] = [[NSString alloc] " +
+        "initWithCharacters:(unichar[]) { (int) 0xd800, (int) 0x61 } length:2];");
+    assertTranslation(translation, "static inline NSString *Test_stringLiteral_(int index) {");
+    assertTranslation(translation,
+        "dispatch_once_f(&Test_stringLiteralsOnce_, NULL, Test_initStringLiterals_);");
+    String read = "return Test_stringLiteral_(0);";
+    assertTranslation(translation, read);
+    assertTrue(translation.indexOf(read) < translation.lastIndexOf(read));
+    assertTranslation(translation, "return Test_stringLiteral_(1);");
+    assertTranslation(translation, "return @\"abc\";");
+    assertFalse(translation.contains("stringWithCharacters"));
+  }
+
+  public void testTableIsDeclaredBeforeTypes() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { String test() { return \"\\uffff\"; } }", "Test", "Test.m");
+    assertTrue(translation.indexOf("Test_stringLiterals_[1];")
+        < translation.indexOf("@implementation Test"));
+  }
+
+  public void testStringConcatenationArgument() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { String test(int i) { return \"\\uffff\" + i; } }",
+        "Test", "Test.m");
+    assertTranslation(translation,
+        "return [NSString stringWithFormat:@\"%@%d\", Test_stringLiteral_(0), i];");
+  }
+
+  public void testStaticInitializer() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static final String foo = \"\\uffff\"; }", "Test", "Test.m");
+    assertTranslation(translation,
+        "JreOperatorRetainedAssign(&Test_foo_, Test_stringLiteral_(0));");
+  }
+
+  public void testNoTableWithoutInvalidLiterals() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { String test() { return \"abc\"; } }", "Test", "Test.m");
+    assertFalse(translation.contains("stringLiteral"));
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.J2ObjC;
+import com.google.devtools.j2objc.Options;
+
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link TypeCheckResolver}.
+ */
+public class TypeCheckResolverTest extends GenerationTest {
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    Options.setCachedTypeChecks(true);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Options.setCachedTypeChecks(false);
+    super.tearDown();
+  }
+
+  public void testOptionDisabled() throws IOException {
+    Options.setCachedTypeChecks(false);
+    String translation = translateSourceFile(
+        "public class Test { boolean test(Object o) { return o instanceof Test; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return [o isKindOfClass:[Test class]];");
+    assertFalse(translation.contains("Test_class_"));
+  }
+
+  public void testClassTarget() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { static class Sub extends Test {} "
+        + "boolean test(Object o) { return o instanceof Test; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "static Class Test_class_;");
+    assertTranslation(translation,
+        "return JreIsInstanceOfClass(o, J2OBJC_CACHE(Test_class_, [Test class]));");
+  }
+
+  public void testLeafClassTargets() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { static final class Final {} private static class Leaf {} "
+        + "private static class Base {} private static class Sub extends Base {} "
+        + "boolean test(Object o) { "
+        + "  return o instanceof Final || o instanceof Leaf || o instanceof Base "
+        + "      || o instanceof Sub || o instanceof String; } }",
+        "Test", "Test.m");
+    assertTranslation(translation,
+        "JreIsInstanceOfLeafClass(o, J2OBJC_CACHE(Test_Final_class_, [Test_Final class]))");
+    assertTranslation(translation,
+        "JreIsInstanceOfLeafClass(o, J2OBJC_CACHE(Test_Leaf_class_, [Test_Leaf class]))");
+    assertTranslation(translation,
+        "JreIsInstanceOfClass(o, J2OBJC_CACHE(Test_Base_class_, [Test_Base class]))");
+    assertTranslation(translation,
+        "JreIsInstanceOfLeafClass(o, J2OBJC_CACHE(Test_Sub_class_, [Test_Sub class]))");
+    // Foundation has subclasses of mapped types.
+    assertTranslation(translation,
+        "JreIsInstanceOfClass(o, J2OBJC_CACHE(NSString_class_, [NSString class]))");
+  }
+
+  public void testClassWithoutSubclassesInRun() throws IOException {
+    String source = "public class Test { static class Leaf {} public static class Base {} "
+        + "boolean test(Object o) { return o instanceof Leaf || o instanceof Base; } }";
+    addSourceFile(source, "Test.java");
+    J2ObjC.addExtendedClassNames(
+        compileType("Other", "public class Other extends Test.Base { }"));
+    String translation = translateSourceFile(source, "Test", "Test.m");
+    assertTranslation(translation,
+        "JreIsInstanceOfLeafClass(o, J2OBJC_CACHE(Test_Leaf_class_, [Test_Leaf class]))");
+    assertTranslation(translation,
+        "JreIsInstanceOfClass(o, J2OBJC_CACHE(Test_Base_class_, [Test_Base class]))");
+  }
+
+  public void testClassOnlyOnSourcepathIsNotLeaf() throws IOException {
+    addSourceFile("public class Other { }", "Other.java");
+    String translation = translateSourceFile(
+        "public class Test { boolean test(Object o) { return o instanceof Other; } }",
+        "Test", "Test.m");
+    assertTranslation(translation,
+        "JreIsInstanceOfClass(o, J2OBJC_CACHE(Other_class_, [Other class]))");
+  }
+
+  public void testProtocolTarget() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { boolean test(Runnable r, Object o) { "
+        + "  return o instanceof Runnable && r instanceof Comparable; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "static void *JavaLangRunnable_conformingClass_;");
+    assertTranslation(translation,
+        "JreConformsToProtocol(o, @protocol(JavaLangRunnable), &JavaLangRunnable_conformingClass_)");
+    assertTranslation(translation,
+        "JreConformsToProtocol(r, @protocol(JavaLangComparable), "
+        + "&JavaLangComparable_conformingClass_)");
+  }
+
+  public void testObjectArrayTarget() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { boolean test(Object o) { "
+        + "  return o instanceof String[] || o instanceof int[]; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "static IOSClass *NSString_arrayType_;");
+    assertTranslation(translation,
+        "JreIsObjectArrayOfType(o, J2OBJC_CACHE(NSString_arrayType_, "
+        + "[IOSClass classWithClass:[NSString class]]))");
+    // Primitive array tests already check a single class.
+    assertTranslation(translation, "[o isKindOfClass:[IOSIntArray class]]");
+  }
+
+  public void testCacheIsDeclaredOnce() throws IOException {
+    String translation = translateSourceFile(
+        "public class Test { boolean test(Object o, Object p) { "
+        + "  return o instanceof Test && p instanceof Test; } "
+        + "  static class Inner { boolean test(Object o) { return o instanceof Test; } } }",
+        "Test", "Test.m");
+    int first = translation.indexOf("static Class Test_class_;");
+    assertTrue(first >= 0);
+    assertEquals(first, translation.lastIndexOf("static Class Test_class_;"));
+    assertTrue(first < translation.indexOf("@implementation Test"));
+  }
+}
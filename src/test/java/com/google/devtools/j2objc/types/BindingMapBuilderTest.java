@@ -16,7 +16,20 @@
 
 package com.google.devtools.j2objc.types;
 
+import com.google.common.collect.Lists;
 import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.util.ASTNodeException;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Unit tests for the {@link BindingMapBuilder} class.
@@ -36,4 +49,130 @@ public class BindingMapBuilderTest extends GenerationTest {
         "}";
     translateType("Test", source);
   }
+
+  public void testLazyBindingsMatchBuilder() {
+    String source =
+        "package foo; import java.util.*; " +
+        "/** Uses {@link List#add(Object)}. */ " +
+        "public class Test<T extends Comparable<T>> { " +
+        "  enum Color { RED, GREEN { int n() { return 1; } }; int n() { return 0; } } " +
+        "  @SuppressWarnings(\"unchecked\") int[] values = new int[] { 1, 2 }; " +
+        "  Test() { this(0); } " +
+        "  Test(int i) { super(); } " +
+        "  int sum(List<? extends Number> numbers) { " +
+        "    int total = 0; " +
+        "    outer: for (Number n : numbers) { " +
+        "      for (int i = 0; i < values.length; i++) { " +
+        "        if (n == null) continue outer; " +
+        "        total += (int) n.longValue() + this.values[i]; " +
+        "        if (total > 100) break outer; " +
+        "      } " +
+        "    } " +
+        "    Runnable r = new Runnable() { public void run() { } }; " +
+        "    return total > 0 ? total : -total + (r instanceof Object ? 1 : 0); " +
+        "  } " +
+        "  String name() { return super.toString() + 'c' + Test.class + null + true; } " +
+        "}";
+    CompilationUnit unit = compileType("Test", source);
+    Map<Object, IBinding> bindings = BindingMapBuilder.buildBindingMap(unit);
+    LazyBindingMap lazyBindings = new LazyBindingMap();
+    List<ASTNode> nodes = getAllNodes(unit);
+    int mapped = 0;
+    for (ASTNode node : nodes) {
+      IBinding binding = bindings.get(node);
+      IBinding lazyBinding = lazyBindings.get(node);
+      if (binding instanceof IOSTypeBinding) {
+        // A label.
+        assertTrue(lazyBinding instanceof IOSTypeBinding);
+        assertEquals(binding.getName(), lazyBinding.getName());
+        assertSame(lazyBinding, lazyBindings.get(node));
+      } else {
+        assertSame(node.toString(), binding, lazyBinding);
+      }
+      if (binding != null) {
+        mapped++;
+      }
+    }
+    assertEquals(bindings.size(), mapped);
+  }
+
+  public void testLazyBindingsAddedBinding() {
+    CompilationUnit unit = compileType("Test", "public class Test { class Inner {} }");
+    TypeDeclaration test = (TypeDeclaration) unit.types().get(0);
+    TypeDeclaration inner = test.getTypes()[0];
+    LazyBindingMap lazyBindings = new LazyBindingMap();
+    assertEquals("Test", lazyBindings.get(test).getName());
+
+    // Only added bindings are stored, and they replace resolved bindings.
+    assertTrue(lazyBindings.isEmpty());
+    lazyBindings.put(test, inner.resolveBinding());
+    assertEquals("Inner", lazyBindings.get(test).getName());
+    ASTNode newNode = unit.getAST().newSimpleName("foo");
+    assertNull(lazyBindings.get(newNode));
+    lazyBindings.put(newNode, inner.resolveBinding());
+    assertEquals("Inner", lazyBindings.get(newNode).getName());
+    assertEquals(2, lazyBindings.size());
+  }
+
+  public void testLazyBindingsTranslation() throws IOException {
+    String source =
+        "public class Test { " +
+        "  int count(Object[] objects) { " +
+        "    int n = 0; " +
+        "    testLabel: for (Object o : objects) { " +
+        "      if (o == null) continue testLabel; " +
+        "      n += o.hashCode() > 0 ? 1 : 0; " +
+        "    } " +
+        "    return n; " +
+        "  } " +
+        "}";
+    String translation = translateSourceFile(source, "Test", "Test.m");
+    Options.setLazyBindings(true);
+    try {
+      assertEquals(translation, translateSourceFile(source, "Test", "Test.m"));
+    } finally {
+      Options.setLazyBindings(false);
+    }
+  }
+
+  public void testVerifierNamesPass() {
+    CompilationUnit unit = compileType("Test", "public class Test { int n = 1; }");
+    Map<Object, IBinding> bindings = BindingMapBuilder.buildBindingMap(unit);
+    TypeDeclaration test = (TypeDeclaration) unit.types().get(0);
+    bindings.remove(test);
+    try {
+      BindingMapVerifier.verify(unit, bindings, "Rewriter");
+      fail("missing binding not reported");
+    } catch (ASTNodeException e) {
+      assertEquals("no binding for TypeDeclaration, after Rewriter", e.getCause().getMessage());
+    }
+  }
+
+  public void testVerificationLevels() throws IOException {
+    String source =
+        "public class Test { " +
+        "  Runnable r = new Runnable() { public void run() { Integer i = 1; i++; } }; " +
+        "  class Inner { String s = \"a\" + r; } " +
+        "}";
+    String translation = translateSourceFile(source, "Test", "Test.m");
+    try {
+      Options.setVerificationLevel(Options.VerificationLevel.ALL_PASSES);
+      assertEquals(translation, translateSourceFile(source, "Test", "Test.m"));
+      Options.setVerificationLevel(Options.VerificationLevel.OFF);
+      assertEquals(translation, translateSourceFile(source, "Test", "Test.m"));
+    } finally {
+      Options.setVerificationLevel(Options.VerificationLevel.FINAL);
+    }
+  }
+
+  private static List<ASTNode> getAllNodes(ASTNode root) {
+    final List<ASTNode> nodes = Lists.newArrayList();
+    root.accept(new ASTVisitor(true) {
+      @Override
+      public void preVisit(ASTNode node) {
+        nodes.add(node);
+      }
+    });
+    return nodes;
+  }
 }
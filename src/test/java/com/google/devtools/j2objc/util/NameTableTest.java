@@ -87,4 +87,45 @@ public class NameTableTest extends GenerationTest {
     ITypeBinding binding = Types.getTypeBinding(decl);
     assertEquals("FooBarSomeClass_Inner", NameTable.getFullName(binding));
   }
+
+  // Verify library type names are cached, and regenerated when a prefix changes.
+  public void testCachedNameWithPrefix() {
+    ITypeBinding binding = getFieldType("java.util.ArrayList");
+    assertEquals("JavaUtilArrayList", NameTable.getFullName(binding));
+    int hits = NameTable.getNameCacheHitCount();
+    assertEquals("JavaUtilArrayList", NameTable.getFullName(binding));
+    assertEquals(hits + 1, NameTable.getNameCacheHitCount());
+    NameTable.mapPackageToPrefix("java.util", "JU");
+    assertEquals("JUArrayList", NameTable.getFullName(binding));
+  }
+
+  // Verify a renamed library type's name isn't cached for other units.
+  public void testCachedNameWithRename() {
+    ITypeBinding binding = getFieldType("java.util.Map.Entry");
+    assertEquals("JavaUtilMap_Entry", NameTable.getFullName(binding));
+    NameTable.rename(binding, "Item");
+    assertEquals("JavaUtilMap_Item", NameTable.getFullName(binding));
+    binding = getFieldType("java.util.Map.Entry");
+    assertEquals("JavaUtilMap_Entry", NameTable.getFullName(binding));
+  }
+
+  // Verify the same names are generated without the cache.
+  public void testNameCacheDisabled() {
+    NameTable.setNameCacheEnabled(false);
+    try {
+      ITypeBinding binding = getFieldType("java.util.Map.Entry");
+      int misses = NameTable.getNameCacheMissCount();
+      assertEquals("JavaUtilMap_Entry", NameTable.getFullName(binding));
+      assertEquals("JavaUtilMap", NameTable.camelCaseQualifiedName("java.util.Map"));
+      assertEquals(misses, NameTable.getNameCacheMissCount());
+    } finally {
+      NameTable.setNameCacheEnabled(true);
+    }
+  }
+
+  private ITypeBinding getFieldType(String typeName) {
+    CompilationUnit unit = translateType("Test", "public class Test { " + typeName + " f; }");
+    TypeDeclaration decl = (TypeDeclaration) unit.types().get(0);
+    return Types.getTypeBinding(decl.getFields()[0].getType());
+  }
 }
@@ -0,0 +1,81 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.util;
+
+import com.google.common.base.Charsets;
+import com.google.devtools.j2objc.GenerationTest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Unit tests for {@link SourcePathIndex}.
+ */
+public class SourcePathIndexTest extends GenerationTest {
+  private String[] sourcePath;
+  private SourcePathIndex index;
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    File srcDir = new File(tempDir, "src");
+    new File(srcDir, "foo").mkdirs();
+    addSourceFile("class A {}", "src/foo/A.java");
+    File jar = new File(tempDir, "src.jar");
+    ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+    try {
+      addEntry(out, "foo/A.java", "class ArchivedA {}");
+      addEntry(out, "foo/B.java", "class B {}");
+    } finally {
+      out.close();
+    }
+    sourcePath = new String[] { jar.getPath(), srcDir.getPath() };
+    index = new SourcePathIndex(sourcePath);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    index.close();
+    super.tearDown();
+  }
+
+  private void addEntry(ZipOutputStream out, String path, String contents) throws IOException {
+    out.putNextEntry(new ZipEntry(path));
+    out.write(contents.getBytes(Charsets.UTF_8));
+    out.closeEntry();
+  }
+
+  public void testDirectoryPrecedesArchive() throws IOException {
+    assertEquals(new File(tempDir, "src/foo/A.java"), index.findFile("foo/A.java"));
+    assertNull(index.findFile("foo/B.java"));
+    assertEquals("class B {}", index.readArchivedFile("foo/B.java"));
+    assertEquals(2, index.getHitCount());
+  }
+
+  public void testMissingFile() throws IOException {
+    assertNull(index.findFile("foo/C.java"));
+    assertNull(index.readArchivedFile("foo/C.java"));
+    assertEquals(0, index.getHitCount());
+    assertEquals(1, index.getMissCount());
+  }
+
+  public void testIsIndexOf() {
+    assertTrue(index.isIndexOf(sourcePath.clone()));
+    assertFalse(index.isIndexOf(new String[] { sourcePath[1] }));
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.util;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.google.devtools.j2objc.GenerationTest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link TimingProfile}.
+ */
+public class TimingProfileTest extends GenerationTest {
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    TimingProfile.reset(true);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    TimingProfile.reset(false);
+    super.tearDown();
+  }
+
+  private void profileFile(String filename, int nObjects) {
+    TimingProfile.startFile(filename);
+    TimingProfile.endPass("first");
+    Object[] objects = new Object[nObjects];
+    for (int i = 0; i < objects.length; i++) {
+      objects[i] = new int[16];
+    }
+    TimingProfile.endPass("second");
+    TimingProfile.endPass("first");
+    TimingProfile.endFile();
+  }
+
+  public void testPassTotals() {
+    profileFile("A.java", 10);
+    profileFile("B.java", 10);
+    Map<String, TimingProfile.Sample> totals = TimingProfile.getPassTotals();
+    Iterator<String> passes = totals.keySet().iterator();
+    assertEquals("first", passes.next());
+    assertEquals("second", passes.next());
+    assertFalse(passes.hasNext());
+  }
+
+  public void testSlowestFiles() {
+    profileFile("A.java", 10);
+    profileFile("B.java", 100000);
+    List<TimingProfile.FileProfile> slowest = TimingProfile.getSlowestFiles(1);
+    assertEquals(1, slowest.size());
+    assertEquals(2, slowest.get(0).getPasses().size());
+    assertEquals(2, TimingProfile.getSlowestFiles(TimingProfile.TOP_FILES).size());
+  }
+
+  public void testDisabled() {
+    TimingProfile.reset(false);
+    profileFile("A.java", 10);
+    assertTrue(TimingProfile.getPassTotals().isEmpty());
+  }
+
+  public void testPassWithoutFile() {
+    TimingProfile.endPass("first");
+    assertTrue(TimingProfile.getPassTotals().isEmpty());
+  }
+
+  public void testJsonReport() throws IOException {
+    profileFile("foo/\"A\".java", 10);
+    File reportFile = new File(tempDir, "timing.json");
+    TimingProfile.writeReport(reportFile);
+    String report = Files.toString(reportFile, Charsets.UTF_8);
+    assertTrue(report.contains("\"files\": 1"));
+    assertTrue(report.contains("{\"pass\": \"second\", \"wallMillis\": "));
+    assertTrue(report.contains("{\"file\": \"foo/\\\"A\\\".java\", \"wallMillis\": "));
+  }
+
+  public void testCsvReport() throws IOException {
+    profileFile("foo/A,B.java", 10);
+    File reportFile = new File(tempDir, "timing.csv");
+    TimingProfile.writeReport(reportFile);
+    String[] lines = Files.toString(reportFile, Charsets.UTF_8).split("\n");
+    assertEquals(6, lines.length);
+    assertEquals("file,pass,wall_ms,cpu_ms,allocated_bytes", lines[0]);
+    assertTrue(lines[1].startsWith("*,first,"));
+    assertTrue(lines[2].startsWith("*,second,"));
+    assertTrue(lines[3].startsWith("\"foo/A,B.java\",*,"));
+    assertTrue(lines[4].startsWith("\"foo/A,B.java\",first,"));
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.util;
+
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.Options;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link TranslationCache}.
+ */
+public class TranslationCacheTest extends GenerationTest {
+  private static final String SOURCE = "public class Test extends Base { }";
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    Options.insertSourcePath(0, tempDir.getAbsolutePath());
+    addSourceFile("public class Base { }", "Base.java");
+    CompilationUnit unit = compileType("Test", SOURCE);
+    TranslationCache cache = TranslationCache.load(tempDir);
+    cache.update("Test.java", cache.createEntry(SOURCE, unit));
+    cache.save();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Options.clearPackagePrefixes();
+    Options.setStaticArrayInitializers(false);
+    super.tearDown();
+  }
+
+  public void testUnchangedSource() {
+    assertTrue(TranslationCache.load(tempDir).isUpToDate("Test.java", SOURCE));
+  }
+
+  public void testUnknownSource() {
+    assertFalse(TranslationCache.load(tempDir).isUpToDate("Other.java", SOURCE));
+  }
+
+  public void testChangedSource() {
+    assertFalse(TranslationCache.load(tempDir).isUpToDate("Test.java",
+        "public class Test extends Base { int i; }"));
+  }
+
+  public void testChangedSupertype() throws IOException {
+    addSourceFile("public class Base { int i; }", "Base.java");
+    assertFalse(TranslationCache.load(tempDir).isUpToDate("Test.java", SOURCE));
+  }
+
+  public void testChangedReferencedType() throws IOException {
+    String dir = tempDir.getPath();
+    addSourceFile("public class A { static int count; void foo(Object o) {} }", "A.java");
+    addSourceFile("public class B { void m(A a) { A.count = 1; a.foo(\"\"); } }", "B.java");
+    String[] args = { "-q", "--incremental", "-d", dir, "-sourcepath", dir, dir + "/B.java" };
+    assertEquals(0, runTranslator(args));
+    assertTranslation(getTranslatedFile("B.m"), "[A setCountWithInt:1];");
+    addSourceFile("public class A { static long count; void foo(Object o) {} "
+        + "void foo(String s) {} }", "A.java");
+    assertEquals(0, runTranslator(args));
+    String translation = getTranslatedFile("B.m");
+    assertTranslation(translation, "[A setCountWithLongInt:1];");
+    assertTranslation(translation, "[((A *) NIL_CHK(a)) fooWithNSString:@\"\"];");
+  }
+
+  public void testChangedOptions() {
+    Options.addPackagePrefix("foo.bar", "FB");
+    assertFalse(TranslationCache.load(tempDir).isUpToDate("Test.java", SOURCE));
+  }
+
+  public void testChangedOptimizationOptions() {
+    Options.setStaticArrayInitializers(true);
+    assertFalse(TranslationCache.load(tempDir).isUpToDate("Test.java", SOURCE));
+  }
+
+  public void testMalformedEntry() throws IOException {
+    TranslationCache cache = TranslationCache.load(tempDir);
+    String entry = cache.createEntry(SOURCE, compileType("Test", SOURCE));
+    cache.update("Test.java", entry.substring(0, entry.lastIndexOf('\t')));
+    cache.save();
+    assertFalse(TranslationCache.load(tempDir).isUpToDate("Test.java", SOURCE));
+    cache.update("Test.java", entry.substring(0, entry.indexOf('\t')));
+    cache.save();
+    assertFalse(TranslationCache.load(tempDir).isUpToDate("Test.java", SOURCE));
+  }
+}